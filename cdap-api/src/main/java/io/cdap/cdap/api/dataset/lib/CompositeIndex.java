@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.api.dataset.lib;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.common.Bytes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Describes a composite index of an {@link IndexedTable}. A composite index is defined by a name and an ordered
+ * list of columns. Rows are indexed by the values of all these columns, and they can be looked up by the values of
+ * any leading subset of these columns, optionally followed by a range of values for the next column. Rows that do
+ * not have a value for every indexed column are not indexed.
+ *
+ * <p>A composite index can also declare included columns. The values of the indexed and included columns are then
+ * stored in the index itself, and reads from the index return these columns without reading the data table. Such an
+ * index is called a covering index.
+ * </p>
+ *
+ * <p>Composite indexes are configured with the {@link IndexedTable#COMPOSITE_INDEXES_CONF_KEY} property, as a
+ * semicolon-separated list of index definitions. Each definition consists of the name of the index, an equals
+ * sign, and the comma-separated list of indexed columns, optionally followed by a slash and the comma-separated
+ * list of included columns. For example:
+ *
+ * <pre><code>byLocation=country,city;byTime=ts/name,age</code></pre>
+ * </p>
+ */
+@Beta
+public final class CompositeIndex {
+
+  private final String name;
+  private final List<byte[]> columns;
+  private final List<byte[]> includedColumns;
+  private final SortedSet<byte[]> allColumns;
+
+  public CompositeIndex(String name, List<byte[]> columns, List<byte[]> includedColumns) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Name of a composite index must not be empty");
+    }
+    if (columns.isEmpty()) {
+      throw new IllegalArgumentException("Composite index '" + name + "' must index at least one column");
+    }
+    this.name = name;
+    this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    this.includedColumns = Collections.unmodifiableList(new ArrayList<>(includedColumns));
+    this.allColumns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    this.allColumns.addAll(columns);
+    this.allColumns.addAll(includedColumns);
+    if (allColumns.size() != columns.size() + includedColumns.size()) {
+      throw new IllegalArgumentException("Composite index '" + name + "' contains the same column more than once");
+    }
+  }
+
+  /**
+   * @return the name of the index
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the ordered list of indexed columns
+   */
+  public List<byte[]> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @return the columns whose values are stored in the index in addition to the indexed columns
+   */
+  public List<byte[]> getIncludedColumns() {
+    return includedColumns;
+  }
+
+  /**
+   * @return whether reads from this index can be answered from the index alone
+   */
+  public boolean isCovering() {
+    return !includedColumns.isEmpty();
+  }
+
+  /**
+   * @return whether the given column is indexed or included by this index
+   */
+  public boolean containsColumn(byte[] column) {
+    return allColumns.contains(column);
+  }
+
+  /**
+   * @return whether any of the given columns is indexed or included by this index
+   */
+  public boolean containsAnyColumn(Collection<byte[]> columns) {
+    for (byte[] column : columns) {
+      if (allColumns.contains(column)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return all indexed and included columns, sorted
+   */
+  SortedSet<byte[]> getAllColumns() {
+    return allColumns;
+  }
+
+  /**
+   * Parses the value of the {@link IndexedTable#COMPOSITE_INDEXES_CONF_KEY} property.
+   *
+   * @param value the definitions of the composite indexes, or null if there are none
+   * @return the list of composite indexes, in the order in which they were defined
+   * @throws IllegalArgumentException if the definitions cannot be parsed
+   */
+  public static List<CompositeIndex> parse(String value) {
+    List<CompositeIndex> indexes = new ArrayList<>();
+    if (value == null || value.isEmpty()) {
+      return indexes;
+    }
+    Set<String> names = new HashSet<>();
+    for (String definition : value.split(";")) {
+      int equalsIndex = definition.indexOf('=');
+      if (equalsIndex < 0) {
+        throw new IllegalArgumentException(String.format(
+          "Invalid composite index definition '%s': expected '<name>=<columns>[/<included columns>]'", definition));
+      }
+      String name = definition.substring(0, equalsIndex);
+      if (!names.add(name)) {
+        throw new IllegalArgumentException("Composite index '" + name + "' is defined more than once");
+      }
+      String columns = definition.substring(equalsIndex + 1);
+      String included = "";
+      int slashIndex = columns.indexOf('/');
+      if (slashIndex >= 0) {
+        included = columns.substring(slashIndex + 1);
+        columns = columns.substring(0, slashIndex);
+      }
+      indexes.add(new CompositeIndex(name, parseColumns(columns), parseColumns(included)));
+    }
+    return indexes;
+  }
+
+  private static List<byte[]> parseColumns(String value) {
+    List<byte[]> columns = new ArrayList<>();
+    for (String column : value.split(",")) {
+      if (!column.isEmpty()) {
+        columns.add(Bytes.toBytes(column));
+      }
+    }
+    return columns;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(name).append('=');
+    appendColumns(builder, columns);
+    if (!includedColumns.isEmpty()) {
+      appendColumns(builder.append('/'), includedColumns);
+    }
+    return builder.toString();
+  }
+
+  private static void appendColumns(StringBuilder builder, List<byte[]> columns) {
+    String separator = "";
+    for (byte[] column : columns) {
+      builder.append(separator).append(Bytes.toString(column));
+      separator = ",";
+    }
+  }
+}
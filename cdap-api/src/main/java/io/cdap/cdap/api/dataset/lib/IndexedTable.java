@@ -36,10 +36,16 @@ import io.cdap.cdap.api.dataset.table.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -94,7 +100,17 @@ import javax.annotation.Nullable;
  * as it would break parsing of the configuration property.
  * </p>
  *
+ * <p>In addition, composite indexes over an ordered list of columns can be configured with the
+ * {@link #COMPOSITE_INDEXES_CONF_KEY} property. They allow looking up rows by the values of multiple columns
+ * with a single index scan, and they can store additional columns to answer reads from the index alone.
+ * See {@link CompositeIndex} for details.
+ * </p>
+ *
+ * <p>Rows found through an index that does not cover the read are fetched from the data table in batches.
+ * </p>
+ *
  * @see #INDEX_COLUMNS_CONF_KEY
+ * @see #COMPOSITE_INDEXES_CONF_KEY
  */
 public class IndexedTable extends AbstractDataset implements Table {
 
@@ -111,6 +127,12 @@ public class IndexedTable extends AbstractDataset implements Table {
    */
   public static final String INDEX_COLUMNS_CONF_KEY = "columnsToIndex";
 
+  /**
+   * Configuration key for defining composite indexes in the DatasetSpecification properties.
+   * The format of the value is described in {@link CompositeIndex}.
+   */
+  public static final String COMPOSITE_INDEXES_CONF_KEY = "compositeIndexes";
+
   /**
    * Configuration that specifies that the index columns will be specified at runtime, rather than at configure time.
    * Using this property, a single index table can shared across multiple logical tables.
@@ -129,12 +151,23 @@ public class IndexedTable extends AbstractDataset implements Table {
   private static final byte[] IDX_COL = {'r'};
   private static final byte DELIMITER_BYTE = 0;
   private static final byte[] KEY_DELIMITER = new byte[] { DELIMITER_BYTE };
+  /**
+   * Prefix of the columns that store the values of indexed and included columns in a covering index.
+   */
+  private static final byte[] COVERED_COL_PREFIX = { 'c', DELIMITER_BYTE };
+  // escape sequence for the delimiter byte, and terminator of a value in a composite index key
+  private static final byte ESCAPE_BYTE = (byte) 0xff;
+  private static final byte TERMINATOR_BYTE = 1;
+  // number of index entries for which the data rows are read with a single multi-get
+  private static final int INDEX_READ_BATCH_SIZE = 100;
 
   private final boolean hasColumnWithDelimiter;
   // the two underlying tables
   private Table table, index;
   // the secondary index column
   private SortedSet<byte[]> indexedColumns;
+  // the composite indexes, by name
+  private final Map<String, CompositeIndex> compositeIndexes;
   private final byte[] keyPrefix;
 
   /**
@@ -146,12 +179,7 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param columnsToIndex the names of the data columns to index
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex) {
-    super(name, table, index);
-    this.table = table;
-    this.index = index;
-    this.indexedColumns = columnsToIndex;
-    this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
-    this.keyPrefix = Bytes.EMPTY_BYTE_ARRAY;
+    this(name, table, index, columnsToIndex, Bytes.EMPTY_BYTE_ARRAY);
   }
 
   /**
@@ -164,11 +192,30 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex, byte[] keyPrefix) {
+    this(name, table, index, columnsToIndex, Collections.<CompositeIndex>emptyList(), keyPrefix);
+  }
+
+  /**
+   * Configuration time constructor.
+   *
+   * @param name the name of the table
+   * @param table table to use as the table
+   * @param index table to use as the index
+   * @param columnsToIndex the names of the data columns to index
+   * @param compositeIndexes the composite indexes to maintain
+   * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
+   */
+  public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex,
+                      List<CompositeIndex> compositeIndexes, byte[] keyPrefix) {
     super(name, table, index);
     this.table = table;
     this.index = index;
     this.indexedColumns = columnsToIndex;
     this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
+    this.compositeIndexes = new LinkedHashMap<>();
+    for (CompositeIndex compositeIndex : compositeIndexes) {
+      this.compositeIndexes.put(compositeIndex.getName(), compositeIndex);
+    }
     this.keyPrefix = keyPrefix;
   }
 
@@ -289,6 +336,72 @@ public class IndexedTable extends AbstractDataset implements Table {
     }
   }
 
+  /**
+   * Reads table rows by the values of the leading columns of a composite index. If the index is covering, the
+   * returned rows only contain the indexed and included columns of the index, and the data table is not read.
+   *
+   * @param indexName the name of the composite index
+   * @param values the values of the first columns of the index, in the order of the index columns. At least one
+   *               and at most as many values as the index has columns must be given.
+   * @return a Scanner returning rows from the data table, whose stored values for the leading columns of the index
+   *         match the given values.
+   * @throws java.lang.IllegalArgumentException if there is no composite index with the given name, or the number of
+   *         values does not match the index.
+   */
+  @ReadOnly
+  public Scanner readByCompositeIndex(String indexName, byte[]... values) {
+    CompositeIndex compositeIndex = getCompositeIndex(indexName);
+    if (values.length == 0 || values.length > compositeIndex.getColumns().size()) {
+      throw new IllegalArgumentException(String.format("Expected between 1 and %d values for composite index '%s'",
+                                                       compositeIndex.getColumns().size(), indexName));
+    }
+    byte[] rowKeyPrefix = Bytes.concat(createCompositeIndexPrefix(compositeIndex), encodeValues(values));
+    Scanner indexScan = index.scan(rowKeyPrefix, Bytes.stopKeyForPrefix(rowKeyPrefix));
+    return new CompositeIndexScanner(indexScan, compositeIndex);
+  }
+
+  /**
+   * Reads table rows by the values of the leading columns of a composite index, and a range of values for the
+   * column that follows them in the index. If the index is covering, the returned rows only contain the indexed
+   * and included columns of the index, and the data table is not read.
+   *
+   * @param indexName the name of the composite index
+   * @param prefixValues the values of the first columns of the index, in the order of the index columns. This must
+   *                     contain less values than the index has columns, and it may be empty.
+   * @param startValue the inclusive start of the range for the column that follows the prefix columns.
+   *                   {@code null} means no lower bound
+   * @param endValue the exclusive end of the range for the column that follows the prefix columns.
+   *                 {@code null} means no upper bound
+   * @return a Scanner returning rows from the data table, whose stored values match the prefix values, and whose
+   *         stored value for the next column of the index is within the given range.
+   * @throws java.lang.IllegalArgumentException if there is no composite index with the given name, or the number of
+   *         prefix values does not match the index.
+   */
+  @ReadOnly
+  public Scanner scanByCompositeIndex(String indexName, byte[][] prefixValues,
+                                      @Nullable byte[] startValue, @Nullable byte[] endValue) {
+    CompositeIndex compositeIndex = getCompositeIndex(indexName);
+    if (prefixValues.length >= compositeIndex.getColumns().size()) {
+      throw new IllegalArgumentException(String.format("Expected less than %d prefix values for composite index '%s'",
+                                                       compositeIndex.getColumns().size(), indexName));
+    }
+    byte[] rowKeyPrefix = Bytes.concat(createCompositeIndexPrefix(compositeIndex), encodeValues(prefixValues));
+    // the encoding of values preserves their order, therefore encoded bounds also bound the encoded values
+    byte[] startRow = startValue == null ? rowKeyPrefix : Bytes.concat(rowKeyPrefix, encodeValues(startValue));
+    byte[] stopRow = endValue == null ?
+      Bytes.stopKeyForPrefix(rowKeyPrefix) : Bytes.concat(rowKeyPrefix, encodeValues(endValue));
+    Scanner indexScan = index.scan(startRow, stopRow);
+    return new CompositeIndexScanner(indexScan, compositeIndex);
+  }
+
+  private CompositeIndex getCompositeIndex(String indexName) {
+    CompositeIndex compositeIndex = compositeIndexes.get(indexName);
+    if (compositeIndex == null) {
+      throw new IllegalArgumentException("Composite index '" + indexName + "' is not configured");
+    }
+    return compositeIndex;
+  }
+
   /**
    * Writes a put to the data table. If any of the columns in the {@link Put} are configured to be indexed, the
    * appropriate indexes will be updated with the indexed values referencing the data table row.
@@ -310,6 +423,8 @@ public class IndexedTable extends AbstractDataset implements Table {
       }
     }
 
+    updateCompositeIndexes(dataRow, putColumns);
+
     if (!colsToIndex.isEmpty()) {
       // first read the existing indexed values to find which have changed and need to be updated
       Row existingRow = table.get(dataRow, colsToIndex.toArray(new byte[colsToIndex.size()][]));
@@ -336,6 +451,134 @@ public class IndexedTable extends AbstractDataset implements Table {
     return Bytes.concat(keyPrefix, column, KEY_DELIMITER, value, KEY_DELIMITER, row);
   }
 
+  /**
+   * Composite index keys start with the delimiter byte, followed by the name of the index, to distinguish them
+   * from the keys of single column indexes.
+   */
+  private byte[] createCompositeIndexPrefix(CompositeIndex compositeIndex) {
+    return Bytes.concat(keyPrefix, KEY_DELIMITER, Bytes.toBytes(compositeIndex.getName()), KEY_DELIMITER);
+  }
+
+  /**
+   * Encodes values for a composite index key, such that the encoding of a list of values preserves their order
+   * and is unambiguous, even if the values contain the delimiter byte: every delimiter byte in a value is escaped
+   * by appending an escape byte, and every value is terminated by the delimiter byte followed by a terminator byte.
+   */
+  private static byte[] encodeValues(byte[]... values) {
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    for (byte[] value : values) {
+      for (byte b : value) {
+        encoded.write(b);
+        if (b == DELIMITER_BYTE) {
+          encoded.write(ESCAPE_BYTE);
+        }
+      }
+      encoded.write(DELIMITER_BYTE);
+      encoded.write(TERMINATOR_BYTE);
+    }
+    return encoded.toByteArray();
+  }
+
+  /**
+   * @return the key of the composite index entry for a row, or null if the row does not have a value for
+   *         every indexed column
+   */
+  @Nullable
+  private byte[] createCompositeIndexKey(byte[] row, CompositeIndex compositeIndex, Map<byte[], byte[]> rowValues) {
+    List<byte[]> columns = compositeIndex.getColumns();
+    byte[][] indexedValues = new byte[columns.size()][];
+    for (int i = 0; i < indexedValues.length; i++) {
+      indexedValues[i] = rowValues.get(columns.get(i));
+      if (indexedValues[i] == null) {
+        return null;
+      }
+    }
+    return Bytes.concat(createCompositeIndexPrefix(compositeIndex), encodeValues(indexedValues), row);
+  }
+
+  /**
+   * @return the composite indexes that index or include any of the given columns
+   */
+  private List<CompositeIndex> getAffectedCompositeIndexes(Collection<byte[]> columns) {
+    List<CompositeIndex> affected = new ArrayList<>();
+    for (CompositeIndex compositeIndex : compositeIndexes.values()) {
+      if (compositeIndex.containsAnyColumn(columns)) {
+        affected.add(compositeIndex);
+      }
+    }
+    return affected;
+  }
+
+  /**
+   * Reads the current values of all columns of the given composite indexes.
+   */
+  private Map<byte[], byte[]> readCompositeIndexColumns(byte[] row, List<CompositeIndex> affected) {
+    Set<byte[]> columns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    for (CompositeIndex compositeIndex : affected) {
+      columns.addAll(compositeIndex.getAllColumns());
+    }
+    Map<byte[], byte[]> existingValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    existingValues.putAll(table.get(row, columns.toArray(new byte[columns.size()][])).getColumns());
+    return existingValues;
+  }
+
+  /**
+   * Updates the entries of all composite indexes that are affected by changes to a row.
+   *
+   * @param row the data row key
+   * @param changes the new values of the changed columns, with a null value for deleted columns
+   */
+  private void updateCompositeIndexes(byte[] row, Map<byte[], byte[]> changes) {
+    List<CompositeIndex> affected = getAffectedCompositeIndexes(changes.keySet());
+    if (!affected.isEmpty()) {
+      updateCompositeIndexes(row, affected, readCompositeIndexColumns(row, affected), changes);
+    }
+  }
+
+  private void updateCompositeIndexes(byte[] row, List<CompositeIndex> affected,
+                                      Map<byte[], byte[]> existingValues, Map<byte[], byte[]> changes) {
+    Map<byte[], byte[]> newValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    newValues.putAll(existingValues);
+    for (Map.Entry<byte[], byte[]> change : changes.entrySet()) {
+      if (change.getValue() == null) {
+        newValues.remove(change.getKey());
+      } else {
+        newValues.put(change.getKey(), change.getValue());
+      }
+    }
+    for (CompositeIndex compositeIndex : affected) {
+      byte[] oldKey = createCompositeIndexKey(row, compositeIndex, existingValues);
+      byte[] newKey = createCompositeIndexKey(row, compositeIndex, newValues);
+      if (oldKey != null && (newKey == null || !Bytes.equals(oldKey, newKey))) {
+        index.delete(oldKey);
+      }
+      if (newKey == null) {
+        continue;
+      }
+      // the entry is rewritten even if its key is unchanged, because the values of included columns may change
+      Put indexPut = new Put(newKey, IDX_COL, row);
+      if (compositeIndex.isCovering()) {
+        for (byte[] column : compositeIndex.getAllColumns()) {
+          byte[] value = newValues.get(column);
+          if (value != null) {
+            indexPut.add(Bytes.concat(COVERED_COL_PREFIX, column), value);
+          } else if (oldKey != null && Bytes.equals(oldKey, newKey)) {
+            index.delete(newKey, Bytes.concat(COVERED_COL_PREFIX, column));
+          }
+        }
+      }
+      index.put(indexPut);
+    }
+  }
+
+  private static Map<byte[], byte[]> deletedColumns(Collection<byte[]> columns) {
+    Map<byte[], byte[]> changes = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (byte[] column : columns) {
+      changes.put(column, null);
+    }
+    return changes;
+  }
+
   @WriteOnly
   @Override
   public void put(byte[] row, byte[] column, byte[] value) {
@@ -381,6 +624,7 @@ public class IndexedTable extends AbstractDataset implements Table {
 
     // delete all index entries
     deleteIndexEntries(existingRow);
+    updateCompositeIndexes(row, deletedColumns(existingRow.getColumns().keySet()));
 
     // delete the row
     table.delete(row);
@@ -403,6 +647,7 @@ public class IndexedTable extends AbstractDataset implements Table {
 
     // delete all index entries
     deleteIndexEntries(existingRow);
+    updateCompositeIndexes(row, deletedColumns(existingRow.getColumns().keySet()));
 
     // delete the row's columns
     table.delete(row, columns);
@@ -431,23 +676,27 @@ public class IndexedTable extends AbstractDataset implements Table {
     // the index is not affected - just execute the swap.
     // also, if the swap is on the index column, but the old value
     // is the same as the new value, then the index is not affected either.
-    if (!indexedColumns.contains(column) ||
+    List<CompositeIndex> affected = getAffectedCompositeIndexes(Collections.singleton(column));
+    if ((!indexedColumns.contains(column) && affected.isEmpty()) ||
         Arrays.equals(expected, newValue)) {
       return table.compareAndSwap(row, column, expected, newValue);
     }
+    // the existing values of the composite indexes must be read before they are changed by the swap
+    Map<byte[], byte[]> existingValues = affected.isEmpty() ?
+      Collections.<byte[], byte[]>emptyMap() : readCompositeIndexColumns(row, affected);
 
     // the swap is on the index column. it will only succeed if the current
     // value matches the expected value of the swap. if that value is not null,
     // then we must remove the row key from the index for that value.
     Delete idxDelete = null;
-    if (expected != null) {
+    if (expected != null && indexedColumns.contains(column)) {
       idxDelete = new Delete(createIndexKey(row, column, expected), IDX_COL);
     }
 
     // if the new value is not null, then we must add the rowkey to the index
     // for that value.
     Put idxPut = null;
-    if (newValue != null) {
+    if (newValue != null && indexedColumns.contains(column)) {
       idxPut = new Put(createIndexKey(row, column, newValue), IDX_COL, row);
     }
 
@@ -463,6 +712,11 @@ public class IndexedTable extends AbstractDataset implements Table {
     if (idxPut != null) {
       index.put(idxPut);
     }
+    if (!affected.isEmpty()) {
+      Map<byte[], byte[]> changes = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      changes.put(column, newValue);
+      updateCompositeIndexes(row, affected, existingValues, changes);
+    }
 
     return true;
   }
@@ -522,6 +776,7 @@ public class IndexedTable extends AbstractDataset implements Table {
       }
     }
 
+    updateCompositeIndexes(row, result);
     table.put(row, columns, updatedValues);
     return new Result(row, result);
   }
@@ -560,7 +815,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   @Override
   public void increment(byte[] row, byte[] column, long amount) {
     // read-less increments should not be used on indexed columns
-    if (indexedColumns.contains(column)) {
+    if (isIndexed(column)) {
       throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                            + Bytes.toStringBinary(column) + "'");
     }
@@ -578,7 +833,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   public void increment(byte[] row, byte[][] columns, long[] amounts) {
     // read-less increments should not be used on indexed columns
     for (byte[] col : columns) {
-      if (indexedColumns.contains(col)) {
+      if (isIndexed(col)) {
         throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                              + Bytes.toStringBinary(col) + "'");
       }
@@ -596,7 +851,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   @Override
   public void increment(Increment increment) {
     for (byte[] col : increment.getValues().keySet()) {
-      if (indexedColumns.contains(col)) {
+      if (isIndexed(col)) {
         throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                              + Bytes.toStringBinary(col) + "'");
       }
@@ -604,6 +859,14 @@ public class IndexedTable extends AbstractDataset implements Table {
     table.increment(increment);
   }
 
+  /**
+   * @return whether a column is indexed by a single column index, or indexed or included by a composite index
+   */
+  private boolean isIndexed(byte[] column) {
+    return indexedColumns.contains(column)
+      || !getAffectedCompositeIndexes(Collections.singleton(column)).isEmpty();
+  }
+
   @ReadOnly
   @Override
   public Scanner scan(@Nullable byte[] startRow, @Nullable byte[] stopRow) {
@@ -662,50 +925,94 @@ public class IndexedTable extends AbstractDataset implements Table {
   private abstract class AbstractIndexScanner implements Scanner {
     // scanner over index table
     private final Scanner baseScanner;
-    private final byte[] column;
+    // rows that were read, but not returned yet
+    private final Deque<Row> buffer = new ArrayDeque<>();
+    private boolean exhausted;
 
-    AbstractIndexScanner(Scanner baseScanner, byte[] column) {
+    AbstractIndexScanner(Scanner baseScanner) {
       this.baseScanner = baseScanner;
-      this.column = column;
     }
 
     /**
-     * checks if a particular column value matches a criteria defined by the implementing class
+     * checks if a particular index entry matches a criteria defined by the implementing class
      *
-     * @param columnValue the column to check for a match
+     * @param indexRow the row of the index table
+     * @param rowKey the data row key referenced by the index entry
      * @return false to indicate to skip the corresponding row
      */
-    protected abstract boolean matches(byte[] columnValue);
+    protected abstract boolean matches(Row indexRow, byte[] rowKey);
+
+    /**
+     * checks whether a data row that was read for a matching index entry should be returned
+     *
+     * @param indexRow the row of the index table
+     * @param dataRow the data row referenced by the index entry
+     * @return false to indicate to skip the row
+     */
+    protected boolean isValid(Row indexRow, Row dataRow) {
+      return true;
+    }
+
+    /**
+     * Returns the row to return for an index entry, if it can be created from the index entry alone.
+     *
+     * @return the row, or null if the data row must be read from the data table
+     */
+    @Nullable
+    protected Row fromIndexRow(Row indexRow, byte[] rowKey) {
+      return null;
+    }
 
     @Nullable
     @Override
     public Row next() {
-      // TODO: retrieve results in batches to minimize RPC overhead (requires multi-get support in table)
-      // keep going until we hit a non-null, non-empty data row, or we exhaust the index
-      for (Row indexRow = baseScanner.next(); indexRow != null; indexRow = baseScanner.next()) {
+      // keep going until we have a row to return, or we exhaust the index
+      while (buffer.isEmpty() && !exhausted) {
+        readBatch();
+      }
+      return buffer.poll();
+    }
+
+    /**
+     * Reads the next batch of index entries, and reads all their data rows with a single multi-get.
+     */
+    private void readBatch() {
+      List<Row> indexRows = new ArrayList<>();
+      List<Get> gets = new ArrayList<>();
+      while (gets.size() < INDEX_READ_BATCH_SIZE) {
+        Row indexRow = baseScanner.next();
+        if (indexRow == null) {
+          exhausted = true;
+          break;
+        }
         byte[] rowkey = indexRow.get(IDX_COL);
         if (rowkey == null) {
           LOG.warn("Row of Indexed table '{}' is missing index column. Row key: {}", getName(), indexRow.getRow());
           continue;
         }
-        byte[] columnValue = Arrays.copyOfRange(indexRow.getRow(),
-                                                keyPrefix.length + column.length + 1,
-                                                indexRow.getRow().length - rowkey.length - 1);
-        // Verify that datarow matches the expected row key to avoid issues with column name or value
-        // containing the delimiter used. This is a sufficient check, as long as columns don't contain the null byte.
-        if (matches(columnValue)) {
-          Row row = table.get(rowkey);
-          // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
-          // to be sure this row isn't a false positive in the scan.
-          // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
-          if (hasColumnWithDelimiter && !Bytes.equals(row.get(column), columnValue)) {
-            continue;
+        if (!matches(indexRow, rowkey)) {
+          continue;
+        }
+        Row row = fromIndexRow(indexRow, rowkey);
+        if (row != null) {
+          buffer.add(row);
+          if (buffer.size() >= INDEX_READ_BATCH_SIZE) {
+            break;
           }
-          return row;
+        } else {
+          indexRows.add(indexRow);
+          gets.add(new Get(rowkey));
+        }
+      }
+      if (gets.isEmpty()) {
+        return;
+      }
+      List<Row> rows = table.get(gets);
+      for (int i = 0; i < rows.size(); i++) {
+        if (isValid(indexRows.get(i), rows.get(i))) {
+          buffer.add(rows.get(i));
         }
       }
-      // end of index
-      return null;
     }
 
     @Override
@@ -714,8 +1021,78 @@ public class IndexedTable extends AbstractDataset implements Table {
     }
   }
 
+  // scanner that matches the value of a single column index
+  private abstract class AbstractColumnIndexScanner extends AbstractIndexScanner {
+    private final byte[] column;
+
+    AbstractColumnIndexScanner(Scanner baseScanner, byte[] column) {
+      super(baseScanner);
+      this.column = column;
+    }
+
+    /**
+     * checks if a particular column value matches a criteria defined by the implementing class
+     *
+     * @param columnValue the column to check for a match
+     * @return false to indicate to skip the corresponding row
+     */
+    protected abstract boolean matches(byte[] columnValue);
+
+    @Override
+    protected boolean matches(Row indexRow, byte[] rowKey) {
+      // Verify that datarow matches the expected row key to avoid issues with column name or value
+      // containing the delimiter used. This is a sufficient check, as long as columns don't contain the null byte.
+      return matches(getColumnValue(indexRow, rowKey));
+    }
+
+    @Override
+    protected boolean isValid(Row indexRow, Row dataRow) {
+      // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
+      // to be sure this row isn't a false positive in the scan.
+      // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
+      return !hasColumnWithDelimiter
+        || Bytes.equals(dataRow.get(column), getColumnValue(indexRow, indexRow.get(IDX_COL)));
+    }
+
+    private byte[] getColumnValue(Row indexRow, byte[] rowKey) {
+      return Arrays.copyOfRange(indexRow.getRow(), keyPrefix.length + column.length + 1,
+                                indexRow.getRow().length - rowKey.length - 1);
+    }
+  }
+
+  // scanner over a composite index. The key encoding is unambiguous, so every entry in the scanned range matches
+  private class CompositeIndexScanner extends AbstractIndexScanner {
+    private final CompositeIndex compositeIndex;
+
+    CompositeIndexScanner(Scanner baseScanner, CompositeIndex compositeIndex) {
+      super(baseScanner);
+      this.compositeIndex = compositeIndex;
+    }
+
+    @Override
+    protected boolean matches(Row indexRow, byte[] rowKey) {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    protected Row fromIndexRow(Row indexRow, byte[] rowKey) {
+      if (!compositeIndex.isCovering()) {
+        return null;
+      }
+      NavigableMap<byte[], byte[]> columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      for (byte[] column : compositeIndex.getAllColumns()) {
+        byte[] value = indexRow.get(Bytes.concat(COVERED_COL_PREFIX, column));
+        if (value != null) {
+          columns.put(column, value);
+        }
+      }
+      return new Result(rowKey, columns);
+    }
+  }
+
   // scanner that matches column values based upon exact match
-  private class IndexScanner extends AbstractIndexScanner {
+  private class IndexScanner extends AbstractColumnIndexScanner {
     private final byte[] value;
 
     IndexScanner(Scanner baseScanner, byte[] column, byte[] value) {
@@ -730,7 +1107,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   }
 
   // scanner that matches column values based upon range
-  private class IndexRangeScanner extends AbstractIndexScanner {
+  private class IndexRangeScanner extends AbstractColumnIndexScanner {
     private final byte[] start;
     private final byte[] end;
 
@@ -26,10 +26,13 @@ import io.cdap.cdap.api.dataset.IncompatibleUpdateException;
 import io.cdap.cdap.api.dataset.table.Table;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import javax.annotation.Nullable;
 
 /**
  * DatasetDefinition for {@link IndexedTable}.
@@ -46,9 +49,12 @@ public class IndexedTableDefinition
   public DatasetSpecification configure(String instanceName, DatasetProperties properties) {
     // Dynamic indexing allows indexes to be specified at runtime
     boolean dynamicIndexing = Boolean.parseBoolean(properties.getProperties().get(IndexedTable.DYNAMIC_INDEXING));
+    String compositeIndexes = properties.getProperties().get(IndexedTable.COMPOSITE_INDEXES_CONF_KEY);
+    // validate the composite index definitions
+    CompositeIndex.parse(compositeIndexes);
     if (!dynamicIndexing) {
       String columnNamesToIndex = properties.getProperties().get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnNamesToIndex == null) {
+      if (columnNamesToIndex == null && compositeIndexes == null) {
         throw new IllegalArgumentException("columnsToIndex must be specified");
       }
     }
@@ -69,11 +75,19 @@ public class IndexedTableDefinition
     if (!dynamicIndexing) {
       // validate that the columns to index property is not null and the same as before
       String columnNamesToIndex = newProperties.getProperties().get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnNamesToIndex == null) {
+      String compositeIndexes = newProperties.getProperties().get(IndexedTable.COMPOSITE_INDEXES_CONF_KEY);
+      if (columnNamesToIndex == null && compositeIndexes == null) {
         throw new IllegalArgumentException("columnsToIndex must be specified");
       }
+      // validate that the composite indexes are the same as before
+      String oldCompositeIndexes = currentSpec.getProperty(IndexedTable.COMPOSITE_INDEXES_CONF_KEY);
+      if (!CompositeIndex.parse(compositeIndexes).toString()
+        .equals(CompositeIndex.parse(oldCompositeIndexes).toString())) {
+        throw new IncompatibleUpdateException(String.format("Attempt to change composite indexes from '%s' to '%s'",
+                                                            oldCompositeIndexes, compositeIndexes));
+      }
       String oldColumnsToIndex = currentSpec.getProperty(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (!columnNamesToIndex.equals(oldColumnsToIndex)) {
+      if (!Objects.equals(columnNamesToIndex, oldColumnsToIndex)) {
         Set<byte[]> newColumns = parseColumns(columnNamesToIndex);
         Set<byte[]> oldColumns = parseColumns(oldColumnsToIndex);
         if (!newColumns.equals(oldColumns)) {
@@ -90,16 +104,19 @@ public class IndexedTableDefinition
                                  Map<String, String> arguments, ClassLoader classLoader) throws IOException {
 
     SortedSet<byte[]> columnsToIndex;
+    List<CompositeIndex> compositeIndexes;
     String keyPrefix = null;
     boolean dynamicIndexing = Boolean.parseBoolean(spec.getProperty(IndexedTable.DYNAMIC_INDEXING));
     if (dynamicIndexing) {
       // If dynamic indexing is enabled, get the index columns from the runtime arguments
       String columnsToIndexProp = arguments.get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnsToIndexProp == null) {
+      String compositeIndexesProp = arguments.get(IndexedTable.COMPOSITE_INDEXES_CONF_KEY);
+      if (columnsToIndexProp == null && compositeIndexesProp == null) {
         throw new IllegalArgumentException(
           "columnsToIndex must be specified in runtime arguments when dynamic indexing is enabled");
       }
       columnsToIndex = parseColumns(columnsToIndexProp);
+      compositeIndexes = CompositeIndex.parse(compositeIndexesProp);
 
       // Dynamic indexing also needs a key prefix
       keyPrefix = arguments.get(IndexedTable.DYNAMIC_INDEXING_PREFIX);
@@ -108,21 +125,25 @@ public class IndexedTableDefinition
       }
     } else {
       columnsToIndex = parseColumns(spec.getProperty(IndexedTable.INDEX_COLUMNS_CONF_KEY));
+      compositeIndexes = CompositeIndex.parse(spec.getProperty(IndexedTable.COMPOSITE_INDEXES_CONF_KEY));
     }
 
     Table table = getDataset(datasetContext, "d", spec, arguments, classLoader);
     Table index = getDataset(datasetContext, "i", spec, arguments, classLoader);
 
-    return new IndexedTable(spec.getName(), table, index, columnsToIndex,
+    return new IndexedTable(spec.getName(), table, index, columnsToIndex, compositeIndexes,
                             keyPrefix == null ? Bytes.EMPTY_BYTE_ARRAY : Bytes.toBytes(keyPrefix));
   }
 
   /**
    * Helper method to parse a list of column names, comma-separated.
    */
-  private SortedSet<byte[]> parseColumns(String value) {
+  private SortedSet<byte[]> parseColumns(@Nullable String value) {
     // TODO: add support for setting index key delimiter
     SortedSet<byte[]> columnsToIndex = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    if (value == null) {
+      return columnsToIndex;
+    }
     for (String column : value.split(",")) {
       columnsToIndex.add(Bytes.toBytes(column));
     }
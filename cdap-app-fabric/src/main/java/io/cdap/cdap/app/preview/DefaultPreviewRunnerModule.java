@@ -79,7 +79,7 @@ public class DefaultPreviewRunnerModule extends PrivateModule implements Preview
   private final PrivilegesManager privilegesManager;
   private final PreferencesService preferencesService;
   private final ProgramRuntimeProviderLoader programRuntimeProviderLoader;
-  private final PreviewRequest previewRequest;
+  private final PreviewRequestHolder previewRequestHolder;
 
   @VisibleForTesting
   @Inject
@@ -88,7 +88,7 @@ public class DefaultPreviewRunnerModule extends PrivateModule implements Preview
                                     AuthorizationEnforcer authorizationEnforcer,
                                     PrivilegesManager privilegesManager, PreferencesService preferencesService,
                                     ProgramRuntimeProviderLoader programRuntimeProviderLoader,
-                                    @Assisted PreviewRequest previewRequest) {
+                                    @Assisted PreviewRequestHolder previewRequestHolder) {
     this.artifactRepository = artifactRepository;
     this.artifactStore = artifactStore;
     this.authorizerInstantiator = authorizerInstantiator;
@@ -96,7 +96,7 @@ public class DefaultPreviewRunnerModule extends PrivateModule implements Preview
     this.privilegesManager = privilegesManager;
     this.preferencesService = preferencesService;
     this.programRuntimeProviderLoader = programRuntimeProviderLoader;
-    this.previewRequest = previewRequest;
+    this.previewRequestHolder = previewRequestHolder;
   }
 
   @Override
@@ -161,7 +161,7 @@ public class DefaultPreviewRunnerModule extends PrivateModule implements Preview
     bind(OwnerAdmin.class).to(DefaultOwnerAdmin.class);
     expose(OwnerAdmin.class);
 
-    bind(PreviewRequest.class).toInstance(previewRequest);
+    bind(PreviewRequestHolder.class).toInstance(previewRequestHolder);
   }
 
   /**
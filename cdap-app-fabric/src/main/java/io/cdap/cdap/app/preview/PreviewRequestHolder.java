@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.app.preview;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the {@link PreviewRequest} served by a {@link PreviewRunner}. The request can be assigned after
+ * the preview runner is created, so that runners can be initialized before any preview is submitted.
+ */
+public final class PreviewRequestHolder {
+
+  private volatile PreviewRequest previewRequest;
+
+  /**
+   * Creates a holder without request. The request must be assigned through {@link #set(PreviewRequest)}
+   * before the preview can be started.
+   */
+  public PreviewRequestHolder() {
+    this(null);
+  }
+
+  public PreviewRequestHolder(@Nullable PreviewRequest previewRequest) {
+    this.previewRequest = previewRequest;
+  }
+
+  /**
+   * Returns the {@link PreviewRequest} or {@code null} if no request has been assigned yet.
+   */
+  @Nullable
+  public PreviewRequest get() {
+    return previewRequest;
+  }
+
+  /**
+   * Assigns the {@link PreviewRequest}. A request can only be assigned once, unless it is cleared through
+   * {@link #clear()}.
+   *
+   * @throws IllegalStateException if a request was already assigned
+   */
+  public synchronized void set(PreviewRequest previewRequest) {
+    if (this.previewRequest != null) {
+      throw new IllegalStateException("Preview request is already assigned for program "
+                                        + this.previewRequest.getProgram());
+    }
+    this.previewRequest = previewRequest;
+  }
+
+  /**
+   * Clears the assigned {@link PreviewRequest}, so that the {@link PreviewRunner} can serve another request.
+   */
+  public synchronized void clear() {
+    this.previewRequest = null;
+  }
+}
@@ -86,4 +86,19 @@ public interface PreviewRunner {
    * @return the {@link MetricsQueryHelper} associated with the preview
    */
   MetricsQueryHelper getMetricsQueryHelper();
+
+  /**
+   * Removes the application, datasets and data of the preview run represented by this {@link PreviewRunner}, so that
+   * it can run another preview. It is only called after the preview run has ended.
+   * @throws Exception if there were any error during removing the preview run
+   */
+  void reset() throws Exception;
+
+  /**
+   * Stops the services that are only needed to run a preview, and keeps the ones needed to serve the data of the
+   * preview run represented by this {@link PreviewRunner}. It is only called after the preview run has ended, and
+   * the runner cannot be reset afterwards.
+   * @throws Exception if there were any error during stopping the services
+   */
+  void stopRunServices() throws Exception;
 }
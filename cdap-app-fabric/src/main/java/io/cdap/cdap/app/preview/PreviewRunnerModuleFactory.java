@@ -19,9 +19,10 @@ package io.cdap.cdap.app.preview;
 import com.google.inject.Module;
 
 /**
- * A factory for creating guice {@link Module} for a given {@link PreviewRequest}.
+ * A factory for creating guice {@link Module} for the {@link PreviewRequest} provided by a
+ * {@link PreviewRequestHolder}.
  */
 public interface PreviewRunnerModuleFactory {
 
-  PreviewRunnerModule create(PreviewRequest previewRequest);
+  PreviewRunnerModule create(PreviewRequestHolder previewRequestHolder);
 }
@@ -33,6 +33,7 @@ import io.cdap.cdap.app.guice.AppFabricServiceRuntimeModule;
 import io.cdap.cdap.app.guice.ProgramRunnerRuntimeModule;
 import io.cdap.cdap.app.preview.PreviewManager;
 import io.cdap.cdap.app.preview.PreviewRequest;
+import io.cdap.cdap.app.preview.PreviewRequestHolder;
 import io.cdap.cdap.app.preview.PreviewRunner;
 import io.cdap.cdap.app.preview.PreviewRunnerModuleFactory;
 import io.cdap.cdap.app.preview.PreviewStatus;
@@ -76,6 +77,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
 import org.apache.hadoop.mapreduce.MRConfig;
 import org.apache.tephra.TransactionSystemClient;
+import org.apache.twill.common.Threads;
 import org.apache.twill.discovery.DiscoveryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,28 +86,49 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 
 /**
  * Class responsible for creating the injector for preview and starting it.
+ * It also maintains a pool of preview runner environments that are created and started ahead of time, so that
+ * a new preview doesn't have to pay for the injector creation and the start up of the preview services. A pooled
+ * environment is reset and returned to the pool when its preview is evicted, up to a maximum number of runs.
  */
 public class DefaultPreviewManager extends AbstractIdleService implements PreviewManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultPreviewManager.class);
+  // Prefix of the directory name for pooled preview environments
+  private static final String POOL_DIR_PREFIX = "pool-";
+  // File inside a pooled preview environment directory that records the preview program it was assigned to
+  private static final String PREVIEW_PROGRAM_FILE = "preview.program";
 
   private final CConfiguration cConf;
   private final Configuration hConf;
   private final SConfiguration sConf;
   private final int maxPreviews;
+  private final int poolSize;
+  private final int poolMaxRuns;
   private final DiscoveryService discoveryService;
   private final DatasetFramework datasetFramework;
   private final SecureStore secureStore;
@@ -113,6 +136,9 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
   private final ConcurrentMap<ApplicationId, Injector> appInjectors;
   private final Path previewDataDir;
   private final PreviewRunnerModuleFactory previewRunnerModuleFactory;
+  private final BlockingQueue<PooledEnvironment> pooledEnvironments;
+  private final ConcurrentMap<ApplicationId, PooledEnvironment> assignedEnvironments;
+  private volatile ExecutorService poolExecutor;
 
   @Inject
   DefaultPreviewManager(CConfiguration cConf, Configuration hConf,
@@ -130,20 +156,37 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     this.previewDataDir = Paths.get(cConf.get(Constants.CFG_LOCAL_DATA_DIR), "preview").toAbsolutePath();
     this.appInjectors = new ConcurrentHashMap<>();
     this.maxPreviews = cConf.getInt(Constants.Preview.PREVIEW_CACHE_SIZE, 10);
+    this.poolSize = Math.max(0, cConf.getInt(Constants.Preview.PREVIEW_POOL_SIZE, 1));
+    this.poolMaxRuns = Math.max(1, cConf.getInt(Constants.Preview.PREVIEW_POOL_MAX_RUNS, 10));
     this.previewRunnerModuleFactory = previewRunnerModuleFactory;
+    this.pooledEnvironments = new LinkedBlockingQueue<>();
+    this.assignedEnvironments = new ConcurrentHashMap<>();
   }
 
   @Override
   protected void startUp() throws Exception {
     File previewDir = previewDataDir.toFile();
 
-    // Only load the latest maxPreviews and delete the rest
-    List<File> previewRunDirs = DirUtils.listFiles(previewDir, File::isDirectory).stream()
+    // Find all preview run directories. Pooled environments that were never assigned to a preview don't carry any
+    // preview data, hence can be deleted.
+    List<File> dirs = DirUtils.listFiles(previewDir, File::isDirectory).stream()
       .sorted((f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()))
       .collect(Collectors.toList());
 
-    if (previewRunDirs.size() > maxPreviews) {
-      for (File dir : previewRunDirs.subList(maxPreviews, previewRunDirs.size())) {
+    Map<File, ProgramId> previewRunDirs = new LinkedHashMap<>();
+    for (File dir : dirs) {
+      ProgramId programId = getPreviewProgram(dir);
+      if (programId != null) {
+        previewRunDirs.put(dir, programId);
+      } else if (dir.getName().startsWith(POOL_DIR_PREFIX)) {
+        deleteDirQuietly(dir.toPath());
+      }
+    }
+
+    // Only load the latest maxPreviews and delete the rest
+    List<File> previewDirs = new ArrayList<>(previewRunDirs.keySet());
+    if (previewDirs.size() > maxPreviews) {
+      for (File dir : previewDirs.subList(maxPreviews, previewDirs.size())) {
         try {
           DirUtils.deleteDirectoryContents(dir);
           LOG.debug("Removed preview run directory {}", dir);
@@ -153,18 +196,9 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
       }
     }
 
-    for (File file : (Iterable<File>) previewRunDirs.stream().limit(maxPreviews)::iterator) {
-      ProgramId programId;
-      String name = file.getName();
-      try {
-        String[] parts = name.split("\\.");
-        programId = new ProgramId(parts[0], parts[1], parts[2], parts[3]);
-      } catch (Exception e) {
-        // if there is an exception converting to a preview id, just continue
-        LOG.debug("Failed to parse the file directory {} to a valid preview id", name, e);
-        continue;
-      }
-      Injector injector = createPreviewInjector(new PreviewRequest(programId));
+    for (File file : (Iterable<File>) previewDirs.stream().limit(maxPreviews)::iterator) {
+      ProgramId programId = previewRunDirs.get(file);
+      Injector injector = createPreviewInjector(file.toPath(), new PreviewRequestHolder(new PreviewRequest(programId)));
       PreviewRunner runner = injector.getInstance(PreviewRunner.class);
       if (runner instanceof Service) {
         try {
@@ -180,10 +214,25 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
         appInjectors.put(programId.getParent(), injector);
       }
     }
+
+    poolExecutor = Executors.newSingleThreadExecutor(Threads.createDaemonThreadFactory("preview-runner-pool"));
+    replenishPool();
   }
 
   @Override
   protected synchronized void shutDown() throws Exception {
+    if (poolExecutor != null) {
+      poolExecutor.shutdownNow();
+      if (!poolExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOG.warn("Timeout in waiting for the preview runner pool initialization to complete");
+      }
+    }
+    PooledEnvironment environment = pooledEnvironments.poll();
+    while (environment != null) {
+      environment.destroy();
+      environment = pooledEnvironments.poll();
+    }
+
     appInjectors.values().stream()
       .map(injector -> injector.getInstance(PreviewRunner.class))
       .filter(Service.class::isInstance)
@@ -208,23 +257,36 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
       }
 
       PreviewRequest previewRequest = new PreviewRequest(programId, appRequest);
-      injector = createPreviewInjector(previewRequest);
+      PooledEnvironment environment = pooledEnvironments.poll();
+      if (environment != null) {
+        try {
+          injector = environment.assign(previewRequest);
+        } catch (Exception e) {
+          // The environment is in an unknown state, hence replace it with a new one
+          environment.destroy();
+          replenishPool();
+          throw e;
+        }
+        assignedEnvironments.put(previewApp, environment);
+        LOG.debug("Using pooled preview environment {} for preview {}", environment.dir, programId);
+      } else {
+        injector = createPreviewInjector(previewRequest);
+      }
       appInjectors.put(previewApp, injector);
     }
+    stopIdleEnvironments();
+    replenishPool();
 
     PreviewRunner runner = injector.getInstance(PreviewRunner.class);
-    if (runner instanceof Service) {
-      ((Service) runner).startAndWait();
-    }
     try {
+      if (runner instanceof Service) {
+        ((Service) runner).startAndWait();
+      }
       runner.startPreview();
       return previewApp;
     } catch (Exception e) {
-      if (runner instanceof Service) {
-        stopQuietly((Service) runner);
-      }
       appInjectors.remove(previewApp);
-      removePreviewDir(programId);
+      release(programId, injector);
       throw e;
     }
   }
@@ -279,21 +341,141 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     }
 
     Injector injector = appInjectors.remove(applicationId);
-    PreviewRunner runner = injector.getInstance(PreviewRunner.class);
-    if (runner instanceof Service) {
-      stopQuietly((Service) runner);
-    }
-    ProgramId programId = runner.getPreviewRequest().getProgram();
-    removePreviewDir(programId);
+    ProgramId programId = injector.getInstance(PreviewRunner.class).getPreviewRequest().getProgram();
+    release(programId, injector);
     LOG.debug("Evicted old preview run {}", programId);
     return true;
   }
 
+  /**
+   * Releases the preview environment of a preview that is removed. An environment from the pool is reset and
+   * returned to the pool asynchronously, other environments are stopped and deleted.
+   */
+  private void release(ProgramId programId, Injector injector) {
+    PooledEnvironment environment = assignedEnvironments.remove(programId.getParent());
+    if (environment == null) {
+      PreviewRunner runner = injector.getInstance(PreviewRunner.class);
+      if (runner instanceof Service) {
+        stopQuietly((Service) runner);
+      }
+      removePreviewDir(programId, injector);
+      return;
+    }
+
+    DataTracerFactoryProvider.removeDataTracerFactory(programId.getParent());
+    try {
+      poolExecutor.execute(() -> recycle(environment));
+    } catch (RejectedExecutionException e) {
+      // This can only happen when the manager is shutting down
+      environment.destroy();
+    }
+  }
+
+  /**
+   * Resets the given environment and returns it to the pool, or destroys it if it served the maximum number of runs,
+   * its run services were stopped or the reset failed. A preview is only evicted to start a new preview, which takes
+   * an environment from the pool, hence the pool is refilled by the returned environments instead of new ones. It can
+   * go over its size by one while the new preview is about to take an environment.
+   */
+  private void recycle(PooledEnvironment environment) {
+    if (environment.runServicesStopped || environment.runs >= poolMaxRuns || pooledEnvironments.size() > poolSize) {
+      environment.destroy();
+      return;
+    }
+    try {
+      environment.reset();
+      pooledEnvironments.add(environment);
+      LOG.debug("Returned preview environment {} to the pool after {} runs", environment.dir, environment.runs);
+    } catch (Exception e) {
+      LOG.warn("Failed to reset preview environment {}, it will be replaced", environment.dir, e);
+      environment.destroy();
+      replenishPool();
+    }
+  }
+
+  /**
+   * Stops the run services of the pooled environments of finished previews asynchronously, except for the most
+   * recently assigned ones up to the pool size. A finished preview keeps its environment until it is evicted, so
+   * that its data can be read, but only needs the services to run a preview if the environment goes back to the
+   * pool. The environments with stopped run services are destroyed when their previews are evicted.
+   */
+  private void stopIdleEnvironments() {
+    if (poolExecutor == null || poolExecutor.isShutdown()) {
+      return;
+    }
+    try {
+      poolExecutor.execute(() -> {
+        List<PooledEnvironment> idleEnvironments = assignedEnvironments.values().stream()
+          .filter(environment -> !environment.runServicesStopped && environment.isFinished())
+          .sorted(Comparator.comparingLong((PooledEnvironment environment) -> environment.assignTime).reversed())
+          .collect(Collectors.toList());
+        for (PooledEnvironment environment : idleEnvironments.subList(Math.min(poolSize, idleEnvironments.size()),
+                                                                      idleEnvironments.size())) {
+          environment.stopRunServices();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // This can only happen when the manager is shutting down, hence ignore it
+      LOG.trace("Preview runner pool is shutdown", e);
+    }
+  }
+
+  /**
+   * Fills up the pool of preview environments asynchronously.
+   */
+  private void replenishPool() {
+    if (poolSize <= 0 || poolExecutor == null || poolExecutor.isShutdown()) {
+      return;
+    }
+    try {
+      poolExecutor.execute(() -> {
+        while (pooledEnvironments.size() < poolSize && !Thread.currentThread().isInterrupted()) {
+          Path dir = previewDataDir.resolve(POOL_DIR_PREFIX + UUID.randomUUID());
+          PooledEnvironment environment = null;
+          try {
+            environment = new PooledEnvironment(dir);
+            environment.start();
+            pooledEnvironments.add(environment);
+            LOG.debug("Added preview environment {} to the pool", dir);
+          } catch (Exception e) {
+            LOG.warn("Failed to initialize pooled preview environment in {}", dir, e);
+            if (environment != null) {
+              environment.destroy();
+            } else {
+              deleteDirQuietly(dir);
+            }
+            return;
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // This can only happen when the manager is shutting down, hence ignore it
+      LOG.trace("Preview runner pool is shutdown", e);
+    }
+  }
+
+  /**
+   * Returns the number of preview environments in the pool that are ready to be used.
+   */
+  @VisibleForTesting
+  int getPooledEnvironmentCount() {
+    return pooledEnvironments.size();
+  }
+
   /**
    * Create injector for the given application id.
    */
   @VisibleForTesting
   Injector createPreviewInjector(PreviewRequest previewRequest) throws IOException {
+    return createPreviewInjector(getPreviewDirPath(previewRequest.getProgram()),
+                                 new PreviewRequestHolder(previewRequest));
+  }
+
+  /**
+   * Create injector for running preview with the given directory for storing preview data.
+   */
+  private Injector createPreviewInjector(Path previewDirPath,
+                                         PreviewRequestHolder previewRequestHolder) throws IOException {
     CConfiguration previewCConf = CConfiguration.copy(cConf);
 
     // Change all services bind address to local host
@@ -303,7 +485,7 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
       .filter(s -> s.endsWith(".bind.address"))
       .forEach(key -> previewCConf.set(key, localhost));
 
-    Path previewDir = Files.createDirectories(getPreviewDirPath(previewRequest.getProgram()));
+    Path previewDir = Files.createDirectories(previewDirPath);
 
     previewCConf.set(Constants.CFG_LOCAL_DATA_DIR, previewDir.toString());
     previewCConf.setIfUnset(Constants.CFG_DATA_LEVELDB_DIR, previewDir.toString());
@@ -327,7 +509,7 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
       new PreviewDiscoveryRuntimeModule(discoveryService),
       new LocalLocationModule(),
       new ConfigStoreModule(),
-      previewRunnerModuleFactory.create(previewRequest),
+      previewRunnerModuleFactory.create(previewRequestHolder),
       new ProgramRunnerRuntimeModule().getStandaloneModules(),
       new PreviewDataModules().getDataFabricModule(transactionSystemClient),
       new PreviewDataModules().getDataSetsModule(datasetFramework),
@@ -395,19 +577,147 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     }
   }
 
-  private void removePreviewDir(ProgramId programId) {
-    Path previewDirPath = getPreviewDirPath(programId);
+  private void removePreviewDir(ProgramId programId, Injector injector) {
+    DataTracerFactoryProvider.removeDataTracerFactory(programId.getParent());
+    // The preview data directory is the local data directory of the preview injector
+    deleteDirQuietly(Paths.get(injector.getInstance(CConfiguration.class).get(Constants.CFG_LOCAL_DATA_DIR)));
+  }
+
+  private void deleteDirQuietly(Path dir) {
     try {
-      DataTracerFactoryProvider.removeDataTracerFactory(programId.getParent());
-      DirUtils.deleteDirectoryContents(previewDirPath.toFile());
+      DirUtils.deleteDirectoryContents(dir.toFile());
     } catch (IOException e) {
-      LOG.debug("Error deleting the preview directory {}", previewDirPath, e);
+      LOG.debug("Error deleting the preview directory {}", dir, e);
     }
   }
 
   private Path getPreviewDirPath(ProgramId programId) {
+    return previewDataDir.resolve(getPreviewDirName(programId));
+  }
+
+  private String getPreviewDirName(ProgramId programId) {
     // the preview directory will be <namespace-name>.<app-id>.<program-type>.<program-name>
-    return previewDataDir.resolve(String.format("%s.%s.%s.%s", programId.getNamespace(), programId.getApplication(),
-                                                programId.getType().name(), programId.getProgram()));
+    return String.format("%s.%s.%s.%s", programId.getNamespace(), programId.getApplication(),
+                         programId.getType().name(), programId.getProgram());
+  }
+
+  /**
+   * Returns the preview {@link ProgramId} that the given preview directory belongs to, or {@code null} if
+   * the directory is not associated with any preview run.
+   */
+  @Nullable
+  private ProgramId getPreviewProgram(File dir) {
+    String name = dir.getName();
+    try {
+      if (name.startsWith(POOL_DIR_PREFIX)) {
+        Path programFile = dir.toPath().resolve(PREVIEW_PROGRAM_FILE);
+        if (!Files.isRegularFile(programFile)) {
+          return null;
+        }
+        name = new String(Files.readAllBytes(programFile), StandardCharsets.UTF_8).trim();
+      }
+      String[] parts = name.split("\\.");
+      return new ProgramId(parts[0], parts[1], parts[2], parts[3]);
+    } catch (Exception e) {
+      // if there is an exception converting to a preview id, just continue
+      LOG.debug("Failed to parse the file directory {} to a valid preview id", dir, e);
+      return null;
+    }
+  }
+
+  /**
+   * A preview environment in the pool, which has its {@link PreviewRunner} started, but not yet assigned
+   * to any preview request. An environment serves one preview run at a time. Between runs the
+   * {@link PreviewRunner#reset() runner is reset}, which removes the applications, datasets and data of the previous
+   * run, so that they are never visible to the next run.
+   */
+  private final class PooledEnvironment {
+
+    private final Path dir;
+    private final PreviewRequestHolder previewRequestHolder;
+    private final Injector injector;
+    // number of preview requests assigned to this environment
+    private volatile int runs;
+    // time in nanoseconds when the last preview request was assigned to this environment
+    private volatile long assignTime;
+    private volatile boolean runServicesStopped;
+
+    PooledEnvironment(Path dir) throws IOException {
+      this.dir = dir;
+      this.previewRequestHolder = new PreviewRequestHolder();
+      this.injector = createPreviewInjector(dir, previewRequestHolder);
+    }
+
+    /**
+     * Starts the {@link PreviewRunner} of this environment.
+     */
+    void start() {
+      PreviewRunner runner = injector.getInstance(PreviewRunner.class);
+      if (runner instanceof Service) {
+        ((Service) runner).startAndWait();
+      }
+    }
+
+    /**
+     * Assigns the given {@link PreviewRequest} to this environment.
+     *
+     * @return the {@link Injector} of this environment
+     */
+    Injector assign(PreviewRequest previewRequest) throws IOException {
+      // Record the preview program, so that the preview can be recovered from this directory after restart
+      Files.write(dir.resolve(PREVIEW_PROGRAM_FILE),
+                  getPreviewDirName(previewRequest.getProgram()).getBytes(StandardCharsets.UTF_8));
+      previewRequestHolder.set(previewRequest);
+      runs++;
+      assignTime = System.nanoTime();
+      return injector;
+    }
+
+    /**
+     * Returns whether the preview assigned to this environment has ended.
+     */
+    boolean isFinished() {
+      try {
+        PreviewStatus status = injector.getInstance(PreviewRunner.class).getStatus();
+        return status != null && status.getStatus().isEndState();
+      } catch (Exception e) {
+        LOG.debug("Unable to get the preview status in preview environment {}", dir, e);
+        return false;
+      }
+    }
+
+    /**
+     * Stops the services of the {@link PreviewRunner} that are only needed to run a preview. The environment can't
+     * be returned to the pool afterwards.
+     */
+    void stopRunServices() {
+      runServicesStopped = true;
+      try {
+        injector.getInstance(PreviewRunner.class).stopRunServices();
+        LOG.debug("Stopped the run services of preview environment {}", dir);
+      } catch (Exception e) {
+        LOG.warn("Failed to stop the run services of preview environment {}", dir, e);
+      }
+    }
+
+    /**
+     * Removes the preview run from this environment, so that another request can be assigned to it.
+     */
+    void reset() throws Exception {
+      injector.getInstance(PreviewRunner.class).reset();
+      Files.deleteIfExists(dir.resolve(PREVIEW_PROGRAM_FILE));
+      previewRequestHolder.clear();
+    }
+
+    /**
+     * Stops the {@link PreviewRunner} and deletes the directory of this environment.
+     */
+    void destroy() {
+      PreviewRunner runner = injector.getInstance(PreviewRunner.class);
+      if (runner instanceof Service) {
+        stopQuietly((Service) runner);
+      }
+      deleteDirQuietly(dir);
+    }
   }
 }
@@ -26,6 +26,7 @@ import io.cdap.cdap.api.artifact.ArtifactSummary;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.app.preview.DataTracerFactory;
 import io.cdap.cdap.app.preview.PreviewRequest;
+import io.cdap.cdap.app.preview.PreviewRequestHolder;
 import io.cdap.cdap.app.preview.PreviewRunner;
 import io.cdap.cdap.app.preview.PreviewStatus;
 import io.cdap.cdap.app.runtime.ProgramController;
@@ -104,12 +105,15 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
   private final LevelDBTableService levelDBTableService;
   private final StructuredTableAdmin structuredTableAdmin;
   private final StructuredTableRegistry structuredTableRegistry;
-  private final PreviewRequest previewRequest;
-  private final CompletableFuture<PreviewStatus> completion;
+  private final PreviewRequestHolder previewRequestHolder;
+  // A runner created without a request is pooled, and serves one preview request after another
+  private final boolean pooled;
 
+  private volatile CompletableFuture<PreviewStatus> completion;
   private volatile boolean killedByTimer;
   private Timer timer;
   private volatile long startTimeMillis;
+  private volatile boolean runServicesStopped;
 
   @Inject
   DefaultPreviewRunner(MessagingService messagingService,
@@ -126,7 +130,7 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
                        LevelDBTableService levelDBTableService,
                        StructuredTableAdmin structuredTableAdmin,
                        StructuredTableRegistry structuredTableRegistry,
-                       PreviewRequest previewRequest) {
+                       PreviewRequestHolder previewRequestHolder) {
     this.messagingService = messagingService;
     this.dsOpExecService = dsOpExecService;
     this.datasetService = datasetService;
@@ -143,17 +147,23 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
     this.levelDBTableService = levelDBTableService;
     this.structuredTableAdmin = structuredTableAdmin;
     this.structuredTableRegistry = structuredTableRegistry;
-    this.previewRequest = previewRequest;
+    this.previewRequestHolder = previewRequestHolder;
+    this.pooled = previewRequestHolder.get() == null;
     this.completion = new CompletableFuture<>();
   }
 
   @Override
   public PreviewRequest getPreviewRequest() {
+    PreviewRequest previewRequest = previewRequestHolder.get();
+    if (previewRequest == null) {
+      throw new IllegalStateException("Preview request is not yet assigned to the preview runner");
+    }
     return previewRequest;
   }
 
   @Override
   public void startPreview() throws Exception {
+    PreviewRequest previewRequest = getPreviewRequest();
     ProgramId programId = previewRequest.getProgram();
     AppRequest<?> request = previewRequest.getAppRequest();
 
@@ -165,7 +175,14 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
     ArtifactSummary artifactSummary = request.getArtifact();
     ApplicationId preview = programId.getParent();
 
-    namespaceAdmin.create(new NamespaceMeta.Builder().setName(programId.getNamespaceId()).build());
+    // Set the status to INIT to prepare for preview run.
+    setStatus(new PreviewStatus(PreviewStatus.Status.INIT, null, System.currentTimeMillis(), null));
+    timer = new Timer(programId.getApplication());
+
+    // A pooled runner may have served a preview in the same namespace before
+    if (!namespaceAdmin.exists(programId.getNamespaceId())) {
+      namespaceAdmin.create(new NamespaceMeta.Builder().setName(programId.getNamespaceId()).build());
+    }
     DataTracerFactoryProvider.setDataTracerFactory(preview, dataTracerFactory);
 
     String config = request.getConfig() == null ? null : GSON.toJson(request.getConfig());
@@ -249,7 +266,13 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
       private void terminated(PreviewStatus.Status status, @Nullable Throwable failureCause) {
         setStatus(new PreviewStatus(status, failureCause == null ? null : new BasicThrowable(failureCause),
                                     startTimeMillis, System.currentTimeMillis()));
-        shutDownUnrequiredServices();
+        // A pooled runner keeps the services running for the next preview request, until the preview manager
+        // either resets the runner or stops the services with stopRunServices
+        if (pooled) {
+          timer.cancel();
+        } else {
+          shutDownUnrequiredServices();
+        }
       }
     }, Threads.SAME_THREAD_EXECUTOR);
 
@@ -257,6 +280,7 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
   }
 
   private void setStatus(PreviewStatus previewStatus) {
+    PreviewRequest previewRequest = getPreviewRequest();
     LOG.debug("Setting preview status for {} to {}", previewRequest.getProgram(), previewStatus.getStatus());
     previewStore.setPreviewStatus(previewRequest.getProgram().getParent(), previewStatus);
     if (previewStatus.getStatus().isEndState()) {
@@ -266,13 +290,13 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
 
   @Override
   public PreviewStatus getStatus() {
-    return previewStore.getPreviewStatus(previewRequest.getProgram().getParent());
+    return previewStore.getPreviewStatus(getPreviewRequest().getProgram().getParent());
   }
 
   @Override
   public void stopPreview() throws Exception {
     if (!completion.isDone()) {
-      programLifecycleService.stop(previewRequest.getProgram());
+      programLifecycleService.stop(getPreviewRequest().getProgram());
     }
   }
 
@@ -283,12 +307,12 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
 
   @Override
   public Map<String, List<JsonElement>> getData(String tracerName) {
-    return previewStore.get(previewRequest.getProgram().getParent(), tracerName);
+    return previewStore.get(getPreviewRequest().getProgram().getParent(), tracerName);
   }
 
   @Override
   public ProgramRunId getProgramRunId() {
-    return previewStore.getProgramRunId(previewRequest.getProgram().getParent());
+    return previewStore.getProgramRunId(getPreviewRequest().getProgram().getParent());
   }
 
   @Override
@@ -310,23 +334,70 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
   }
 
   @Override
-  protected void startUp() throws Exception {
-    ProgramId programId = previewRequest.getProgram();
+  public void reset() throws Exception {
+    PreviewRequest previewRequest = previewRequestHolder.get();
+    if (previewRequest == null) {
+      return;
+    }
+    if (!pooled) {
+      throw new IllegalStateException("Preview runner for " + previewRequest.getProgram() + " cannot be reused");
+    }
+    if (!completion.isDone()) {
+      throw new IllegalStateException("Preview " + previewRequest.getProgram() + " is still running");
+    }
+    if (runServicesStopped) {
+      throw new IllegalStateException("Preview runner for " + previewRequest.getProgram()
+                                        + " cannot be reused after its run services are stopped");
+    }
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+
+    // Remove everything the preview created, so that the next preview doesn't see any of it
+    NamespaceId namespaceId = previewRequest.getProgram().getNamespaceId();
+    if (namespaceAdmin.exists(namespaceId)) {
+      applicationLifecycleService.removeAll(namespaceId);
+      namespaceAdmin.deleteDatasets(namespaceId);
+    }
+    previewStore.remove(previewRequest.getProgram().getParent());
+
+    killedByTimer = false;
+    startTimeMillis = 0L;
+    completion = new CompletableFuture<>();
+    LOG.debug("Reset preview runner after preview {}", previewRequest.getProgram());
+  }
 
-    LOG.debug("Starting preview runner for {}", programId);
+  @Override
+  public void stopRunServices() {
+    if (!completion.isDone()) {
+      throw new IllegalStateException("Preview " + getPreviewRequest().getProgram() + " is still running");
+    }
+    runServicesStopped = true;
+    shutDownUnrequiredServices();
+    LOG.debug("Stopped the run services of preview runner after preview {}", getPreviewRequest().getProgram());
+  }
+
+  /**
+   * Starts all the services of the preview environment, which is the expensive part of running a preview. None of
+   * them depend on the preview request, which allows a runner to be started before a request is assigned to it.
+   */
+  @Override
+  protected void startUp() throws Exception {
+    LOG.debug("Starting preview runner environment");
     StoreDefinition.createAllTables(structuredTableAdmin, structuredTableRegistry, false);
     if (messagingService instanceof Service) {
       ((Service) messagingService).startAndWait();
     }
     dsOpExecService.startAndWait();
     datasetService.startAndWait();
-    timer = new Timer(programId.getApplication());
 
     // if there is a preview status in the store, that means this preview already has a run so do not need
     // to start other services. If the status is running, change it to killed since we are not going to start the
     // preview again.
-    ApplicationId appId = programId.getParent();
-    PreviewStatus previewStatus = previewStore.getPreviewStatus(appId);
+    PreviewRequest previewRequest = previewRequestHolder.get();
+    PreviewStatus previewStatus = previewRequest == null
+      ? null : previewStore.getPreviewStatus(previewRequest.getProgram().getParent());
     if (previewStatus != null) {
       if (!previewStatus.getStatus().isEndState()) {
         setStatus(new PreviewStatus(PreviewStatus.Status.KILLED, null,
@@ -336,9 +407,6 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
       return;
     }
 
-    // Set the status to INIT to prepare for preview run.
-    setStatus(new PreviewStatus(PreviewStatus.Status.INIT, null, System.currentTimeMillis(), null));
-
     // It is recommended to initialize log appender after datasetService is started,
     // since log appender instantiates a dataset.
     logAppenderInitializer.initialize();
@@ -356,7 +424,9 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
 
   @Override
   protected void shutDown() throws Exception {
-    LOG.debug("Stopping preview runner for {}", previewRequest.getProgram());
+    PreviewRequest previewRequest = previewRequestHolder.get();
+    LOG.debug("Stopping preview runner for {}", previewRequest == null ? "unused environment"
+                                                                        : previewRequest.getProgram());
     try {
       // The future won't be completed with exception or cancelled, hence we only catch the timeout exception.
       completion.get(PREVIEW_TIMEOUT - (System.currentTimeMillis() - startTimeMillis), TimeUnit.MILLISECONDS);
@@ -30,6 +30,7 @@ import io.cdap.cdap.app.runtime.Arguments;
 import io.cdap.cdap.app.runtime.ProgramOptions;
 import io.cdap.cdap.app.runtime.ProgramStateWriter;
 import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.async.TimingWheelScheduledExecutorService;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Locations;
@@ -207,8 +208,9 @@ public class RemoteExecutionTwillRunnerService implements TwillRunnerService {
     serviceSocksProxy.startAndWait();
 
     startupTaskExecutor = Executors.newCachedThreadPool(Threads.createDaemonThreadFactory("runtime-startup-%d"));
-    monitorScheduler = Executors.newScheduledThreadPool(cConf.getInt(Constants.RuntimeMonitor.THREADS),
-                                                        Threads.createDaemonThreadFactory("runtime-monitor-%d"));
+    // The monitors of all the runs share the threads, which are only created while monitors are running
+    monitorScheduler = new TimingWheelScheduledExecutorService("runtime-monitor",
+                                                               cConf.getInt(Constants.RuntimeMonitor.THREADS));
     long startMillis = System.currentTimeMillis();
     Thread t = new Thread(() -> initializeRuntimeMonitors(startMillis), "runtime-monitor-initializer");
     t.setDaemon(true);
@@ -37,6 +37,7 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -67,6 +68,15 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     this.bytesLeft = maxSizeBytes;
   }
 
+  private BasicWorkflowToken(int maxSizeBytes, String nodeName) {
+    for (Scope scope : Scope.values()) {
+      this.tokenValueMap.put(scope, new HashMap<String, List<NodeValue>>());
+    }
+    this.maxSizeBytes = maxSizeBytes;
+    this.bytesLeft = maxSizeBytes;
+    this.nodeName = nodeName;
+  }
+
   private BasicWorkflowToken(BasicWorkflowToken other) {
     for (Map.Entry<Scope, Map<String, List<NodeValue>>> entry : other.tokenValueMap.entrySet()) {
       Map<String, List<NodeValue>> tokenValueMapForScope = new HashMap<>();
@@ -91,6 +101,14 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     this.nodeName = nodeName;
   }
 
+  /**
+   * Returns the name of the node that is currently updating the token.
+   */
+  @Nullable
+  public synchronized String getCurrentNode() {
+    return nodeName;
+  }
+
   /**
    * Method to disable the put operation on the {@link WorkflowToken} form Mapper and Reducer classes.
    */
@@ -131,6 +149,68 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     }
   }
 
+  /**
+   * Returns a token that only contains the values of this token that are not in the given previous version of it.
+   * Applying the returned delta to the previous version with {@link #applyDelta(BasicWorkflowToken)} gives back this
+   * token.
+   *
+   * @param previous the previous version of this token, or {@code null} to return a copy of all the values
+   * @return the delta between the previous version and this token
+   */
+  public synchronized BasicWorkflowToken getDelta(@Nullable BasicWorkflowToken previous) {
+    BasicWorkflowToken delta = new BasicWorkflowToken(maxSizeBytes, nodeName);
+    for (Scope scope : Scope.values()) {
+      Map<String, List<NodeValue>> previousValues = previous == null ? ImmutableMap.of() : previous.getAll(scope);
+      for (Map.Entry<String, List<NodeValue>> entry : tokenValueMap.get(scope).entrySet()) {
+        List<NodeValue> previousNodeValues = previousValues.getOrDefault(entry.getKey(), ImmutableList.of());
+        for (NodeValue nodeValue : entry.getValue()) {
+          if (!previousNodeValues.contains(nodeValue)) {
+            delta.applyValue(scope, entry.getKey(), nodeValue);
+          }
+        }
+      }
+    }
+    if (mapReduceCounters != null
+      && (previous == null || !mapReduceCounters.equals(previous.getMapReduceCounters()))) {
+      delta.mapReduceCounters = mapReduceCounters;
+    }
+    return delta;
+  }
+
+  /**
+   * Applies a delta returned by {@link #getDelta(BasicWorkflowToken)} to this token. A value of a node replaces the
+   * value of the same node for the key, other values are added after the existing values of the key.
+   * Unlike {@link #put(String, Value)}, this does not enforce the maximum size of the token, since the values
+   * were already accepted by the token that the delta was computed from.
+   *
+   * @param delta the delta to apply
+   */
+  public synchronized void applyDelta(BasicWorkflowToken delta) {
+    for (Scope scope : Scope.values()) {
+      for (Map.Entry<String, List<NodeValue>> entry : delta.getAll(scope).entrySet()) {
+        for (NodeValue nodeValue : entry.getValue()) {
+          applyValue(scope, entry.getKey(), nodeValue);
+        }
+      }
+    }
+    Map<String, Map<String, Long>> deltaCounters = delta.getMapReduceCounters();
+    if (deltaCounters != null) {
+      mapReduceCounters = deltaCounters;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the token does not have any value.
+   */
+  synchronized boolean isEmpty() {
+    for (Map<String, List<NodeValue>> values : tokenValueMap.values()) {
+      if (!values.isEmpty()) {
+        return false;
+      }
+    }
+    return mapReduceCounters == null;
+  }
+
   @Override
   public synchronized void put(String key, String value) {
     put(key, Value.of(value));
@@ -287,6 +367,11 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     return new BasicWorkflowToken(this);
   }
 
+  @Nullable
+  private synchronized Map<String, Map<String, Long>> getMapReduceCounters() {
+    return mapReduceCounters;
+  }
+
   private Map<String, Map<String, Long>> copyHadoopCounters(Map<String, Map<String, Long>> input) {
     ImmutableMap.Builder<String, Map<String, Long>> builder = ImmutableMap.builder();
     for (Map.Entry<String, Map<String, Long>> entry : input.entrySet()) {
@@ -327,6 +412,23 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     bytesLeft = left;
   }
 
+  /**
+   * Adds or replaces the value of a node for a key, keeping track of the size of the token.
+   */
+  private void applyValue(Scope scope, String key, NodeValue nodeValue) {
+    List<NodeValue> nodeValues = tokenValueMap.get(scope).computeIfAbsent(key, k -> Lists.newArrayList());
+    int valueLen = nodeValue.getValue().toString().length();
+    for (int i = 0; i < nodeValues.size(); i++) {
+      if (nodeValues.get(i).getNodeName().equals(nodeValue.getNodeName())) {
+        bytesLeft += nodeValues.get(i).getValue().toString().length() - valueLen;
+        nodeValues.set(i, nodeValue);
+        return;
+      }
+    }
+    bytesLeft -= key.length() + valueLen;
+    nodeValues.add(nodeValue);
+  }
+
   // Serialize the WorkflowToken content for passing it to the Spark executor.
   private void writeObject(ObjectOutputStream out) throws IOException {
     out.defaultWriteObject();
@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.internal.app.runtime.workflow;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.workflow.WorkflowToken;
@@ -33,6 +35,8 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.id.TopicId;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * An implementation of {@link WorkflowStateWriter} that writes to TMS.
  */
@@ -43,16 +47,46 @@ public class MessagingWorkflowStateWriter implements WorkflowStateWriter {
   private final TopicId topic;
   private final MessagingService messagingService;
   private final RetryStrategy retryStrategy;
+  // the tokens published for the workflow runs, used to only publish the values added since then
+  private final Cache<ProgramRunId, BasicWorkflowToken> publishedTokens;
 
   @Inject
   MessagingWorkflowStateWriter(CConfiguration cConf, MessagingService messagingService) {
     this.topic = NamespaceId.SYSTEM.topic(cConf.get(Constants.Metadata.MESSAGING_TOPIC));
     this.messagingService = messagingService;
     this.retryStrategy = RetryStrategies.fromConfiguration(cConf, "system.metadata.");
+    this.publishedTokens = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).build();
   }
 
+  /**
+   * Publishes the values added to the token since it was last published for the workflow run. The subscriber
+   * appends the published delta to the stored token, so that the size of the messages and of the writes to the store
+   * doesn't grow with the number of nodes of the workflow. If the previously published token is not known, for example
+   * because it was evicted from the cache, the whole token is published, which the subscriber also applies as a delta.
+   */
   @Override
-  public void setWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
+  public synchronized void setWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
+    if (!(token instanceof BasicWorkflowToken)) {
+      publishWorkflowToken(workflowRunId, token);
+      return;
+    }
+
+    BasicWorkflowToken published = publishedTokens.getIfPresent(workflowRunId);
+    BasicWorkflowToken delta = ((BasicWorkflowToken) token).getDelta(published);
+    if (published != null && delta.isEmpty()) {
+      return;
+    }
+    publishWorkflowToken(workflowRunId, delta);
+
+    // Publishing is synchronized, so that the deltas are published in the same order as they are computed
+    if (published == null) {
+      publishedTokens.put(workflowRunId, delta);
+    } else {
+      published.applyDelta(delta);
+    }
+  }
+
+  private void publishWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
     MetadataMessage message = new MetadataMessage(MetadataMessage.Type.WORKFLOW_TOKEN,
                                                   workflowRunId, GSON.toJsonTree(token));
     StoreRequest request = StoreRequestBuilder.of(topic).addPayload(GSON.toJson(message)).build();
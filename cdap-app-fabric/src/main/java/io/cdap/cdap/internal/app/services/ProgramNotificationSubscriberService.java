@@ -79,6 +79,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -111,6 +112,8 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
   private final ProgramStateWriter programStateWriter;
   private final Queue<Runnable> tasks;
   private final MetricsCollectionService metricsCollectionService;
+  private final boolean prefetchEnabled;
+  private final int partitionCount;
 
   @Inject
   ProgramNotificationSubscriberService(MessagingService messagingService, CConfiguration cConf,
@@ -128,8 +131,40 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
     this.programLifecycleService = programLifecycleService;
     this.provisioningService = provisioningService;
     this.programStateWriter = programStateWriter;
-    this.tasks = new LinkedList<>();
+    // tasks are added from the partitions processing a batch concurrently
+    this.tasks = new ConcurrentLinkedQueue<>();
     this.metricsCollectionService = metricsCollectionService;
+    this.prefetchEnabled = cConf.getBoolean(Constants.AppFabric.STATUS_EVENT_PREFETCH_ENABLED);
+    this.partitionCount = cConf.getInt(Constants.AppFabric.STATUS_EVENT_PROCESSING_PARTITIONS);
+  }
+
+  @Override
+  protected boolean isPrefetchEnabled() {
+    return prefetchEnabled;
+  }
+
+  @Override
+  protected int getPartitionCount() {
+    return partitionCount;
+  }
+
+  /**
+   * Partitions notifications by application, so that the notifications of a workflow and of the programs it runs
+   * are processed in order. A notification that is processed again is a duplicate or outdated state transition,
+   * which is not recorded, and the side effects of a notification are only performed if its transition was recorded.
+   */
+  @Nullable
+  @Override
+  protected Object getPartitionKey(Notification notification) {
+    String programRun = notification.getProperties().get(ProgramOptionConstants.PROGRAM_RUN_ID);
+    if (programRun == null) {
+      return null;
+    }
+    try {
+      return GSON.fromJson(programRun, ProgramRunId.class).getParent().getParent();
+    } catch (JsonSyntaxException e) {
+      return null;
+    }
   }
 
   @Nullable
@@ -488,16 +523,28 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
       GSON.fromJson(properties.get(ProgramOptionConstants.PROGRAM_DESCRIPTOR), ProgramDescriptor.class);
     switch (clusterStatus) {
       case PROVISIONING:
-        appMetadataStore.recordProgramProvisioning(programRunId, programOptions.getUserArguments().asMap(),
-                                                   programOptions.getArguments().asMap(), messageIdBytes,
-                                                   programDescriptor.getArtifactId().toApiArtifactId());
+        RunRecordMeta provisioningMeta =
+          appMetadataStore.recordProgramProvisioning(programRunId, programOptions.getUserArguments().asMap(),
+                                                     programOptions.getArguments().asMap(), messageIdBytes,
+                                                     programDescriptor.getArtifactId().toApiArtifactId());
+        // If the run status was not recorded, this was a duplicate message or an invalid state transition.
+        // In both cases, we should not provision a cluster for the run.
+        if (provisioningMeta == null) {
+          break;
+        }
 
         ProvisionRequest provisionRequest = new ProvisionRequest(programRunId, programOptions, programDescriptor,
                                                                  userId);
         return Optional.of(provisioningService.provision(provisionRequest, context));
       case PROVISIONED:
         Cluster cluster = GSON.fromJson(properties.get(ProgramOptionConstants.CLUSTER), Cluster.class);
-        appMetadataStore.recordProgramProvisioned(programRunId, cluster.getNodes().size(), messageIdBytes);
+        RunRecordMeta provisionedMeta =
+          appMetadataStore.recordProgramProvisioned(programRunId, cluster.getNodes().size(), messageIdBytes);
+        // If the run status was not recorded, this was a duplicate message or an invalid state transition.
+        // In both cases, we should not start the program run.
+        if (provisionedMeta == null) {
+          break;
+        }
 
         // Update the ProgramOptions system arguments to include information needed for program execution
         Map<String, String> systemArgs = new HashMap<>(programOptions.getArguments().asMap());
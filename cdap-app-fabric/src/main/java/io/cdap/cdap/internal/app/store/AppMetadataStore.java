@@ -119,6 +119,8 @@ public class AppMetadataStore {
   private static final String TYPE_COUNT = "runRecordCount";
   private static final String TYPE_RUN_RECORD_UPGRADE_COUNT = "runRecordUpgradeCount";
   private static final String SMALLEST_POSSIBLE_STRING = "";
+  // maximum number of deltas appended to a workflow token before they are compacted into the token
+  private static final int WORKFLOW_TOKEN_MAX_DELTAS = 20;
 
   private static final Map<ProgramRunStatus, String> STATUS_TYPE_MAP = ImmutableMap.<ProgramRunStatus, String>builder()
     .put(ProgramRunStatus.PENDING, TYPE_RUN_RECORD_ACTIVE)
@@ -136,6 +138,7 @@ public class AppMetadataStore {
   private StructuredTable workflowNodeStateTable;
   private StructuredTable runRecordsTable;
   private StructuredTable workflowsTable;
+  private StructuredTable workflowTokenDeltasTable;
   private StructuredTable programCountsTable;
   private StructuredTable subscriberStateTable;
 
@@ -194,6 +197,17 @@ public class AppMetadataStore {
     return workflowsTable;
   }
 
+  private StructuredTable getWorkflowTokenDeltasTable() {
+    try {
+      if (workflowTokenDeltasTable == null) {
+        workflowTokenDeltasTable = context.getTable(StoreDefinition.AppMetadataStore.WORKFLOW_TOKEN_DELTAS);
+      }
+    } catch (TableNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+    return workflowTokenDeltasTable;
+  }
+
   private StructuredTable getProgramCountsTable() {
     try {
       if (programCountsTable == null) {
@@ -1377,7 +1391,8 @@ public class AppMetadataStore {
   }
 
   /**
-   * Sets the {@link WorkflowToken} for the given workflow run.
+   * Sets the {@link WorkflowToken} for the given workflow run. This replaces the token and all the deltas
+   * appended to it.
    *
    * @param workflowRunId the {@link ProgramRunId} representing the workflow run
    * @param workflowToken the {@link WorkflowToken} to set to
@@ -1389,23 +1404,84 @@ public class AppMetadataStore {
     }
 
     List<Field<?>> keys = getProgramRunPrimaryKeys(workflowRunId);
+    getWorkflowTokenDeltasTable().deleteAll(Range.singleton(keys));
     keys.add(Fields.stringField(StoreDefinition.AppMetadataStore.WORKFLOW_DATA, GSON.toJson(workflowToken)));
     getWorkflowsTable().upsert(keys);
   }
 
+  /**
+   * Appends the values added to the {@link WorkflowToken} of the given workflow run since it was last written.
+   * The deltas are stored separately from the token, and are applied to it when the token is read. Once there are
+   * {@link #WORKFLOW_TOKEN_MAX_DELTAS} deltas, they are compacted into the token.
+   *
+   * @param workflowRunId the {@link ProgramRunId} representing the workflow run
+   * @param delta the delta of the {@link WorkflowToken}, as returned by {@link BasicWorkflowToken#getDelta}
+   */
+  public void appendWorkflowTokenDelta(ProgramRunId workflowRunId, BasicWorkflowToken delta) throws IOException {
+    if (workflowRunId.getType() != ProgramType.WORKFLOW) {
+      throw new IllegalArgumentException("WorkflowToken can only be set for workflow execution: " + workflowRunId);
+    }
+
+    // the sequence is inverted in the key, so the first row is the last delta appended
+    List<Field<?>> keys = getProgramRunPrimaryKeys(workflowRunId);
+    long sequence = 0;
+    try (CloseableIterator<StructuredRow> iterator =
+           getWorkflowTokenDeltasTable().scan(Range.singleton(keys), 1)) {
+      if (iterator.hasNext()) {
+        sequence = Long.MAX_VALUE - iterator.next().getLong(StoreDefinition.AppMetadataStore.DELTA_SEQUENCE) + 1;
+      }
+    }
+
+    if (sequence >= WORKFLOW_TOKEN_MAX_DELTAS) {
+      BasicWorkflowToken token = getWorkflowToken(workflowRunId);
+      token.applyDelta(delta);
+      setWorkflowToken(workflowRunId, token);
+      return;
+    }
+
+    keys.add(Fields.longField(StoreDefinition.AppMetadataStore.DELTA_SEQUENCE, Long.MAX_VALUE - sequence));
+    String nodeId = delta.getCurrentNode();
+    keys.add(Fields.stringField(StoreDefinition.AppMetadataStore.NODE_ID, nodeId == null ? "" : nodeId));
+    keys.add(Fields.stringField(StoreDefinition.AppMetadataStore.WORKFLOW_DATA, GSON.toJson(delta)));
+    getWorkflowTokenDeltasTable().upsert(keys);
+  }
+
   public WorkflowToken getWorkflowToken(ProgramId workflowId, String workflowRunId)
     throws IOException {
     Preconditions.checkArgument(ProgramType.WORKFLOW == workflowId.getType());
-    List<Field<?>> keys = getProgramRunPrimaryKeys(workflowId.run(workflowRunId));
-    Optional<StructuredRow> row = getWorkflowsTable().read(keys);
+    return getWorkflowToken(workflowId.run(workflowRunId));
+  }
+
+  private BasicWorkflowToken getWorkflowToken(ProgramRunId workflowRunId) throws IOException {
+    List<Field<?>> keys = getProgramRunPrimaryKeys(workflowRunId);
+    BasicWorkflowToken token = getWorkflowsTable().read(keys)
+      .map(row -> GSON.fromJson(row.getString(StoreDefinition.AppMetadataStore.WORKFLOW_DATA),
+                                BasicWorkflowToken.class))
+      .orElse(null);
 
-    if (!row.isPresent()) {
-      LOG.debug("No workflow token available for workflow: {}, runId: {}", workflowId, workflowRunId);
+    // the deltas are scanned from the last one appended to the first one
+    List<BasicWorkflowToken> deltas = new ArrayList<>();
+    try (CloseableIterator<StructuredRow> iterator =
+           getWorkflowTokenDeltasTable().scan(Range.singleton(keys), Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        deltas.add(GSON.fromJson(iterator.next().getString(StoreDefinition.AppMetadataStore.WORKFLOW_DATA),
+                                 BasicWorkflowToken.class));
+      }
+    }
+    for (int i = deltas.size() - 1; i >= 0; i--) {
+      if (token == null) {
+        token = deltas.get(i);
+      } else {
+        token.applyDelta(deltas.get(i));
+      }
+    }
+
+    if (token == null) {
+      LOG.debug("No workflow token available for workflow run: {}", workflowRunId);
       // Its ok to not allow any updates by returning a 0 size token.
       return new BasicWorkflowToken(0);
     }
-
-    return GSON.fromJson(row.get().getString(StoreDefinition.AppMetadataStore.WORKFLOW_DATA), BasicWorkflowToken.class);
+    return token;
   }
 
   /**
@@ -1533,6 +1609,7 @@ public class AppMetadataStore {
     deleteTable(getWorkflowNodeStateTable(), StoreDefinition.AppMetadataStore.NAMESPACE_FIELD);
     deleteTable(getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_STATUS);
     deleteTable(getWorkflowsTable(), StoreDefinition.AppMetadataStore.NAMESPACE_FIELD);
+    deleteTable(getWorkflowTokenDeltasTable(), StoreDefinition.AppMetadataStore.NAMESPACE_FIELD);
     deleteTable(getProgramCountsTable(), StoreDefinition.AppMetadataStore.COUNT_TYPE);
     deleteTable(getSubscriberStateTable(), StoreDefinition.AppMetadataStore.SUBSCRIBER_TOPIC);
   }
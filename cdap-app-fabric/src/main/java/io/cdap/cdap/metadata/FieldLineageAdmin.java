@@ -157,35 +157,34 @@ public class FieldLineageAdmin {
     Map<DatasetId, Set<FieldRelation>> incomingRelations = new HashMap<>();
     Map<DatasetId, Set<FieldRelation>> outgoingRelations = new HashMap<>();
     Map<DatasetId, Integer> fieldCount = new HashMap<>();
-    for (String field : lineageFields) {
-      EndPointField endPointField = new EndPointField(endPoint, field);
 
+    // fetch the summaries of all the fields at once, rather than scanning the checksums in range for every field
+    boolean incoming = direction == Constants.FieldLineage.Direction.INCOMING ||
+      direction == Constants.FieldLineage.Direction.BOTH;
+    boolean outgoing = direction == Constants.FieldLineage.Direction.OUTGOING ||
+      direction == Constants.FieldLineage.Direction.BOTH;
+    Map<String, Set<EndPointField>> incomingSummaries = incoming ?
+      fieldLineageReader.getIncomingSummaries(endPoint, start, end) : Collections.emptyMap();
+    Map<String, Set<EndPointField>> outgoingSummaries = outgoing ?
+      fieldLineageReader.getOutgoingSummaries(endPoint, start, end) : Collections.emptyMap();
+
+    for (String field : lineageFields) {
       // compute the incoming field level lineage
-      if (direction == Constants.FieldLineage.Direction.INCOMING ||
-        direction == Constants.FieldLineage.Direction.BOTH) {
+      if (incoming) {
         Map<DatasetId, Set<String>> incomingSummary =
-          convertSummaryToDatasetMap(fieldLineageReader.getIncomingSummary(endPointField, start, end));
+          convertSummaryToDatasetMap(incomingSummaries.getOrDefault(field, Collections.emptySet()));
         // compute the field count for all incoming datasets
-        incomingSummary.keySet().forEach(datasetId -> {
-          fieldCount.computeIfAbsent(
-            datasetId, missingDataset -> missingDataset == null ? 0 : fieldLineageReader.getFields(
-              EndPoint.of(missingDataset.getNamespace(), missingDataset.getDataset()), start, end).size());
-        });
+        addFieldCounts(fieldCount, incomingSummary.keySet(), start, end);
         // here the field itself will be the destination
         computeAndAddRelations(incomingRelations, field, true, incomingSummary);
       }
 
       // compute the outgoing field level lineage
-      if (direction == Constants.FieldLineage.Direction.OUTGOING ||
-        direction == Constants.FieldLineage.Direction.BOTH) {
+      if (outgoing) {
         Map<DatasetId, Set<String>> outgoingSummary =
-          convertSummaryToDatasetMap(fieldLineageReader.getOutgoingSummary(endPointField, start, end));
+          convertSummaryToDatasetMap(outgoingSummaries.getOrDefault(field, Collections.emptySet()));
         // compute the field count for all outgoing datasets
-        outgoingSummary.keySet().forEach(datasetId -> {
-          fieldCount.computeIfAbsent(
-            datasetId, missingDataset -> missingDataset == null ? 0 : fieldLineageReader.getFields(
-              EndPoint.of(missingDataset.getNamespace(), missingDataset.getDataset()), start, end).size());
-        });
+        addFieldCounts(fieldCount, outgoingSummary.keySet(), start, end);
         // here the field itself will be the source
         computeAndAddRelations(outgoingRelations, field, false, outgoingSummary);
       }
@@ -198,6 +197,18 @@ public class FieldLineageAdmin {
                                           allFields, fieldCount, incomingRelations, outgoingRelations);
   }
 
+  /**
+   * Adds the number of fields of the given datasets to the field counts. The fields of each dataset are only looked up
+   * once per request, no matter how many fields of the dataset are related to the fields of the requested dataset.
+   */
+  private void addFieldCounts(Map<DatasetId, Integer> fieldCount, Set<DatasetId> datasets, long start, long end) {
+    for (DatasetId dataset : datasets) {
+      fieldCount.computeIfAbsent(
+        dataset, missingDataset -> missingDataset == null ? 0 : fieldLineageReader.getFields(
+          EndPoint.of(missingDataset.getNamespace(), missingDataset.getDataset()), start, end).size());
+    }
+  }
+
   /**
    * Compute the relations from the given summary and add the field relation to the map of relations. The field is
    * either the source or the destination in the relation.
@@ -127,6 +127,7 @@ public class LineageAdmin {
     LOG.trace("Using scan start = {}, scan end = {}", scanRange.getStart(), scanRange.getEnd());
 
     Multimap<RelationKey, Relation> relations = HashMultimap.create();
+    // every dataset and program is expanded at most once, the next level only contains the ones not visited yet
     Set<DatasetId> visitedDatasets = new HashSet<>();
     Set<DatasetId> toVisitDatasets = new HashSet<>();
     Set<ProgramId> visitedPrograms = new HashSet<>();
@@ -134,48 +135,51 @@ public class LineageAdmin {
     // this map is to map the inner program run id to the workflow run id, this is needed to collapse the inner
     // program and local datasets
     Map<ProgramRunId, ProgramRunId> programWorkflowMap = new HashMap<>();
+    WorkflowRunResolver workflowRunResolver = new WorkflowRunResolver();
 
     toVisitDatasets.add(sourceData);
-    for (int i = 0; i < levels; ++i) {
+    for (int i = 0; i < levels && !toVisitDatasets.isEmpty(); ++i) {
       LOG.trace("Level {}", i);
       toVisitPrograms.clear();
-      for (DatasetId d : toVisitDatasets) {
-        if (visitedDatasets.add(d)) {
-          LOG.trace("Visiting dataset {}", d);
-          // Fetch related programs, the programs will be the inner programs which access the datasets. For example,
-          // mapreduce or spark program in a workflow
-          Set<Relation> programRelations = lineageStoreReader.getRelations(d, scanRange.getStart(), scanRange.getEnd(),
-                                                                           scanRange.getFilter());
-          LOG.trace("Got program relations {}", programRelations);
-
-          // if we want to roll up lineage for workflow, we need to figure out what workflow these programs are related
-          // to and find out all the inner programs of that workflow, the workflow run id can also be used to
-          // determine if a dataset is local dataset. The local dataset always ends with the workflow run id
-          if (rollUpWorkflow) {
-            computeWorkflowInnerPrograms(toVisitPrograms, programWorkflowMap, programRelations);
-          }
-
-          // add to the relations, replace the inner program with the workflow using the map, ignore the
-          // local datasets relations, the local dataset always ends with the run id of the workflow
-          filterAndAddRelations(rollUpWorkflow, relations, programWorkflowMap, programRelations);
-          toVisitPrograms.addAll(programRelations.stream().map(Relation::getProgram).collect(Collectors.toSet()));
+      toVisitDatasets.removeAll(visitedDatasets);
+      visitedDatasets.addAll(toVisitDatasets);
+      if (!toVisitDatasets.isEmpty()) {
+        LOG.trace("Visiting datasets {}", toVisitDatasets);
+        // Fetch related programs of all the datasets of this level at once, the programs will be the inner programs
+        // which access the datasets. For example, mapreduce or spark program in a workflow
+        Set<Relation> programRelations = lineageStoreReader.getDatasetRelations(toVisitDatasets, scanRange.getStart(),
+                                                                                scanRange.getEnd(),
+                                                                                scanRange.getFilter());
+        LOG.trace("Got program relations {}", programRelations);
+
+        // if we want to roll up lineage for workflow, we need to figure out what workflow these programs are related
+        // to and find out all the inner programs of that workflow, the workflow run id can also be used to
+        // determine if a dataset is local dataset. The local dataset always ends with the workflow run id
+        if (rollUpWorkflow) {
+          computeWorkflowInnerPrograms(toVisitPrograms, programWorkflowMap, workflowRunResolver, programRelations);
         }
+
+        // add to the relations, replace the inner program with the workflow using the map, ignore the
+        // local datasets relations, the local dataset always ends with the run id of the workflow
+        filterAndAddRelations(rollUpWorkflow, relations, programWorkflowMap, programRelations);
+        toVisitPrograms.addAll(programRelations.stream().map(Relation::getProgram).collect(Collectors.toSet()));
       }
 
       toVisitDatasets.clear();
-      for (ProgramId p : toVisitPrograms) {
-        if (visitedPrograms.add(p)) {
-          LOG.trace("Visiting program {}", p);
-          // Fetch related datasets
-          Set<Relation> datasetRelations = lineageStoreReader.getRelations(p, scanRange.getStart(),
-                                                                           scanRange.getEnd(), scanRange.getFilter());
-          LOG.trace("Got data relations {}", datasetRelations);
-          Set<DatasetId> localDatasets = filterAndAddRelations(rollUpWorkflow, relations,
-                                                               programWorkflowMap, datasetRelations);
-          toVisitDatasets.addAll(
-            datasetRelations.stream().map(relation -> (DatasetId) relation.getData())
-              .filter(datasetId -> !localDatasets.contains(datasetId)).collect(Collectors.toSet()));
-        }
+      toVisitPrograms.removeAll(visitedPrograms);
+      visitedPrograms.addAll(toVisitPrograms);
+      if (!toVisitPrograms.isEmpty()) {
+        LOG.trace("Visiting programs {}", toVisitPrograms);
+        // Fetch related datasets of all the programs of this level at once
+        Set<Relation> datasetRelations = lineageStoreReader.getProgramRelations(toVisitPrograms, scanRange.getStart(),
+                                                                                scanRange.getEnd(),
+                                                                                scanRange.getFilter());
+        LOG.trace("Got data relations {}", datasetRelations);
+        Set<DatasetId> localDatasets = filterAndAddRelations(rollUpWorkflow, relations,
+                                                             programWorkflowMap, datasetRelations);
+        datasetRelations.stream().map(relation -> (DatasetId) relation.getData())
+          .filter(datasetId -> !localDatasets.contains(datasetId) && !visitedDatasets.contains(datasetId))
+          .forEach(toVisitDatasets::add);
       }
     }
 
@@ -216,23 +220,28 @@ public class LineageAdmin {
    *
    * @param toVisitPrograms the collection of next to visit programs
    * @param programWorkflowMap the program workflow run id map
-   * @param programRelations the program relations of the dataset
+   * @param resolver the run records and application specifications already fetched for this lineage request
+   * @param programRelations the program relations of the datasets
    */
   private void computeWorkflowInnerPrograms(Set<ProgramId> toVisitPrograms,
                                             Map<ProgramRunId, ProgramRunId> programWorkflowMap,
+                                            WorkflowRunResolver resolver,
                                             Set<Relation> programRelations) {
     // Step 1 walk through the program relations, filter out the possible mapreduce and spark programs that
     // could be in the workflow, and get the appSpec for the program, to determine what other programs
-    // are in the workflow
-    Map<ApplicationId, ApplicationSpecification> appSpecs = new HashMap<>();
+    // are in the workflow. Runs that were already looked up at a previous level are skipped.
     Set<ProgramRunId> possibleInnerPrograms = new HashSet<>();
     programRelations.forEach(relation -> {
       ProgramType type = relation.getProgram().getType();
-      if (type.equals(ProgramType.MAPREDUCE) || type.equals(ProgramType.SPARK)) {
+      if ((type.equals(ProgramType.MAPREDUCE) || type.equals(ProgramType.SPARK))
+        && resolver.resolvedRuns.add(relation.getProgramRunId())) {
         possibleInnerPrograms.add(relation.getProgramRunId());
-        appSpecs.computeIfAbsent(relation.getProgram().getParent(), store::getApplication);
+        resolver.appSpecs.computeIfAbsent(relation.getProgram().getParent(), store::getApplication);
       }
     });
+    if (possibleInnerPrograms.isEmpty()) {
+      return;
+    }
 
     // Step 2, get the run record for all the possible inner programs, the run record contains the
     // workflow information, fetch the workflow id and add them to the map
@@ -247,10 +256,16 @@ public class LineageAdmin {
         if (runRecord.getSystemArgs().containsKey(ProgramOptionConstants.WORKFLOW_RUN_ID)) {
           ProgramRunId wfRunId = extractWorkflowRunId(programRunId, runRecord);
           programWorkflowMap.put(programRunId, wfRunId);
-          workflowRunIds.add(wfRunId);
+          // the inner programs of a workflow run only need to be added once
+          if (resolver.resolvedWorkflowRuns.add(wfRunId)) {
+            workflowRunIds.add(wfRunId);
+          }
         }
       }
     );
+    if (workflowRunIds.isEmpty()) {
+      return;
+    }
 
     // Step 3, fetch run records of the workflow, the properties of the workflow run record has all
     // the inner program run ids, compare them with the app spec to get the type of the program
@@ -260,7 +275,7 @@ public class LineageAdmin {
       .forEach(entry -> {
         ProgramRunId programRunId = entry.getKey();
         RunRecordMeta runRecord = entry.getValue();
-        extractAndAddInnerPrograms(toVisitPrograms, programWorkflowMap, appSpecs, programRunId, runRecord);
+        extractAndAddInnerPrograms(toVisitPrograms, programWorkflowMap, resolver.appSpecs, programRunId, runRecord);
       });
   }
 
@@ -350,6 +365,16 @@ public class LineageAdmin {
     }
   }
 
+  /**
+   * Keeps track of the run records and application specifications fetched while rolling up programs into workflows
+   * during a lineage request, so that they are not fetched again for every level of the lineage.
+   */
+  private static final class WorkflowRunResolver {
+    private final Map<ApplicationId, ApplicationSpecification> appSpecs = new HashMap<>();
+    private final Set<ProgramRunId> resolvedRuns = new HashSet<>();
+    private final Set<ProgramRunId> resolvedWorkflowRuns = new HashSet<>();
+  }
+
   /**
    * This class helps collapsing access type of {@link Relation} by ignoring the access type in equals and hashCode
    * so that it can be used as the map key for Relations of different access types.
@@ -108,6 +108,7 @@ public class MetadataSubscriberService extends AbstractMessagingSubscriberServic
   private final MultiThreadMessagingContext messagingContext;
   private final TransactionRunner transactionRunner;
   private final int maxRetriesOnConflict;
+  private final boolean prefetchEnabled;
 
   private String conflictMessageId = null;
   private int conflictCount = 0;
@@ -136,6 +137,12 @@ public class MetadataSubscriberService extends AbstractMessagingSubscriberServic
     this.metadataStorage = metadataStorage;
     this.transactionRunner = transactionRunner;
     this.maxRetriesOnConflict = cConf.getInt(Constants.Metadata.MESSAGING_RETRIES_ON_CONFLICT);
+    this.prefetchEnabled = cConf.getBoolean(Constants.Metadata.MESSAGING_PREFETCH_ENABLED);
+  }
+
+  @Override
+  protected boolean isPrefetchEnabled() {
+    return prefetchEnabled;
   }
 
   @Override
@@ -328,8 +335,9 @@ public class MetadataSubscriberService extends AbstractMessagingSubscriberServic
 
       switch (message.getType()) {
         case WORKFLOW_TOKEN:
+          // the token only contains the values added since it was last published
           AppMetadataStore.create(context)
-            .setWorkflowToken(programRunId, message.getPayload(GSON, BasicWorkflowToken.class));
+            .appendWorkflowTokenDelta(programRunId, message.getPayload(GSON, BasicWorkflowToken.class));
           break;
         case WORKFLOW_STATE:
           AppMetadataStore.create(context)
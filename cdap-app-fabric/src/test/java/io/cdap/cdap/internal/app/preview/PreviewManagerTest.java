@@ -34,6 +34,7 @@ import io.cdap.cdap.app.preview.DefaultPreviewRunnerModule;
 import io.cdap.cdap.app.preview.PreviewHttpModule;
 import io.cdap.cdap.app.preview.PreviewManager;
 import io.cdap.cdap.app.preview.PreviewRequest;
+import io.cdap.cdap.app.preview.PreviewRequestHolder;
 import io.cdap.cdap.app.preview.PreviewRunner;
 import io.cdap.cdap.app.preview.PreviewRunnerModule;
 import io.cdap.cdap.app.preview.PreviewRunnerModuleFactory;
@@ -44,6 +45,8 @@ import io.cdap.cdap.common.guice.ConfigModule;
 import io.cdap.cdap.common.guice.IOModule;
 import io.cdap.cdap.common.guice.InMemoryDiscoveryModule;
 import io.cdap.cdap.common.guice.NonCustomLocationUnitTestModule;
+import io.cdap.cdap.common.utils.DirUtils;
+import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.config.PreferencesService;
 import io.cdap.cdap.config.guice.ConfigStoreModule;
 import io.cdap.cdap.data.runtime.DataFabricModules;
@@ -66,6 +69,7 @@ import io.cdap.cdap.metrics.query.MetricsQueryHelper;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.artifact.AppRequest;
 import io.cdap.cdap.proto.artifact.preview.PreviewConfig;
+import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
@@ -80,14 +84,23 @@ import io.cdap.cdap.security.spi.authorization.PrivilegesManager;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tephra.TransactionManager;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -98,15 +111,27 @@ public class PreviewManagerTest {
   @ClassRule
   public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
   private static final AtomicReference<PreviewStatus> PREVIEW_STATUS = new AtomicReference<>();
+  private static final AtomicInteger RUNNERS_CREATED = new AtomicInteger();
+  private static final AtomicInteger RUNNERS_RESET = new AtomicInteger();
+  private static final AtomicInteger RUNNERS_STOPPED = new AtomicInteger();
+  private static final AtomicBoolean FAIL_START = new AtomicBoolean();
 
   private TransactionManager txManager;
   private PreviewManager previewManager;
+  private Path previewDataDir;
 
   @Before
   public void init() throws Exception {
+    RUNNERS_CREATED.set(0);
+    RUNNERS_RESET.set(0);
+    RUNNERS_STOPPED.set(0);
+    FAIL_START.set(false);
+
     CConfiguration cConf = CConfiguration.create();
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
     cConf.setInt(Constants.Preview.PREVIEW_CACHE_SIZE, 2);
+    cConf.setInt(Constants.Preview.PREVIEW_POOL_SIZE, 1);
+    previewDataDir = Paths.get(cConf.get(Constants.CFG_LOCAL_DATA_DIR), "preview");
 
     Injector injector = Guice.createInjector(
       new ConfigModule(cConf, new Configuration()),
@@ -198,6 +223,130 @@ public class PreviewManagerTest {
                                                                previewConfig));
   }
 
+  @Test
+  public void testPoolReuse() throws Exception {
+    // The pool is filled when the manager starts
+    Tasks.waitFor(1, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+
+    PreviewConfig previewConfig = new PreviewConfig("test", ProgramType.WORKFLOW, null, null);
+    ApplicationId preview1 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    ApplicationId preview2 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    MockPreviewRunner runner1 = (MockPreviewRunner) previewManager.getRunner(preview1);
+    MockPreviewRunner runner2 = (MockPreviewRunner) previewManager.getRunner(preview2);
+
+    // Each preview took a runner from the pool, which was refilled with a new one
+    Tasks.waitFor(3, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+
+    PREVIEW_STATUS.set(new PreviewStatus(PreviewStatus.Status.COMPLETED, null,
+                                         System.currentTimeMillis(), System.currentTimeMillis()));
+
+    // Starting a third preview evicts one of the completed ones, whose runner is reset and returned to the pool
+    previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(new ArtifactSummary("test", "1.0"), null,
+                                                               previewConfig));
+    Tasks.waitFor(1, RUNNERS_RESET::get, 10, TimeUnit.SECONDS);
+    Tasks.waitFor(1, this::getPooledEnvironmentCount, 10, TimeUnit.SECONDS);
+    MockPreviewRunner evicted = isRunning(preview1) ? runner2 : runner1;
+    Assert.assertNull(evicted.getPreviewRequest());
+
+    // The fourth preview reuses the runner of the evicted preview instead of a new one
+    ApplicationId preview4 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    Assert.assertSame(evicted, previewManager.getRunner(preview4));
+    Assert.assertEquals(preview4, evicted.getPreviewRequest().getProgram().getParent());
+    Tasks.waitFor(2, RUNNERS_RESET::get, 10, TimeUnit.SECONDS);
+    Tasks.waitFor(1, this::getPooledEnvironmentCount, 10, TimeUnit.SECONDS);
+    Assert.assertEquals(3, RUNNERS_CREATED.get());
+  }
+
+  @Test
+  public void testPoolStopIdle() throws Exception {
+    Tasks.waitFor(1, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+
+    PreviewConfig previewConfig = new PreviewConfig("test", ProgramType.WORKFLOW, null, null);
+    ApplicationId preview1 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    ApplicationId preview2 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    MockPreviewRunner runner1 = (MockPreviewRunner) previewManager.getRunner(preview1);
+    MockPreviewRunner runner2 = (MockPreviewRunner) previewManager.getRunner(preview2);
+    Tasks.waitFor(3, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+    // The services of running previews are never stopped
+    Assert.assertEquals(0, RUNNERS_STOPPED.get());
+
+    PREVIEW_STATUS.set(new PreviewStatus(PreviewStatus.Status.COMPLETED, null,
+                                         System.currentTimeMillis(), System.currentTimeMillis()));
+
+    // Starting a third preview evicts one of the completed ones. Since all the previews appear completed, the run
+    // services are only kept for the most recent preview, which is as many as the pool size.
+    ApplicationId preview3 = previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(
+      new ArtifactSummary("test", "1.0"), null, previewConfig));
+    MockPreviewRunner runner3 = (MockPreviewRunner) previewManager.getRunner(preview3);
+    Tasks.waitFor(1, RUNNERS_STOPPED::get, 10, TimeUnit.SECONDS);
+    MockPreviewRunner remaining = isRunning(preview1) ? runner1 : runner2;
+    Assert.assertTrue(remaining.runServicesStopped);
+    Assert.assertFalse(runner3.runServicesStopped);
+    Assert.assertEquals(1, RUNNERS_STOPPED.get());
+  }
+
+  @Test
+  public void testPoolFailure() throws Exception {
+    Tasks.waitFor(1, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+    List<File> poolDirs = listPoolDirs();
+    Assert.assertEquals(1, poolDirs.size());
+
+    // Failing to assign the request to the pooled environment should discard the environment
+    Files.createDirectories(poolDirs.get(0).toPath().resolve("preview.program"));
+    PreviewConfig previewConfig = new PreviewConfig("test", ProgramType.WORKFLOW, null, null);
+    try {
+      previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(new ArtifactSummary("test", "1.0"), null,
+                                                                 previewConfig));
+      Assert.fail("Expected failure in assigning the preview request to the pooled environment");
+    } catch (IOException e) {
+      // expected
+    }
+    Assert.assertFalse(poolDirs.get(0).exists());
+
+    // A new environment is added to the pool, and the failed preview doesn't take a preview slot
+    Tasks.waitFor(2, RUNNERS_CREATED::get, 10, TimeUnit.SECONDS);
+    Tasks.waitFor(1, () -> listPoolDirs().size(), 10, TimeUnit.SECONDS);
+
+    // Failing to start the preview should return the environment to the pool after reset
+    FAIL_START.set(true);
+    try {
+      previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(new ArtifactSummary("test", "1.0"), null,
+                                                                 previewConfig));
+      Assert.fail("Expected failure in starting the preview");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Tasks.waitFor(1, RUNNERS_RESET::get, 10, TimeUnit.SECONDS);
+
+    FAIL_START.set(false);
+    previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(new ArtifactSummary("test", "1.0"), null,
+                                                               previewConfig));
+    previewManager.start(NamespaceId.DEFAULT, new AppRequest<>(new ArtifactSummary("test", "1.0"), null,
+                                                               previewConfig));
+  }
+
+  private int getPooledEnvironmentCount() {
+    return ((DefaultPreviewManager) previewManager).getPooledEnvironmentCount();
+  }
+
+  private boolean isRunning(ApplicationId preview) {
+    try {
+      previewManager.getRunner(preview);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private List<File> listPoolDirs() {
+    return DirUtils.listFiles(previewDataDir.toFile(), f -> f.isDirectory() && f.getName().startsWith("pool-"));
+  }
+
   /**
    * Mocking the {@link Module} to provide a binding to the {@link MockPreviewRunner}.
    */
@@ -208,9 +357,9 @@ public class PreviewManagerTest {
                             AuthorizerInstantiator authorizerInstantiator, AuthorizationEnforcer authorizationEnforcer,
                             PrivilegesManager privilegesManager, PreferencesService preferencesService,
                             ProgramRuntimeProviderLoader programRuntimeProviderLoader,
-                            @Assisted PreviewRequest previewRequest) {
+                            @Assisted PreviewRequestHolder previewRequestHolder) {
       super(artifactRepository, artifactStore, authorizerInstantiator, authorizationEnforcer,
-            privilegesManager, preferencesService, programRuntimeProviderLoader, previewRequest);
+            privilegesManager, preferencesService, programRuntimeProviderLoader, previewRequestHolder);
     }
 
     @Override
@@ -224,22 +373,26 @@ public class PreviewManagerTest {
    */
   private static final class MockPreviewRunner implements PreviewRunner {
 
-    private final PreviewRequest previewRequest;
+    private final PreviewRequestHolder previewRequestHolder;
+    private volatile boolean runServicesStopped;
 
     @Inject
-    MockPreviewRunner(PreviewRequest previewRequest) {
-      this.previewRequest = previewRequest;
+    MockPreviewRunner(PreviewRequestHolder previewRequestHolder) {
+      this.previewRequestHolder = previewRequestHolder;
+      RUNNERS_CREATED.incrementAndGet();
     }
 
 
     @Override
     public PreviewRequest getPreviewRequest() {
-      return previewRequest;
+      return previewRequestHolder.get();
     }
 
     @Override
     public void startPreview() {
-      // no-op
+      if (FAIL_START.get()) {
+        throw new IllegalStateException("Failed to start preview");
+      }
     }
 
     @Override
@@ -276,5 +429,16 @@ public class PreviewManagerTest {
     public MetricsQueryHelper getMetricsQueryHelper() {
       return null;
     }
+
+    @Override
+    public void reset() {
+      RUNNERS_RESET.incrementAndGet();
+    }
+
+    @Override
+    public void stopRunServices() {
+      runServicesStopped = true;
+      RUNNERS_STOPPED.incrementAndGet();
+    }
   }
 }
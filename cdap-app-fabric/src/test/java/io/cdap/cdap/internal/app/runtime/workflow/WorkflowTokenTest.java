@@ -96,6 +96,38 @@ public class WorkflowTokenTest {
     }
   }
 
+  @Test
+  public void testDelta() {
+    BasicWorkflowToken token = new BasicWorkflowToken(1);
+    token.setCurrentNode("node1");
+    token.put("k1", "v1");
+    token.put("k2", "v2");
+
+    // the delta of a token without a previous version contains all the values
+    BasicWorkflowToken previous = token.getDelta(null);
+    Assert.assertEquals(token.getAll(), previous.getAll());
+    Assert.assertTrue(token.getDelta(previous).isEmpty());
+
+    token.setCurrentNode("node2");
+    token.put("k1", "v3");
+    token.put("k3", "v4");
+    token.setCurrentNode("node1");
+    token.put("k2", "v5");
+
+    BasicWorkflowToken delta = token.getDelta(previous);
+    Assert.assertEquals("v3", delta.get("k1", "node2").toString());
+    Assert.assertEquals("v5", delta.get("k2", "node1").toString());
+    Assert.assertEquals("v4", delta.get("k3").toString());
+    Assert.assertNull(delta.get("k1", "node1"));
+
+    // applying the delta to the previous version gives back the token
+    previous.applyDelta(delta);
+    for (WorkflowToken.Scope scope : WorkflowToken.Scope.values()) {
+      Assert.assertEquals(token.getAll(scope), previous.getAll(scope));
+    }
+    Assert.assertTrue(token.getDelta(previous).isEmpty());
+  }
+
   private String generateDataInKb(int kb) {
     int bytes = kb * 1024;
     StringBuilder sb = new StringBuilder(kb);
@@ -23,10 +23,12 @@ import com.google.common.collect.Lists;
 import io.cdap.cdap.AllProgramsApp;
 import io.cdap.cdap.api.app.ApplicationSpecification;
 import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.workflow.WorkflowToken;
 import io.cdap.cdap.common.app.RunIds;
 import io.cdap.cdap.internal.AppFabricTestHelper;
 import io.cdap.cdap.internal.app.deploy.Specifications;
 import io.cdap.cdap.internal.app.runtime.SystemArguments;
+import io.cdap.cdap.internal.app.runtime.workflow.BasicWorkflowToken;
 import io.cdap.cdap.proto.ProgramRunStatus;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ApplicationId;
@@ -266,6 +268,46 @@ public abstract class AppMetadataStoreTest {
     Assert.assertEquals(expectedRunStatus, resultRecord.get().getStatus());
   }
 
+  @Test
+  public void testWorkflowTokenDeltas() {
+    ProgramId workflowId = NamespaceId.DEFAULT.app("app").workflow("workflow");
+    ProgramRunId runId = workflowId.run(RunIds.generate());
+
+    BasicWorkflowToken token = new BasicWorkflowToken(1);
+    BasicWorkflowToken published = null;
+    // append enough deltas for them to be compacted into the token
+    for (int i = 0; i < 50; i++) {
+      token.setCurrentNode("node" + i);
+      token.put("key" + (i % 7), "value" + i);
+      BasicWorkflowToken delta = token.getDelta(published);
+      if (published == null) {
+        published = delta.getDelta(null);
+      } else {
+        published.applyDelta(delta);
+      }
+
+      TransactionRunners.run(transactionRunner, context -> {
+        AppMetadataStore.create(context).appendWorkflowTokenDelta(runId, delta);
+      });
+      WorkflowToken stored = TransactionRunners.run(transactionRunner, context -> {
+        return AppMetadataStore.create(context).getWorkflowToken(workflowId, runId.getRun());
+      });
+      Assert.assertEquals(token.getAll(), stored.getAll());
+    }
+
+    // setting the whole token replaces the deltas
+    BasicWorkflowToken replacement = new BasicWorkflowToken(1);
+    replacement.setCurrentNode("node");
+    replacement.put("key", "value");
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore.create(context).setWorkflowToken(runId, replacement);
+    });
+    WorkflowToken stored = TransactionRunners.run(transactionRunner, context -> {
+      return AppMetadataStore.create(context).getWorkflowToken(workflowId, runId.getRun());
+    });
+    Assert.assertEquals(replacement.getAll(), stored.getAll());
+  }
+
   @Test
   public void testScanRunningInRangeWithBatch() throws Exception {
     // Add some run records
@@ -76,6 +76,24 @@ public class FakeFieldLineageReader implements FieldLineageReader {
     return outgoingSummary.getOrDefault(endPointField.getField(), summary);
   }
 
+  @Override
+  public Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start, long end) {
+    Map<String, Set<EndPointField>> summaries = new HashMap<>();
+    for (String field : getFields(endPoint, start, end)) {
+      summaries.put(field, incomingSummary.getOrDefault(field, summary));
+    }
+    return summaries;
+  }
+
+  @Override
+  public Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start, long end) {
+    Map<String, Set<EndPointField>> summaries = new HashMap<>();
+    for (String field : getFields(endPoint, start, end)) {
+      summaries.put(field, outgoingSummary.getOrDefault(field, summary));
+    }
+    return summaries;
+  }
+
   @Override
   public List<ProgramRunOperations> getIncomingOperations(EndPointField endPointField, long start, long end) {
     return programRunOperations;
@@ -2324,7 +2324,29 @@ public class DataPipelineTest extends HydratorTestBase {
     testInnerJoinWithMultiOutput(Engine.SPARK);
   }
 
+  @Test
+  public void testBroadcastInnerJoinSpark() throws Exception {
+    // broadcast one of the required inputs, including the first one, which would otherwise be the base of the join
+    testInnerJoinWithMultiOutput(Engine.SPARK, "broadcast",
+                                 Collections.singletonMap("spark.cdap.pipeline.join.broadcast.innerJoiner-broadcast",
+                                                          "t1,t3"));
+  }
+
+  @Test
+  public void testBroadcastInnerJoinFallbackSpark() throws Exception {
+    // inputs above the broadcast record limit should be joined with a shuffle join instead
+    Map<String, String> runtimeArgs = new HashMap<>();
+    runtimeArgs.put("spark.cdap.pipeline.join.broadcast.innerJoiner-broadcastFallback", "t1,t3");
+    runtimeArgs.put("spark.cdap.pipeline.broadcast.join.max.records", "1");
+    testInnerJoinWithMultiOutput(Engine.SPARK, "broadcastFallback", runtimeArgs);
+  }
+
   private void testInnerJoinWithMultiOutput(Engine engine) throws Exception {
+    testInnerJoinWithMultiOutput(engine, engine.name(), Collections.emptyMap());
+  }
+
+  private void testInnerJoinWithMultiOutput(Engine engine, String suffix,
+                                            Map<String, String> runtimeArgs) throws Exception {
     Schema inputSchema1 = Schema.recordOf(
       "customerRecord",
       Schema.Field.of("customer_id", Schema.of(Schema.Type.STRING)),
@@ -2346,14 +2368,14 @@ public class DataPipelineTest extends HydratorTestBase {
       Schema.Field.of("c_name", Schema.of(Schema.Type.STRING))
     );
 
-    String input1Name = "source1InnerJoinInput-" + engine;
-    String input2Name = "source2InnerJoinInput-" + engine;
-    String input3Name = "source3InnerJoinInput-" + engine;
-    String outputName = "innerJoinOutput-" + engine;
-    String outputName2 = "innerJoinOutput2-" + engine;
-    String joinerName = "innerJoiner-" + engine;
-    String sinkName = "innerJoinSink-" + engine;
-    String sinkName2 = "innerJoinSink-2" + engine;
+    String input1Name = "source1InnerJoinInput-" + suffix;
+    String input2Name = "source2InnerJoinInput-" + suffix;
+    String input3Name = "source3InnerJoinInput-" + suffix;
+    String outputName = "innerJoinOutput-" + suffix;
+    String outputName2 = "innerJoinOutput2-" + suffix;
+    String joinerName = "innerJoiner-" + suffix;
+    String sinkName = "innerJoinSink-" + suffix;
+    String sinkName2 = "innerJoinSink-2" + suffix;
     ETLBatchConfig etlConfig = ETLBatchConfig.builder()
       .addStage(new ETLStage("source1", MockSource.getPlugin(input1Name, inputSchema1)))
       .addStage(new ETLStage("source2", MockSource.getPlugin(input2Name, inputSchema2)))
@@ -2378,7 +2400,7 @@ public class DataPipelineTest extends HydratorTestBase {
       .build();
 
     AppRequest<ETLBatchConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
-    ApplicationId appId = NamespaceId.DEFAULT.app("InnerJoinApp-" + engine);
+    ApplicationId appId = NamespaceId.DEFAULT.app("InnerJoinApp-" + suffix);
     ApplicationManager appManager = deployApplication(appId, appRequest);
 
     Schema outSchema = Schema.recordOf(
@@ -2420,7 +2442,7 @@ public class DataPipelineTest extends HydratorTestBase {
     MockSource.writeInput(inputManager, ImmutableList.of(recordTrasCar, recordTrasBike));
 
     WorkflowManager workflowManager = appManager.getWorkflowManager(SmartWorkflow.NAME);
-    workflowManager.start();
+    workflowManager.start(runtimeArgs);
     workflowManager.waitForRun(ProgramRunStatus.COMPLETED, 5, TimeUnit.MINUTES);
 
     StructuredRecord joinRecordSamuel = StructuredRecord.builder(outSchema)
@@ -199,7 +199,8 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
       JavaStreamingContext jssc = new JavaStreamingContext(
         javaSparkContext, Durations.milliseconds(pipelineSpec.getBatchIntervalMillis()));
       SparkStreamingPipelineRunner runner = new SparkStreamingPipelineRunner(sec, jssc, pipelineSpec,
-                                                                             pipelineSpec.isCheckpointsDisabled());
+                                                                             pipelineSpec.isCheckpointsDisabled(),
+                                                                             checkpointDir != null);
       PipelinePluginContext pluginContext = new PipelinePluginContext(sec.getPluginContext(), sec.getMetrics(),
                                                                       pipelineSpec.isStageLoggingEnabled(),
                                                                       pipelineSpec.isProcessTimingEnabled());
@@ -23,12 +23,17 @@ import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.api.JoinElement;
 import io.cdap.cdap.etl.api.streaming.StreamingContext;
 import io.cdap.cdap.etl.api.streaming.StreamingSource;
+import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.common.StageStatisticsCollector;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
+import io.cdap.cdap.etl.spark.Compat;
 import io.cdap.cdap.etl.spark.SparkCollection;
 import io.cdap.cdap.etl.spark.SparkPairCollection;
 import io.cdap.cdap.etl.spark.SparkPipelineRunner;
+import io.cdap.cdap.etl.spark.StreamingCompat;
+import io.cdap.cdap.etl.spark.function.AggregatorStateFunction;
+import io.cdap.cdap.etl.spark.function.FlatMapFunc;
 import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
 import io.cdap.cdap.etl.spark.plugin.SparkPipelinePluginContext;
 import io.cdap.cdap.etl.spark.streaming.DStreamCollection;
@@ -36,31 +41,43 @@ import io.cdap.cdap.etl.spark.streaming.DefaultStreamingContext;
 import io.cdap.cdap.etl.spark.streaming.DynamicDriverContext;
 import io.cdap.cdap.etl.spark.streaming.PairDStreamCollection;
 import io.cdap.cdap.etl.spark.streaming.function.CountingTransformFunction;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorCombine;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorGroupBy;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicJoinMerge;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicJoinOn;
 import io.cdap.cdap.etl.spark.streaming.function.WrapOutputTransformFunction;
 import io.cdap.cdap.etl.spark.streaming.function.preview.LimitingFunction;
+import org.apache.spark.streaming.Duration;
+import org.apache.spark.streaming.Durations;
 import org.apache.spark.streaming.api.java.JavaDStream;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
 import org.apache.spark.streaming.api.java.JavaStreamingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Driver for running pipelines using Spark Streaming.
  */
 public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
+  private static final Logger LOG = LoggerFactory.getLogger(SparkStreamingPipelineRunner.class);
 
   private final JavaSparkExecutionContext sec;
   private final JavaStreamingContext streamingContext;
   private final DataStreamsPipelineSpec spec;
   private final boolean checkpointsDisabled;
+  private final boolean checkpointDirSet;
 
   public SparkStreamingPipelineRunner(JavaSparkExecutionContext sec, JavaStreamingContext streamingContext,
-                                      DataStreamsPipelineSpec spec, boolean checkpointsDisabled) {
+                                      DataStreamsPipelineSpec spec, boolean checkpointsDisabled,
+                                      boolean checkpointDirSet) {
     this.sec = sec;
     this.streamingContext = streamingContext;
     this.checkpointsDisabled = checkpointsDisabled;
+    this.checkpointDirSet = checkpointDirSet;
     this.spec = spec;
   }
 
@@ -123,4 +140,50 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
     JavaDStream<Object> result = pairDStream.transform(new DynamicJoinMerge<>(dynamicDriverContext));
     return new DStreamCollection<>(sec, result);
   }
+
+  @Override
+  protected SparkCollection<RecordInfo<Object>> reduceAggregate(StageSpec stageSpec, SparkCollection<Object> stageData,
+                                                                @Nullable Integer partitions,
+                                                                StageStatisticsCollector collector) throws Exception {
+    String stageName = stageSpec.getName();
+    Map<String, String> arguments = sec.getRuntimeArguments();
+    if (!Boolean.parseBoolean(arguments.get(Constants.SPARK_PIPELINE_INCREMENTAL_AGGREGATE_PREFIX + stageName))) {
+      return super.reduceAggregate(stageSpec, stageData, partitions, collector);
+    }
+    if (!checkpointDirSet) {
+      LOG.warn("Incremental aggregation for stage '{}' requires checkpointing to be enabled. " +
+                 "Each batch will be aggregated separately instead.", stageName);
+      return super.reduceAggregate(stageSpec, stageData, partitions, collector);
+    }
+
+    String timeoutSeconds = arguments.get(Constants.SPARK_PIPELINE_AGGREGATE_STATE_TIMEOUT_PREFIX + stageName);
+    Duration timeout = timeoutSeconds == null ? null : Durations.seconds(Long.parseLong(timeoutSeconds));
+
+    // combine the values of each group within the batch, then merge the partial aggregate of the batch into
+    // the aggregate kept in state, so that the work done per batch only depends on the size of the batch
+    DynamicDriverContext dynamicDriverContext = new DynamicDriverContext(stageSpec, sec, collector);
+    JavaDStream<Object> dStream = stageData.getUnderlying();
+    JavaPairDStream<Object, Object> partialAggregates = dStream
+      .transformToPair(new DynamicAggregatorGroupBy<Object, Object>(dynamicDriverContext))
+      .transformToPair(new DynamicAggregatorCombine<Object, Object, Object>(dynamicDriverContext, partitions));
+
+    AggregatorStateFunction<Object, Object, Object> stateFunction =
+      new AggregatorStateFunction<>(new PluginFunctionContext(stageSpec, sec, collector));
+    JavaDStream<List<RecordInfo<Object>>> aggregates =
+      StreamingCompat.mapWithState(partialAggregates, stateFunction, partitions, timeout);
+    return new DStreamCollection<>(sec, aggregates.flatMap(Compat.convert(new FlattenFunction<RecordInfo<Object>>())));
+  }
+
+  /**
+   * Flattens the lists of records emitted for each group.
+   *
+   * @param <T> type of record
+   */
+  private static final class FlattenFunction<T> implements FlatMapFunc<List<T>, T> {
+
+    @Override
+    public Iterable<T> call(List<T> records) {
+      return records;
+    }
+  }
 }
@@ -78,6 +78,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -640,6 +641,82 @@ public class DataStreamsTest extends HydratorTestBase {
     sparkManager.stop();
   }
 
+  @Test
+  public void testIncrementalAggregator() throws Exception {
+    /*
+     * source --> aggregator --> sink
+     */
+    Schema schema = Schema.recordOf("data", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    List<StructuredRecord> input = new ArrayList<>();
+    // the gap between the two 'b' records is longer than the state timeout, but the gaps between 'a' records are not
+    for (String x : new String[] { "a", "b", "a", "a", "a", "a", "a", "a", "b" }) {
+      input.add(StructuredRecord.builder(schema).set("x", x).build());
+    }
+
+    String sinkName = "incrementalAggOut";
+    // source sleeps 1.5 seconds between outputs, so the records arrive in different batches
+    DataStreamsConfig etlConfig = DataStreamsConfig.builder()
+      .addStage(new ETLStage("source", MockSource.getPlugin(schema, input, 1500L)))
+      .addStage(new ETLStage("agg", FieldCountAggregator.getPlugin("x", "string")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(sinkName)))
+      .addConnection("source", "agg")
+      .addConnection("agg", "sink")
+      .setBatchInterval("1s")
+      .setCheckpointDir(checkpointDir)
+      .build();
+
+    AppRequest<DataStreamsConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("IncrementalAggApp");
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    Map<String, String> arguments = new HashMap<>();
+    arguments.put("spark.cdap.pipeline.aggregate.incremental.agg", "true");
+    arguments.put("spark.cdap.pipeline.aggregate.state.timeout.seconds.agg", "5");
+
+    SparkManager sparkManager = appManager.getSparkManager(DataStreamsSparkLauncher.NAME);
+    sparkManager.start(arguments);
+    sparkManager.waitForRun(ProgramRunStatus.RUNNING, 10, TimeUnit.SECONDS);
+
+    // every batch emits the running count of the groups that received records in the batch
+    DataSetManager<Table> outputManager = getDataset(sinkName);
+    Tasks.waitFor(
+      true,
+      () -> {
+        outputManager.flush();
+        Map<String, Long> maxCounts = new HashMap<>();
+        int bOutputs = 0;
+        for (StructuredRecord record : MockSink.readOutput(outputManager)) {
+          String x = record.get("x");
+          long count = record.get("ct");
+          maxCounts.merge(x, count, Long::max);
+          if ("b".equals(x)) {
+            bOutputs++;
+          }
+        }
+        return Long.valueOf(9L).equals(maxCounts.get("all")) && Long.valueOf(7L).equals(maxCounts.get("a"))
+          && bOutputs == 2;
+      },
+      2,
+      TimeUnit.MINUTES);
+
+    sparkManager.stop();
+    sparkManager.waitForStopped(30, TimeUnit.SECONDS);
+
+    // the counts of groups that keep receiving records accumulate across batches,
+    // while the state of 'b' is removed after the timeout, so that the second 'b' is counted from scratch
+    Map<String, List<Long>> counts = new HashMap<>();
+    for (StructuredRecord record : MockSink.readOutput(outputManager)) {
+      counts.computeIfAbsent(record.get("x"), k -> new ArrayList<>()).add(record.get("ct"));
+    }
+    Assert.assertEquals(Arrays.asList(1L, 1L), counts.get("b"));
+    // the output is in the order it was written, and the running counts only grow
+    for (String x : Arrays.asList("a", "all")) {
+      List<Long> sorted = new ArrayList<>(counts.get(x));
+      Collections.sort(sorted);
+      Assert.assertEquals(sorted, counts.get(x));
+    }
+  }
+
   @Test
   public void testJoin() throws Exception {
     /*
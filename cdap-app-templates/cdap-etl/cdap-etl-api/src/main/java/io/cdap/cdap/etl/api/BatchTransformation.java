@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+import java.util.Collection;
+
+/**
+ * A {@link Transformation} that can process a batch of records in a single call. This allows per-call overhead,
+ * such as setting up the logging context or timing the operation, to be paid once per batch instead of once
+ * per record. Use {@link #of(Transformation)} to get a batch view of any transformation.
+ *
+ * @param <IN> Type of input object
+ * @param <OUT> Type of output object
+ */
+@Beta
+public interface BatchTransformation<IN, OUT> extends Transformation<IN, OUT> {
+
+  /**
+   * Transform a batch of input records, emitting output records in the same order as if each input
+   * was passed to {@link #transform(Object, Emitter)} in turn.
+   *
+   * @param inputs the inputs to transform
+   * @param emitter {@link Emitter} to emit data to the next stage
+   * @throws Exception if there's an error during this method invocation
+   */
+  void transformBatch(Collection<IN> inputs, Emitter<OUT> emitter) throws Exception;
+
+  /**
+   * Returns the given transformation as a {@link BatchTransformation}. If it already is one, it is returned as is.
+   * Otherwise the returned transformation calls {@link Transformation#transform(Object, Emitter)} once per record.
+   */
+  @SuppressWarnings("unchecked")
+  static <IN, OUT> BatchTransformation<IN, OUT> of(Transformation<IN, OUT> transformation) {
+    if (transformation instanceof BatchTransformation) {
+      return (BatchTransformation<IN, OUT>) transformation;
+    }
+    return new BatchTransformation<IN, OUT>() {
+      @Override
+      public void transformBatch(Collection<IN> inputs, Emitter<OUT> emitter) throws Exception {
+        for (IN input : inputs) {
+          transformation.transform(input, emitter);
+        }
+      }
+
+      @Override
+      public void transform(IN input, Emitter<OUT> emitter) throws Exception {
+        transformation.transform(input, emitter);
+      }
+    };
+  }
+}
@@ -33,14 +33,14 @@ public final class CacheConfig {
   }
 
   /**
-   * @return expiry after write in seconds
+   * @return expiry after write in seconds, or a non-positive number if entries never expire
    */
   public long getExpirySeconds() {
     return expirySeconds;
   }
 
   /**
-   * @return maximum number of elements in the cache
+   * @return maximum number of elements in the cache, or a non-positive number to use the default maximum
    */
   public int getMaxSize() {
     return maxSize;
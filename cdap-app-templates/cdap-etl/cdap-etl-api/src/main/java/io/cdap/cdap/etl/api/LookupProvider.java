@@ -29,4 +29,18 @@ public interface LookupProvider {
    * @return a {@link Lookup} instance
    */
   <T> Lookup<T> provide(String table, Map<String, String> arguments);
+
+  /**
+   * Provides a {@link Lookup} configured by a {@link LookupTableConfig}. If caching is enabled in the config,
+   * implementations may return a {@link Lookup} that caches the values it reads according to the
+   * {@link CacheConfig}, so that repeated lookups of the same key do not read the table again.
+   *
+   * @param table the name of the {@link Lookup} table
+   * @param config the configuration for the {@link Lookup} table
+   * @param <T> the type of value returned by the {@link Lookup}
+   * @return a {@link Lookup} instance
+   */
+  default <T> Lookup<T> provide(String table, LookupTableConfig config) {
+    return provide(table, config.getDatasetProperties());
+  }
 }
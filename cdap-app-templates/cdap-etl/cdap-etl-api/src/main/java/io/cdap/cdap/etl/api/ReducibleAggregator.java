@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+import java.util.Iterator;
+
+/**
+ * An optional contract for an {@link Aggregator} whose aggregation can be computed incrementally from partial
+ * aggregates. When an aggregator plugin implements this interface, the pipeline may combine values with the same
+ * group key before shuffling them, so that only partial aggregates are shuffled instead of every input object.
+ * Engines that don't support partial aggregation use {@link Aggregator#aggregate(Object, Iterator, Emitter)}
+ * instead, hence the result of both must be the same.
+ *
+ * The aggregate value type must be serializable by the engine in the same way as the group value.
+ *
+ * @param <GROUP_KEY> Type of group key
+ * @param <GROUP_VALUE> Type of values to group
+ * @param <AGG_VALUE> Type of the partial aggregate value
+ * @param <OUT> Type of output object
+ */
+@Beta
+public interface ReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> {
+
+  /**
+   * Creates a partial aggregate from the first value of a group.
+   *
+   * @param groupValue the first value of a group
+   * @return the partial aggregate containing the given value
+   * @throws Exception if there is some error creating the partial aggregate
+   */
+  AGG_VALUE initializeAggregateValue(GROUP_VALUE groupValue) throws Exception;
+
+  /**
+   * Merges a value of a group into a partial aggregate of the same group.
+   * The given partial aggregate can be modified and returned.
+   *
+   * @param aggValue the partial aggregate
+   * @param groupValue the value to merge into the partial aggregate
+   * @return the merged partial aggregate
+   * @throws Exception if there is some error merging the value
+   */
+  AGG_VALUE mergeValues(AGG_VALUE aggValue, GROUP_VALUE groupValue) throws Exception;
+
+  /**
+   * Merges two partial aggregates of the same group, which were computed on different partitions.
+   * The first partial aggregate can be modified and returned.
+   *
+   * @param value1 the first partial aggregate
+   * @param value2 the second partial aggregate
+   * @return the merged partial aggregate
+   * @throws Exception if there is some error merging the partial aggregates
+   */
+  AGG_VALUE mergePartitions(AGG_VALUE value1, AGG_VALUE value2) throws Exception;
+
+  /**
+   * Emits zero or more output objects from the complete aggregate of a group.
+   *
+   * @param groupKey the key for the group
+   * @param aggValue the aggregate of all values in the group
+   * @param emitter the emitter to emit aggregate values for the group
+   * @throws Exception if there is some error emitting the output
+   */
+  void finalizeAggregate(GROUP_KEY groupKey, AGG_VALUE aggValue, Emitter<OUT> emitter) throws Exception;
+}
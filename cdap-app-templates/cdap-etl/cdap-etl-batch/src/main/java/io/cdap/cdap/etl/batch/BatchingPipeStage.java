@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch;
+
+import io.cdap.cdap.etl.api.BatchTransformation;
+import io.cdap.cdap.etl.api.Destroyable;
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.Transformation;
+import io.cdap.cdap.etl.common.Destroyables;
+import io.cdap.cdap.etl.common.RecordInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processes stages that can be represented as a Transformation in batches. Gets the value from each RecordInfo
+ * and buffers it until the batch is full or the stage is flushed, then passes the whole batch to the underlying
+ * transformation.
+ *
+ * @param <T> type of input object
+ */
+public class BatchingPipeStage<T> extends PipeStage<RecordInfo<T>> {
+  private final Transformation<T, Object> transform;
+  private final Emitter<Object> emitter;
+  private final int batchSize;
+  private final List<T> buffer;
+
+  public BatchingPipeStage(String stageName, Transformation<T, Object> transform, Emitter<Object> emitter,
+                           int batchSize) {
+    super(stageName);
+    this.transform = transform;
+    this.emitter = emitter;
+    this.batchSize = batchSize;
+    this.buffer = new ArrayList<>(batchSize);
+  }
+
+  @Override
+  public void consumeInput(RecordInfo<T> input) throws Exception {
+    buffer.add(input.getValue());
+    if (buffer.size() >= batchSize) {
+      flushInputs();
+    }
+  }
+
+  @Override
+  protected void flushInputs() throws Exception {
+    if (buffer.isEmpty()) {
+      return;
+    }
+    try {
+      BatchTransformation.of(transform).transformBatch(buffer, emitter);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (transform instanceof Destroyable) {
+      Destroyables.destroyQuietly((Destroyable) transform);
+    }
+  }
+}
@@ -22,7 +22,8 @@ import io.cdap.cdap.etl.api.Destroyable;
 
 /**
  * A stage in the PipeTransformExecutor. Pipe transforms should send each output record immediately to all output stages
- * without buffering anything in memory.
+ * without buffering anything in memory, unless they buffer a bounded batch of inputs that is sent on when
+ * {@link #flush()} is called.
  *
  * @param <T> type of input record
  */
@@ -42,19 +43,37 @@ public abstract class PipeStage<T> implements Destroyable {
   public void consume(T input) {
     try {
       consumeInput(input);
-    } catch (StageFailureException e) {
-      // Another stage has already failed, just throw the exception as-is
-      throw e;
     } catch (Exception e) {
-      Throwable rootCause = Throwables.getRootCause(e);
-      // Create StageFailureException to save the Stage information
-      throw new StageFailureException(
-        String.format("Failed to execute pipeline stage '%s' with the error: %s. Please review your pipeline " +
-                        "configuration and check the system logs for more details.", stageName, rootCause.getMessage()),
-        rootCause);
+      throw wrapFailure(e);
+    }
+  }
+
+  /**
+   * Process any inputs buffered by this stage and send the resulting records to the relevant output transforms.
+   *
+   * @throws StageFailureException if there was an exception processing the buffered inputs
+   */
+  public void flush() {
+    try {
+      flushInputs();
+    } catch (Exception e) {
+      throw wrapFailure(e);
     }
   }
 
+  private StageFailureException wrapFailure(Exception e) {
+    if (e instanceof StageFailureException) {
+      // Another stage has already failed, just throw the exception as-is
+      return (StageFailureException) e;
+    }
+    Throwable rootCause = Throwables.getRootCause(e);
+    // Create StageFailureException to save the Stage information
+    return new StageFailureException(
+      String.format("Failed to execute pipeline stage '%s' with the error: %s. Please review your pipeline " +
+                      "configuration and check the system logs for more details.", stageName, rootCause.getMessage()),
+      rootCause);
+  }
+
   /**
    * Consume an input record, throwing an exception if there is a failure
    *
@@ -62,4 +81,14 @@ public abstract class PipeStage<T> implements Destroyable {
    * @throws Exception if there was a failure processing the input
    */
   protected abstract void consumeInput(T input) throws Exception;
+
+  /**
+   * Process any buffered inputs, throwing an exception if there is a failure. Stages that do not buffer their
+   * inputs have nothing to do.
+   *
+   * @throws Exception if there was a failure processing the buffered inputs
+   */
+  protected void flushInputs() throws Exception {
+    // no-op
+  }
 }
@@ -20,6 +20,7 @@ import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.common.RecordType;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,10 +32,13 @@ import java.util.Set;
 public class PipeTransformExecutor<IN> implements Destroyable {
   private final Set<String> startingPoints;
   private final Map<String, PipeStage> pipeStages;
+  private final List<String> topologicalOrder;
 
-  public PipeTransformExecutor(Map<String, PipeStage> pipeStages, Set<String> startingPoints) {
+  public PipeTransformExecutor(Map<String, PipeStage> pipeStages, Set<String> startingPoints,
+                               List<String> topologicalOrder) {
     this.pipeStages = pipeStages;
     this.startingPoints = startingPoints;
+    this.topologicalOrder = topologicalOrder;
   }
 
   public void runOneIteration(IN input) {
@@ -44,6 +48,19 @@ public class PipeTransformExecutor<IN> implements Destroyable {
     }
   }
 
+  /**
+   * Sends all records buffered by the stages on to their outputs. Stages are flushed in topological order so that
+   * records flushed from one stage are also flushed from any buffering stages downstream of it.
+   */
+  public void flush() {
+    for (String stageName : topologicalOrder) {
+      PipeStage pipeStage = pipeStages.get(stageName);
+      if (pipeStage != null) {
+        pipeStage.flush();
+      }
+    }
+  }
+
   @Override
   public void destroy() {
     for (PipeStage stage : pipeStages.values()) {
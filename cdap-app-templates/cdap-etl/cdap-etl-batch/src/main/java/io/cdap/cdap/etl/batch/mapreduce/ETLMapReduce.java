@@ -236,6 +236,11 @@ public class ETLMapReduce extends AbstractMapReduce {
       }
     }
 
+    @Override
+    protected void cleanup(Mapper.Context context) {
+      flush(transformRunner);
+    }
+
     @Override
     public void destroy() {
       transformRunner.destroy();
@@ -274,9 +279,29 @@ public class ETLMapReduce extends AbstractMapReduce {
       }
     }
 
+    @Override
+    protected void cleanup(Context context) {
+      flush(transformRunner);
+    }
+
     @Override
     public void destroy() {
       transformRunner.destroy();
     }
   }
+
+  /**
+   * Sends any records still buffered in the pipeline to the task outputs. This happens in the task cleanup rather
+   * than in destroy, since the outputs are closed by the time destroy is called.
+   */
+  private static void flush(TransformRunner<?, ?> transformRunner) {
+    try {
+      transformRunner.flush();
+    } catch (StageFailureException e) {
+      PIPELINE_LOG.error("{}", e.getMessage(), e.getCause());
+      Throwables.propagate(e.getCause());
+    } catch (Exception e) {
+      Throwables.propagate(e);
+    }
+  }
 }
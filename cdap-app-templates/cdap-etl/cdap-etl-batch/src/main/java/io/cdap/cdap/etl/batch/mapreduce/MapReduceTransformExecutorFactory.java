@@ -33,12 +33,14 @@ import io.cdap.cdap.etl.api.Joiner;
 import io.cdap.cdap.etl.api.SplitterTransform;
 import io.cdap.cdap.etl.api.StageLifecycle;
 import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.TransformContext;
 import io.cdap.cdap.etl.api.Transformation;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchJoiner;
 import io.cdap.cdap.etl.api.batch.BatchJoinerRuntimeContext;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
+import io.cdap.cdap.etl.batch.BatchingPipeStage;
 import io.cdap.cdap.etl.batch.ConnectorSourceEmitter;
 import io.cdap.cdap.etl.batch.DirectOutputPipeStage;
 import io.cdap.cdap.etl.batch.MultiOutputTransformPipeStage;
@@ -71,6 +73,7 @@ import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -94,6 +97,7 @@ public class MapReduceTransformExecutorFactory<T> {
   private final String mapOutputValClassName;
   private final BasicArguments arguments;
   private final boolean isPipelineContainsCondition;
+  private final int transformBatchSize;
   private boolean isMapPhase;
 
   public MapReduceTransformExecutorFactory(MapReduceTaskContext taskContext,
@@ -115,6 +119,8 @@ public class MapReduceTransformExecutorFactory<T> {
     this.isMapPhase = hadoopContext instanceof Mapper.Context;
     this.arguments = arguments;
     this.isPipelineContainsCondition = isPipelineContainsCondition;
+    String batchSize = arguments.get(Constants.MAPREDUCE_PIPELINE_TRANSFORM_BATCH_SIZE);
+    this.transformBatchSize = batchSize == null ? Constants.DEFAULT_TRANSFORM_BATCH_SIZE : Integer.parseInt(batchSize);
   }
 
   private MapReduceRuntimeContext createRuntimeContext(StageSpec stageInfo) {
@@ -204,7 +210,8 @@ public class MapReduceTransformExecutorFactory<T> {
     throws Exception {
     // populate the pipe stages in reverse topological order to ensure that an output is always created before its
     // input. this will allow us to setup all outputs for a stage when we get to it.
-    List<String> traversalOrder = pipeline.getDag().getTopologicalOrder();
+    List<String> topologicalOrder = pipeline.getDag().getTopologicalOrder();
+    List<String> traversalOrder = new ArrayList<>(topologicalOrder);
     Collections.reverse(traversalOrder);
 
     Map<String, PipeStage> pipeStages = new HashMap<>();
@@ -214,7 +221,7 @@ public class MapReduceTransformExecutorFactory<T> {
 
     // sourceStageName will be null in reducers, so need to handle that case
     Set<String> startingPoints = (sourceStageName == null) ? pipeline.getSources() : Sets.newHashSet(sourceStageName);
-    return new PipeTransformExecutor<>(pipeStages, startingPoints);
+    return new PipeTransformExecutor<>(pipeStages, startingPoints, topologicalOrder);
   }
 
   private PipeStage getPipeStage(PipelinePhase pipeline, String stageName, Map<String, PipeStage> pipeStages,
@@ -291,6 +298,9 @@ public class MapReduceTransformExecutorFactory<T> {
     if (SplitterTransform.PLUGIN_TYPE.equals(pluginType)) {
       // this is a SplitterTransform, needs to emit records to the right outputs based on port
       return new MultiOutputTransformPipeStage<>(stageName, getMultiOutputTransform(stageSpec), pipeEmitter);
+    } else if (Transform.PLUGIN_TYPE.equals(pluginType) && transformBatchSize > 1) {
+      // transforms are given their inputs in batches, which are flushed when the task finishes
+      return new BatchingPipeStage<>(stageName, getTransformation(stageSpec), pipeEmitter, transformBatchSize);
     } else {
       return new UnwrapPipeStage<>(stageName, getTransformation(stageSpec), pipeEmitter);
     }
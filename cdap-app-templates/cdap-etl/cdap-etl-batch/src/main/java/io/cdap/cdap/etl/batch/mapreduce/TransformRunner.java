@@ -141,6 +141,14 @@ public class TransformRunner<KEY, VALUE> {
     transformExecutor.runOneIteration(input);
   }
 
+  /**
+   * Sends any records buffered by the pipeline stages on to the outputs. Must be called before the task's outputs
+   * are closed.
+   */
+  public void flush() {
+    transformExecutor.flush();
+  }
+
   public void destroy() {
     Destroyables.destroyQuietly(transformExecutor);
   }
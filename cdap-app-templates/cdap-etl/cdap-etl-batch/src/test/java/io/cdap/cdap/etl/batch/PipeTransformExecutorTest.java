@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.etl.api.BatchTransformation;
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.common.RecordInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link PipeTransformExecutor} with stages that buffer their inputs.
+ */
+public class PipeTransformExecutorTest {
+
+  @Test
+  public void testBatchingStages() {
+    // src -> t1 (batches of 2) -> t2 (batches of 3) -> sink
+    List<Object> output = new ArrayList<>();
+    PipeStage<RecordInfo<Object>> sink = new PipeStage<RecordInfo<Object>>("sink") {
+      @Override
+      protected void consumeInput(RecordInfo<Object> input) {
+        output.add(input.getValue());
+      }
+
+      @Override
+      public void destroy() {
+        // no-op
+      }
+    };
+    List<Integer> t1Batches = new ArrayList<>();
+    BatchTransformation<Object, Object> t1 = new BatchTransformation<Object, Object>() {
+      @Override
+      public void transformBatch(Collection<Object> inputs, Emitter<Object> emitter) throws Exception {
+        t1Batches.add(inputs.size());
+        for (Object input : inputs) {
+          transform(input, emitter);
+        }
+      }
+
+      @Override
+      public void transform(Object input, Emitter<Object> emitter) {
+        emitter.emit(input);
+      }
+    };
+
+    Map<String, PipeStage> stages = new HashMap<>();
+    stages.put("sink", sink);
+    stages.put("t2", new BatchingPipeStage<>("t2", (input, emitter) -> emitter.emit(input),
+                                             PipeEmitter.builder("t2").addOutputConsumer((PipeStage) sink).build(), 3));
+    stages.put("t1", new BatchingPipeStage<>("t1", t1,
+                                             PipeEmitter.builder("t1").addOutputConsumer(stages.get("t2")).build(), 2));
+    stages.put("src", new UnwrapPipeStage<>("src", (input, emitter) -> emitter.emit(input),
+                                            PipeEmitter.builder("src").addOutputConsumer(stages.get("t1")).build()));
+    PipeTransformExecutor<Object> executor =
+      new PipeTransformExecutor<>(stages, ImmutableSet.of("src"), ImmutableList.of("src", "t1", "t2", "sink"));
+
+    for (int i = 0; i < 5; i++) {
+      executor.runOneIteration(i);
+    }
+    // t1 has sent on two full batches, and t2 has sent on one full batch
+    Assert.assertEquals(ImmutableList.of(2, 2), t1Batches);
+    Assert.assertEquals(ImmutableList.of(0, 1, 2), output);
+
+    // flushing should push the partial batch in t1 through the partial batch in t2, preserving order
+    executor.flush();
+    Assert.assertEquals(ImmutableList.of(2, 2, 1), t1Batches);
+    Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4), output);
+
+    // flushing again should do nothing since nothing is buffered
+    executor.flush();
+    Assert.assertEquals(ImmutableList.of(2, 2, 1), t1Batches);
+    Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4), output);
+  }
+
+  @Test
+  public void testFlushFailure() {
+    Map<String, PipeStage> stages = new HashMap<>();
+    stages.put("t1", new BatchingPipeStage<>("t1", (input, emitter) -> {
+      throw new IllegalStateException("bad input " + input);
+    }, PipeEmitter.builder("t1").build(), 10));
+    PipeTransformExecutor<Object> executor =
+      new PipeTransformExecutor<>(stages, ImmutableSet.of("t1"), ImmutableList.of("t1"));
+
+    // the failure only happens when the buffered batch is processed
+    executor.runOneIteration("x");
+    try {
+      executor.flush();
+      Assert.fail("Expected flush to fail");
+    } catch (StageFailureException e) {
+      Assert.assertTrue(e.getMessage().contains("'t1'"));
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+}
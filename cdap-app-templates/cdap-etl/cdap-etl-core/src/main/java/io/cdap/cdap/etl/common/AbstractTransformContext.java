@@ -18,6 +18,7 @@ package io.cdap.cdap.etl.common;
 
 import io.cdap.cdap.etl.api.Lookup;
 import io.cdap.cdap.etl.api.LookupProvider;
+import io.cdap.cdap.etl.api.LookupTableConfig;
 import io.cdap.cdap.etl.api.TransformContext;
 import io.cdap.cdap.etl.api.lineage.field.FieldOperation;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
@@ -44,6 +45,15 @@ public abstract class AbstractTransformContext extends AbstractStageContext impl
     return lookup.provide(table, arguments);
   }
 
+  @Override
+  public <T> Lookup<T> provide(String table, LookupTableConfig config) {
+    Lookup<T> tableLookup = lookup.provide(table, config.getDatasetProperties());
+    if (!config.isCacheEnabled()) {
+      return tableLookup;
+    }
+    return new CachingLookup<>(tableLookup, config.getCacheConfig(), getMetrics());
+  }
+
   @Override
   public void record(List<FieldOperation> fieldOperations) {
     throw new UnsupportedOperationException("Lineage recording is not supported.");
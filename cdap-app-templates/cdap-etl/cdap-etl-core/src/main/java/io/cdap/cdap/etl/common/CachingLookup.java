@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.common;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.etl.api.CacheConfig;
+import io.cdap.cdap.etl.api.Lookup;
+import io.cdap.cdap.etl.api.StageMetrics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A read-through {@link Lookup} that caches values read from another {@link Lookup}, as configured by a
+ * {@link CacheConfig}. Keys that don't have a value are cached as well, so that lookups of missing keys
+ * don't read the table again. Cache hits and misses are emitted as stage metrics.
+ *
+ * @param <T> the type of object that will be returned for a lookup
+ */
+public class CachingLookup<T> implements Lookup<T> {
+
+  private static final int DEFAULT_MAX_SIZE = 10000;
+
+  private final Lookup<T> delegate;
+  private final Cache<String, Optional<T>> cache;
+  private final StageMetrics metrics;
+
+  public CachingLookup(Lookup<T> delegate, CacheConfig cacheConfig, StageMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+      .maximumSize(cacheConfig.getMaxSize() > 0 ? cacheConfig.getMaxSize() : DEFAULT_MAX_SIZE);
+    if (cacheConfig.getExpirySeconds() > 0) {
+      builder.expireAfterWrite(cacheConfig.getExpirySeconds(), TimeUnit.SECONDS);
+    }
+    this.cache = builder.build();
+  }
+
+  @Nullable
+  @Override
+  public T lookup(String key) {
+    Optional<T> cached = cache.getIfPresent(key);
+    if (cached != null) {
+      metrics.count(Constants.Metrics.LOOKUP_CACHE_HITS, 1);
+      return cached.orElse(null);
+    }
+    metrics.count(Constants.Metrics.LOOKUP_CACHE_MISSES, 1);
+    T value = delegate.lookup(key);
+    cache.put(key, Optional.ofNullable(value));
+    return value;
+  }
+
+  @Override
+  public Map<String, T> lookup(String... keys) {
+    return lookup(ImmutableSet.copyOf(keys));
+  }
+
+  @Override
+  public Map<String, T> lookup(Set<String> keys) {
+    Map<String, T> result = new HashMap<>();
+    Set<String> missing = new HashSet<>();
+    for (String key : keys) {
+      Optional<T> cached = cache.getIfPresent(key);
+      if (cached == null) {
+        missing.add(key);
+      } else {
+        result.put(key, cached.orElse(null));
+      }
+    }
+
+    if (!result.isEmpty()) {
+      metrics.count(Constants.Metrics.LOOKUP_CACHE_HITS, result.size());
+    }
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    // only read the keys that are not cached, in a single batch
+    metrics.count(Constants.Metrics.LOOKUP_CACHE_MISSES, missing.size());
+    Map<String, T> values = delegate.lookup(missing);
+    for (String key : missing) {
+      T value = values.get(key);
+      cache.put(key, Optional.ofNullable(value));
+      result.put(key, value);
+    }
+    return result;
+  }
+}
@@ -32,7 +32,17 @@ public final class Constants {
   public static final String FIELD_OPERATION_KEY_IN_WORKFLOW_TOKEN = "field.operations";
   public static final String SPARK_PIPELINE_AUTOCACHE_ENABLE_FLAG = "spark.cdap.pipeline.autocache.enable";
   public static final String SPARK_PIPELINE_CACHING_STORAGE_LEVEL = "spark.cdap.pipeline.caching.storage.level";
-  public static final String DEFAULT_CACHING_STORAGE_LEVEL = "MEMORY_AND_DISK"; 
+  public static final String SPARK_PIPELINE_BROADCAST_JOIN_PREFIX = "spark.cdap.pipeline.join.broadcast.";
+  public static final String SPARK_PIPELINE_BROADCAST_JOIN_MAX_RECORDS =
+    "spark.cdap.pipeline.broadcast.join.max.records";
+  public static final int DEFAULT_BROADCAST_JOIN_MAX_RECORDS = 1000000;
+  public static final String SPARK_PIPELINE_INCREMENTAL_AGGREGATE_PREFIX = "spark.cdap.pipeline.aggregate.incremental.";
+  public static final String SPARK_PIPELINE_AGGREGATE_STATE_TIMEOUT_PREFIX =
+    "spark.cdap.pipeline.aggregate.state.timeout.seconds.";
+  public static final String DEFAULT_CACHING_STORAGE_LEVEL = "MEMORY_AND_DISK";
+  public static final String SPARK_PIPELINE_TRANSFORM_BATCH_SIZE = "spark.cdap.pipeline.transform.batch.size";
+  public static final int DEFAULT_TRANSFORM_BATCH_SIZE = 100;
+  public static final String MAPREDUCE_PIPELINE_TRANSFORM_BATCH_SIZE = "pipeline.mapreduce.transform.batch.size";
 
   private Constants() {
     throw new AssertionError("Suppress default constructor for noninstantiability");
@@ -65,6 +75,8 @@ public final class Constants {
     public static final String RECORDS_ALERT = "records.alert";
     public static final String AGG_GROUPS = "aggregator.groups";
     public static final String JOIN_KEYS = "joiner.keys";
+    public static final String LOOKUP_CACHE_HITS = "lookup.cache.hits";
+    public static final String LOOKUP_CACHE_MISSES = "lookup.cache.misses";
   }
 
   /**
@@ -17,21 +17,24 @@
 package io.cdap.cdap.etl.common;
 
 import io.cdap.cdap.api.preview.DataTracer;
+import io.cdap.cdap.etl.api.BatchTransformation;
 import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.StageMetrics;
 import io.cdap.cdap.etl.api.Transformation;
 
+import java.util.Collection;
 import javax.annotation.Nullable;
 
 /**
  * A {@link Transformation} that delegates transform operations while emitting metrics
- * around how many records were input into the transform and output by it.
+ * around how many records were input into the transform and output by it. Batches of records are passed
+ * through to the delegate as a batch if it is a {@link BatchTransformation}.
  *
  * @param <IN> Type of input object
  * @param <OUT> Type of output object
  */
-public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destroyable {
+public class TrackedTransform<IN, OUT> implements BatchTransformation<IN, OUT>, Destroyable {
   private final Transformation<IN, OUT> transform;
   private final StageMetrics metrics;
   private final String metricInName;
@@ -75,6 +78,20 @@ public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destr
       new TrackedEmitter<>(emitter, metrics, metricOutName, dataTracer, collector));
   }
 
+  @Override
+  public void transformBatch(Collection<IN> inputs, Emitter<OUT> emitter) throws Exception {
+    if (metricInName != null) {
+      metrics.count(metricInName, inputs.size());
+      if (metricInName.equals(Constants.Metrics.RECORDS_IN)) {
+        for (int i = 0; i < inputs.size(); i++) {
+          collector.incrementInputRecordCount();
+        }
+      }
+    }
+    BatchTransformation.of(transform).transformBatch(inputs, metricOutName == null ? emitter :
+      new TrackedEmitter<>(emitter, metrics, metricOutName, dataTracer, collector));
+  }
+
   @Override
   public void destroy() {
     if (transform instanceof Destroyable) {
@@ -17,6 +17,7 @@
 package io.cdap.cdap.etl.common;
 
 import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.etl.api.BatchTransformation;
 import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.InvalidEntry;
 import io.cdap.cdap.etl.api.Transformation;
@@ -29,7 +30,8 @@ import java.util.Set;
 
 /**
  * Executes Transforms one iteration at a time, tracking how many records were input into and output from
- * each transform.
+ * each transform. An iteration can consist of a single record or a batch of records. When running a batch,
+ * each stage processes all of its input records before any of them are passed to the next stage.
  *
  * @param <IN> the type of input object to the first transform
  *
@@ -45,9 +47,19 @@ public class TransformExecutor<IN> implements Destroyable {
   }
 
   public TransformResponse runOneIteration(IN input) throws Exception {
+    return runBatch(ImmutableList.of(input));
+  }
+
+  /**
+   * Runs a batch of records through the transforms.
+   *
+   * @param inputs the records to pass to the starting points
+   * @return the records emitted by the terminal stages and the errors emitted by each stage
+   */
+  public TransformResponse runBatch(Collection<IN> inputs) throws Exception {
     for (String stageName : startingPoints) {
       // no prevStage for starting points
-      executeTransformation(stageName, ImmutableList.of(input));
+      executeTransformation(stageName, inputs);
     }
 
     Map<String, Collection<Object>> terminalNodeEntriesMap = new HashMap<>();
@@ -84,9 +96,7 @@ public class TransformExecutor<IN> implements Destroyable {
       transformDetail.getEntries().clear();
     }
 
-    for (T inputEntry : input) {
-      transformation.transform(inputEntry, transformDetail);
-    }
+    BatchTransformation.of(transformation).transformBatch(input, transformDetail);
 
     Collection<String> nextStages = transformDetail.getNextStages();
     for (String nextStage : nextStages) {
@@ -65,28 +65,42 @@ public class MetricsOperationTimer implements OperationTimer {
    */
   @Override
   public void reset() {
-    emitTimeMetrics(stopwatch.elapsedTime(TimeUnit.MICROSECONDS));
+    emitTimeMetrics(stopwatch.elapsedTime(TimeUnit.MICROSECONDS), 1);
     stopwatch.reset();
   }
 
-  private void emitTimeMetrics(long micros) {
+  /**
+   * Resets the stopwatch and updates the timing metrics as if the elapsed time was spent evenly across
+   * the given number of operations. The min and max time metrics will then reflect the average time of the
+   * operations in the batch rather than the fastest and slowest individual operation.
+   */
+  @Override
+  public void reset(int numOperations) {
+    emitTimeMetrics(stopwatch.elapsedTime(TimeUnit.MICROSECONDS), Math.max(1, numOperations));
+    stopwatch.reset();
+  }
+
+  private void emitTimeMetrics(long totalMicros, int numOperations) {
+    long micros = totalMicros / numOperations;
     maxTime = maxTime < micros ? micros : maxTime;
     minTime = minTime > micros ? micros : minTime;
+    long remaining = totalMicros;
     // this shouldn't normally happen, it means ~35 minutes were spent in a method call
-    while (micros > Integer.MAX_VALUE) {
+    while (remaining > Integer.MAX_VALUE) {
       stageMetrics.count(Constants.Metrics.TOTAL_TIME, Integer.MAX_VALUE);
-      micros -= Integer.MAX_VALUE;
+      remaining -= Integer.MAX_VALUE;
     }
-    stageMetrics.count(Constants.Metrics.TOTAL_TIME, (int) micros);
+    stageMetrics.count(Constants.Metrics.TOTAL_TIME, (int) remaining);
     stageMetrics.gauge(Constants.Metrics.MAX_TIME, maxTime);
     stageMetrics.gauge(Constants.Metrics.MIN_TIME, minTime);
 
-    // see https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Online_algorithm
-    numValues++;
+    // see https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm
+    // a batch is treated as numOperations values that are all equal to the per operation time
+    long prevNumValues = numValues;
+    numValues += numOperations;
     double delta = micros - mean;
-    mean += delta / numValues;
-    double delta2 = micros - mean;
-    m2 += delta * delta2;
+    mean += delta * numOperations / numValues;
+    m2 += delta * delta * prevNumValues * numOperations / numValues;
     double stddev = Math.sqrt(m2 / numValues);
 
     stageMetrics.gauge(Constants.Metrics.AVG_TIME, (long) mean);
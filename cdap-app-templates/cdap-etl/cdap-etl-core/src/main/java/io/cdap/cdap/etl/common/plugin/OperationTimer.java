@@ -42,4 +42,14 @@ public interface OperationTimer {
    * Resets the timer and updates the timing metrics.
    */
   void reset();
+
+  /**
+   * Resets the timer and updates the timing metrics, treating the elapsed time as having been spent evenly
+   * across the given number of operations. This is used when several operations are timed together as a batch.
+   *
+   * @param numOperations the number of operations that were timed
+   */
+  default void reset(int numOperations) {
+    reset();
+  }
 }
@@ -16,22 +16,25 @@
 
 package io.cdap.cdap.etl.common.plugin;
 
+import io.cdap.cdap.etl.api.BatchTransformation;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.StageSubmitterContext;
 import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.TransformContext;
 
+import java.util.Collection;
 import java.util.concurrent.Callable;
 
 /**
  * Wrapper around a {@link Transform} that makes sure logging, classloading, and other pipeline capabilities
- * are setup correctly.
+ * are setup correctly. When given a batch of records, the context is setup and the timer is started once for the
+ * entire batch rather than once per record.
  *
  * @param <IN> type of input
  * @param <OUT> type of output
  */
-public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> {
+public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> implements BatchTransformation<IN, OUT> {
   private final Transform<IN, OUT> transform;
   private final Caller caller;
   private final OperationTimer operationTimer;
@@ -94,4 +97,20 @@ public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> {
       operationTimer.reset();
     }
   }
+
+  @Override
+  public void transformBatch(Collection<IN> inputs, Emitter<OUT> emitter) throws Exception {
+    if (inputs.isEmpty()) {
+      return;
+    }
+    operationTimer.start();
+    try {
+      caller.call((Callable<Void>) () -> {
+        BatchTransformation.of(transform).transformBatch(inputs, new UntimedEmitter<>(emitter, operationTimer));
+        return null;
+      });
+    } finally {
+      operationTimer.reset(inputs.size());
+    }
+  }
 }
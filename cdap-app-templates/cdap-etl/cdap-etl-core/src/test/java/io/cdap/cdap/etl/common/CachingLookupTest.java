@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.common;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.etl.api.CacheConfig;
+import io.cdap.cdap.etl.api.Lookup;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for {@link CachingLookup}.
+ */
+public class CachingLookupTest {
+
+  @Test
+  public void testSingleLookup() {
+    MockMetrics metrics = new MockMetrics();
+    CountingLookup delegate = new CountingLookup(ImmutableMap.of("a", "1", "b", "2"));
+    Lookup<String> lookup = new CachingLookup<>(delegate, new CacheConfig(), new DefaultStageMetrics(metrics, "s"));
+
+    Assert.assertEquals("1", lookup.lookup("a"));
+    Assert.assertEquals("1", lookup.lookup("a"));
+    // missing keys are cached too
+    Assert.assertNull(lookup.lookup("c"));
+    Assert.assertNull(lookup.lookup("c"));
+
+    Assert.assertEquals(2, delegate.readKeys.size());
+    Assert.assertEquals(2, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_HITS));
+    Assert.assertEquals(2, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_MISSES));
+  }
+
+  @Test
+  public void testBatchLookupReadsOnlyMissingKeys() {
+    MockMetrics metrics = new MockMetrics();
+    CountingLookup delegate = new CountingLookup(ImmutableMap.of("a", "1", "b", "2"));
+    Lookup<String> lookup = new CachingLookup<>(delegate, new CacheConfig(), new DefaultStageMetrics(metrics, "s"));
+
+    Assert.assertEquals("1", lookup.lookup("a"));
+    Map<String, String> expected = new HashMap<>();
+    expected.put("a", "1");
+    expected.put("b", "2");
+    expected.put("c", null);
+    Assert.assertEquals(expected, lookup.lookup("a", "b", "c"));
+    Assert.assertEquals(expected, lookup.lookup(ImmutableSet.of("a", "b", "c")));
+
+    // first read of "a", then a single batch read of "b" and "c"
+    Assert.assertEquals(3, delegate.readKeys.size());
+    Assert.assertEquals(1, delegate.batchReads);
+    Assert.assertEquals(4, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_HITS));
+    Assert.assertEquals(3, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_MISSES));
+  }
+
+  @Test
+  public void testMaxSize() {
+    CountingLookup delegate = new CountingLookup(ImmutableMap.of("a", "1", "b", "2"));
+    Lookup<String> lookup = new CachingLookup<>(delegate, new CacheConfig(0, 1),
+                                                new DefaultStageMetrics(new MockMetrics(), "s"));
+
+    lookup.lookup("a");
+    lookup.lookup("b");
+    lookup.lookup("a");
+    Assert.assertEquals(3, delegate.readKeys.size());
+  }
+
+  /**
+   * Lookup backed by a map that records the keys it reads.
+   */
+  private static class CountingLookup implements Lookup<String> {
+    private final Map<String, String> values;
+    private final List<String> readKeys = new ArrayList<>();
+    private int batchReads;
+
+    CountingLookup(Map<String, String> values) {
+      this.values = values;
+    }
+
+    @Override
+    public String lookup(String key) {
+      readKeys.add(key);
+      return values.get(key);
+    }
+
+    @Override
+    public Map<String, String> lookup(String... keys) {
+      return lookup(ImmutableSet.copyOf(keys));
+    }
+
+    @Override
+    public Map<String, String> lookup(Set<String> keys) {
+      batchReads++;
+      Map<String, String> result = new HashMap<>();
+      for (String key : keys) {
+        readKeys.add(key);
+        result.put(key, values.get(key));
+      }
+      return result;
+    }
+  }
+}
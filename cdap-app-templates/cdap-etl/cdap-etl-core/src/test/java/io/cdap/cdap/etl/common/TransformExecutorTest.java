@@ -23,6 +23,9 @@ import io.cdap.cdap.app.preview.DataTracerFactory;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.InvalidEntry;
 import io.cdap.cdap.etl.api.Transform;
+import io.cdap.cdap.etl.common.plugin.Caller;
+import io.cdap.cdap.etl.common.plugin.NoOpOperationTimer;
+import io.cdap.cdap.etl.common.plugin.WrappedTransform;
 import io.cdap.cdap.internal.app.preview.NoopDataTracerFactory;
 import org.junit.Assert;
 import org.junit.Test;
@@ -31,6 +34,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  */
@@ -292,6 +297,68 @@ public class TransformExecutorTest {
     Assert.assertEquals(3, mockMetrics.getCount("sink3.records.out"));
   }
 
+  @Test
+  public void testBatchTransforms() throws Exception {
+    MockMetrics mockMetrics = new MockMetrics();
+    AtomicInteger numCalls = new AtomicInteger();
+    Caller countingCaller = new Caller() {
+      @Override
+      public <T> T call(Callable<T> callable) throws Exception {
+        numCalls.incrementAndGet();
+        return callable.call();
+      }
+    };
+    Map<String, TransformDetail> transformationMap = new HashMap<>();
+
+    transformationMap.put("transform1",
+                          new TransformDetail(
+                            new TrackedTransform<>(new WrappedTransform<>(new IntToDouble(), countingCaller,
+                                                                          NoOpOperationTimer.INSTANCE),
+                                                   new DefaultStageMetrics(mockMetrics, "transform1"),
+                                                   dataTracerFactory.getDataTracer(null, "transform1")),
+                            ImmutableList.of("transform2", "sink1")));
+
+    transformationMap.put("transform2",
+                          new TransformDetail(
+                            new TrackedTransform<>(new WrappedTransform<>(new Filter(100d, Threshold.LOWER),
+                                                                          countingCaller, NoOpOperationTimer.INSTANCE),
+                                                   new DefaultStageMetrics(mockMetrics, "transform2"),
+                                                   dataTracerFactory.getDataTracer(null, "transform2")),
+                            ImmutableList.of("sink2")));
+
+    transformationMap.put("sink1",
+                          new TransformDetail(
+                            new TrackedTransform<>(new DoubleToString(),
+                                                   new DefaultStageMetrics(mockMetrics, "sink1"),
+                                                   dataTracerFactory.getDataTracer(null, "sink1")),
+                            ImmutableList.<String>of()));
+
+    transformationMap.put("sink2",
+                          new TransformDetail(
+                            new TrackedTransform<>(new DoubleToString(),
+                                                   new DefaultStageMetrics(mockMetrics, "sink2"),
+                                                   dataTracerFactory.getDataTracer(null, "sink2")),
+                            ImmutableList.<String>of()));
+
+    TransformExecutor<Integer> executor = new TransformExecutor<>(transformationMap, ImmutableSet.of("transform1"));
+
+    // same inputs as the iterations in testTransforms, but run as a single batch
+    TransformResponse transformResponse = executor.runBatch(ImmutableList.of(1, 10, 100, 2000));
+
+    assertResults(transformResponse.getSinksResults(), ImmutableMap.of("sink1", 12, "sink2", 6));
+    assertResults(transformResponse.getMapTransformIdToErrorEmitter(), ImmutableMap.of("transform2", 6));
+
+    // each wrapped stage should only have been called once for the entire batch
+    Assert.assertEquals(2, numCalls.get());
+    Assert.assertEquals(4, mockMetrics.getCount("transform1.records.in"));
+    Assert.assertEquals(12, mockMetrics.getCount("transform1.records.out"));
+    Assert.assertEquals(12, mockMetrics.getCount("transform2.records.in"));
+    Assert.assertEquals(6, mockMetrics.getCount("transform2.records.out"));
+    Assert.assertEquals(12, mockMetrics.getCount("sink1.records.out"));
+    Assert.assertEquals(6, mockMetrics.getCount("sink2.records.out"));
+    executor.resetEmitter();
+  }
+
   private <T> void assertResults(Map<String, Collection<T>> results, Map<String, Integer> expectedListsSize) {
     Assert.assertEquals(expectedListsSize.size(), results.size());
     for (Map.Entry<String, Integer> entry : expectedListsSize.entrySet()) {
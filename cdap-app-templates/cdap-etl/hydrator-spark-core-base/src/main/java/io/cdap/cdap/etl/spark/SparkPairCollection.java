@@ -19,8 +19,12 @@ package io.cdap.cdap.etl.spark;
 import com.google.common.base.Optional;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
 import scala.Tuple2;
 
+import java.util.Collection;
+import javax.annotation.Nullable;
+
 /**
  * Abstraction over different types of spark pair collections with common shared operations on those collections.
  * For example, both JavaPairRDD and JavaPairDStream support the flatMap operation, but don't share a higher interface.
@@ -49,6 +53,34 @@ public interface SparkPairCollection<K, V> {
 
   <T> SparkPairCollection<K, Tuple2<Optional<V>, Optional<T>>> fullOuterJoin(SparkPairCollection<K, T> other);
 
+  /**
+   * Inner join with a collection that is small enough to be sent to every worker, so that this collection
+   * does not need to be shuffled. Implementations that cannot broadcast, or find the other collection too large
+   * to broadcast, perform a regular join with the given number of partitions.
+   *
+   * @param other the collection to broadcast
+   * @param numPartitions number of partitions for the regular join, or {@code null} to use the default
+   * @param broadcasts the broadcast variables created for the join are added to this collection, so that they can
+   *                   be released once the join results are no longer needed
+   */
+  <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other,
+                                                         @Nullable Integer numPartitions,
+                                                         Collection<Broadcast<?>> broadcasts);
+
+  /**
+   * Left outer join with a collection that is small enough to be sent to every worker, so that this collection
+   * does not need to be shuffled. Implementations that cannot broadcast, or find the other collection too large
+   * to broadcast, perform a regular left outer join with the given number of partitions.
+   *
+   * @param other the collection to broadcast
+   * @param numPartitions number of partitions for the regular join, or {@code null} to use the default
+   * @param broadcasts the broadcast variables created for the join are added to this collection, so that they can
+   *                   be released once the join results are no longer needed
+   */
+  <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(SparkPairCollection<K, T> other,
+                                                                            @Nullable Integer numPartitions,
+                                                                            Collection<Broadcast<?>> broadcasts);
+
   <T> SparkPairCollection<K, Tuple2<Optional<V>, Optional<T>>> fullOuterJoin(SparkPairCollection<K, T> other,
                                                                              int numPartitions);
 }
@@ -16,7 +16,9 @@
 
 package io.cdap.cdap.etl.spark;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.cdap.cdap.api.macro.MacroEvaluator;
 import io.cdap.cdap.api.plugin.PluginContext;
@@ -25,7 +27,9 @@ import io.cdap.cdap.etl.api.Alert;
 import io.cdap.cdap.etl.api.AlertPublisher;
 import io.cdap.cdap.etl.api.ErrorRecord;
 import io.cdap.cdap.etl.api.ErrorTransform;
+import io.cdap.cdap.etl.api.JoinConfig;
 import io.cdap.cdap.etl.api.JoinElement;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
 import io.cdap.cdap.etl.api.SplitterTransform;
 import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
@@ -53,6 +57,7 @@ import io.cdap.cdap.etl.spark.function.LeftJoinFlattenFunction;
 import io.cdap.cdap.etl.spark.function.OuterJoinFlattenFunction;
 import io.cdap.cdap.etl.spark.function.OutputPassFilter;
 import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +73,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 
 /**
  * Base Spark program to run a Hydrator pipeline.
@@ -105,6 +111,8 @@ public abstract class SparkPipelineRunner {
     }
 
     Collection<Runnable> sinkRunnables = new ArrayList<>();
+    // broadcast variables of broadcast joins, released once all sinks are written
+    List<Broadcast<?>> broadcasts = new ArrayList<>();
     for (String stageName : pipelinePhase.getDag().getTopologicalOrder()) {
       StageSpec stageSpec = pipelinePhase.getStage(stageName);
       //noinspection ConstantConditions
@@ -241,7 +249,12 @@ public abstract class SparkPipelineRunner {
       } else if (BatchAggregator.PLUGIN_TYPE.equals(pluginType)) {
 
         Integer partitions = stagePartitions.get(stageName);
-        SparkCollection<RecordInfo<Object>> combinedData = stageData.aggregate(stageSpec, partitions, collector);
+        // aggregators that support partial aggregation are combined before the shuffle instead of grouping
+        // every value of a group together
+        Object aggregator = pluginContext.newPluginInstance(stageName, macroEvaluator);
+        SparkCollection<RecordInfo<Object>> combinedData = aggregator instanceof ReducibleAggregator ?
+          reduceAggregate(stageSpec, stageData, partitions, collector) :
+          stageData.aggregate(stageSpec, partitions, collector);
         emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
                                     combinedData, hasErrorOutput, hasAlertOutput);
 
@@ -262,14 +275,30 @@ public abstract class SparkPipelineRunner {
         remainingInputs.addAll(inputDataCollections.keySet());
 
         Integer numPartitions = stagePartitions.get(stageName);
+        Set<String> broadcastInputs = getBroadcastInputs(sec, stageName, joiner.getJoinConfig());
+
+        // join the required inputs that are not broadcast first, so that they become the side that is not shuffled
+        List<String> requiredInputs = new ArrayList<>();
+        List<String> broadcastRequiredInputs = new ArrayList<>();
+        for (String inputStageName : joiner.getJoinConfig().getRequiredInputs()) {
+          if (broadcastInputs.contains(inputStageName)) {
+            broadcastRequiredInputs.add(inputStageName);
+          } else {
+            requiredInputs.add(inputStageName);
+          }
+        }
+        requiredInputs.addAll(broadcastRequiredInputs);
 
         SparkPairCollection<Object, List<JoinElement<Object>>> joinedInputs = null;
         // inner join on required inputs
-        for (final String inputStageName : joiner.getJoinConfig().getRequiredInputs()) {
+        for (final String inputStageName : requiredInputs) {
           SparkPairCollection<Object, Object> preJoinCollection = preJoinStreams.get(inputStageName);
 
           if (joinedInputs == null) {
             joinedInputs = preJoinCollection.mapValues(new InitialJoinFunction<>(inputStageName));
+          } else if (broadcastInputs.contains(inputStageName)) {
+            joinedInputs = joinedInputs.broadcastJoin(preJoinCollection, numPartitions, broadcasts)
+              .mapValues(new JoinFlattenFunction<Object>(inputStageName));
           } else {
             JoinFlattenFunction<Object> joinFlattenFunction = new JoinFlattenFunction<>(inputStageName);
             joinedInputs = numPartitions == null ?
@@ -293,6 +322,9 @@ public abstract class SparkPipelineRunner {
               joinedInputs = numPartitions == null ?
                 joinedInputs.fullOuterJoin(preJoinStream).mapValues(flattenFunction) :
                 joinedInputs.fullOuterJoin(preJoinStream, numPartitions).mapValues(flattenFunction);
+            } else if (broadcastInputs.contains(inputStageName)) {
+              joinedInputs = joinedInputs.broadcastLeftOuterJoin(preJoinStream, numPartitions, broadcasts)
+                .mapValues(new LeftJoinFlattenFunction<Object>(inputStageName));
             } else {
               LeftJoinFlattenFunction<Object> flattenFunction = new LeftJoinFlattenFunction<>(inputStageName);
 
@@ -343,6 +375,21 @@ public abstract class SparkPipelineRunner {
       emittedRecords.put(stageName, emittedBuilder.build());
     }
 
+    try {
+      runSinks(sec, sinkRunnables);
+    } finally {
+      // the join results are not used after the sinks are written, hence the broadcast data can be removed
+      for (Broadcast<?> broadcast : broadcasts) {
+        try {
+          broadcast.destroy();
+        } catch (Exception e) {
+          LOG.warn("Failed to remove broadcast {} of a broadcast join", broadcast.id(), e);
+        }
+      }
+    }
+  }
+
+  private void runSinks(JavaSparkExecutionContext sec, Collection<Runnable> sinkRunnables) {
     boolean shouldWriteInParallel = Boolean.parseBoolean(
       sec.getRuntimeArguments().get("pipeline.spark.parallel.sinks.enabled"));
     if (!shouldWriteInParallel) {
@@ -378,6 +425,27 @@ public abstract class SparkPipelineRunner {
     }
   }
 
+  /**
+   * Aggregates the input of an aggregator stage that is a {@link ReducibleAggregator}.
+   */
+  protected SparkCollection<RecordInfo<Object>> reduceAggregate(StageSpec stageSpec, SparkCollection<Object> stageData,
+                                                                @Nullable Integer partitions,
+                                                                StageStatisticsCollector collector) throws Exception {
+    return stageData.reduceAggregate(stageSpec, partitions, collector);
+  }
+
+  // return the inputs of a join stage that should be broadcast instead of shuffled, as hinted by the joiner
+  // or by the spark.cdap.pipeline.join.broadcast.<stage> runtime argument
+  private Set<String> getBroadcastInputs(JavaSparkExecutionContext sec, String stageName, JoinConfig joinConfig) {
+    Set<String> broadcastInputs = new HashSet<>();
+    Iterables.addAll(broadcastInputs, joinConfig.getBroadcastInputs());
+    String configured = sec.getRuntimeArguments().get(Constants.SPARK_PIPELINE_BROADCAST_JOIN_PREFIX + stageName);
+    if (configured != null) {
+      Iterables.addAll(broadcastInputs, Splitter.on(',').trimResults().omitEmptyStrings().split(configured));
+    }
+    return broadcastInputs;
+  }
+
   // return whether this stage should be cached to avoid recomputation
   private boolean shouldCache(PipelinePhase pipelinePhase, StageSpec stageSpec) {
 
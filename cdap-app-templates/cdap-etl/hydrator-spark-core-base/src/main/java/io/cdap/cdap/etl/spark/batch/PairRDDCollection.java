@@ -19,15 +19,27 @@ package io.cdap.cdap.etl.spark.batch;
 import com.google.common.base.Optional;
 import io.cdap.cdap.api.data.DatasetContext;
 import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
+import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.spark.Compat;
 import io.cdap.cdap.etl.spark.SparkCollection;
 import io.cdap.cdap.etl.spark.SparkPairCollection;
+import io.cdap.cdap.etl.spark.function.BroadcastJoinFunction;
+import io.cdap.cdap.etl.spark.function.BroadcastLeftJoinFunction;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import javax.annotation.Nullable;
+
 /**
  * Implementation of {@link SparkCollection} that is backed by a JavaPairRDD.
  *
@@ -35,6 +47,7 @@ import scala.Tuple2;
  * @param <V> type of value in the collection
  */
 public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(PairRDDCollection.class);
   private final JavaSparkExecutionContext sec;
   private final JavaSparkContext jsc;
   private final DatasetContext datasetContext;
@@ -104,6 +117,59 @@ public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
     return wrap(Compat.fullOuterJoin(pairRDD, (JavaPairRDD<K, T>) other.getUnderlying(), numPartitions));
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other,
+                                                                @Nullable Integer numPartitions,
+                                                                Collection<Broadcast<?>> broadcasts) {
+    Broadcast<HashMap<K, List<T>>> broadcast = broadcast((JavaPairRDD<K, T>) other.getUnderlying());
+    if (broadcast == null) {
+      return numPartitions == null ? join(other) : join(other, numPartitions);
+    }
+    broadcasts.add(broadcast);
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastJoinFunction<K, V, T>(broadcast))));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(
+    SparkPairCollection<K, T> other, @Nullable Integer numPartitions, Collection<Broadcast<?>> broadcasts) {
+    Broadcast<HashMap<K, List<T>>> broadcast = broadcast((JavaPairRDD<K, T>) other.getUnderlying());
+    if (broadcast == null) {
+      return numPartitions == null ? leftOuterJoin(other) : leftOuterJoin(other, numPartitions);
+    }
+    broadcasts.add(broadcast);
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastLeftJoinFunction<K, V, T>(broadcast))));
+  }
+
+  /**
+   * Collects all records of the given collection to the driver, grouped by key, and broadcasts them to the workers.
+   * At most the number of records given by the spark.cdap.pipeline.broadcast.join.max.records runtime argument
+   * are collected. If the collection has more records than that, nothing is broadcast and {@code null} is returned.
+   */
+  @Nullable
+  private <T> Broadcast<HashMap<K, List<T>>> broadcast(JavaPairRDD<K, T> other) {
+    int maxRecords = getBroadcastMaxRecords();
+    // take one more record than the limit, to tell whether the limit is exceeded without collecting everything
+    List<Tuple2<K, T>> records = other.take(maxRecords == Integer.MAX_VALUE ? maxRecords : maxRecords + 1);
+    if (records.size() > maxRecords) {
+      LOG.warn("Input of a broadcast join has more than {} records. Performing a shuffle join instead. "
+                 + "The limit can be changed with the {} runtime argument.",
+               maxRecords, Constants.SPARK_PIPELINE_BROADCAST_JOIN_MAX_RECORDS);
+      return null;
+    }
+    HashMap<K, List<T>> grouped = new HashMap<>();
+    for (Tuple2<K, T> record : records) {
+      grouped.computeIfAbsent(record._1(), k -> new ArrayList<>()).add(record._2());
+    }
+    return jsc.broadcast(grouped);
+  }
+
+  private int getBroadcastMaxRecords() {
+    String maxRecords = sec.getRuntimeArguments().get(Constants.SPARK_PIPELINE_BROADCAST_JOIN_MAX_RECORDS);
+    return maxRecords == null ? Constants.DEFAULT_BROADCAST_JOIN_MAX_RECORDS : Integer.parseInt(maxRecords);
+  }
+
   private <X, Y> SparkPairCollection<X, Y> wrap(JavaPairRDD<X, Y> javaPairRDD) {
     return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, javaPairRDD);
   }
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
+import io.cdap.cdap.etl.api.Transformation;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.common.Constants;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.TrackedTransform;
+import io.cdap.cdap.etl.spark.CombinedEmitter;
+import scala.Tuple2;
+
+/**
+ * Function that uses a {@link ReducibleAggregator} to emit the output from the complete aggregate of a group.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <GROUP_KEY> type of group key
+ * @param <AGG_VAL> type of partial aggregate
+ * @param <OUT> type of aggregate output
+ */
+public class AggregatorFinalizeFunction<GROUP_KEY, AGG_VAL, OUT>
+  implements FlatMapFunc<Tuple2<GROUP_KEY, AGG_VAL>, RecordInfo<Object>> {
+  private final PluginFunctionContext pluginFunctionContext;
+  private transient TrackedTransform<Tuple2<GROUP_KEY, AGG_VAL>, OUT> finalizeTransform;
+  private transient CombinedEmitter<OUT> emitter;
+
+  public AggregatorFinalizeFunction(PluginFunctionContext pluginFunctionContext) {
+    this.pluginFunctionContext = pluginFunctionContext;
+  }
+
+  @Override
+  public Iterable<RecordInfo<Object>> call(Tuple2<GROUP_KEY, AGG_VAL> input) throws Exception {
+    if (finalizeTransform == null) {
+      BatchAggregator<GROUP_KEY, ?, OUT> plugin = pluginFunctionContext.createPlugin();
+      plugin.initialize(pluginFunctionContext.createBatchRuntimeContext());
+      //noinspection unchecked
+      ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT> aggregator =
+        (ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT>) plugin;
+      finalizeTransform = new TrackedTransform<>(new FinalizeTransform<>(aggregator),
+                                                 pluginFunctionContext.createStageMetrics(),
+                                                 Constants.Metrics.AGG_GROUPS,
+                                                 Constants.Metrics.RECORDS_OUT, pluginFunctionContext.getDataTracer(),
+                                                 pluginFunctionContext.getStageStatisticsCollector());
+      emitter = new CombinedEmitter<>(pluginFunctionContext.getStageName());
+    }
+    emitter.reset();
+    finalizeTransform.transform(input, emitter);
+    return emitter.getEmitted();
+  }
+
+  private static class FinalizeTransform<GROUP_KEY, AGG_VAL, OUT_VAL>
+    implements Transformation<Tuple2<GROUP_KEY, AGG_VAL>, OUT_VAL> {
+    private final ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT_VAL> aggregator;
+
+    FinalizeTransform(ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT_VAL> aggregator) {
+      this.aggregator = aggregator;
+    }
+
+    @Override
+    public void transform(Tuple2<GROUP_KEY, AGG_VAL> input, Emitter<OUT_VAL> emitter) throws Exception {
+      aggregator.finalizeAggregate(input._1(), input._2(), emitter);
+    }
+  }
+}
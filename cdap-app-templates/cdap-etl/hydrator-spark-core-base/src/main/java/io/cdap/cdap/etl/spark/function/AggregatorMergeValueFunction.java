@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import io.cdap.cdap.etl.api.ReducibleAggregator;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Function that uses a {@link ReducibleAggregator} to merge a group value into a partial aggregate.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <GROUP_VAL> type of group value
+ * @param <AGG_VAL> type of partial aggregate
+ */
+public class AggregatorMergeValueFunction<GROUP_VAL, AGG_VAL> implements Function2<AGG_VAL, GROUP_VAL, AGG_VAL> {
+  private final PluginFunctionContext pluginFunctionContext;
+  private transient ReducibleAggregator<?, GROUP_VAL, AGG_VAL, ?> aggregator;
+
+  public AggregatorMergeValueFunction(PluginFunctionContext pluginFunctionContext) {
+    this.pluginFunctionContext = pluginFunctionContext;
+  }
+
+  @Override
+  public AGG_VAL call(AGG_VAL aggValue, GROUP_VAL groupValue) throws Exception {
+    if (aggregator == null) {
+      BatchAggregator<?, GROUP_VAL, ?> plugin = pluginFunctionContext.createPlugin();
+      plugin.initialize(pluginFunctionContext.createBatchRuntimeContext());
+      //noinspection unchecked
+      aggregator = (ReducibleAggregator<?, GROUP_VAL, AGG_VAL, ?>) plugin;
+    }
+    return aggregator.mergeValues(aggValue, groupValue);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
+import io.cdap.cdap.etl.api.Transformation;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.common.Constants;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.TrackedTransform;
+import io.cdap.cdap.etl.spark.CombinedEmitter;
+import org.apache.spark.streaming.State;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Function that uses a {@link ReducibleAggregator} to merge the partial aggregate of a group in a streaming batch
+ * into the aggregate kept in state across batches, and to emit the output from the updated aggregate.
+ * Nothing is emitted for a group whose state is timing out.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <GROUP_KEY> type of group key
+ * @param <AGG_VAL> type of partial aggregate
+ * @param <OUT> type of aggregate output
+ */
+public class AggregatorStateFunction<GROUP_KEY, AGG_VAL, OUT>
+  implements StateFunc<GROUP_KEY, AGG_VAL, AGG_VAL, List<RecordInfo<Object>>> {
+  private final PluginFunctionContext pluginFunctionContext;
+  private transient ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT> aggregator;
+  private transient TrackedTransform<Tuple2<GROUP_KEY, AGG_VAL>, OUT> finalizeTransform;
+  private transient CombinedEmitter<OUT> emitter;
+
+  public AggregatorStateFunction(PluginFunctionContext pluginFunctionContext) {
+    this.pluginFunctionContext = pluginFunctionContext;
+  }
+
+  @Override
+  public List<RecordInfo<Object>> call(GROUP_KEY groupKey, @Nullable AGG_VAL batchValue,
+                                       State<AGG_VAL> state) throws Exception {
+    if (batchValue == null) {
+      // the state is timing out, which happens if the group did not receive any values for the timeout duration
+      return Collections.emptyList();
+    }
+    if (aggregator == null) {
+      BatchAggregator<GROUP_KEY, ?, OUT> plugin = pluginFunctionContext.createPlugin();
+      plugin.initialize(pluginFunctionContext.createBatchRuntimeContext());
+      //noinspection unchecked
+      aggregator = (ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT>) plugin;
+      finalizeTransform = new TrackedTransform<>(new FinalizeTransform<>(aggregator),
+                                                 pluginFunctionContext.createStageMetrics(),
+                                                 Constants.Metrics.AGG_GROUPS,
+                                                 Constants.Metrics.RECORDS_OUT, pluginFunctionContext.getDataTracer(),
+                                                 pluginFunctionContext.getStageStatisticsCollector());
+      emitter = new CombinedEmitter<>(pluginFunctionContext.getStageName());
+    }
+
+    AGG_VAL aggValue = state.exists() ? aggregator.mergePartitions(state.get(), batchValue) : batchValue;
+    state.update(aggValue);
+
+    emitter.reset();
+    finalizeTransform.transform(new Tuple2<>(groupKey, aggValue), emitter);
+    // copy since the emitter is reused for the next group
+    List<RecordInfo<Object>> output = new ArrayList<>();
+    for (RecordInfo<Object> record : emitter.getEmitted()) {
+      output.add(record);
+    }
+    return output;
+  }
+
+  private static class FinalizeTransform<GROUP_KEY, AGG_VAL, OUT_VAL>
+    implements Transformation<Tuple2<GROUP_KEY, AGG_VAL>, OUT_VAL> {
+    private final ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT_VAL> aggregator;
+
+    FinalizeTransform(ReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT_VAL> aggregator) {
+      this.aggregator = aggregator;
+    }
+
+    @Override
+    public void transform(Tuple2<GROUP_KEY, AGG_VAL> input, Emitter<OUT_VAL> emitter) throws Exception {
+      aggregator.finalizeAggregate(input._1(), input._2(), emitter);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import io.cdap.cdap.etl.api.Transform;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.TrackedTransform;
+import io.cdap.cdap.etl.spark.CombinedEmitter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Function that uses a Transform to transform an entire partition, passing records to the transform in batches.
+ * This allows per-call overhead in the transform to be paid once per batch instead of once per record.
+ * Output is computed lazily, one batch at a time, so the entire partition is never held in memory.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <T> type of input object
+ */
+public class BatchTransformFunction<T> implements FlatMapFunc<Iterator<T>, RecordInfo<Object>> {
+  private final PluginFunctionContext pluginFunctionContext;
+  private final int batchSize;
+  private transient TrackedTransform<T, Object> transform;
+
+  public BatchTransformFunction(PluginFunctionContext pluginFunctionContext, int batchSize) {
+    this.pluginFunctionContext = pluginFunctionContext;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public Iterable<RecordInfo<Object>> call(Iterator<T> inputs) throws Exception {
+    if (transform == null) {
+      Transform<T, Object> plugin = pluginFunctionContext.createPlugin();
+      plugin.initialize(pluginFunctionContext.createBatchRuntimeContext());
+      transform = new TrackedTransform<>(plugin, pluginFunctionContext.createStageMetrics(),
+                                         pluginFunctionContext.getDataTracer(),
+                                         pluginFunctionContext.getStageStatisticsCollector());
+    }
+    CombinedEmitter<Object> emitter = new CombinedEmitter<>(pluginFunctionContext.getStageName());
+    return () -> new AbstractIterator<RecordInfo<Object>>() {
+      private final List<T> batch = new ArrayList<>(batchSize);
+      private Iterator<RecordInfo<Object>> emitted = emitter.getEmitted().iterator();
+
+      @Override
+      protected RecordInfo<Object> computeNext() {
+        while (!emitted.hasNext()) {
+          if (!inputs.hasNext()) {
+            return endOfData();
+          }
+          batch.clear();
+          while (inputs.hasNext() && batch.size() < batchSize) {
+            batch.add(inputs.next());
+          }
+          emitter.reset();
+          try {
+            transform.transformBatch(batch, emitter);
+          } catch (Exception e) {
+            throw Throwables.propagate(e);
+          }
+          emitted = emitter.getEmitted().iterator();
+        }
+        return emitted.next();
+      }
+    };
+  }
+}
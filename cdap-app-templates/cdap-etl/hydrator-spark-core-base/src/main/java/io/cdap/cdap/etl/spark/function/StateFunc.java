@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import org.apache.spark.streaming.State;
+
+import java.io.Serializable;
+import javax.annotation.Nullable;
+
+/**
+ * A function that maps a value to an output using the state kept for its key across streaming batches.
+ * Used instead of Spark's state mapping function because it takes an Optional value, which is a different class
+ * in Spark1 and Spark2.
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ * @param <S> type of state
+ * @param <R> type of output
+ */
+public interface StateFunc<K, V, S, R> extends Serializable {
+
+  /**
+   * @param key the key of the value
+   * @param value the value, or null if the state of the key is timing out
+   * @param state the state of the key
+   * @return the output for the value
+   */
+  R call(K key, @Nullable V value, State<S> state) throws Exception;
+}
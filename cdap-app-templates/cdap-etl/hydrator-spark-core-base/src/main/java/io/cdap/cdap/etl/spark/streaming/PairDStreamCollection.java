@@ -23,9 +23,13 @@ import io.cdap.cdap.etl.spark.SparkPairCollection;
 import io.cdap.cdap.etl.spark.StreamingCompat;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
 import scala.Tuple2;
 
+import java.util.Collection;
+import javax.annotation.Nullable;
+
 /**
  * JavaPairDStream backed {@link SparkPairCollection}
  *
@@ -97,6 +101,20 @@ public class PairDStreamCollection<K, V> implements SparkPairCollection<K, V> {
       StreamingCompat.fullOuterJoin(pairStream, (JavaPairDStream<K, T>) other.getUnderlying(), numPartitions));
   }
 
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other,
+                                                                @Nullable Integer numPartitions,
+                                                                Collection<Broadcast<?>> broadcasts) {
+    // the other side changes every batch, so there is nothing that can be broadcast once
+    return numPartitions == null ? join(other) : join(other, numPartitions);
+  }
+
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(
+    SparkPairCollection<K, T> other, @Nullable Integer numPartitions, Collection<Broadcast<?>> broadcasts) {
+    return numPartitions == null ? leftOuterJoin(other) : leftOuterJoin(other, numPartitions);
+  }
+
   private <T, U> PairDStreamCollection<T, U> wrap(JavaPairDStream<T, U> pairStream) {
     return new PairDStreamCollection<>(sec, pairStream);
   }
@@ -18,6 +18,7 @@ package io.cdap.cdap.etl.spark.streaming.function;
 
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.spark.Compat;
+import io.cdap.cdap.etl.spark.function.BatchTransformFunction;
 import io.cdap.cdap.etl.spark.function.FlatMapFunc;
 import io.cdap.cdap.etl.spark.function.MultiOutputTransformFunction;
 import io.cdap.cdap.etl.spark.function.TransformFunction;
@@ -27,25 +28,42 @@ import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function2;
 import org.apache.spark.streaming.Time;
 
+import java.util.Iterator;
+
 /**
  * Serializable function that can be used to perform a flat map on a DStream. Dynamically instantiates
  * the Transform plugin used to perform the flat map to ensure that code changes are picked up and to ensure
- * that macro substitution occurs.
+ * that macro substitution occurs. Single output transforms are given their records in batches if the batch size
+ * is greater than one.
  *
  * @param <T> type of input object
  */
 public class DynamicTransform<T> implements Function2<JavaRDD<T>, Time, JavaRDD<RecordInfo<Object>>> {
   private final DynamicDriverContext dynamicDriverContext;
   private final boolean isMultiOutput;
+  private final int batchSize;
   private transient FlatMapFunction<T, RecordInfo<Object>> function;
+  private transient FlatMapFunction<Iterator<T>, RecordInfo<Object>> batchFunction;
 
   public DynamicTransform(DynamicDriverContext dynamicDriverContext, boolean isMultiOutput) {
+    this(dynamicDriverContext, isMultiOutput, 1);
+  }
+
+  public DynamicTransform(DynamicDriverContext dynamicDriverContext, boolean isMultiOutput, int batchSize) {
     this.dynamicDriverContext = dynamicDriverContext;
     this.isMultiOutput = isMultiOutput;
+    this.batchSize = batchSize;
   }
 
   @Override
   public JavaRDD<RecordInfo<Object>> call(JavaRDD<T> input, Time batchTime) throws Exception {
+    if (!isMultiOutput && batchSize > 1) {
+      if (batchFunction == null) {
+        batchFunction = Compat.convert(
+          new BatchTransformFunction<T>(dynamicDriverContext.getPluginFunctionContext(), batchSize));
+      }
+      return input.mapPartitions(batchFunction);
+    }
     if (function == null) {
       FlatMapFunc<T, RecordInfo<Object>> flatMap = isMultiOutput ?
         new MultiOutputTransformFunction<T>(dynamicDriverContext.getPluginFunctionContext()) :
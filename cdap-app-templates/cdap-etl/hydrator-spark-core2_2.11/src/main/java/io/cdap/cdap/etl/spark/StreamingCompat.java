@@ -17,17 +17,24 @@
 package io.cdap.cdap.etl.spark;
 
 import com.google.common.base.Optional;
+import io.cdap.cdap.etl.spark.function.StateFunc;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function0;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.Function3;
 import org.apache.spark.api.java.function.VoidFunction2;
+import org.apache.spark.streaming.Duration;
+import org.apache.spark.streaming.State;
+import org.apache.spark.streaming.StateSpec;
 import org.apache.spark.streaming.Time;
 import org.apache.spark.streaming.api.java.JavaDStream;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
 import org.apache.spark.streaming.api.java.JavaStreamingContext;
 import scala.Tuple2;
 
+import javax.annotation.Nullable;
+
 /**
  * Utility class to handle incompatibilities between Spark1 and Spark2 streaming.
  * All hydrator-spark-core modules must have this class with the exact same method signatures.
@@ -38,6 +45,8 @@ import scala.Tuple2;
  *
  * Outer join methods in Spark1 use guava's Optional whereas Spark2 uses its own Optional.
  *
+ * The state mapping function of mapWithState() takes guava's Optional in Spark1 and Spark's own Optional in Spark2.
+ *
  * JavaStreamingContext.getOrCreate() does not use a JavaStreamingContextFactory in Spark2, but requires it in Spark1.2.
  */
 public final class StreamingCompat {
@@ -80,4 +89,25 @@ public final class StreamingCompat {
     JavaPairDStream<K, V1> left, JavaPairDStream<K, V2> right, int numPartitions) {
     return left.fullOuterJoin(right, numPartitions).mapValues(new Compat.ConvertOptional2<V1, V2>());
   }
+
+  public static <K, V, S, R> JavaDStream<R> mapWithState(JavaPairDStream<K, V> stream,
+                                                         final StateFunc<K, V, S, R> func,
+                                                         @Nullable Integer numPartitions,
+                                                         @Nullable Duration timeout) {
+    Function3<K, org.apache.spark.api.java.Optional<V>, State<S>, R> mappingFunction =
+      new Function3<K, org.apache.spark.api.java.Optional<V>, State<S>, R>() {
+        @Override
+        public R call(K key, org.apache.spark.api.java.Optional<V> value, State<S> state) throws Exception {
+          return func.call(key, value.orNull(), state);
+        }
+      };
+    StateSpec<K, V, S, R> stateSpec = StateSpec.function(mappingFunction);
+    if (numPartitions != null) {
+      stateSpec = stateSpec.numPartitions(numPartitions);
+    }
+    if (timeout != null) {
+      stateSpec = stateSpec.timeout(timeout);
+    }
+    return stream.mapWithState(stateSpec);
+  }
 }
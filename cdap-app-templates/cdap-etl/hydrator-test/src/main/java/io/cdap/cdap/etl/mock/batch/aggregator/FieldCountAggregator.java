@@ -26,6 +26,7 @@ import io.cdap.cdap.api.plugin.PluginConfig;
 import io.cdap.cdap.api.plugin.PluginPropertyField;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
 import io.cdap.cdap.etl.api.StageConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
@@ -39,11 +40,13 @@ import java.util.Map;
 /**
  * Groups on a specific field and adds count field. Used to test that the right values are going to the
  * right groups, to test multiple group keys for the same value, and to test setting the group key class
- * at runtime, and to test setting a supported non-writable class.
+ * at runtime, and to test setting a supported non-writable class. Also supports partial aggregation,
+ * to test aggregators that are combined before the shuffle.
  */
 @Plugin(type = BatchAggregator.PLUGIN_TYPE)
 @Name("FieldCount")
-public class FieldCountAggregator extends BatchAggregator<Object, StructuredRecord, StructuredRecord> {
+public class FieldCountAggregator extends BatchAggregator<Object, StructuredRecord, StructuredRecord>
+  implements ReducibleAggregator<Object, StructuredRecord, Long, StructuredRecord> {
   public static final PluginClass PLUGIN_CLASS = getPluginClass();
   private final Config config;
   private Schema schema;
@@ -94,6 +97,29 @@ public class FieldCountAggregator extends BatchAggregator<Object, StructuredReco
                    .build());
   }
 
+  @Override
+  public Long initializeAggregateValue(StructuredRecord groupValue) {
+    return 1L;
+  }
+
+  @Override
+  public Long mergeValues(Long count, StructuredRecord groupValue) {
+    return count + 1;
+  }
+
+  @Override
+  public Long mergePartitions(Long count1, Long count2) {
+    return count1 + count2;
+  }
+
+  @Override
+  public void finalizeAggregate(Object groupKey, Long count, Emitter<StructuredRecord> emitter) {
+    emitter.emit(StructuredRecord.builder(schema)
+                   .set(config.fieldName, groupKey)
+                   .set("ct", count)
+                   .build());
+  }
+
   @Override
   public void initialize(BatchRuntimeContext context) throws Exception {
     schema = config.getSchema();
@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.report.main;
+
+import com.google.common.io.ByteStreams;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Merges the small program run meta files of a namespace into larger files, so that report generation reads fewer
+ * files. A merged file is named by the earliest event time of the files it merges, same as the files written by
+ * {@link RunMetaFileManager}, so that the files can still be pruned by the end of the report time range.
+ * <p>
+ * The files it merges are not deleted right away, since report generation may have listed them and still be reading
+ * them. Their names are written to a {@code <merged-file-name>.merged} file next to the merged file, and they are
+ * deleted by a later compaction after the delete delay has passed. Until then, they are not merged again. Report
+ * generation only reads the {@code .avro} files, so it may read the same records from both the merged file and the
+ * files it merges, which doesn't change the generated reports since the records of a program run are aggregated
+ * by status.
+ */
+class RunMetaFileCompactor {
+  private static final Logger LOG = LoggerFactory.getLogger(RunMetaFileCompactor.class);
+  private static final String AVRO_SUFFIX = ".avro";
+  private static final String TMP_SUFFIX = ".compacting";
+  private static final String MERGED_SUFFIX = ".merged";
+
+  private final int minFiles;
+  private final long maxFileSizeBytes;
+  private final CodecFactory codecFactory;
+  private final long deleteDelayMillis;
+
+  /**
+   * @param minFiles the minimum number of small files in a namespace to merge them
+   * @param maxFileSizeBytes the size of the files to merge up to. Files of half of this size or larger are not merged
+   * @param codecFactory the codec to compress the merged files with
+   * @param deleteDelayMillis the time to wait after merging files before deleting them. It should be longer than
+   *                          the time it takes to generate a report
+   */
+  RunMetaFileCompactor(int minFiles, long maxFileSizeBytes, CodecFactory codecFactory, long deleteDelayMillis) {
+    this.minFiles = minFiles;
+    this.maxFileSizeBytes = maxFileSizeBytes;
+    this.codecFactory = codecFactory;
+    this.deleteDelayMillis = deleteDelayMillis;
+  }
+
+  /**
+   * Deletes the files merged more than the delete delay ago, and merges the small files in the given namespace
+   * directory.
+   *
+   * @param namespaceDir the directory of the program run meta files of a namespace
+   * @param excludes names of the files not to merge, such as the files that are still being written to
+   */
+  void compact(Location namespaceDir, Set<String> excludes) throws IOException {
+    List<Location> locations = namespaceDir.list();
+    long now = System.currentTimeMillis();
+    // Files that were already merged are not merged again, whether they are deleted now or later
+    Set<String> mergedFiles = new HashSet<>();
+    for (Location location : locations) {
+      if (location.getName().endsWith(MERGED_SUFFIX)) {
+        List<String> fileNames = readMergedFiles(location);
+        mergedFiles.addAll(fileNames);
+        if (getCreationTime(location) + deleteDelayMillis <= now) {
+          deleteMergedFiles(namespaceDir, location, fileNames);
+        }
+      }
+    }
+
+    List<Location> smallFiles = new ArrayList<>();
+    for (Location location : locations) {
+      String fileName = location.getName();
+      if (fileName.endsWith(TMP_SUFFIX)) {
+        // Leftover of a failed compaction, the files it was merging are still there
+        location.delete();
+      } else if (fileName.endsWith(AVRO_SUFFIX) && !excludes.contains(fileName) && !mergedFiles.contains(fileName)
+        && location.length() < maxFileSizeBytes / 2) {
+        smallFiles.add(location);
+      }
+    }
+    if (smallFiles.size() < minFiles) {
+      return;
+    }
+    smallFiles.sort(Comparator.comparingLong(RunMetaFileCompactor::getEventTime));
+
+    // Merge consecutive files up to the max file size
+    List<Location> group = new ArrayList<>();
+    long groupSize = 0;
+    for (Location file : smallFiles) {
+      long size = file.length();
+      if (!group.isEmpty() && groupSize + size > maxFileSizeBytes) {
+        merge(namespaceDir, group);
+        group.clear();
+        groupSize = 0;
+      }
+      group.add(file);
+      groupSize += size;
+    }
+    merge(namespaceDir, group);
+  }
+
+  private void merge(Location namespaceDir, List<Location> files) throws IOException {
+    if (files.size() < 2) {
+      return;
+    }
+    String fileName = String.format("%s-%s", getEventTime(files.get(0)), System.currentTimeMillis());
+    Location tmpLocation = namespaceDir.append(fileName + TMP_SUFFIX);
+    try (OutputStream os = tmpLocation.getOutputStream();
+         DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<>())) {
+      writer.setCodec(codecFactory);
+      writer.create(ProgramRunInfoSerializer.SCHEMA, os);
+      for (Location file : files) {
+        try (InputStream is = file.getInputStream();
+             DataFileStream<GenericRecord> reader = new DataFileStream<>(is, new GenericDatumReader<>())) {
+          // Blocks are copied without decoding the records if they are compressed with the same codec
+          writer.appendAllFrom(reader, false);
+        }
+      }
+    } catch (IOException e) {
+      tmpLocation.delete();
+      throw e;
+    }
+
+    Location mergedLocation = tmpLocation.renameTo(namespaceDir.append(fileName + AVRO_SUFFIX));
+    if (mergedLocation == null) {
+      tmpLocation.delete();
+      throw new IOException("Failed to rename " + tmpLocation + " after merging run meta files");
+    }
+    // Record the merged files, so that they are deleted after the delete delay. If this fails, the merged files
+    // are merged again by the next compaction, which only duplicates records
+    List<String> fileNames = files.stream().map(Location::getName).collect(Collectors.toList());
+    try (Writer writer = new OutputStreamWriter(namespaceDir.append(fileName + MERGED_SUFFIX).getOutputStream(),
+                                                StandardCharsets.UTF_8)) {
+      writer.write(String.join("\n", fileNames));
+    }
+    LOG.debug("Merged run meta files {} into {}", fileNames, mergedLocation.getName());
+  }
+
+  private List<String> readMergedFiles(Location location) throws IOException {
+    try (InputStream is = location.getInputStream()) {
+      String content = new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+      return content.isEmpty() ? Collections.emptyList() : Arrays.asList(content.split("\n"));
+    }
+  }
+
+  private void deleteMergedFiles(Location namespaceDir, Location location, List<String> fileNames) throws IOException {
+    for (String fileName : fileNames) {
+      Location file = namespaceDir.append(fileName);
+      if (file.exists() && !file.delete()) {
+        // The file is deleted by a later compaction
+        LOG.warn("Failed to delete merged run meta file {}", file);
+        return;
+      }
+    }
+    location.delete();
+    LOG.debug("Deleted merged run meta files {}", fileNames);
+  }
+
+  /**
+   * Returns the earliest event time of a file, from its name of the format
+   * {@code <event-time-millis>-<creation-time-millis>.avro}.
+   */
+  private static long getEventTime(Location location) {
+    String fileName = location.getName();
+    return Long.parseLong(fileName.substring(0, fileName.indexOf('-')));
+  }
+
+  /**
+   * Returns the creation time of a file, from its name of the format
+   * {@code <event-time-millis>-<creation-time-millis>.<suffix>}.
+   */
+  private static long getCreationTime(Location location) {
+    String fileName = location.getName();
+    return Long.parseLong(fileName.substring(fileName.indexOf('-') + 1, fileName.indexOf('.')));
+  }
+}
@@ -19,12 +19,14 @@ package io.cdap.cdap.report.main;
 import com.google.common.io.Closeables;
 import io.cdap.cdap.api.metrics.Metrics;
 import io.cdap.cdap.report.util.Constants;
+import org.apache.avro.file.CodecFactory;
 import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,11 +46,19 @@ public class RunMetaFileManager {
   private static final String SYNC_INTERVAL = "file.sync.interval.bytes";
   private static final String MAX_FILE_SIZE_BYTES = "file.max.size.bytes";
   private static final String MAX_FILE_OPEN_DURATION_MILLIS = "file.max.open.duration.millis";
+  private static final String COMPRESSION_CODEC = "file.compression.codec";
+  private static final String COMPACTION_MIN_FILES = "file.compaction.min.files";
+  private static final String COMPACTION_DELETE_DELAY_MILLIS = "file.compaction.delete.delay.millis";
+  private static final String DEFAULT_COMPRESSION_CODEC = "deflate";
+  private static final int DEFAULT_COMPACTION_MIN_FILES = 10;
+  private static final long DEFAULT_COMPACTION_DELETE_DELAY_MILLIS = TimeUnit.HOURS.toMillis(6);
   private static final long SYNC_INTERVAL_TIME_MILLIS = TimeUnit.SECONDS.toMillis(10);
 
   private final int syncIntervalBytes;
   private final int maxFileSizeBytes;
   private final long maxFileOpenDurationMillis;
+  private final CodecFactory codecFactory;
+  private final RunMetaFileCompactor compactor;
   private final Metrics metrics;
 
   private Map<String, RunMetaFileOutputStream> namespaceToLogFileStreamMap;
@@ -64,6 +74,14 @@ public class RunMetaFileManager {
       Integer.parseInt(runtimeArguments.get(MAX_FILE_SIZE_BYTES)) : DEFAULT_MAX_FILE_SIZE_BYTES;
     this.maxFileOpenDurationMillis = runtimeArguments.containsKey(MAX_FILE_OPEN_DURATION_MILLIS) ?
       Integer.parseInt(runtimeArguments.get(MAX_FILE_OPEN_DURATION_MILLIS)) : DEFAULT_MAX_FILE_OPEN_DURATION;
+    this.codecFactory = CodecFactory.fromString(runtimeArguments.getOrDefault(COMPRESSION_CODEC,
+                                                                              DEFAULT_COMPRESSION_CODEC));
+    int compactionMinFiles = runtimeArguments.containsKey(COMPACTION_MIN_FILES) ?
+      Integer.parseInt(runtimeArguments.get(COMPACTION_MIN_FILES)) : DEFAULT_COMPACTION_MIN_FILES;
+    long compactionDeleteDelayMillis = runtimeArguments.containsKey(COMPACTION_DELETE_DELAY_MILLIS) ?
+      Long.parseLong(runtimeArguments.get(COMPACTION_DELETE_DELAY_MILLIS)) : DEFAULT_COMPACTION_DELETE_DELAY_MILLIS;
+    this.compactor = new RunMetaFileCompactor(compactionMinFiles, maxFileSizeBytes, codecFactory,
+                                              compactionDeleteDelayMillis);
     this.lastSyncTime = System.currentTimeMillis();
     this.metrics = metrics;
   }
@@ -129,7 +147,7 @@ public class RunMetaFileManager {
       boolean successful = fileLocation.createNew();
       if (successful) {
         namespaceToLogFileStreamMap.put(namespace,
-                                        new RunMetaFileOutputStream(fileLocation, "", syncIntervalBytes,
+                                        new RunMetaFileOutputStream(fileLocation, "", syncIntervalBytes, codecFactory,
                                                                     System.currentTimeMillis(), () ->
                                                                       namespaceToLogFileStreamMap.remove(namespace)));
       }
@@ -147,6 +165,21 @@ public class RunMetaFileManager {
     if (runMetaFileOutputStream.getSize() > maxFileSizeBytes || isExpired) {
       Closeables.closeQuietly(runMetaFileOutputStream);
       createLogFileOutputStreamWithRetry(namespace, timestamp);
+      compact(namespace);
+    }
+  }
+
+  /**
+   * merge the small files of the namespace, except the one being written to. Failure to merge is only logged,
+   * since the files will be merged again after the next rotation
+   */
+  private void compact(String namespace) {
+    RunMetaFileOutputStream outputStream = namespaceToLogFileStreamMap.get(namespace);
+    try {
+      compactor.compact(getOrCreateAndGet(namespace),
+                        Collections.singleton(outputStream.getLocation().getName()));
+    } catch (IOException e) {
+      LOG.warn("Failed to merge run meta files for the namespace {}", namespace, e);
     }
   }
 
@@ -18,6 +18,7 @@ package io.cdap.cdap.report.main;
 
 import com.google.common.io.Closeables;
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
@@ -47,8 +48,8 @@ class RunMetaFileOutputStream implements Closeable, Flushable {
   private DataFileWriter<GenericRecord> dataFileWriter;
   private long fileSize;
 
-  RunMetaFileOutputStream(Location location, String filePermissions,
-                          int syncIntervalBytes, long createTime, Closeable closeable) throws IOException {
+  RunMetaFileOutputStream(Location location, String filePermissions, int syncIntervalBytes,
+                          CodecFactory codecFactory, long createTime, Closeable closeable) throws IOException {
     this.location = location;
     this.closeable = closeable;
     Schema schema = ProgramRunInfoSerializer.SCHEMA;
@@ -56,6 +57,7 @@ class RunMetaFileOutputStream implements Closeable, Flushable {
       this.outputStream =
         filePermissions.isEmpty() ? location.getOutputStream() : location.getOutputStream(filePermissions);
       this.dataFileWriter = new DataFileWriter<>(new GenericDatumWriter<>(schema));
+      this.dataFileWriter.setCodec(codecFactory);
       this.dataFileWriter.create(schema, outputStream);
       this.dataFileWriter.setSyncInterval(syncIntervalBytes);
       this.createTime = createTime;
@@ -79,6 +81,14 @@ class RunMetaFileOutputStream implements Closeable, Flushable {
     return createTime;
   }
 
+  /**
+   * get the location of the file
+   * @return location
+   */
+  Location getLocation() {
+    return location;
+  }
+
   /**
    * get the number of bytes written to output stream
    * @return file size
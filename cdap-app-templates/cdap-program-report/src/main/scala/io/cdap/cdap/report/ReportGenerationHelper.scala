@@ -50,6 +50,9 @@ object ReportGenerationHelper {
   val FS_INPUT = classOf[FsInput]
   // the default name of the column created by calling aggregate function count
   val COUNT_COL = "count"
+  // fields that have the same value in all the program run meta records of a program run
+  val RUN_FIELDS = Set(Constants.NAMESPACE, Constants.APPLICATION_NAME, Constants.APPLICATION_VERSION,
+    Constants.PROGRAM_TYPE, Constants.PROGRAM, Constants.RUN)
 
   /**
     * Generates a report file according to the given request from the given program run meta files.
@@ -99,7 +102,12 @@ object ReportGenerationHelper {
       writeEmptySummaryFile(request, reportIdDir, reportExpiryDurationMillis);
       return
     }
-    val df = SparkCompat.readAvroFiles(sql, inputURIs)
+    // Filters on the fields of a program run are applied to the program run meta records before aggregation,
+    // so that only the records of the program runs in the report are aggregated
+    val df = Option(request.getFilters).map(_.toList).getOrElse(Nil)
+      .filter(filter => RUN_FIELDS.contains(filter.getFieldName))
+      .foldLeft(SparkCompat.readAvroFiles(sql, inputURIs))((df, filter) =>
+        df.filter(getFieldFilter(filter, df(filter.getFieldName))))
     // Get the fields to be included in the final report and additional fields required for filtering and sorting
     val (reportFields: Set[String], additionalFields: Set[String]) = getReportAndAdditionalFields(request)
 
@@ -291,41 +299,49 @@ object ReportGenerationHelper {
     val filterCol = Option(request.getFilters).map(_.toList).getOrElse(Nil).foldLeft(
       df(Constants.START).isNotNull && df(Constants.START) < request.getEnd &&
         (df(Constants.END).isNull || df(Constants.END) >= request.getStart))(
-      (fCol: Column, filter: Filter[_]) => {
-        val fieldCol = df(filter.getFieldName)
-        // the filed to be filtered must contain non-null value
-        var newFilterCol = fieldCol.isNotNull
-        // the filter is either a RangeFilter or ValueFilter. Construct the filter according to the filter type
-        filter match {
-          case rangeFilter: RangeFilter[_] => {
-            val min = rangeFilter.getRange.getMin
-            if (Option(min).isDefined) {
-              newFilterCol &&= fieldCol >= min
-            }
-            val max = rangeFilter.getRange.getMax
-            if (Option(max).isDefined) {
-              newFilterCol &&= fieldCol < max
-            }
-            // cast filter.getFieldName to Any to avoid ambiguous method reference error
-            LOG.debug("Added RangeFilter {} for field {}", rangeFilter, filter.getFieldName: Any)
-          }
-          case valueFilter: ValueFilter[_] => {
-            val whitelist = valueFilter.getWhitelist
-            val blacklist = valueFilter.getBlacklist
-            // only either of whitelist or blacklist can be non empty,
-            // and a value filter will have one of them non empty
-            if (whitelist.size() > 0) {
-              newFilterCol &&= fieldCol.isin(whitelist.stream().collect(Collectors.toList()): _*)
-            } else if (blacklist.size() > 0) {
-              newFilterCol &&= !fieldCol.isin(blacklist.stream().collect(Collectors.toList()): _*)
-            }
-            // cast filter.getFieldName to Any to avoid ambiguous method reference error
-            LOG.debug("Added ValueFilter {} for field {}", valueFilter, filter.getFieldName: Any)
-          }
-        }
-        fCol && newFilterCol
-      })
+      (fCol: Column, filter: Filter[_]) => fCol && getFieldFilter(filter, df(filter.getFieldName)))
     LOG.debug("Final filter column: {}", filterCol)
     filterCol
   }
+
+  /**
+    * Gets a filter constructed from a filter in the report generation request.
+    *
+    * @param filter the filter in the report generation request
+    * @param fieldCol the column of the field to filter on
+    * @return the filter
+    */
+  private def getFieldFilter(filter: Filter[_], fieldCol: Column): Column = {
+    // the filed to be filtered must contain non-null value
+    var newFilterCol = fieldCol.isNotNull
+    // the filter is either a RangeFilter or ValueFilter. Construct the filter according to the filter type
+    filter match {
+      case rangeFilter: RangeFilter[_] => {
+        val min = rangeFilter.getRange.getMin
+        if (Option(min).isDefined) {
+          newFilterCol &&= fieldCol >= min
+        }
+        val max = rangeFilter.getRange.getMax
+        if (Option(max).isDefined) {
+          newFilterCol &&= fieldCol < max
+        }
+        // cast filter.getFieldName to Any to avoid ambiguous method reference error
+        LOG.debug("Added RangeFilter {} for field {}", rangeFilter, filter.getFieldName: Any)
+      }
+      case valueFilter: ValueFilter[_] => {
+        val whitelist = valueFilter.getWhitelist
+        val blacklist = valueFilter.getBlacklist
+        // only either of whitelist or blacklist can be non empty,
+        // and a value filter will have one of them non empty
+        if (whitelist.size() > 0) {
+          newFilterCol &&= fieldCol.isin(whitelist.stream().collect(Collectors.toList()): _*)
+        } else if (blacklist.size() > 0) {
+          newFilterCol &&= !fieldCol.isin(blacklist.stream().collect(Collectors.toList()): _*)
+        }
+        // cast filter.getFieldName to Any to avoid ambiguous method reference error
+        LOG.debug("Added ValueFilter {} for field {}", valueFilter, filter.getFieldName: Any)
+      }
+    }
+    newFilterCol
+  }
 }
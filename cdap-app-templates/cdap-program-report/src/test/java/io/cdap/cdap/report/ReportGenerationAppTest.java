@@ -241,6 +241,8 @@ public class ReportGenerationAppTest extends TestBase {
         // all the programs have the same test artifact name, blacklisting that will provide empty results
         new ValueFilter<>(Constants.ARTIFACT_NAME, null, ImmutableSet.of(TEST_ARTIFACT_NAME)));
     validateEmptyReports(reportURL, startSecs, startSecs + 30, filters3);
+    // test filters on the fields of program runs, which are applied before the records of the runs are aggregated
+    validateRunFieldFilters(reportURL, startSecs);
     sparkManager.stop();
     sparkManager.waitForStopped(60, TimeUnit.SECONDS);
     deleteDatasetInstance(metaFileset);
@@ -269,6 +271,59 @@ public class ReportGenerationAppTest extends TestBase {
     validateEmptyReportContent(reportRunsURL);
   }
 
+  private void validateRunFieldFilters(URL reportURL, long startSecs) throws Exception {
+    List<Filter> filters =
+      ImmutableList.of(
+        new ValueFilter<>(Constants.NAMESPACE, ImmutableSet.of("ns1"), null),
+        new ValueFilter<>(Constants.PROGRAM, ImmutableSet.of("SmartWorkflow_2"), null),
+        new ValueFilter<>(Constants.APPLICATION_NAME, null, ImmutableSet.of("OtherPipeline")),
+        new RangeFilter<>(Constants.DURATION, new RangeFilter.Range<>(500L, null)));
+    // the time range covers all the runs in the program run meta files
+    ReportGenerationRequest request =
+      new ReportGenerationRequest("ns1_program_report", startSecs, startSecs + TimeUnit.HOURS.toSeconds(5),
+                                  new ArrayList<>(ReportField.FIELD_NAME_MAP.keySet()),
+                                  ImmutableList.of(new Sort(Constants.DURATION, Sort.Order.DESCENDING)), filters);
+    HttpURLConnection urlConn = (HttpURLConnection) reportURL.openConnection();
+    urlConn.setDoOutput(true);
+    urlConn.setRequestMethod("POST");
+    urlConn.getOutputStream().write(GSON.toJson(request).getBytes(StandardCharsets.UTF_8));
+    if (urlConn.getErrorStream() != null) {
+      Assert.fail(Bytes.toString(ByteStreams.toByteArray(urlConn.getErrorStream())));
+    }
+    Assert.assertEquals(200, urlConn.getResponseCode());
+    Map<String, String> reportIdMap = getResponseObject(urlConn, STRING_STRING_MAP);
+    String reportId = reportIdMap.get("id");
+    Assert.assertNotNull(reportId);
+    URL reportIdURL = reportURL.toURI().resolve("info?report-id=" + reportId).toURL();
+    Tasks.waitFor(ReportStatus.COMPLETED, () -> {
+      ReportGenerationInfo reportGenerationInfo = getResponseObject(reportIdURL.openConnection(),
+                                                                    REPORT_GEN_INFO_TYPE);
+      if (ReportStatus.FAILED.equals(reportGenerationInfo.getStatus())) {
+        Assert.fail("Report generation failed");
+      }
+      return reportGenerationInfo.getStatus();
+    }, 5, TimeUnit.MINUTES, 2, TimeUnit.SECONDS);
+
+    // only the runs of SmartWorkflow_2 in ns1 are in the report, one from each program run meta file
+    ReportGenerationInfo reportGenerationInfo = getResponseObject(reportIdURL.openConnection(),
+                                                                  REPORT_GEN_INFO_TYPE);
+    ReportSummary summary = reportGenerationInfo.getSummary();
+    Assert.assertNotNull(summary);
+    Assert.assertEquals(ImmutableSet.of(new NamespaceAggregate("ns1", 5)), new HashSet<>(summary.getNamespaces()));
+    Assert.assertEquals(900L, summary.getDurations().getMin());
+    Assert.assertEquals(900L, summary.getDurations().getMax());
+
+    URL reportRunsURL = reportURL.toURI().resolve("download?report-id=" + reportId).toURL();
+    ReportContent reportContent = getResponseObject(reportRunsURL.openConnection(), REPORT_CONTENT_TYPE);
+    Assert.assertEquals(5, reportContent.getTotal());
+    boolean programIsCorrect =
+      reportContent.getDetails().stream().allMatch(content -> content.contains("\"program\":\"SmartWorkflow_2\""));
+    if (!programIsCorrect) {
+      Assert.fail("All report records are expected to be runs of SmartWorkflow_2, " +
+                    "but actual results do not meet this requirement: " + reportContent.getDetails());
+    }
+  }
+
   private DatasetId createAndInitializeDataset(NamespaceId namespaceId, long currentTimeMillis) throws Exception {
     DatasetId metaFileset = namespaceId.dataset(ReportGenerationApp.RUN_META_FILESET);
     addDatasetInstance(metaFileset, FileSet.class.getName());
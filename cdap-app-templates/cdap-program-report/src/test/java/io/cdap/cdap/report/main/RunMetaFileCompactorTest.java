@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.report.main;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.metrics.Metrics;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.Location;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link RunMetaFileCompactor} and the compression of program run meta files.
+ */
+public class RunMetaFileCompactorTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  private static final Metrics NOOP_METRICS = new Metrics() {
+    @Override
+    public void count(String metricName, int delta) {
+      // no-op
+    }
+
+    @Override
+    public void gauge(String metricName, long value) {
+      // no-op
+    }
+  };
+
+  @Test
+  public void testCompact() throws Exception {
+    Location namespaceDir = new LocalLocationFactory(TEMP_FOLDER.newFolder()).create("ns");
+    namespaceDir.mkdirs();
+    List<String> fileNames = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      fileNames.add(writeFile(namespaceDir, 1000L + i, 2, CodecFactory.nullCodec()));
+    }
+    // the file being written to is not merged
+    String openFile = writeFile(namespaceDir, 900L, 2, CodecFactory.nullCodec());
+
+    RunMetaFileCompactor compactor = new RunMetaFileCompactor(3, 1024 * 1024, CodecFactory.deflateCodec(1), 0L);
+    compactor.compact(namespaceDir, Collections.singleton(openFile));
+
+    // the merged files are still there, so that reports being generated can still read them
+    Set<String> avroFiles = getAvroFiles(namespaceDir);
+    Assert.assertTrue(avroFiles.containsAll(fileNames));
+    Assert.assertTrue(avroFiles.contains(openFile));
+    Assert.assertEquals(6, avroFiles.size());
+    avroFiles.removeAll(fileNames);
+    avroFiles.remove(openFile);
+    String mergedFile = avroFiles.iterator().next();
+    // the merged file is named by the earliest event time of the files it merges
+    Assert.assertTrue(mergedFile.startsWith("1000-"));
+    Location mergedLocation = namespaceDir.append(mergedFile);
+    Assert.assertEquals(8, readRecords(mergedLocation).size());
+    Assert.assertEquals(DataFileConstants.DEFLATE_CODEC, getCodec(mergedLocation));
+
+    // the merged files are deleted by the next compaction after the delete delay
+    compactor.compact(namespaceDir, Collections.singleton(openFile));
+    Assert.assertEquals(ImmutableSet.of(openFile, mergedFile), getAvroFiles(namespaceDir));
+    Assert.assertEquals(ImmutableSet.of(openFile, mergedFile),
+                        namespaceDir.list().stream().map(Location::getName).collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testDeleteDelay() throws Exception {
+    Location namespaceDir = new LocalLocationFactory(TEMP_FOLDER.newFolder()).create("ns");
+    namespaceDir.mkdirs();
+    for (int i = 0; i < 4; i++) {
+      writeFile(namespaceDir, 1000L + i, 2, CodecFactory.deflateCodec(1));
+    }
+
+    RunMetaFileCompactor compactor = new RunMetaFileCompactor(3, 1024 * 1024, CodecFactory.deflateCodec(1),
+                                                              TimeUnit.HOURS.toMillis(1));
+    compactor.compact(namespaceDir, Collections.emptySet());
+    Set<String> avroFiles = getAvroFiles(namespaceDir);
+    Assert.assertEquals(5, avroFiles.size());
+
+    // the merged files are neither deleted before the delete delay nor merged again
+    compactor.compact(namespaceDir, Collections.emptySet());
+    Assert.assertEquals(avroFiles, getAvroFiles(namespaceDir));
+    int records = 0;
+    for (String avroFile : avroFiles) {
+      records += readRecords(namespaceDir.append(avroFile)).size();
+    }
+    Assert.assertEquals(16, records);
+  }
+
+  @Test
+  public void testMinFiles() throws Exception {
+    Location namespaceDir = new LocalLocationFactory(TEMP_FOLDER.newFolder()).create("ns");
+    namespaceDir.mkdirs();
+    Set<String> fileNames = new HashSet<>();
+    for (int i = 0; i < 2; i++) {
+      fileNames.add(writeFile(namespaceDir, 1000L + i, 2, CodecFactory.nullCodec()));
+    }
+    // large files are not merged
+    fileNames.add(writeFile(namespaceDir, 1002L, 1000, CodecFactory.nullCodec()));
+    long maxFileSize = 2 * namespaceDir.append("1002-0.avro").length();
+
+    new RunMetaFileCompactor(3, maxFileSize, CodecFactory.nullCodec(), 0L)
+      .compact(namespaceDir, Collections.emptySet());
+    Assert.assertEquals(fileNames, getAvroFiles(namespaceDir));
+  }
+
+  @Test
+  public void testCompressionCodec() throws Exception {
+    Location baseLocation = new LocalLocationFactory(TEMP_FOLDER.newFolder()).create("meta");
+
+    // files are compressed with deflate by default
+    RunMetaFileManager fileManager = new RunMetaFileManager(baseLocation, Collections.emptyMap(), NOOP_METRICS);
+    fileManager.append(createRunInfo("ns1", 1000L));
+    fileManager.cleanup();
+    Assert.assertEquals(DataFileConstants.DEFLATE_CODEC, getCodec(baseLocation.append("ns1").list().get(0)));
+
+    Map<String, String> runtimeArguments = ImmutableMap.of("file.compression.codec", DataFileConstants.NULL_CODEC);
+    fileManager = new RunMetaFileManager(baseLocation, runtimeArguments, NOOP_METRICS);
+    fileManager.append(createRunInfo("ns2", 1000L));
+    fileManager.cleanup();
+    Location location = baseLocation.append("ns2").list().get(0);
+    Assert.assertEquals(DataFileConstants.NULL_CODEC, getCodec(location));
+    Assert.assertEquals(1, readRecords(location).size());
+  }
+
+  /**
+   * Writes a program run meta file with the given number of records and returns its name.
+   */
+  private String writeFile(Location namespaceDir, long eventTime, int records,
+                           CodecFactory codecFactory) throws IOException {
+    String fileName = String.format("%d-%d.avro", eventTime, 0);
+    Location location = namespaceDir.append(fileName);
+    try (RunMetaFileOutputStream outputStream = new RunMetaFileOutputStream(location, "", 1024, codecFactory,
+                                                                            0L, () -> { })) {
+      for (int i = 0; i < records; i++) {
+        outputStream.append(createRunInfo(namespaceDir.getName(), eventTime + i));
+      }
+    }
+    return fileName;
+  }
+
+  private ProgramRunInfo createRunInfo(String namespace, long time) {
+    ProgramRunInfo runInfo = new ProgramRunInfo(namespace, "app", "-SNAPSHOT", "WORKFLOW", "workflow",
+                                                "run" + time);
+    runInfo.setStatus("RUNNING");
+    runInfo.setTime(time);
+    runInfo.setMessageId(Long.toString(time));
+    return runInfo;
+  }
+
+  private Set<String> getAvroFiles(Location namespaceDir) throws IOException {
+    return namespaceDir.list().stream()
+      .map(Location::getName)
+      .filter(name -> name.endsWith(".avro"))
+      .collect(Collectors.toSet());
+  }
+
+  private List<GenericRecord> readRecords(Location location) throws IOException {
+    List<GenericRecord> records = new ArrayList<>();
+    try (InputStream is = location.getInputStream();
+         DataFileStream<GenericRecord> reader = new DataFileStream<>(is, new GenericDatumReader<>())) {
+      reader.forEach(records::add);
+    }
+    return records;
+  }
+
+  private String getCodec(Location location) throws IOException {
+    try (InputStream is = location.getInputStream();
+         DataFileStream<GenericRecord> reader = new DataFileStream<>(is, new GenericDatumReader<>())) {
+      return reader.getMetaString(DataFileConstants.CODEC);
+    }
+  }
+}
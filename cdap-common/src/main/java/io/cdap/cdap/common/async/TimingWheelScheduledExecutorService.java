@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.async;
+
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ScheduledExecutorService} that keeps the scheduled tasks in a hierarchical timing wheel, and runs them in
+ * a bounded pool of worker threads. It is intended to be shared by many services that each schedule few, mostly
+ * periodic tasks, so that the number of threads depends on how many tasks run at the same time instead of on the
+ * number of services.
+ * <p/>
+ * The lowest level of the wheel has buckets of {@code tickMillis}, and each higher level has buckets as wide as a
+ * full rotation of the level below it, so that scheduling and cancelling a task takes constant time regardless of
+ * its delay. Only the buckets that have tasks are kept in a {@link DelayQueue}, so a single timer thread waits
+ * for the next non-empty bucket instead of advancing the wheel on every tick. A task is never run before its
+ * delay, and may run up to one tick after it. A cancelled task is removed from the wheel immediately.
+ * <p/>
+ * Worker threads are created as tasks become due, up to the given number of threads, and terminate after being idle
+ * for a minute. Tasks that are due while all the workers are busy are queued.
+ */
+public final class TimingWheelScheduledExecutorService extends AbstractExecutorService
+  implements ScheduledExecutorService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TimingWheelScheduledExecutorService.class);
+
+  private static final long DEFAULT_TICK_MILLIS = 10L;
+  private static final int DEFAULT_WHEEL_SIZE = 512;
+  private static final long WORKER_KEEP_ALIVE_SECONDS = 60L;
+  // Longer delays are capped, so that the time spans of the wheel levels never overflow
+  private static final long MAX_DELAY_MILLIS = TimeUnit.DAYS.toMillis(365L * 1000L);
+
+  private final long tickMillis;
+  private final int wheelSize;
+  private final DelayQueue<Bucket> delayQueue;
+  private final ThreadPoolExecutor workers;
+  private final Thread timerThread;
+  // Guards the wheel and the tasks in the buckets
+  private final Object lock;
+  private final Wheel wheel;
+  private volatile boolean shutdown;
+
+  /**
+   * Returns the {@link ScheduledExecutorService} shared within the process. It must not be shut down.
+   */
+  public static ScheduledExecutorService shared() {
+    return SharedHolder.INSTANCE;
+  }
+
+  /**
+   * Creates an instance with the default tick and wheel size.
+   *
+   * @param name the name prefix of the threads
+   * @param maxThreads the maximum number of worker threads for running the tasks
+   */
+  public TimingWheelScheduledExecutorService(String name, int maxThreads) {
+    this(name, maxThreads, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param name the name prefix of the threads
+   * @param maxThreads the maximum number of worker threads for running the tasks
+   * @param tickMillis the time span of a bucket in the lowest level of the wheel, which is the scheduling precision
+   * @param wheelSize the number of buckets in each level of the wheel
+   */
+  public TimingWheelScheduledExecutorService(String name, int maxThreads, long tickMillis, int wheelSize) {
+    if (maxThreads <= 0) {
+      throw new IllegalArgumentException("Maximum number of threads must be positive: " + maxThreads);
+    }
+    if (tickMillis <= 0 || wheelSize <= 1) {
+      throw new IllegalArgumentException(String.format("Invalid tick %d ms or wheel size %d", tickMillis, wheelSize));
+    }
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.delayQueue = new DelayQueue<>();
+    this.workers = new ThreadPoolExecutor(maxThreads, maxThreads, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                          new LinkedBlockingQueue<>(),
+                                          Threads.createDaemonThreadFactory(name + "-worker-%d"));
+    this.workers.allowCoreThreadTimeOut(true);
+    this.lock = new Object();
+    this.wheel = new Wheel(tickMillis, now());
+    this.timerThread = new Thread(this::runTimer, name + "-timer");
+    this.timerThread.setDaemon(true);
+    this.timerThread.start();
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return schedule(new WheelTask<Void>(command, null, triggerTime(delay, unit), 0L));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return schedule(new WheelTask<>(callable, triggerTime(delay, unit)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Period must be positive: " + period);
+    }
+    return schedule(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+                                        Math.min(MAX_DELAY_MILLIS, toMillis(period, unit))));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("Delay must be positive: " + delay);
+    }
+    return schedule(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+                                        -Math.min(MAX_DELAY_MILLIS, toMillis(delay, unit))));
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    schedule(command, 0L, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void shutdown() {
+    cancelPendingTasks();
+    workers.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> pending = cancelPendingTasks();
+    pending.addAll(workers.shutdownNow());
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return shutdown && workers.isTerminated() && !timerThread.isAlive();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    if (!workers.awaitTermination(timeout, unit)) {
+      return false;
+    }
+    timerThread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    return !timerThread.isAlive();
+  }
+
+  private <V> WheelTask<V> schedule(WheelTask<V> task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+    add(task);
+    return task;
+  }
+
+  /**
+   * Adds the given task to the wheel, or hands it to the workers if it is already due.
+   */
+  private void add(WheelTask<?> task) {
+    boolean added;
+    synchronized (lock) {
+      if (shutdown) {
+        task.cancel(false);
+        return;
+      }
+      added = wheel.add(task);
+    }
+    if (!added) {
+      dispatch(task);
+    }
+  }
+
+  /**
+   * Hands a due task to the workers.
+   */
+  private void dispatch(WheelTask<?> task) {
+    if (task.isCancelled()) {
+      return;
+    }
+    try {
+      workers.execute(task);
+    } catch (RejectedExecutionException e) {
+      // Only happens when the executor is shut down concurrently
+      task.cancel(false);
+    }
+  }
+
+  private void remove(WheelTask<?> task) {
+    synchronized (lock) {
+      if (task.bucket != null) {
+        task.bucket.tasks.remove(task);
+        task.bucket = null;
+      }
+    }
+    workers.remove(task);
+  }
+
+  private List<Runnable> cancelPendingTasks() {
+    List<Runnable> pending = new ArrayList<>();
+    synchronized (lock) {
+      shutdown = true;
+      for (Bucket bucket : delayQueue) {
+        pending.addAll(bucket.flush());
+      }
+      delayQueue.clear();
+    }
+    timerThread.interrupt();
+    for (Runnable task : pending) {
+      ((WheelTask<?>) task).cancel(false);
+    }
+    return pending;
+  }
+
+  /**
+   * The loop of the timer thread, which waits for the next bucket to expire and moves its tasks to a lower level
+   * of the wheel or to the workers.
+   */
+  private void runTimer() {
+    // Wait at most one rotation of the lowest level, so that its clock doesn't fall too far behind when idle
+    long maxWaitMillis = tickMillis * wheelSize;
+    while (!shutdown) {
+      try {
+        Bucket bucket = delayQueue.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+        List<WheelTask<?>> dueTasks = new ArrayList<>();
+        synchronized (lock) {
+          if (shutdown) {
+            break;
+          }
+          if (bucket == null && delayQueue.isEmpty()) {
+            // There is no bucket in the wheel, hence it is safe to move the clock to the current time
+            wheel.advanceClock(now());
+          }
+          while (bucket != null) {
+            wheel.advanceClock(bucket.getExpiration());
+            for (WheelTask<?> task : bucket.flush()) {
+              if (!wheel.add(task)) {
+                dueTasks.add(task);
+              }
+            }
+            bucket = delayQueue.poll();
+          }
+        }
+        dueTasks.forEach(this::dispatch);
+      } catch (InterruptedException e) {
+        // Interrupted by shutdown, the loop condition decides whether to exit
+      } catch (Throwable t) {
+        LOG.error("Unexpected exception in the timer thread of the scheduled executor", t);
+      }
+    }
+  }
+
+  private static long now() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  private static long toMillis(long duration, TimeUnit unit) {
+    long millis = unit.toMillis(duration);
+    // Round up so that a task never runs earlier than requested
+    return unit.toNanos(duration) > TimeUnit.MILLISECONDS.toNanos(millis) ? millis + 1 : millis;
+  }
+
+  private static long triggerTime(long delay, TimeUnit unit) {
+    return now() + Math.min(MAX_DELAY_MILLIS, Math.max(0L, toMillis(delay, unit)));
+  }
+
+  /**
+   * One level of the hierarchical timing wheel.
+   */
+  private final class Wheel {
+    private final long tick;
+    private final long interval;
+    private final Bucket[] buckets;
+    private long currentTime;
+    private Wheel overflow;
+
+    Wheel(long tick, long startTime) {
+      this.tick = tick;
+      this.interval = tick * wheelSize;
+      this.buckets = new Bucket[wheelSize];
+      for (int i = 0; i < wheelSize; i++) {
+        buckets[i] = new Bucket();
+      }
+      this.currentTime = startTime - (startTime % tick);
+    }
+
+    /**
+     * Adds a task to this level or a higher level.
+     *
+     * @return {@code false} if the task is due and was not added
+     */
+    boolean add(WheelTask<?> task) {
+      // Round the trigger time up to a tick of the lowest level, so that a task is never run early
+      long expiration = (task.triggerTime + tickMillis - 1) / tickMillis * tickMillis;
+      if (expiration < currentTime + tick) {
+        return false;
+      }
+      if (expiration < currentTime + interval) {
+        long virtualId = expiration / tick;
+        Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+        bucket.add(task);
+        if (bucket.setExpiration(virtualId * tick)) {
+          delayQueue.offer(bucket);
+        }
+        return true;
+      }
+      if (overflow == null) {
+        overflow = new Wheel(interval, currentTime);
+      }
+      return overflow.add(task);
+    }
+
+    void advanceClock(long time) {
+      if (time >= currentTime + tick) {
+        currentTime = time - (time % tick);
+        if (overflow != null) {
+          overflow.advanceClock(currentTime);
+        }
+      }
+    }
+  }
+
+  /**
+   * A bucket of tasks that are due at the same tick of a wheel level.
+   */
+  private final class Bucket implements Delayed {
+    // Guarded by the executor lock
+    private final Set<WheelTask<?>> tasks = new LinkedHashSet<>();
+    // Read by the delay queue without the executor lock
+    private final AtomicLong expiration = new AtomicLong(-1L);
+
+    void add(WheelTask<?> task) {
+      tasks.add(task);
+      task.bucket = this;
+    }
+
+    /**
+     * Sets the expiration time of this bucket.
+     *
+     * @return {@code true} if the expiration changed, meaning the bucket needs to be added to the delay queue
+     */
+    boolean setExpiration(long expiration) {
+      return this.expiration.getAndSet(expiration) != expiration;
+    }
+
+    long getExpiration() {
+      return expiration.get();
+    }
+
+    /**
+     * Removes all tasks from this bucket and returns them.
+     */
+    List<WheelTask<?>> flush() {
+      List<WheelTask<?>> result = new ArrayList<>(tasks);
+      for (WheelTask<?> task : result) {
+        task.bucket = null;
+      }
+      tasks.clear();
+      expiration.set(-1L);
+      return result;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(expiration.get() - now(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(expiration.get(), ((Bucket) other).expiration.get());
+    }
+  }
+
+  /**
+   * The {@link ScheduledFuture} of a task scheduled in the wheel.
+   *
+   * @param <V> type of the result
+   */
+  private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+    // Positive for fixed rate, negative for fixed delay and zero for a task that runs once
+    private final long period;
+    private volatile long triggerTime;
+    // Guarded by the executor lock
+    @Nullable
+    private Bucket bucket;
+
+    WheelTask(Callable<V> callable, long triggerTime) {
+      super(callable);
+      this.period = 0L;
+      this.triggerTime = triggerTime;
+    }
+
+    WheelTask(Runnable runnable, @Nullable V result, long triggerTime, long period) {
+      super(runnable, result);
+      this.period = period;
+      this.triggerTime = triggerTime;
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return period != 0L;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(triggerTime - now(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        remove(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (runAndReset()) {
+        triggerTime = period > 0 ? triggerTime + period : now() - period;
+        add(this);
+      }
+    }
+  }
+
+  /**
+   * Holder of the shared instance, which is created on first use.
+   */
+  private static final class SharedHolder {
+    private static final ScheduledExecutorService INSTANCE =
+      new TimingWheelScheduledExecutorService("shared-scheduler",
+                                              Math.max(32, Runtime.getRuntime().availableProcessors() * 4));
+  }
+}
@@ -193,6 +193,8 @@ public final class Constants {
     public static final String APP_SCHEDULER_QUEUE = "apps.scheduler.queue";
     public static final String STATUS_EVENT_FETCH_SIZE = "app.program.status.event.fetch.size";
     public static final String STATUS_EVENT_POLL_DELAY_MILLIS = "app.program.status.event.poll.delay.millis";
+    public static final String STATUS_EVENT_PREFETCH_ENABLED = "app.program.status.event.prefetch.enabled";
+    public static final String STATUS_EVENT_PROCESSING_PARTITIONS = "app.program.status.event.processing.partitions";
     public static final String MAPREDUCE_JOB_CLIENT_CONNECT_MAX_RETRIES = "mapreduce.jobclient.connect.max.retries";
     public static final String MAPREDUCE_INCLUDE_CUSTOM_CLASSES = "mapreduce.include.custom.format.classes";
     public static final String MAPREDUCE_STATUS_REPORT_INTERVAL_SECONDS = "mapreduce.status.report.interval.seconds";
@@ -343,6 +345,8 @@ public final class Constants {
     public static final String WORKER_THREADS = "preview.worker.threads";
 
     public static final String PREVIEW_CACHE_SIZE = "preview.cache.size";
+    public static final String PREVIEW_POOL_SIZE = "preview.runner.pool.size";
+    public static final String PREVIEW_POOL_MAX_RUNS = "preview.runner.pool.max.runs";
   }
 
   /**
@@ -450,6 +454,10 @@ public final class Constants {
 
     public static final String DATA_EVENT_TOPIC = "data.event.topic";
 
+    public static final String SPEC_CACHE_SIZE = "dataset.spec.cache.size";
+    public static final String SPEC_CACHE_EXPIRY_SECONDS = "dataset.spec.cache.expiry.secs";
+    public static final String SPEC_CACHE_CHANGE_POLL_INTERVAL_MS = "dataset.spec.cache.change.poll.interval.ms";
+
     public static final String DATA_STORAGE_IMPLEMENTATION = "data.storage.implementation";
     public static final String DATA_STORAGE_NOSQL = "nosql";
     public static final String DATA_STORAGE_SQL = "postgresql";
@@ -463,6 +471,7 @@ public final class Constants {
     public static final String DATA_STORAGE_SQL_PASSWORD = "data.storage.sql.jdbc.password";
     public static final String DATA_STORAGE_SQL_PROPERTY_PREFIX = "data.storage.sql.jdbc.property.";
     public static final String DATA_STORAGE_SQL_CONNECTION_SIZE = "data.storage.sql.jdbc.connection.pool.size";
+    public static final String DATA_STORAGE_SQL_STATEMENT_CACHE_SIZE = "data.storage.sql.jdbc.statement.cache.size";
 
     // used for Guice named bindings
     public static final String TABLE_TYPE = "table.type";
@@ -732,6 +741,8 @@ public final class Constants {
         public static final String OP_COUNT = "dataset.store.ops";
         public static final String WRITE_COUNT = "dataset.store.writes";
         public static final String WRITE_BYTES = "dataset.store.bytes";
+        public static final String SPEC_CACHE_HIT = "dataset.spec.cache.hit";
+        public static final String SPEC_CACHE_MISS = "dataset.spec.cache.miss";
       }
 
       /**
@@ -1301,6 +1312,7 @@ public final class Constants {
     public static final String MESSAGING_TOPIC = "metadata.messaging.topic";
     public static final String MESSAGING_FETCH_SIZE = "metadata.messaging.fetch.size";
     public static final String MESSAGING_POLL_DELAY_MILLIS = "metadata.messaging.poll.delay.millis";
+    public static final String MESSAGING_PREFETCH_ENABLED = "metadata.messaging.prefetch.enabled";
     public static final String MESSAGING_RETRIES_ON_CONFLICT = "metadata.messaging.retries.on.conflict";
 
     public static final String STORAGE_PROVIDER_IMPLEMENTATION = "metadata.storage.implementation";
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.async;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link TimingWheelScheduledExecutorService}.
+ */
+public class TimingWheelScheduledExecutorServiceTest {
+
+  @Test
+  public void testSchedule() throws Exception {
+    TimingWheelScheduledExecutorService executor = new TimingWheelScheduledExecutorService("test", 2, 5L, 4);
+    try {
+      // Tasks with delays spanning multiple levels of the wheel should run in the order of their delays
+      BlockingQueue<Integer> order = new LinkedBlockingQueue<>();
+      long startTime = System.nanoTime();
+      List<ScheduledFuture<Integer>> futures = new ArrayList<>();
+      for (int delay : new int[] { 300, 0, 120, 15, 50 }) {
+        futures.add(executor.schedule(() -> {
+          order.add(delay);
+          return delay;
+        }, delay, TimeUnit.MILLISECONDS));
+      }
+
+      for (ScheduledFuture<Integer> future : futures) {
+        int delay = future.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(delay));
+      }
+      List<Integer> expected = new ArrayList<>();
+      for (int delay : new int[] { 0, 15, 50, 120, 300 }) {
+        expected.add(delay);
+      }
+      List<Integer> actual = new ArrayList<>();
+      order.drainTo(actual);
+      Assert.assertEquals(expected, actual);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    TimingWheelScheduledExecutorService executor = new TimingWheelScheduledExecutorService("test", 1);
+    try {
+      AtomicInteger runs = new AtomicInteger();
+      ScheduledFuture<?> future = executor.schedule(runs::incrementAndGet, 200, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(future.cancel(false));
+      Assert.assertTrue(future.isCancelled());
+
+      // A task scheduled after the cancelled one should still run, and the cancelled one should not
+      executor.schedule(() -> { }, 300, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+      Assert.assertEquals(0, runs.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFixedDelay() throws Exception {
+    TimingWheelScheduledExecutorService executor = new TimingWheelScheduledExecutorService("test", 1);
+    try {
+      CountDownLatch latch = new CountDownLatch(5);
+      ScheduledFuture<?> future = executor.scheduleWithFixedDelay(latch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+      future.cancel(false);
+      Assert.assertTrue(future.isDone());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBoundedThreads() throws Exception {
+    int threads = 4;
+    TimingWheelScheduledExecutorService executor = new TimingWheelScheduledExecutorService("test", threads);
+    try {
+      // Simulates many polling services, each rescheduling itself after polling
+      int tasks = 1000;
+      int runsPerTask = 3;
+      CountDownLatch latch = new CountDownLatch(tasks * runsPerTask);
+      Set<Thread> workerThreads = ConcurrentHashMap.newKeySet();
+      List<ScheduledFuture<?>> futures = new ArrayList<>();
+      for (int i = 0; i < tasks; i++) {
+        futures.add(executor.scheduleWithFixedDelay(() -> {
+          workerThreads.add(Thread.currentThread());
+          latch.countDown();
+        }, i % 100, 50, TimeUnit.MILLISECONDS));
+      }
+      Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+      Assert.assertTrue(workerThreads.size() <= threads);
+
+      for (ScheduledFuture<?> future : futures) {
+        future.cancel(false);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testShutdown() throws Exception {
+    TimingWheelScheduledExecutorService executor = new TimingWheelScheduledExecutorService("test", 1);
+    ScheduledFuture<?> future = executor.schedule(() -> { }, 1, TimeUnit.HOURS);
+    executor.shutdown();
+
+    Assert.assertTrue(future.isCancelled());
+    Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    Assert.assertTrue(executor.isTerminated());
+
+    try {
+      executor.schedule(() -> { }, 0, TimeUnit.MILLISECONDS);
+      Assert.fail("Expected the task to be rejected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+  }
+}
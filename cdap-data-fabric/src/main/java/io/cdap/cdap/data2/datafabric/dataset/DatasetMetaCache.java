@@ -0,0 +1,336 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.datafabric.dataset;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.cdap.cdap.api.dataset.DatasetManagementException;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.messaging.MessageFetcher;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.data.RawMessage;
+import io.cdap.cdap.proto.DatasetMeta;
+import io.cdap.cdap.proto.DatasetTypeMeta;
+import io.cdap.cdap.proto.audit.AuditMessage;
+import io.cdap.cdap.proto.audit.AuditType;
+import io.cdap.cdap.proto.codec.AuditMessageTypeAdapter;
+import io.cdap.cdap.proto.id.DatasetId;
+import io.cdap.cdap.proto.id.DatasetTypeId;
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.TopicId;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache for {@link DatasetMeta} and {@link DatasetTypeMeta} fetched from the dataset service by
+ * the {@link RemoteDatasetFramework}. Cache entries are invalidated by the dataset change notifications published
+ * to the audit topic in TMS, with a time based expiry as a fallback for changes that are not notified.
+ * Only existing datasets and types are cached. Entries are kept per principal, since the dataset service authorizes
+ * every lookup for the requesting principal.
+ * Notifications are fetched by a background thread, so that lookups never wait for the messaging service.
+ */
+@Singleton
+public final class DatasetMetaCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetMetaCache.class);
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(AuditMessage.class, new AuditMessageTypeAdapter())
+    .create();
+  private static final Set<AuditType> CHANGE_TYPES = EnumSet.of(AuditType.CREATE, AuditType.UPDATE,
+                                                                 AuditType.TRUNCATE, AuditType.DELETE);
+  private static final int NOTIFICATION_FETCH_LIMIT = 500;
+
+  private final Cache<CacheKey<DatasetId>, DatasetMeta> instances;
+  private final Cache<CacheKey<DatasetTypeId>, DatasetTypeMeta> types;
+  private final boolean enabled;
+  private final TopicId auditTopic;
+  private final boolean auditEnabled;
+  private final long pollIntervalMillis;
+  private final ThreadPoolExecutor pollExecutor;
+  private final AtomicBoolean polling;
+  // Only changes made after the cache is created are relevant
+  private final long pollStartTime;
+
+  private volatile MessagingService messagingService;
+  private volatile MetricsCollectionService metricsCollectionService;
+  private volatile long nextPollMillis;
+  // Only accessed by the poll task, which never runs concurrently with itself
+  private byte[] lastMessageId;
+
+  @Inject
+  public DatasetMetaCache(CConfiguration cConf) {
+    long size = cConf.getLong(Constants.Dataset.SPEC_CACHE_SIZE, 1000L);
+    long expirySeconds = cConf.getLong(Constants.Dataset.SPEC_CACHE_EXPIRY_SECONDS, 30L);
+    this.enabled = size > 0 && expirySeconds > 0;
+    this.instances = CacheBuilder.newBuilder()
+      .maximumSize(Math.max(0L, size))
+      .expireAfterWrite(Math.max(0L, expirySeconds), TimeUnit.SECONDS)
+      .build();
+    this.types = CacheBuilder.newBuilder()
+      .maximumSize(Math.max(0L, size))
+      .expireAfterWrite(Math.max(0L, expirySeconds), TimeUnit.SECONDS)
+      .build();
+    this.auditTopic = NamespaceId.SYSTEM.topic(cConf.get(Constants.Audit.TOPIC));
+    this.auditEnabled = cConf.getBoolean(Constants.Audit.ENABLED, false);
+    this.pollIntervalMillis = cConf.getLong(Constants.Dataset.SPEC_CACHE_CHANGE_POLL_INTERVAL_MS, 1000L);
+    // The poll thread is only kept alive while notifications are being polled
+    this.pollExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                               Threads.createDaemonThreadFactory("dataset-meta-cache-poller"));
+    this.pollExecutor.allowCoreThreadTimeOut(true);
+    this.polling = new AtomicBoolean();
+    this.pollStartTime = System.currentTimeMillis();
+  }
+
+  @SuppressWarnings("unused")
+  @Inject(optional = true)
+  public void setMessagingService(MessagingService messagingService) {
+    this.messagingService = messagingService;
+  }
+
+  @SuppressWarnings("unused")
+  @Inject(optional = true)
+  public void setMetricsCollectionService(MetricsCollectionService metricsCollectionService) {
+    this.metricsCollectionService = metricsCollectionService;
+  }
+
+  /**
+   * Returns the {@link DatasetMeta} of the given dataset, either from the cache or from the given loader.
+   *
+   * @param principal name of the principal making the request
+   * @param datasetId the dataset to get the meta for
+   * @param loader the {@link Loader} for fetching the meta if it is not in the cache
+   * @return the {@link DatasetMeta} or {@code null} if the dataset doesn't exist
+   */
+  @Nullable
+  DatasetMeta getInstance(String principal, DatasetId datasetId,
+                          Loader<DatasetMeta> loader) throws DatasetManagementException {
+    return get(instances, new CacheKey<>(principal, datasetId), loader);
+  }
+
+  /**
+   * Returns the {@link DatasetTypeMeta} of the given dataset type, either from the cache or from the given loader.
+   *
+   * @param principal name of the principal making the request
+   * @param typeId the dataset type to get the meta for
+   * @param loader the {@link Loader} for fetching the meta if it is not in the cache
+   * @return the {@link DatasetTypeMeta} or {@code null} if the type doesn't exist
+   */
+  @Nullable
+  DatasetTypeMeta getType(String principal, DatasetTypeId typeId,
+                          Loader<DatasetTypeMeta> loader) throws DatasetManagementException {
+    return get(types, new CacheKey<>(principal, typeId), loader);
+  }
+
+  /**
+   * Invalidates the cache entries of the given dataset.
+   */
+  void invalidate(DatasetId datasetId) {
+    instances.asMap().keySet().removeIf(key -> key.getId().equals(datasetId));
+  }
+
+  /**
+   * Invalidates the cache entries of all datasets in the given namespace.
+   */
+  void invalidateInstances(NamespaceId namespaceId) {
+    instances.asMap().keySet().removeIf(key -> key.getId().getParent().equals(namespaceId));
+  }
+
+  /**
+   * Invalidates the cache entries of all dataset types in the given namespace. Dataset types and the
+   * dataset instances using them are changed by dataset module operations, hence both are invalidated.
+   */
+  void invalidateTypes(NamespaceId namespaceId) {
+    types.asMap().keySet().removeIf(key -> key.getId().getParent().equals(namespaceId));
+    invalidateInstances(namespaceId);
+  }
+
+  private <K, V> V get(Cache<K, V> cache, K key, Loader<V> loader) throws DatasetManagementException {
+    if (!enabled) {
+      return loader.load();
+    }
+    schedulePoll();
+
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      emitMetric(Constants.Metrics.Name.Dataset.SPEC_CACHE_HIT);
+      return value;
+    }
+
+    emitMetric(Constants.Metrics.Name.Dataset.SPEC_CACHE_MISS);
+    value = loader.load();
+    if (value != null) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Submits a task to fetch dataset change notifications in the background if the poll interval has passed
+   * and no fetch is in progress. Lookups proceed with the cache content without waiting for the fetch.
+   */
+  private void schedulePoll() {
+    MessagingService messagingService = this.messagingService;
+    if (messagingService == null || !auditEnabled || System.currentTimeMillis() < nextPollMillis
+      || !polling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      pollExecutor.execute(() -> {
+        try {
+          pollChanges(messagingService);
+        } finally {
+          nextPollMillis = System.currentTimeMillis() + pollIntervalMillis;
+          polling.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      polling.set(false);
+      LOG.debug("Failed to schedule fetching of dataset change notifications", e);
+    }
+  }
+
+  /**
+   * Fetches dataset change notifications from the audit topic and invalidates the changed datasets.
+   */
+  private void pollChanges(MessagingService messagingService) {
+    try {
+      int count;
+      do {
+        count = 0;
+        MessageFetcher fetcher = messagingService.prepareFetch(auditTopic).setLimit(NOTIFICATION_FETCH_LIMIT);
+        if (lastMessageId == null) {
+          fetcher.setStartTime(pollStartTime);
+        } else {
+          fetcher.setStartMessage(lastMessageId, false);
+        }
+        try (CloseableIterator<RawMessage> iterator = fetcher.fetch()) {
+          while (iterator.hasNext()) {
+            RawMessage message = iterator.next();
+            lastMessageId = message.getId();
+            count++;
+            processNotification(message);
+          }
+        }
+      } while (count >= NOTIFICATION_FETCH_LIMIT);
+    } catch (Exception e) {
+      // Rely on the time based expiry if failed to fetch notifications. Since the last message id doesn't
+      // advance, notifications will be fetched again on next poll.
+      LOG.debug("Failed to fetch dataset change notifications from topic {}", auditTopic, e);
+    }
+  }
+
+  private void processNotification(RawMessage message) {
+    AuditMessage auditMessage;
+    try {
+      auditMessage = GSON.fromJson(new String(message.getPayload(), StandardCharsets.UTF_8), AuditMessage.class);
+    } catch (Exception e) {
+      LOG.trace("Ignoring audit message that cannot be decoded", e);
+      return;
+    }
+    if (!CHANGE_TYPES.contains(auditMessage.getType())) {
+      return;
+    }
+    try {
+      EntityId entityId = EntityId.fromMetadataEntity(auditMessage.getEntity());
+      if (entityId instanceof DatasetId) {
+        LOG.trace("Invalidating dataset meta cache for {} on {}", entityId, auditMessage.getType());
+        invalidate((DatasetId) entityId);
+      }
+    } catch (Exception e) {
+      // The metadata entity is not an entity id, hence not a dataset
+      LOG.trace("Ignoring audit message for {}", auditMessage.getEntity(), e);
+    }
+  }
+
+  private void emitMetric(String name) {
+    MetricsCollectionService metricsCollectionService = this.metricsCollectionService;
+    if (metricsCollectionService != null) {
+      metricsCollectionService.getContext(Constants.Metrics.STORAGE_METRICS_TAGS).increment(name, 1L);
+    }
+  }
+
+  /**
+   * Cache key of an entity looked up by a principal.
+   *
+   * @param <T> type of the entity id
+   */
+  private static final class CacheKey<T> {
+
+    private final String principal;
+    private final T id;
+
+    CacheKey(String principal, T id) {
+      this.principal = principal;
+      this.id = id;
+    }
+
+    T getId() {
+      return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey<?> other = (CacheKey<?>) o;
+      return Objects.equals(principal, other.principal) && Objects.equals(id, other.id);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(principal, id);
+    }
+  }
+
+  /**
+   * Loader for fetching a value that is not in the cache.
+   *
+   * @param <V> type of the value
+   */
+  interface Loader<V> {
+
+    /**
+     * Loads the value or returns {@code null} if the value doesn't exist.
+     */
+    @Nullable
+    V load() throws DatasetManagementException;
+  }
+}
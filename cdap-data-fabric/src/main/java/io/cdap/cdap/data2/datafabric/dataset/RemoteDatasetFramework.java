@@ -83,12 +83,16 @@ public class RemoteDatasetFramework implements DatasetFramework {
   private final CConfiguration cConf;
   private final LoadingCache<NamespaceId, DatasetServiceClient> clientCache;
   private final DatasetDefinitionRegistryFactory registryFactory;
+  private final DatasetMetaCache metaCache;
+  private final AuthenticationContext authenticationContext;
 
   @Inject
   public RemoteDatasetFramework(final CConfiguration cConf, final DiscoveryServiceClient discoveryClient,
                                 DatasetDefinitionRegistryFactory registryFactory,
-                                final AuthenticationContext authenticationContext) {
+                                final AuthenticationContext authenticationContext, DatasetMetaCache metaCache) {
     this.cConf = cConf;
+    this.metaCache = metaCache;
+    this.authenticationContext = authenticationContext;
     this.clientCache = CacheBuilder.newBuilder().build(new CacheLoader<NamespaceId, DatasetServiceClient>() {
       @Override
       public DatasetServiceClient load(NamespaceId namespace) throws Exception {
@@ -106,6 +110,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
       try {
         clientCache.getUnchecked(moduleId.getParent())
           .addModule(moduleId.getEntityName(), moduleClass.getName(), deploymentJar);
+        metaCache.invalidateTypes(moduleId.getParent());
       } finally {
         try {
           deploymentJar.delete();
@@ -127,16 +132,19 @@ public class RemoteDatasetFramework implements DatasetFramework {
                         Location jarLocation) throws DatasetManagementException {
     clientCache.getUnchecked(moduleId.getParent())
       .addModule(moduleId.getEntityName(), DatasetModules.getDatasetModuleClass(module).getName(), jarLocation);
+    metaCache.invalidateTypes(moduleId.getParent());
   }
 
   @Override
   public void deleteModule(DatasetModuleId moduleId) throws DatasetManagementException {
     clientCache.getUnchecked(moduleId.getParent()).deleteModule(moduleId.getEntityName());
+    metaCache.invalidateTypes(moduleId.getParent());
   }
 
   @Override
   public void deleteAllModules(NamespaceId namespaceId) throws DatasetManagementException {
     clientCache.getUnchecked(namespaceId).deleteModules();
+    metaCache.invalidateTypes(namespaceId);
   }
 
   @Override
@@ -145,6 +153,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
     throws DatasetManagementException {
     clientCache.getUnchecked(datasetInstanceId.getParent())
       .addInstance(datasetInstanceId.getEntityName(), datasetType, props, ownerPrincipal);
+    metaCache.invalidate(datasetInstanceId);
   }
 
   @Override
@@ -152,6 +161,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
     throws DatasetManagementException {
     clientCache.getUnchecked(datasetInstanceId.getParent())
       .updateInstance(datasetInstanceId.getEntityName(), props);
+    metaCache.invalidate(datasetInstanceId);
   }
 
   @Override
@@ -169,25 +179,25 @@ public class RemoteDatasetFramework implements DatasetFramework {
   @Nullable
   @Override
   public DatasetSpecification getDatasetSpec(DatasetId datasetInstanceId) throws DatasetManagementException {
-    DatasetMeta meta = clientCache.getUnchecked(datasetInstanceId.getParent())
-      .getInstance(datasetInstanceId.getEntityName());
+    DatasetMeta meta = getInstance(datasetInstanceId);
     return meta == null ? null : meta.getSpec();
   }
 
   @Override
   public boolean hasInstance(DatasetId datasetInstanceId) throws DatasetManagementException {
-    return clientCache.getUnchecked(datasetInstanceId.getParent())
-      .getInstance(datasetInstanceId.getEntityName()) != null;
+    return getInstance(datasetInstanceId) != null;
   }
 
   @Override
   public boolean hasType(DatasetTypeId datasetTypeId) throws DatasetManagementException {
-    return clientCache.getUnchecked(datasetTypeId.getParent()).getType(datasetTypeId.getEntityName()) != null;
+    return getTypeInfo(datasetTypeId) != null;
   }
 
   @Override
   public DatasetTypeMeta getTypeInfo(DatasetTypeId datasetTypeId) throws DatasetManagementException {
-    return clientCache.getUnchecked(datasetTypeId.getParent()).getType(datasetTypeId.getEntityName());
+    return metaCache.getType(authenticationContext.getPrincipal().getName(), datasetTypeId,
+                             () -> clientCache.getUnchecked(datasetTypeId.getParent())
+                               .getType(datasetTypeId.getEntityName()));
   }
 
   @Override
@@ -198,11 +208,13 @@ public class RemoteDatasetFramework implements DatasetFramework {
   @Override
   public void deleteInstance(DatasetId datasetInstanceId) throws DatasetManagementException {
     clientCache.getUnchecked(datasetInstanceId.getParent()).deleteInstance(datasetInstanceId.getEntityName());
+    metaCache.invalidate(datasetInstanceId);
   }
 
   @Override
   public void deleteAllInstances(NamespaceId namespaceId) throws DatasetManagementException {
     clientCache.getUnchecked(namespaceId).deleteInstances();
+    metaCache.invalidateInstances(namespaceId);
   }
 
   @Override
@@ -217,8 +229,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
                                              @Nullable ClassLoader parentClassLoader,
                                              DatasetClassLoaderProvider classLoaderProvider)
     throws DatasetManagementException, IOException {
-    DatasetMeta instanceInfo = clientCache.getUnchecked(datasetInstanceId.getParent())
-      .getInstance(datasetInstanceId.getEntityName());
+    DatasetMeta instanceInfo = getInstance(datasetInstanceId);
     if (instanceInfo == null) {
       return null;
     }
@@ -235,7 +246,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
                                           @Nullable Iterable<? extends EntityId> owners, AccessType accessType)
     throws DatasetManagementException, IOException {
 
-    DatasetMeta datasetMeta = clientCache.getUnchecked(id.getParent()).getInstance(id.getEntityName());
+    DatasetMeta datasetMeta = getInstance(id);
     if (datasetMeta == null) {
       return null;
     }
@@ -249,6 +260,16 @@ public class RemoteDatasetFramework implements DatasetFramework {
     // no-op. The RemoteDatasetFramework doesn't need to do anything. The lineage should be recorded before this point.
   }
 
+  /**
+   * Returns the {@link DatasetMeta} of the given dataset instance from the cache or from the dataset service.
+   */
+  @Nullable
+  private DatasetMeta getInstance(DatasetId datasetInstanceId) throws DatasetManagementException {
+    return metaCache.getInstance(authenticationContext.getPrincipal().getName(), datasetInstanceId,
+                                 () -> clientCache.getUnchecked(datasetInstanceId.getParent())
+                                   .getInstance(datasetInstanceId.getEntityName()));
+  }
+
   private Location createDeploymentJar(Class<?> clz) throws IOException {
     File tempDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
                             cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
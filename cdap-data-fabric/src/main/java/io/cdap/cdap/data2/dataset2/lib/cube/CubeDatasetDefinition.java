@@ -53,6 +53,8 @@ import java.util.Set;
      dataset.cube.aggregation.userPages.requiredDimensions=page
      dataset.cube.aggregation.userActions.dimensions=user,action
      dataset.cube.aggregation.userActions.requiredDimensions=action
+     dataset.cube.aggregation.userActions.rollups=action;user
+     dataset.cube.aggregation.userActions.rollupMeasures=count
     </pre>
  *
  * <ul>
@@ -68,12 +70,21 @@ import java.util.Set;
  *     configures "userActions" aggregation (name doesn't have any restricted format, can be any alphabetical) that
  *     aggregates measurements for user and action; allows querying e.g. number of specific actions of specific user
  *   </li>
+ *   <li>
+ *     configures two rollups of the "userActions" aggregation, which pre-aggregate its "count" counter per action
+ *     and per user; allows querying e.g. the total number of specific actions without scanning through all users
+ *   </li>
  * </ul>
  *
  * Aggregation is defined with list of dimensions to aggregate by and a list of required dimensions
  * (dataset.cube.aggregation.[agg_name].dimensions and dataset.cube.aggregation.[agg_name].requiredDimensions properties
  * respectively). The {@link io.cdap.cdap.api.dataset.lib.cube.CubeFact} measurement is aggregated within an aggregation
  * if it contains all required dimensions which non-null value.
+ * <p/>
+ * An aggregation can also be configured with rollups (dataset.cube.aggregation.[agg_name].rollups property), as a
+ * semicolon-separated list of dimension subsets, and the counters to write to them
+ * (dataset.cube.aggregation.[agg_name].rollupMeasures property). See {@link RollupAggregation} for details. The
+ * rollups of an aggregation can only be configured together with the aggregation and cannot be changed afterwards.
  */
 public class CubeDatasetDefinition
   extends AbstractDatasetDefinition<CubeDataset, DatasetAdmin>
@@ -82,6 +93,8 @@ public class CubeDatasetDefinition
   public static final String PROPERTY_AGGREGATION_PREFIX = "dataset.cube.aggregation.";
   public static final String PROPERTY_DIMENSIONS = "dimensions";
   public static final String PROPERTY_REQUIRED_DIMENSIONS = "requiredDimensions";
+  public static final String PROPERTY_ROLLUPS = "rollups";
+  public static final String PROPERTY_ROLLUP_MEASURES = "rollupMeasures";
   // 1 second is the only default resolution
   public static final int[] DEFAULT_RESOLUTIONS = new int[]{1};
 
@@ -132,6 +145,27 @@ public class CubeDatasetDefinition
                                           DatasetProperties newProps,
                                           DatasetSpecification currentSpec) throws IncompatibleUpdateException {
 
+    // validate that the rollups of existing aggregations are not changing, since a rollup only has the data written
+    // after it was added, and queries would use it for the time ranges before that, too
+    Map<String, String> oldProps = currentSpec.getProperties();
+    Map<String, String> newProperties = newProps.getProperties();
+    for (String aggregation : getAggregationNames(oldProps)) {
+      if (!newProperties.containsKey(getAggregationProperty(aggregation, PROPERTY_DIMENSIONS))) {
+        continue;
+      }
+      for (String property : Arrays.asList(PROPERTY_ROLLUPS, PROPERTY_ROLLUP_MEASURES)) {
+        String separator = PROPERTY_ROLLUPS.equals(property) ? ";" : ",";
+        Set<String> oldValues = splitProperty(oldProps, getAggregationProperty(aggregation, property), separator);
+        Set<String> newValues = splitProperty(newProperties, getAggregationProperty(aggregation, property),
+                                              separator);
+        if (!oldValues.equals(newValues)) {
+          throw new IncompatibleUpdateException(String.format(
+            "Property %s of existing aggregation %s cannot be changed. Existing: %s, new: %s",
+            property, aggregation, oldValues, newValues));
+        }
+      }
+    }
+
     DatasetProperties factTableProperties = computeFactTableProperties(newProps);
     List<DatasetSpecification> datasetSpecs = Lists.newArrayList();
 
@@ -208,6 +242,8 @@ public class CubeDatasetDefinition
 
     Map<String, List<String>> aggDimensions = Maps.newHashMap();
     Map<String, Set<String>> aggRequiredDimensions = Maps.newHashMap();
+    Map<String, String> aggRollups = Maps.newHashMap();
+    Map<String, Set<String>> aggRollupMeasures = Maps.newHashMap();
     for (Map.Entry<String, String> prop : properties.entrySet()) {
       if (prop.getKey().startsWith(PROPERTY_AGGREGATION_PREFIX)) {
         String aggregationProp = prop.getKey().substring(PROPERTY_AGGREGATION_PREFIX.length());
@@ -216,7 +252,11 @@ public class CubeDatasetDefinition
           throw new IllegalArgumentException("Invalid property: " + prop.getKey());
         }
         String[] dimensions = prop.getValue().split(",");
-        if (PROPERTY_DIMENSIONS.equals(nameAndProp[1])) {
+        if (PROPERTY_ROLLUPS.equals(nameAndProp[1])) {
+          aggRollups.put(nameAndProp[0], prop.getValue());
+        } else if (PROPERTY_ROLLUP_MEASURES.equals(nameAndProp[1])) {
+          aggRollupMeasures.put(nameAndProp[0], new HashSet<>(Arrays.asList(prop.getValue().split(","))));
+        } else if (PROPERTY_DIMENSIONS.equals(nameAndProp[1])) {
           aggDimensions.put(nameAndProp[0], Arrays.asList(dimensions));
         } else if (PROPERTY_REQUIRED_DIMENSIONS.equals(nameAndProp[1])) {
           aggRequiredDimensions.put(nameAndProp[0], new HashSet<>(Arrays.asList(dimensions)));
@@ -233,9 +273,49 @@ public class CubeDatasetDefinition
       aggregations.put(aggDimensionsEntry.getKey(),
                        new DefaultAggregation(aggDimensionsEntry.getValue(), requiredDimensions));
     }
+
+    // Example of configuring two rollups of the aggregation above, by user and by action, for the "count" counter:
+    //   dataset.cube.aggregation.1.rollups=user;action
+    //   dataset.cube.aggregation.1.rollupMeasures=count
+    for (Map.Entry<String, String> rollupsEntry : aggRollups.entrySet()) {
+      Aggregation parent = aggregations.get(rollupsEntry.getKey());
+      if (parent == null) {
+        throw new IllegalArgumentException("Rollups are configured for unknown aggregation " + rollupsEntry.getKey());
+      }
+      Set<String> measures = aggRollupMeasures.get(rollupsEntry.getKey());
+      if (measures == null) {
+        throw new IllegalArgumentException("Measures to roll up are not configured for aggregation " +
+                                             rollupsEntry.getKey());
+      }
+      for (String rollup : rollupsEntry.getValue().split(";")) {
+        List<String> dimensions = Arrays.asList(rollup.split(","));
+        aggregations.put(RollupAggregation.getName(rollupsEntry.getKey(), dimensions),
+                         new RollupAggregation(rollupsEntry.getKey(), parent, dimensions, measures));
+      }
+    }
     return aggregations;
   }
 
+  private Set<String> getAggregationNames(Map<String, String> properties) {
+    Set<String> names = new HashSet<>();
+    for (String key : properties.keySet()) {
+      if (key.startsWith(PROPERTY_AGGREGATION_PREFIX) && key.endsWith("." + PROPERTY_DIMENSIONS)) {
+        names.add(key.substring(PROPERTY_AGGREGATION_PREFIX.length(),
+                                key.length() - PROPERTY_DIMENSIONS.length() - 1));
+      }
+    }
+    return names;
+  }
+
+  private String getAggregationProperty(String aggregation, String property) {
+    return PROPERTY_AGGREGATION_PREFIX + aggregation + "." + property;
+  }
+
+  private Set<String> splitProperty(Map<String, String> properties, String key, String separator) {
+    String value = properties.get(key);
+    return value == null ? Collections.<String>emptySet() : new HashSet<>(Arrays.asList(value.split(separator)));
+  }
+
   private int[] getResolutions(Map<String, String> propsMap) {
     // Example of configuring 1 second and 60 seconds resolutions:
     //   dataset.cube.resolutions=1,60
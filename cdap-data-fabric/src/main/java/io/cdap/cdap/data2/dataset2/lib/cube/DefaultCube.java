@@ -16,7 +16,6 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
@@ -34,6 +33,8 @@ import io.cdap.cdap.api.dataset.lib.cube.CubeExploreQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
 import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
 import io.cdap.cdap.api.dataset.lib.cube.DimensionValue;
+import io.cdap.cdap.api.dataset.lib.cube.MeasureType;
+import io.cdap.cdap.api.dataset.lib.cube.Measurement;
 import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
 import io.cdap.cdap.api.dataset.metrics.MeteredDataset;
@@ -51,13 +52,13 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -74,7 +75,7 @@ public class DefaultCube implements Cube, MeteredDataset {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultCube.class);
 
   private static final DimensionValueComparator DIMENSION_VALUE_COMPARATOR = new DimensionValueComparator();
-  // hard-limit on max records to scan
+  // hard-limit on max records to scan for queries that need all points of the time series
   private static final int MAX_RECORDS_TO_SCAN = 100 * 1000;
   private static final EnumSet<AggregationOption> PARTITION_AGG_OPTIONS = EnumSet.of(AggregationOption.LATEST,
                                                                                      AggregationOption.SUM);
@@ -114,12 +115,22 @@ public class DefaultCube implements Cube, MeteredDataset {
       for (Map.Entry<String, ? extends Aggregation> aggEntry : aggregations.entrySet()) {
         Aggregation agg = aggEntry.getValue();
         AggregationAlias aggregationAlias = null;
+        // a rollup uses the aliases of the aggregation it rolls up
+        String aliasKey = agg instanceof RollupAggregation
+          ? ((RollupAggregation) agg).getParentName() : aggEntry.getKey();
 
-        if (aggregationAliasMap.containsKey(aggEntry.getKey())) {
-          aggregationAlias = aggregationAliasMap.get(aggEntry.getKey());
+        if (aggregationAliasMap.containsKey(aliasKey)) {
+          aggregationAlias = aggregationAliasMap.get(aliasKey);
         }
 
         if (agg.accept(fact)) {
+          Collection<Measurement> measurements = fact.getMeasurements();
+          if (agg instanceof RollupAggregation) {
+            measurements = getRollupMeasurements((RollupAggregation) agg, fact);
+            if (measurements.isEmpty()) {
+              continue;
+            }
+          }
           List<DimensionValue> dimensionValues = Lists.newArrayList();
           for (String dimensionName : agg.getDimensionNames()) {
             String dimensionValueKey =
@@ -127,7 +138,7 @@ public class DefaultCube implements Cube, MeteredDataset {
             dimensionValues.add(new DimensionValue(dimensionName, fact.getDimensionValues().get(dimensionValueKey)));
             dimValuesCount++;
           }
-          toWrite.add(new Fact(fact.getTimestamp(), dimensionValues, fact.getMeasurements()));
+          toWrite.add(new Fact(fact.getTimestamp(), dimensionValues, measurements));
         }
       }
     }
@@ -169,6 +180,28 @@ public class DefaultCube implements Cube, MeteredDataset {
     incrementMetric("cube.tsFact.added.count", toWrite.size() * resolutionToFactTable.size());
   }
 
+  /**
+   * Returns the measurements of the given fact that are written to the given rollup.
+   *
+   * @throws IllegalArgumentException if a measurement of the rollup is not a counter
+   */
+  private static Collection<Measurement> getRollupMeasurements(RollupAggregation rollup, CubeFact fact) {
+    List<Measurement> measurements = new ArrayList<>();
+    for (Measurement measurement : fact.getMeasurements()) {
+      if (!rollup.getMeasureNames().contains(measurement.getName())) {
+        continue;
+      }
+      if (measurement.getType() != MeasureType.COUNTER) {
+        throw new IllegalArgumentException(
+          String.format("Measurement %s of type %s cannot be rolled up to dimensions %s of aggregation %s, " +
+                          "only counters can be rolled up", measurement.getName(), measurement.getType(),
+                        rollup.getDimensionNames(), rollup.getParentName()));
+      }
+      measurements.add(measurement);
+    }
+    return measurements;
+  }
+
   @Override
   public Collection<TimeSeries> query(CubeQuery query) {
     /*
@@ -204,7 +237,12 @@ public class DefaultCube implements Cube, MeteredDataset {
       'measureType'='COUNTER'
 
       3) While scanning build a table: dimension values -> time -> value. Use measureType as values aggregate
-         function if needed.
+         function if needed. Values are aggregated as they are scanned, and only the points that can be part of the
+         result are kept, so the memory used does not depend on the number of records scanned.
+
+      If the query sums up all its measurements and they are all counters of a rollup, a rollup with fewer dimensions
+      that still has all dimensions of the query is used instead of the aggregation, because it has the same sums
+      pre-aggregated at write time.
     */
 
     incrementMetric("cube.query.request.count", 1);
@@ -227,6 +265,11 @@ public class DefaultCube implements Cube, MeteredDataset {
           String.format("Specified aggregation %s is not found in cube aggregations: %s",
                         query.getAggregation(), aggregations.keySet().toString()));
       }
+      ImmutablePair<String, Aggregation> rollup = findRollup(aggName, query);
+      if (rollup != null) {
+        aggName = rollup.getFirst();
+        agg = rollup.getSecond();
+      }
     } else {
       ImmutablePair<String, Aggregation> aggregation = findAggregation(query);
       if (aggregation == null) {
@@ -255,7 +298,7 @@ public class DefaultCube implements Cube, MeteredDataset {
     // 3) execute scan query
     FactTable table = resolutionToFactTable.get(query.getResolution());
     FactScanner scanner = table.scan(scan);
-    Table<Map<String, String>, String, Map<Long, Long>> resultMap = getTimeSeries(query, scanner);
+    Table<Map<String, String>, String, NavigableMap<Long, Long>> resultMap = getTimeSeries(query, scanner);
 
     incrementMetric("cube.query.request.success.count", 1);
     incrementMetric("cube.query.result.size", resultMap.size());
@@ -360,8 +403,10 @@ public class DefaultCube implements Cube, MeteredDataset {
 
     for (Map.Entry<String, ? extends Aggregation> entry : aggregations.entrySet()) {
       Aggregation agg = entry.getValue();
-      if (agg.getDimensionNames().containsAll(query.getGroupByDimensions()) &&
-        agg.getDimensionNames().containsAll(query.getDimensionValues().keySet())) {
+      if (agg instanceof RollupAggregation && !canUseRollup((RollupAggregation) agg, query)) {
+        continue;
+      }
+      if (covers(agg, query)) {
 
         // todo: choose aggregation smarter than just by number of dimensions :)
         if (currentBest == null ||
@@ -374,91 +419,81 @@ public class DefaultCube implements Cube, MeteredDataset {
     return currentBest;
   }
 
-  private Table<Map<String, String>, String, Map<Long, Long>> getTimeSeries(CubeQuery query, FactScanner scanner) {
-    // {dimension values, measure} -> {time -> value}s
-    Table<Map<String, String>, String, Map<Long, Long>> result = HashBasedTable.create();
+  /**
+   * Finds the rollup of the given aggregation with the fewest dimensions that can answer the query.
+   */
+  @Nullable
+  private ImmutablePair<String, Aggregation> findRollup(String aggName, CubeQuery query) {
+    ImmutablePair<String, Aggregation> currentBest = null;
+    for (Map.Entry<String, ? extends Aggregation> entry : aggregations.entrySet()) {
+      Aggregation agg = entry.getValue();
+      if (agg instanceof RollupAggregation && aggName.equals(((RollupAggregation) agg).getParentName())
+        && canUseRollup((RollupAggregation) agg, query) && covers(agg, query)) {
+        if (currentBest == null ||
+          currentBest.getSecond().getDimensionNames().size() > agg.getDimensionNames().size()) {
+          currentBest = new ImmutablePair<>(entry.getKey(), agg);
+        }
+      }
+    }
+    return currentBest;
+  }
 
+  private static boolean covers(Aggregation agg, CubeQuery query) {
+    return agg.getDimensionNames().containsAll(query.getGroupByDimensions()) &&
+      agg.getDimensionNames().containsAll(query.getDimensionValues().keySet());
+  }
+
+  /**
+   * Rollups aggregate values at write time by summing up counters, so they only give the same results as the
+   * aggregation they roll up if all measurements are summed up, and they are all counters written to the rollup.
+   */
+  private static boolean canUseRollup(RollupAggregation rollup, CubeQuery query) {
+    for (Map.Entry<String, AggregationFunction> measurement : query.getMeasurements().entrySet()) {
+      if (measurement.getValue() != AggregationFunction.SUM
+        || !rollup.getMeasureNames().contains(measurement.getKey())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Table<Map<String, String>, String, NavigableMap<Long, Long>> getTimeSeries(CubeQuery query,
+                                                                                     FactScanner scanner) {
+    // The points of a time series are partitioned into intervals for some aggregation options, which needs all
+    // points. The memory used is then bounded by limiting the records scanned. Otherwise, only the first points up
+    // to the limit of the query are returned.
+    boolean allPoints = PARTITION_AGG_OPTIONS.contains(query.getAggregationOption());
+    int maxPointsPerSeries = allPoints ? Integer.MAX_VALUE : Math.max(1, query.getLimit());
+    TimeSeriesAggregator aggregator = new TimeSeriesAggregator(query, maxPointsPerSeries);
     int count = 0;
     while (scanner.hasNext()) {
       FactScanResult next = scanner.next();
       incrementMetric("cube.query.scan.records.count", 1);
-
-      boolean skip = false;
-      // using tree map, as we are using it as a key for a map
-      Map<String, String> seriesDimensions = Maps.newTreeMap();
-      for (String dimensionName : query.getGroupByDimensions()) {
-        // todo: use Map<String, String> instead of List<DimensionValue> into a String, String, everywhere
-        for (DimensionValue dimensionValue : next.getDimensionValues()) {
-          if (dimensionName.equals(dimensionValue.getName())) {
-            if (dimensionValue.getValue() == null) {
-              // Currently, we do NOT return null as grouped by value.
-              // Depending on whether dimension is required or not the records with null value in it may or may not be
-              // in aggregation. At this moment, the choosing of the aggregation for query doesn't look at this, so
-              // potentially null may or may not be included in results, depending on the aggregation selected
-              // querying. We don't want to produce inconsistent results varying due to different aggregations selected,
-              // so don't return nulls in any of those cases.
-              skip = true;
-              continue;
-            }
-            seriesDimensions.put(dimensionName, dimensionValue.getValue());
-            break;
-          }
-        }
-      }
-
-      if (skip) {
+      if (!aggregator.add(next)) {
         incrementMetric("cube.query.scan.skipped.count", 1);
-        continue;
       }
-
-      for (TimeValue timeValue : next) {
-        Map<Long, Long> timeValues = result.get(seriesDimensions, next.getMeasureName());
-        if (timeValues == null) {
-          result.put(seriesDimensions, next.getMeasureName(), Maps.<Long, Long>newHashMap());
-        }
-
-        AggregationFunction function = query.getMeasurements().get(next.getMeasureName());
-        if (AggregationFunction.SUM == function) {
-          Long value =  result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value == null ? 0 : value;
-          value += timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.MAX == function) {
-          Long value = result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value != null && value > timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.MIN == function) {
-          Long value =  result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value != null && value < timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.LATEST == function) {
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), timeValue.getValue());
-        } else {
-          // should never happen: developer error
-          throw new RuntimeException("Unknown MeasureType: " + function);
-        }
-      }
-      if (++count >= MAX_RECORDS_TO_SCAN) {
+      if (allPoints && ++count >= MAX_RECORDS_TO_SCAN) {
+        LOG.debug("Stopped scanning after {} records for query {}", count, query);
         break;
       }
     }
-    return result;
+    return aggregator.getResult();
   }
 
   private Collection<TimeSeries> convertToQueryResult(
-    CubeQuery query, Table<Map<String, String>, String, Map<Long, Long>> resultTable) {
+    CubeQuery query, Table<Map<String, String>, String, NavigableMap<Long, Long>> resultTable) {
     List<TimeSeries> result = new ArrayList<>();
     // iterating each groupValue dimensions
-    for (Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>> row : resultTable.rowMap().entrySet()) {
+    for (Map.Entry<Map<String, String>, Map<String, NavigableMap<Long, Long>>> row : resultTable.rowMap().entrySet()) {
       // iterating each measure
-      for (Map.Entry<String, Map<Long, Long>> measureEntry : row.getValue().entrySet()) {
+      for (Map.Entry<String, NavigableMap<Long, Long>> measureEntry : row.getValue().entrySet()) {
         // generating time series for a grouping and a measure
         int count = 0;
         List<TimeValue> timeValues = new ArrayList<>();
+        // the time values are already sorted by timestamp
         for (Map.Entry<Long, Long> timeValue : measureEntry.getValue().entrySet()) {
           timeValues.add(new TimeValue(timeValue.getKey(), timeValue.getValue()));
         }
-        Collections.sort(timeValues);
         List<TimeValue> resultTimeValues = new ArrayList<>();
 
         AggregationOption aggregationOption = query.getAggregationOption();
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.cube;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An {@link Aggregation} that rolls up another aggregation to a subset of its dimensions. A rollup accepts the same
+ * facts as the aggregation it rolls up, and the facts are summed up over the dropped dimensions when they are written.
+ * <p/>
+ * Only the configured measures are written to a rollup, and they must be counters: a gauge keeps the last value
+ * written, which would drop the values of all but one of the rolled up dimension values. Since a rollup has fewer
+ * dimensions, a query that groups and filters by its dimensions scans less data in the rollup than in the rolled up
+ * aggregation. A query is only answered from a rollup if it sums up all its measurements, and all of them are measures
+ * of the rollup.
+ */
+public class RollupAggregation implements Aggregation {
+  private final String parentName;
+  private final Aggregation parent;
+  private final List<String> dimensionNames;
+  private final Set<String> measureNames;
+
+  /**
+   * Creates instance of {@link RollupAggregation}.
+   *
+   * @param parentName name of the aggregation to roll up
+   * @param parent the aggregation to roll up
+   * @param dimensionNames dimensions of the rollup, must be a subset of the dimensions of the rolled up aggregation.
+   *                       See also {@link Aggregation#getDimensionNames()}.
+   * @param measureNames names of the counters that are written to the rollup
+   */
+  public RollupAggregation(String parentName, Aggregation parent, List<String> dimensionNames,
+                           Set<String> measureNames) {
+    if (dimensionNames.isEmpty()) {
+      throw new IllegalArgumentException("Rollup of aggregation " + parentName + " must have at least one dimension");
+    }
+    if (measureNames.isEmpty()) {
+      throw new IllegalArgumentException("Rollup of aggregation " + parentName + " must have at least one measure");
+    }
+    if (!parent.getDimensionNames().containsAll(dimensionNames)) {
+      throw new IllegalArgumentException(String.format("Dimensions %s of a rollup are not all dimensions %s of " +
+                                                         "aggregation %s", dimensionNames,
+                                                       parent.getDimensionNames(), parentName));
+    }
+    this.parentName = parentName;
+    this.parent = parent;
+    this.dimensionNames = ImmutableList.copyOf(dimensionNames);
+    this.measureNames = ImmutableSet.copyOf(measureNames);
+  }
+
+  /**
+   * Returns the name of a rollup of the given aggregation to the given dimensions.
+   */
+  public static String getName(String parentName, List<String> dimensionNames) {
+    return parentName + "." + String.join("_", dimensionNames);
+  }
+
+  /**
+   * @return name of the rolled up aggregation
+   */
+  public String getParentName() {
+    return parentName;
+  }
+
+  /**
+   * @return names of the counters that are written to the rollup
+   */
+  public Set<String> getMeasureNames() {
+    return measureNames;
+  }
+
+  @Override
+  public List<String> getDimensionNames() {
+    return dimensionNames;
+  }
+
+  @Override
+  public boolean accept(CubeFact fact) {
+    return parent.accept(fact);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.cube;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
+import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
+import io.cdap.cdap.api.dataset.lib.cube.DimensionValue;
+import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
+import io.cdap.cdap.data2.dataset2.lib.timeseries.FactScanResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Groups the results of a fact scan by the group by dimensions of a {@link CubeQuery}, and aggregates their values
+ * while scanning. Each time series keeps at most a given number of points: the points with the earliest timestamps.
+ * This bounds the memory used by a query to the number of time series times the number of points, regardless of how
+ * many records are scanned.
+ */
+final class TimeSeriesAggregator {
+
+  private final CubeQuery query;
+  private final int maxPointsPerSeries;
+  // values of the group by dimensions -> dimension values of the time series
+  private final Map<List<String>, Map<String, String>> seriesDimensions;
+  // {dimension values, measure} -> {time -> value}s
+  private final Table<Map<String, String>, String, NavigableMap<Long, Long>> result;
+
+  /**
+   * @param query the query to aggregate the results for
+   * @param maxPointsPerSeries the maximum number of points to keep for each time series
+   */
+  TimeSeriesAggregator(CubeQuery query, int maxPointsPerSeries) {
+    this.query = query;
+    this.maxPointsPerSeries = maxPointsPerSeries;
+    this.seriesDimensions = new HashMap<>();
+    this.result = HashBasedTable.create();
+  }
+
+  /**
+   * Aggregates the values of a scanned record into the time series of its group.
+   *
+   * @return false if the record was skipped because it has no value for one of the group by dimensions
+   */
+  boolean add(FactScanResult scanResult) {
+    List<String> groupByValues = new ArrayList<>(query.getGroupByDimensions().size());
+    for (String dimensionName : query.getGroupByDimensions()) {
+      String value = null;
+      // todo: use Map<String, String> instead of List<DimensionValue> into a String, String, everywhere
+      for (DimensionValue dimensionValue : scanResult.getDimensionValues()) {
+        if (dimensionName.equals(dimensionValue.getName())) {
+          if (dimensionValue.getValue() == null) {
+            // Currently, we do NOT return null as grouped by value.
+            // Depending on whether dimension is required or not the records with null value in it may or may not be
+            // in aggregation. At this moment, the choosing of the aggregation for query doesn't look at this, so
+            // potentially null may or may not be included in results, depending on the aggregation selected
+            // querying. We don't want to produce inconsistent results varying due to different aggregations selected,
+            // so don't return nulls in any of those cases.
+            return false;
+          }
+          value = dimensionValue.getValue();
+          break;
+        }
+      }
+      groupByValues.add(value);
+    }
+
+    Map<String, String> dimensions = seriesDimensions.computeIfAbsent(groupByValues, this::toSeriesDimensions);
+    NavigableMap<Long, Long> timeValues = result.get(dimensions, scanResult.getMeasureName());
+    if (timeValues == null) {
+      timeValues = new TreeMap<>();
+      result.put(dimensions, scanResult.getMeasureName(), timeValues);
+    }
+
+    AggregationFunction function = query.getMeasurements().get(scanResult.getMeasureName());
+    for (TimeValue timeValue : scanResult) {
+      aggregate(timeValues, function, timeValue.getTimestamp(), timeValue.getValue());
+    }
+    return true;
+  }
+
+  /**
+   * @return the aggregated time series, as {dimension values, measure} -> {time -> value}s
+   */
+  Table<Map<String, String>, String, NavigableMap<Long, Long>> getResult() {
+    return result;
+  }
+
+  private void aggregate(NavigableMap<Long, Long> timeValues, AggregationFunction function, long ts, long value) {
+    Long current = timeValues.get(ts);
+    if (current == null) {
+      if (timeValues.size() >= maxPointsPerSeries) {
+        // a later timestamp can never be among the earliest points again, so it can be dropped for good
+        if (ts > timeValues.lastKey()) {
+          return;
+        }
+        timeValues.pollLastEntry();
+      }
+      timeValues.put(ts, combine(function, null, value));
+    } else {
+      timeValues.put(ts, combine(function, current, value));
+    }
+  }
+
+  private static long combine(AggregationFunction function, Long current, long value) {
+    if (AggregationFunction.SUM == function) {
+      return current == null ? value : current + value;
+    } else if (AggregationFunction.MAX == function) {
+      return current != null && current > value ? current : value;
+    } else if (AggregationFunction.MIN == function) {
+      return current != null && current < value ? current : value;
+    } else if (AggregationFunction.LATEST == function) {
+      return value;
+    }
+    // should never happen: developer error
+    throw new RuntimeException("Unknown MeasureType: " + function);
+  }
+
+  private Map<String, String> toSeriesDimensions(List<String> groupByValues) {
+    // using tree map, as we are using it as a key for a map
+    Map<String, String> dimensions = new TreeMap<>();
+    for (int i = 0; i < groupByValues.size(); i++) {
+      if (groupByValues.get(i) != null) {
+        dimensions.put(query.getGroupByDimensions().get(i), groupByValues.get(i));
+      }
+    }
+    return dimensions;
+  }
+}
@@ -57,19 +57,23 @@ import io.cdap.cdap.api.dataset.lib.PartitionMetadata;
 import io.cdap.cdap.api.dataset.lib.PartitionOutput;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSet;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSetArguments;
+import io.cdap.cdap.api.dataset.lib.PartitionedFileSetProperties;
 import io.cdap.cdap.api.dataset.lib.Partitioning;
 import io.cdap.cdap.api.dataset.lib.Partitioning.FieldType;
 import io.cdap.cdap.api.dataset.lib.partitioned.PartitionKeyCodec;
 import io.cdap.cdap.api.dataset.table.Put;
 import io.cdap.cdap.api.dataset.table.Row;
+import io.cdap.cdap.api.dataset.table.Scan;
 import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.logging.LogSamplers;
 import io.cdap.cdap.common.logging.Loggers;
+import io.cdap.cdap.common.utils.ImmutablePair;
 import io.cdap.cdap.data.RuntimeProgramContext;
 import io.cdap.cdap.data.RuntimeProgramContextAware;
 import io.cdap.cdap.data2.dataset2.lib.file.FileSetDataset;
+import io.cdap.cdap.data2.dataset2.lib.table.FuzzyRowFilter;
 import io.cdap.cdap.explore.client.ExploreFacade;
 import io.cdap.cdap.proto.id.DatasetId;
 import org.apache.tephra.Transaction;
@@ -79,8 +83,10 @@ import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -129,6 +135,11 @@ public class PartitionedFileSetDataset extends AbstractDataset
   private static final byte[] LAST_MODIFICATION_TIME_COL = { 'm' };
   private static final byte[] RELATIVE_PATH = { 'p' };
   private static final byte[] METADATA_PREFIX = { 'm', '.' };
+  private static final byte[] INDEX_COLUMN_PREFIX = { 'f', '.' };
+
+  // maximum number of scans that a range condition on an integer field is split into
+  @VisibleForTesting
+  static final int MAX_SUB_SCANS = 100;
 
   protected final FileSet files;
   protected final DatasetSpecification spec;
@@ -137,6 +148,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
   protected final Map<String, String> runtimeArguments;
   protected final Partitioning partitioning;
   private final IndexedTable partitionsTable;
+  private final Set<String> indexedFields;
   private final Provider<ExploreFacade> exploreFacadeProvider;
 
   private final DatasetId datasetInstanceId;
@@ -164,6 +176,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
     this.exploreEnabled = FileSetProperties.isExploreEnabled(spec.getProperties());
     this.runtimeArguments = arguments;
     this.partitioning = partitioning;
+    this.indexedFields = PartitionedFileSetProperties.getIndexedFields(spec.getProperties());
     this.exploreFacadeProvider = exploreFacadeProvider;
     this.datasetInstanceId = new DatasetId(datasetContext.getNamespaceId(), name);
   }
@@ -356,6 +369,11 @@ public class PartitionedFileSetDataset extends AbstractDataset
     if (!appending) {
       put.add(RELATIVE_PATH, Bytes.toBytes(path));
       put.add(CREATION_TIME_COL, nowInMillis);
+      // index the partition by the value of each indexed field
+      for (String indexedField : indexedFields) {
+        put.add(getIndexColumn(indexedField),
+                FieldTypes.toBytes(key.getField(indexedField), partitioning.getFields().get(indexedField)));
+      }
     }
     put.add(LAST_MODIFICATION_TIME_COL, nowInMillis);
 
@@ -757,43 +775,109 @@ public class PartitionedFileSetDataset extends AbstractDataset
   // if decodeMetadata is false, null is passed as the PartitionMetadata to the PartitionConsumer,
   // for efficiency reasons, since the metadata is not always needed
   protected void getPartitions(@Nullable PartitionFilter filter, PartitionConsumer consumer, boolean decodeMetadata) {
-    byte[] startKey = generateStartKey(filter);
-    byte[] endKey = generateStopKey(filter);
-    getPartitions(filter, consumer, decodeMetadata, startKey, endKey, Long.MAX_VALUE);
+    long count = 0L;
+    Scanner indexScanner = filter == null ? null : scanByIndexedField(filter);
+    if (indexScanner != null) {
+      try (Scanner scanner = indexScanner) {
+        count = consumeRows(scanner, filter, consumer, decodeMetadata, Long.MAX_VALUE);
+      }
+    } else {
+      for (Scan scan : generateScans(filter, partitioning)) {
+        try (Scanner scanner = partitionsTable.scan(scan)) {
+          count += consumeRows(scanner, filter, consumer, decodeMetadata, Long.MAX_VALUE);
+        }
+      }
+    }
+    if (count == 0) {
+      warnIfInvalidPartitionFilter(filter, partitioning);
+    }
   }
 
   private void getPartitions(@Nullable PartitionFilter filter, PartitionConsumer consumer, boolean decodeMetadata,
                              @Nullable byte[] startKey, @Nullable byte[] endKey, long limit) {
-    long count = 0L;
     try (Scanner scanner = partitionsTable.scan(startKey, endKey)) {
-      while (count < limit) {
-        Row row = scanner.next();
-        if (row == null) {
-          break;
-        }
-        PartitionKey key;
-        try {
-          key = parseRowKey(row.getRow(), partitioning);
-        } catch (IllegalArgumentException e) {
-          LOG.debug(String.format("Failed to parse row key for partitioned file set '%s': %s",
-                                  getName(), Bytes.toStringBinary(row.getRow())));
-          continue;
-        }
-        if (filter != null && !filter.match(key)) {
-          continue;
-        }
-        byte[] pathBytes = row.get(RELATIVE_PATH);
-        if (pathBytes != null) {
-          consumer.consume(key, Bytes.toString(pathBytes), decodeMetadata ? metadataFromRow(row) : null);
-        }
-        count++;
-      }
-      if (count == 0) {
+      if (consumeRows(scanner, filter, consumer, decodeMetadata, limit) == 0) {
         warnIfInvalidPartitionFilter(filter, partitioning);
       }
     }
   }
 
+  /**
+   * Passes the partitions read by a scanner to a consumer, if they match the filter.
+   *
+   * @return the number of partitions that were consumed
+   */
+  private long consumeRows(Scanner scanner, @Nullable PartitionFilter filter, PartitionConsumer consumer,
+                           boolean decodeMetadata, long limit) {
+    long count = 0L;
+    while (count < limit) {
+      Row row = scanner.next();
+      if (row == null) {
+        break;
+      }
+      PartitionKey key;
+      try {
+        key = parseRowKey(row.getRow(), partitioning);
+      } catch (IllegalArgumentException e) {
+        LOG.debug(String.format("Failed to parse row key for partitioned file set '%s': %s",
+                                getName(), Bytes.toStringBinary(row.getRow())));
+        continue;
+      }
+      if (filter != null && !filter.match(key)) {
+        continue;
+      }
+      byte[] pathBytes = row.get(RELATIVE_PATH);
+      if (pathBytes != null) {
+        consumer.consume(key, Bytes.toString(pathBytes), decodeMetadata ? metadataFromRow(row) : null);
+      }
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns a scanner over the partitions table that uses the secondary index of an indexed field, or null if the
+   * index should not be used for the given filter. Since row keys start with the first field of the partitioning,
+   * the index is only used if the filter has no condition on that field. An indexed field with a value condition
+   * is preferred over one with a range condition.
+   */
+  @Nullable
+  private Scanner scanByIndexedField(PartitionFilter filter) {
+    if (indexedFields.isEmpty() || filter.getCondition(partitioning.getFields().keySet().iterator().next()) != null) {
+      return null;
+    }
+    PartitionFilter.Condition<? extends Comparable> rangeCondition = null;
+    for (String indexedField : indexedFields) {
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(indexedField);
+      if (condition == null) {
+        continue;
+      }
+      if (condition.isSingleValue()) {
+        return partitionsTable.readByIndex(getIndexColumn(indexedField),
+                                           conditionValueToBytes(indexedField, condition.getValue(), partitioning));
+      }
+      if (rangeCondition == null) {
+        rangeCondition = condition;
+      }
+    }
+    if (rangeCondition == null) {
+      return null;
+    }
+    String fieldName = rangeCondition.getFieldName();
+    byte[] lower = rangeCondition.getLower() == null ?
+      null : conditionValueToBytes(fieldName, rangeCondition.getLower(), partitioning);
+    byte[] upper = rangeCondition.getUpper() == null ?
+      null : conditionValueToBytes(fieldName, rangeCondition.getUpper(), partitioning);
+    return partitionsTable.scanByIndex(getIndexColumn(fieldName), lower, upper);
+  }
+
+  /**
+   * @return the column of the partitions table that holds the value of an indexed partitioning field
+   */
+  static byte[] getIndexColumn(String fieldName) {
+    return Bytes.add(INDEX_COLUMN_PREFIX, Bytes.toBytes(fieldName));
+  }
+
   private PartitionMetadata metadataFromRow(Row row) {
     Map<String, String> metadata = new HashMap<>();
     for (Map.Entry<byte[], byte[]> entry : row.getColumns().entrySet()) {
@@ -1209,10 +1293,148 @@ public class PartitionedFileSetDataset extends AbstractDataset
     return rowKey;
   }
 
-  private byte[] generateStartKey(PartitionFilter filter) {
-    if (null == filter) {
+  /**
+   * Generates the scans needed to find all partitions that match a filter. Conditions on leading fields
+   * of the partitioning determine the start and stop key of a scan. Value conditions on later fields are
+   * pushed down as a {@link FuzzyRowFilter}, as long as all fields in front of them have a fixed length.
+   * A bounded range condition on an integer field that is followed by conditions on later fields is split
+   * into one scan per value, so that the later conditions can narrow down each of the scans.
+   * The scans may still return partitions that do not match the filter.
+   */
+  @VisibleForTesting
+  static List<Scan> generateScans(@Nullable PartitionFilter filter, Partitioning partitioning) {
+    if (filter == null) {
+      return Collections.singletonList(new Scan(null, null));
+    }
+    List<Scan> scans = new ArrayList<>();
+    for (PartitionFilter subFilter : splitRangeCondition(filter, partitioning)) {
+      scans.add(new Scan(generateStartKey(subFilter, partitioning), generateStopKey(subFilter, partitioning),
+                         generateFuzzyRowFilter(subFilter, partitioning)));
+    }
+    return scans;
+  }
+
+  /**
+   * Splits the first bounded range condition on an integer field into one value condition per value in the range,
+   * if the range is followed by conditions on later fields and contains at most {@link #MAX_SUB_SCANS} values.
+   * Otherwise, returns a list that only contains the given filter.
+   */
+  private static List<PartitionFilter> splitRangeCondition(PartitionFilter filter, Partitioning partitioning) {
+    List<String> fieldNames = new ArrayList<>(partitioning.getFields().keySet());
+    for (int i = 0; i < fieldNames.size() - 1; i++) {
+      String fieldName = fieldNames.get(i);
+      FieldType fieldType = partitioning.getFields().get(fieldName);
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
+      if (condition == null || condition.isSingleValue() || fieldType == FieldType.STRING
+        || !(condition.getLower() instanceof Number) || !(condition.getUpper() instanceof Number)) {
+        continue;
+      }
+      boolean hasLaterConditions = false;
+      for (String laterField : fieldNames.subList(i + 1, fieldNames.size())) {
+        hasLaterConditions = hasLaterConditions || filter.getCondition(laterField) != null;
+      }
+      long lower = ((Number) condition.getLower()).longValue();
+      long upper = ((Number) condition.getUpper()).longValue();
+      long numValues = upper - lower;
+      // a negative number of values means the subtraction overflowed, which means the range is very large
+      if (!hasLaterConditions || numValues <= 0 || numValues > MAX_SUB_SCANS) {
+        return Collections.singletonList(filter);
+      }
+      List<PartitionFilter> subFilters = new ArrayList<>();
+      for (long value = lower; value < upper; value++) {
+        PartitionFilter.Builder builder = PartitionFilter.builder();
+        for (PartitionFilter.Condition<? extends Comparable> otherCondition : filter.getConditions().values()) {
+          if (!otherCondition.getFieldName().equals(fieldName)) {
+            addCondition(builder, otherCondition);
+          } else if (fieldType == FieldType.INT) {
+            builder.addValueCondition(fieldName, (int) value);
+          } else {
+            builder.addValueCondition(fieldName, value);
+          }
+        }
+        subFilters.add(builder.build());
+      }
+      return subFilters;
+    }
+    return Collections.singletonList(filter);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void addCondition(PartitionFilter.Builder builder, PartitionFilter.Condition condition) {
+    if (condition.isSingleValue()) {
+      builder.addValueCondition(condition.getFieldName(), condition.getValue());
+    } else {
+      builder.addRangeCondition(condition.getFieldName(), condition.getLower(), condition.getUpper());
+    }
+  }
+
+  /**
+   * Generates a fuzzy row filter that matches the value conditions of a filter that cannot be part of the start
+   * and stop key, because they follow a field without a value condition. The byte position of such a value in the
+   * row key is only known if all fields in front of it are either integers or have a value condition.
+   *
+   * @return the fuzzy row filter, or null if no value condition can be pushed down this way
+   */
+  @Nullable
+  @VisibleForTesting
+  static FuzzyRowFilter generateFuzzyRowFilter(PartitionFilter filter, Partitioning partitioning) {
+    ByteArrayOutputStream fuzzyKey = new ByteArrayOutputStream();
+    ByteArrayOutputStream fuzzyMask = new ByteArrayOutputStream();
+    boolean afterUnfixedField = false;
+    int fuzzyLength = 0;
+    int fieldIndex = 0;
+    for (Map.Entry<String, FieldType> entry : partitioning.getFields().entrySet()) {
+      String fieldName = entry.getKey();
+      FieldType fieldType = entry.getValue();
+      boolean isLastField = ++fieldIndex == partitioning.getFields().size();
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
+      if (condition != null && condition.isSingleValue()) {
+        byte[] bytes = conditionValueToBytes(fieldName, condition.getValue(), partitioning);
+        fuzzyKey.write(bytes, 0, bytes.length);
+        fuzzyMask.write(new byte[bytes.length], 0, bytes.length);
+        if (afterUnfixedField) {
+          // include the \0 after the value, so that a string value does not match longer strings
+          fuzzyLength = fuzzyKey.size() + (isLastField ? 0 : 1);
+        }
+      } else if (fieldType == FieldType.STRING) {
+        // the length of the string is not known, so the position of any following field is not known either
+        break;
+      } else {
+        int size = fieldType == FieldType.INT ? Bytes.SIZEOF_INT : Bytes.SIZEOF_LONG;
+        byte[] unfixed = new byte[size];
+        Arrays.fill(unfixed, (byte) 1);
+        fuzzyKey.write(new byte[size], 0, size);
+        fuzzyMask.write(unfixed, 0, size);
+        afterUnfixedField = true;
+      }
+      // the \0 between fields is always fixed
+      fuzzyKey.write(0);
+      fuzzyMask.write(0);
+    }
+    if (fuzzyLength == 0) {
       return null;
     }
+    return new FuzzyRowFilter(Collections.singletonList(
+      ImmutablePair.of(Arrays.copyOf(fuzzyKey.toByteArray(), fuzzyLength),
+                       Arrays.copyOf(fuzzyMask.toByteArray(), fuzzyLength))));
+  }
+
+  /**
+   * Validates that a value in a partition filter is compatible with the partitioning and converts it to bytes.
+   */
+  private static byte[] conditionValueToBytes(String fieldName, Comparable value, Partitioning partitioning) {
+    FieldType fieldType = partitioning.getFields().get(fieldName);
+    try {
+      fieldType.validate(value);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format(
+        "Invalid partition filter: Value for field '%s' is incompatible with the partitioning: %s",
+        fieldName, e.getMessage()));
+    }
+    return FieldTypes.toBytes(value, fieldType);
+  }
+
+  private static byte[] generateStartKey(PartitionFilter filter, Partitioning partitioning) {
     // validate partition filter, convert values, and compute size of output
     Map<String, FieldType> partitionFields = partitioning.getFields();
     int totalSize = 0;
@@ -1252,10 +1474,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
     return startKey;
   }
 
-  private byte[] generateStopKey(PartitionFilter filter) {
-    if (null == filter) {
-      return null;
-    }
+  private static byte[] generateStopKey(PartitionFilter filter, Partitioning partitioning) {
     // validate partition filter, convert values, and compute size of output
     Map<String, FieldType> partitionFields = partitioning.getFields();
     int totalSize = 0;
@@ -1268,7 +1487,8 @@ public class PartitionedFileSetDataset extends AbstractDataset
       if (condition == null) {
         break; // this field is not present; we can't include any more fields in the stop key
       }
-      Comparable upperValue = condition.getUpper();
+      // a value condition has no upper bound, its value is used instead
+      Comparable upperValue = condition.isSingleValue() ? condition.getValue() : condition.getUpper();
       if (upperValue == null) {
         break; // this field is not present; we can't include any more fields in the stop key
       }
@@ -691,9 +691,43 @@ public class MetadataDataset extends AbstractDataset {
 
   private SearchResults searchByDefaultIndex(SearchRequest request) {
     List<MetadataEntry> results = new LinkedList<>();
-    String column = request.isNamespaced() ?
+    String column = getDefaultIndexColumn(request);
+    scanDefaultIndex(request, row -> {
+      Optional<MetadataEntry> metadataEntry = parseRow(row, column, request.getTypes(), request.shouldShowHidden());
+      metadataEntry.ifPresent(results::add);
+    });
+
+    // cursors are currently not supported for default indexes
+    return new SearchResults(results, Collections.emptyList());
+  }
+
+  /**
+   * Counts the matches of a search request in the default index, for each matching entity. This count is
+   * the score that search results are ranked by for {@link SortInfo.SortOrder#WEIGHTED} sorting.
+   * Unlike {@link #search(SearchRequest)}, this does not read the metadata value of every match, and it only
+   * keeps one counter per matching entity in memory.
+   *
+   * @param request the search request. Its sort info, offset, limit and cursor are ignored
+   * @return the number of matches for each entity that matches the request
+   */
+  public Map<MetadataEntity, Integer> countByDefaultIndex(SearchRequest request) {
+    Map<MetadataEntity, Integer> counts = new HashMap<>();
+    String column = getDefaultIndexColumn(request);
+    scanDefaultIndex(request, row -> parseEntity(row, column, request.getTypes(), request.shouldShowHidden())
+      .ifPresent(entity -> counts.merge(entity, 1, Integer::sum)));
+    return counts;
+  }
+
+  private String getDefaultIndexColumn(SearchRequest request) {
+    return request.isNamespaced() ?
       DEFAULT_INDEX_COLUMN.getColumn() : DEFAULT_INDEX_COLUMN.getCrossNamespaceColumn();
+  }
 
+  /**
+   * Passes every row of the default index that matches one of the search terms of a request to a consumer.
+   */
+  private void scanDefaultIndex(SearchRequest request, Consumer<Row> consumer) {
+    String column = getDefaultIndexColumn(request);
     for (SearchTerm searchTerm : getSearchTerms(request)) {
       Scanner scanner;
       if (searchTerm.isPrefix()) {
@@ -709,17 +743,12 @@ public class MetadataDataset extends AbstractDataset {
       try {
         Row next;
         while ((next = scanner.next()) != null) {
-          Optional<MetadataEntry> metadataEntry = parseRow(next, column, request.getTypes(),
-                                                           request.shouldShowHidden());
-          metadataEntry.ifPresent(results::add);
+          consumer.accept(next);
         }
       } finally {
         scanner.close();
       }
     }
-
-    // cursors are currently not supported for default indexes
-    return new SearchResults(results, Collections.emptyList());
   }
 
   private SearchResults searchByCustomIndex(SearchRequest request) throws BadRequestException {
@@ -789,6 +818,15 @@ public class MetadataDataset extends AbstractDataset {
   // so return an Optional
   private Optional<MetadataEntry> parseRow(Row rowToProcess, String indexColumn,
                                            Set<String> entityFilter, boolean showHidden) {
+    return parseEntity(rowToProcess, indexColumn, entityFilter, showHidden).flatMap(metadataEntity -> {
+      String key = MetadataKey.extractMetadataKey(rowToProcess.getRow());
+      return Optional.ofNullable(getMetadata(metadataEntity, key));
+    });
+  }
+
+  // extracts the entity from an index row, if the row is for the index column and the entity passes the filters
+  private Optional<MetadataEntity> parseEntity(Row rowToProcess, String indexColumn,
+                                               Set<String> entityFilter, boolean showHidden) {
     String rowValue = rowToProcess.getString(indexColumn);
     if (rowValue == null) {
       return Optional.empty();
@@ -813,10 +851,7 @@ public class MetadataDataset extends AbstractDataset {
     } catch (IllegalArgumentException e) {
       // ignore. For custom entities we don't really want to hide them if they start with _
     }
-
-    String key = MetadataKey.extractMetadataKey(rowKey);
-    MetadataEntry entry = getMetadata(metadataEntity, key);
-    return Optional.ofNullable(entry);
+    return Optional.of(metadataEntity);
   }
 
   /**
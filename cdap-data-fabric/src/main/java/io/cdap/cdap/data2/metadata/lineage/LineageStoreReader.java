@@ -21,6 +21,7 @@ import io.cdap.cdap.proto.id.NamespacedEntityId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -56,4 +57,29 @@ public interface LineageStoreReader {
    * @return program-dataset access information
    */
   Set<Relation> getRelations(ProgramId program, long start, long end, Predicate<Relation> filter);
+
+  /**
+   * Fetch program-dataset access information for a set of datasets for a given period. This is more efficient than
+   * fetching the access information of each dataset separately.
+   *
+   * @param datasetInstances datasets for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of all the datasets
+   */
+  Set<Relation> getDatasetRelations(Collection<DatasetId> datasetInstances, long start, long end,
+                                    Predicate<Relation> filter);
+
+  /**
+   * Fetch program-dataset access information for a set of programs for a given period. This is more efficient than
+   * fetching the access information of each program separately.
+   *
+   * @param programs programs for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of all the programs
+   */
+  Set<Relation> getProgramRelations(Collection<ProgramId> programs, long start, long end, Predicate<Relation> filter);
 }
@@ -40,6 +40,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -172,6 +174,46 @@ public class LineageTable {
                          filter);
   }
 
+  /**
+   * Fetch program-dataset access information for a set of datasets for a given period, with a single scan of the
+   * table.
+   *
+   * @param datasetInstances datasets for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of all the datasets
+   */
+  public Set<Relation> getDatasetRelations(Collection<DatasetId> datasetInstances, long start, long end,
+                                           Predicate<Relation> filter) throws IOException {
+    List<Range> ranges = new ArrayList<>(datasetInstances.size());
+    for (DatasetId datasetInstance : datasetInstances) {
+      ranges.add(Range.create(getDatasetScanStartKey(datasetInstance, end), Range.Bound.INCLUSIVE,
+                              getDatasetScanEndKey(datasetInstance, start), Range.Bound.INCLUSIVE));
+    }
+    return multiScanRelations(getDatasetTable(), ranges, filter);
+  }
+
+  /**
+   * Fetch program-dataset access information for a set of programs for a given period, with a single scan of the
+   * table.
+   *
+   * @param programs programs for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of all the programs
+   */
+  public Set<Relation> getProgramRelations(Collection<ProgramId> programs, long start, long end,
+                                           Predicate<Relation> filter) throws IOException {
+    List<Range> ranges = new ArrayList<>(programs.size());
+    for (ProgramId program : programs) {
+      ranges.add(Range.create(getProgramScanStartKey(program, end), Range.Bound.INCLUSIVE,
+                              getProgramScanEndKey(program, start), Range.Bound.INCLUSIVE));
+    }
+    return multiScanRelations(getProgramTable(), ranges, filter);
+  }
+
   /**
    * @return a set of access times (for program and data it accesses) associated with a program run.
    */
@@ -207,6 +249,23 @@ public class LineageTable {
     return builder.build();
   }
 
+  private Set<Relation> multiScanRelations(StructuredTable table, Collection<Range> ranges,
+                                           Predicate<Relation> filter) throws IOException {
+    if (ranges.isEmpty()) {
+      return Collections.emptySet();
+    }
+    ImmutableSet.Builder<Relation> builder = ImmutableSet.builder();
+    try (CloseableIterator<StructuredRow> iterator = table.multiScan(ranges, Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        Relation relation = toRelation(iterator.next());
+        if (filter.test(relation)) {
+          builder.add(relation);
+        }
+      }
+    }
+    return builder.build();
+  }
+
   private List<Field<?>> getDatasetKey(DatasetId datasetInstance, ProgramRunId run, AccessType accessType) {
     List<Field<?>> fields = new ArrayList<>();
     addDataset(fields, datasetInstance);
@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -42,6 +43,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -329,75 +331,90 @@ public class FieldLineageInfo {
       computeAndValidateFieldLineageInfo(this.operations);
     }
 
+    // The source fields of each transform are computed once and shared by all the paths going through it. They are
+    // kept as bitsets over the indices of the source fields, which are only turned into sets for the summary.
+    SourceFields sourceFields = new SourceFields();
     Map<EndPointField, Set<EndPointField>> summary = new HashMap<>();
     for (WriteOperation write : writeOperations) {
-      List<InputField> inputs = write.getInputs();
-      for (InputField input : inputs) {
-        computeIncomingSummaryHelper(new EndPointField(write.getDestination(), input.getName()),
-                                     operationsMap.get(input.getOrigin()), write, summary);
-      }
+      addIncomingSummary(write, write.getInputs(),
+                         input -> new EndPointField(write.getDestination(), input.getName()), sourceFields, summary);
     }
     for (TransformOperation transform : dropTransforms) {
-      for (InputField input : transform.getInputs()) {
-        Operation previous = operationsMap.get(input.getOrigin());
-        computeIncomingSummaryHelper(NULL_EPF, previous, transform, summary);
-      }
+      addIncomingSummary(transform, transform.getInputs(), input -> NULL_EPF, sourceFields, summary);
     }
     return summary;
   }
 
   /**
-   * Helper method to compute the incoming summary
+   * Adds the source fields of each input of an operation to the incoming summary of the field the input is
+   * written to.
    *
-   * @param field the {@link EndPointField} whose summary needs to be calculated
-   * @param currentOperation the operation being processed. Since we are processing incoming this operation is on the
-   * left side if graph is imagined in horizontal orientation or this operation is the input to the to
-   * previousOperation
-   * @param previousOperation the previous operation which is processed and reside on right to the current operation if
-   * the graph is imagined to be in horizontal orientation.
+   * @param operation the operation whose inputs are added
+   * @param inputs the inputs of the operation
+   * @param fieldFunction function to get the {@link EndPointField} an input is written to
+   * @param sourceFields the source fields computed so far
    * @param summary a {@link Map} of {@link EndPointField} to {@link Set} of {@link EndPointField} which represents all
    * the fields which have incoming connection the key field
    */
-  private void computeIncomingSummaryHelper(EndPointField field, Operation currentOperation,
-                                            Operation previousOperation,
-                                            Map<EndPointField, Set<EndPointField>> summary) {
-    if (currentOperation.getType() == OperationType.READ) {
-      // if current operation is of type READ, previous operation must be of type TRANSFORM or WRITE
-      // get only the input fields from the previous operations for which the origin is current READ operation
-      Set<InputField> inputFields = new HashSet<>();
-      if (OperationType.WRITE == previousOperation.getType()) {
-        WriteOperation previousWrite = (WriteOperation) previousOperation;
-        inputFields = new HashSet<>(previousWrite.getInputs());
-      } else if (OperationType.TRANSFORM == previousOperation.getType()) {
-        TransformOperation previousTransform = (TransformOperation) previousOperation;
-        inputFields = new HashSet<>(previousTransform.getInputs());
+  private void addIncomingSummary(Operation operation, List<InputField> inputs,
+                                  Function<InputField, EndPointField> fieldFunction, SourceFields sourceFields,
+                                  Map<EndPointField, Set<EndPointField>> summary) {
+    Map<String, Set<EndPointField>> originFields = new HashMap<>();
+    for (InputField input : inputs) {
+      Set<EndPointField> fields = originFields.computeIfAbsent(
+        input.getOrigin(), origin -> sourceFields.toSet(getSourceFields(origin, operation, inputs, sourceFields)));
+      // fields that cannot be traced back to a read operation have no incoming summary
+      if (!fields.isEmpty()) {
+        summary.computeIfAbsent(fieldFunction.apply(input), k -> new HashSet<>()).addAll(fields);
       }
-      Set<EndPointField> sourceEndPointFields = summary.computeIfAbsent(field, k -> new HashSet<>());
+    }
+  }
 
-      // for all the input fields of the previous operation if the origin was current operation (remember we are
-      // traversing backward)
-      ReadOperation read = (ReadOperation) currentOperation;
-      EndPoint source = read.getSource();
-      for (InputField inputField : inputFields) {
-        if (inputField.getOrigin().equals(currentOperation.getName())) {
-          sourceEndPointFields.add(new EndPointField(source, inputField.getName()));
+  /**
+   * Computes the source fields that reach an operation from one of its origins. If the origin is a read operation,
+   * these are all input fields of the operation that were read by it. If the origin is a transform, these are the
+   * source fields of the transform, which are computed once and then looked up.
+   *
+   * @param origin the name of the origin operation
+   * @param operation the operation the source fields reach
+   * @param inputs the inputs of the operation
+   * @param sourceFields the source fields computed so far
+   * @return a bitset of the indices of the source fields
+   */
+  private BitSet getSourceFields(String origin, Operation operation, List<InputField> inputs,
+                                 SourceFields sourceFields) {
+    Operation originOperation = operationsMap.get(origin);
+    if (originOperation.getType() == OperationType.READ) {
+      EndPoint source = ((ReadOperation) originOperation).getSource();
+      BitSet result = new BitSet();
+      for (InputField input : inputs) {
+        if (input.getOrigin().equals(origin)) {
+          result.set(sourceFields.indexOf(new EndPointField(source, input.getName())));
         }
       }
-      // reached the end of graph unwind the recursive calls
-      return;
+      return result;
+    }
+    if (originOperation.getType() != OperationType.TRANSFORM) {
+      return new BitSet();
     }
 
-    // for transform we traverse backward in graph further through the inputs of the transform
-    if (currentOperation.getType() == OperationType.TRANSFORM) {
-      TransformOperation transform = (TransformOperation) currentOperation;
-      // optimization to avoid repeating work if there are input fields with the same origin
-      Set<String> transformOrigins = transform.getInputs().stream()
-        .map(InputField::getOrigin)
-        .collect(Collectors.toSet());
-      for (String transformOrigin : transformOrigins) {
-        computeIncomingSummaryHelper(field, operationsMap.get(transformOrigin), currentOperation, summary);
-      }
+    BitSet result = sourceFields.transformSourceFields.get(origin);
+    if (result != null) {
+      return result;
+    }
+    // mark the transform as in progress, so that a cycle ends instead of recursing infinitely
+    sourceFields.transformSourceFields.put(origin, new BitSet());
+    TransformOperation transform = (TransformOperation) originOperation;
+    result = new BitSet();
+    // inputs with the same origin have the same source fields
+    Set<String> transformOrigins = transform.getInputs().stream()
+      .map(InputField::getOrigin)
+      .collect(Collectors.toSet());
+    for (String transformOrigin : transformOrigins) {
+      result.or(getSourceFields(transformOrigin, transform, transform.getInputs(), sourceFields));
     }
+    sourceFields.transformSourceFields.put(origin, result);
+    return result;
   }
 
   private Map<EndPointField, Set<EndPointField>> computeOutgoingSummary() {
@@ -758,4 +775,28 @@ public class FieldLineageInfo {
   public int hashCode() {
     return (int) (checksum ^ (checksum >>> 32));
   }
+
+  /**
+   * The source fields found while computing the incoming summary, and the source fields of each transform.
+   */
+  private static final class SourceFields {
+    private final List<EndPointField> fields = new ArrayList<>();
+    private final Map<EndPointField, Integer> indices = new HashMap<>();
+    private final Map<String, BitSet> transformSourceFields = new HashMap<>();
+
+    int indexOf(EndPointField field) {
+      return indices.computeIfAbsent(field, f -> {
+        fields.add(f);
+        return fields.size() - 1;
+      });
+    }
+
+    Set<EndPointField> toSet(BitSet bitSet) {
+      Set<EndPointField> result = new HashSet<>();
+      for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+        result.add(fields.get(i));
+      }
+      return result;
+    }
+  }
 }
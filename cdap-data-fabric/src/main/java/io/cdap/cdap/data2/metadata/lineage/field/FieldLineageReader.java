@@ -21,6 +21,7 @@ import io.cdap.cdap.api.lineage.field.WriteOperation;
 import io.cdap.cdap.proto.metadata.lineage.ProgramRunOperations;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -62,6 +63,28 @@ public interface FieldLineageReader {
    */
   Set<EndPointField> getOutgoingSummary(EndPointField endPointField, long start, long end);
 
+  /**
+   * Get the incoming summaries of all the fields of the specified EndPoint over a given time range.
+   * This is more efficient than getting the incoming summary of each field separately.
+   *
+   * @param endPoint the EndPoint for which incoming summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the map from field name to the set of EndPointFields, for the fields that have an incoming summary
+   */
+  Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start, long end);
+
+  /**
+   * Get the outgoing summaries of all the fields of the specified EndPoint over a given time range.
+   * This is more efficient than getting the outgoing summary of each field separately.
+   *
+   * @param endPoint the EndPoint for which outgoing summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the map from field name to the set of EndPointFields, for the fields that have an outgoing summary
+   */
+  Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start, long end);
+
   /**
    * Get the list of operations which were responsible for computing the given field
    * of the specified EndPoint over a given time range. Along with the operations, program
@@ -43,6 +43,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -318,22 +320,74 @@ public class FieldLineageTable {
       if (!row.isPresent()) {
         continue;
       }
-      String value = row.get().getString(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD);
-      Set<EndPointField> endPointFields;
-      try {
-        endPointFields = GSON.fromJson(value, SET_ENDPOINT_FIELD_TYPE);
-      } catch (JsonSyntaxException e) {
-        LOG.warn(String.format("Failed to parse json from checksum %d.", checksum));
-        continue;
-      }
-      if (endPointFields != null) {
-        result.addAll(endPointFields);
+      result.addAll(parseSummary(checksum, row.get()));
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the incoming summaries of all the fields of the specified EndPoint over a given time range.
+   * This is equivalent to calling {@link #getIncomingSummary(EndPointField, long, long)} for every field
+   * of the EndPoint, but only looks up the checksums in the time range once.
+   *
+   * @param endPoint the EndPoint for which incoming summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the map from field name to the set of EndPointFields, for the fields that have an incoming summary
+   */
+  public Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start,
+                                                              long end) throws IOException {
+    return getSummaries(INCOMING_DIRECTION_MARKER, endPoint, start, end);
+  }
+
+  /**
+   * Get the outgoing summaries of all the fields of the specified EndPoint over a given time range.
+   * This is equivalent to calling {@link #getOutgoingSummary(EndPointField, long, long)} for every field
+   * of the EndPoint, but only looks up the checksums in the time range once.
+   *
+   * @param endPoint the EndPoint for which outgoing summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the map from field name to the set of EndPointFields, for the fields that have an outgoing summary
+   */
+  public Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start,
+                                                              long end) throws IOException {
+    return getSummaries(OUTGOING_DIRECTION_MARKER, endPoint, start, end);
+  }
+
+  private Map<String, Set<EndPointField>> getSummaries(String direction, EndPoint endPoint, long start, long end)
+    throws IOException {
+    Set<Long> checksums = getChecksumsWithProgramRunsInRange(direction, endPoint, start, end).keySet();
+    Map<String, Set<EndPointField>> result = new HashMap<>();
+
+    // the summaries of all the fields of an EndPoint for a checksum share the same key prefix
+    for (long checksum : checksums) {
+      List<Field<?>> prefix = getSummaryPrefix(checksum, direction, endPoint);
+      try (CloseableIterator<StructuredRow> iterator =
+        getSummaryFieldsTable().scan(Range.singleton(prefix), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          String field = row.getString(StoreDefinition.FieldLineageStore.ENDPOINT_FIELD);
+          result.computeIfAbsent(field, k -> new HashSet<>()).addAll(parseSummary(checksum, row));
+        }
       }
     }
 
     return result;
   }
 
+  private Set<EndPointField> parseSummary(long checksum, StructuredRow row) {
+    String value = row.getString(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD);
+    Set<EndPointField> endPointFields = null;
+    try {
+      endPointFields = GSON.fromJson(value, SET_ENDPOINT_FIELD_TYPE);
+    } catch (JsonSyntaxException e) {
+      LOG.warn(String.format("Failed to parse json from checksum %d.", checksum));
+    }
+    return endPointFields == null ? Collections.emptySet() : endPointFields;
+  }
+
   /**
    * Get the set of operations which were responsible for computing the fields
    * of the specified EndPoint over a given time range. Along with the operations, program
@@ -60,7 +60,10 @@ import javax.annotation.Nullable;
  */
 public class PostgresSqlStructuredTable implements StructuredTable {
   private static final Logger LOG = LoggerFactory.getLogger(PostgresSqlStructuredTable.class);
-  private static final int SCAN_FETCH_SIZE = 100;
+  // scans start with a small fetch size for the common case of reading a few rows, and grow it up to the max size
+  // for scans that read many rows, to reduce the number of round trips
+  private static final int INITIAL_FETCH_SIZE = 100;
+  private static final int MAX_FETCH_SIZE = 10000;
 
   private final Connection connection;
   private final StructuredTableSchema tableSchema;
@@ -189,17 +192,18 @@ public class PostgresSqlStructuredTable implements StructuredTable {
     LOG.trace("Table {}: Scan range {} with limit {}", tableSchema.getTableId(), keyRange, limit);
     fieldValidator.validatePrimaryKeys(keyRange.getBegin(), true);
     fieldValidator.validatePrimaryKeys(keyRange.getEnd(), true);
-    String scanQuery = getScanQuery(keyRange, limit);
 
-    // We don't close the statement here because once it is closed, the result set is also closed.
-    try {
-      PreparedStatement statement = connection.prepareStatement(scanQuery);
-      statement.setFetchSize(SCAN_FETCH_SIZE);
-      setStatementFieldByRange(keyRange, statement);
-      LOG.trace("SQL statement: {}", statement);
+    String rangeCondition = null;
+    if (!keyRange.getBegin().isEmpty() || !keyRange.getEnd().isEmpty()) {
+      StringBuilder condition = new StringBuilder();
+      appendRange(condition, keyRange);
+      rangeCondition = condition.toString();
+    }
+    List<Field<?>> conditionFields = new ArrayList<>(keyRange.getBegin());
+    conditionFields.addAll(keyRange.getEnd());
 
-      ResultSet resultSet = statement.executeQuery();
-      return new ResultSetIterator(statement, resultSet, tableSchema);
+    try {
+      return new KeysetScanIterator(rangeCondition, conditionFields, limit);
     } catch (SQLException e) {
       throw new IOException(String.format("Failed to scan from table %s with range %s",
                                           tableSchema.getTableId().getName(), keyRange), e);
@@ -291,16 +295,17 @@ public class PostgresSqlStructuredTable implements StructuredTable {
       query.append(")");
     }
     query.append(getOrderByClause(tableSchema.getPrimaryKeys()));
-    query.append(" LIMIT ").append(limit).append(";");
+    query.append(" LIMIT ?;");
 
     PreparedStatement statement = connection.prepareStatement(query.toString());
-    statement.setFetchSize(SCAN_FETCH_SIZE);
+    statement.setFetchSize(Math.min(limit, INITIAL_FETCH_SIZE));
 
     // Set the parameters
     int index = setFields(statement, keyFields.values().stream().flatMap(Collection::stream)::iterator, 1);
     for (Range range : ranges) {
       index = setStatementFieldByRange(range, statement, index);
     }
+    statement.setInt(index, limit);
     return statement;
   }
 
@@ -312,15 +317,9 @@ public class PostgresSqlStructuredTable implements StructuredTable {
       throw new InvalidFieldException(tableSchema.getTableId(), index.getName(), "is not an indexed column");
     }
 
-    String sql = getReadQuery(Collections.singleton(index), null, false);
-    // We don't close the statement here because once it is closed, the result set is also closed.
     try {
-      PreparedStatement statement = connection.prepareStatement(sql);
-      statement.setFetchSize(SCAN_FETCH_SIZE);
-      setField(statement, index, 1);
-      LOG.trace("SQL statement: {}", statement);
-      ResultSet resultSet = statement.executeQuery();
-      return new ResultSetIterator(statement, resultSet, tableSchema);
+      return new KeysetScanIterator(getEqualsClause(Collections.singleton(index)),
+                                    Collections.singletonList(index), Integer.MAX_VALUE);
     } catch (SQLException e) {
       throw new IOException(String.format("Failed to scan from table %s with index %s",
                                           tableSchema.getTableId().getName(), index), e);
@@ -664,23 +663,36 @@ public class PostgresSqlStructuredTable implements StructuredTable {
   }
 
   /**
-   * Get the scan query for the range given. For example, if the range provides key1, key2 as the begin and end to
-   * scan, both rows are inclusive, it will generate the following query:
-   * SELECT * FROM simpletable WHERE (key1,key2)>=(?,?) AND (key1,key2)<=(?,?) LIMIT 10;
+   * Get the query for a page of a scan with the condition given. For example, if the condition is a range with
+   * key1, key2 as the begin and end to scan, both rows are inclusive, it will generate the following query for the
+   * first page:
+   * SELECT * FROM simpletable WHERE (key1,key2)>=(?,?) AND (key1,key2)<=(?,?) ORDER BY key1, key2 LIMIT ?;
+   * and the following query for the next pages, which continue after the primary key of the last row read:
+   * SELECT * FROM simpletable WHERE (key1,key2)>=(?,?) AND (key1,key2)<=(?,?) AND (key1,key2)>(?,?)
+   * ORDER BY key1, key2 LIMIT ?;
    *
-   * @param range the range to scan.
-   * @param limit limit number of row
+   * @param condition the condition of the rows to scan, null means scan all rows
+   * @param afterKey whether the query continues after a primary key
    * @return the scan query
    */
-  private String getScanQuery(Range range, int limit) {
+  private String getScanPageQuery(@Nullable String condition, boolean afterKey) {
     StringBuilder queryString = new StringBuilder("SELECT * FROM ").append(tableSchema.getTableId().getName());
-    if (!range.getBegin().isEmpty() || !range.getEnd().isEmpty()) {
-      queryString.append(" WHERE ");
-      appendRange(queryString, range);
+    StringJoiner whereClause = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    if (condition != null) {
+      whereClause.add(condition);
+    }
+    if (afterKey) {
+      StringJoiner keyJoiner = new StringJoiner(",", "(", ")");
+      StringJoiner valueJoiner = new StringJoiner(",", "(", ")");
+      for (String key : tableSchema.getPrimaryKeys()) {
+        keyJoiner.add(key);
+        valueJoiner.add("?");
+      }
+      whereClause.add(keyJoiner + ">" + valueJoiner);
     }
-
+    queryString.append(whereClause);
     queryString.append(getOrderByClause(tableSchema.getPrimaryKeys()));
-    queryString.append(" LIMIT ").append(limit).append(";");
+    queryString.append(" LIMIT ?;");
     return queryString.toString();
   }
 
@@ -759,18 +771,143 @@ public class PostgresSqlStructuredTable implements StructuredTable {
     }
   }
 
+  /**
+   * An iterator over the rows of a scan in primary key order, which reads the rows in pages. Each page is read with
+   * its own query, which continues after the primary key of the last row read, so that at most one page of rows is
+   * held at a time. The page size starts small and doubles with every full page read, up to a maximum.
+   */
+  private final class KeysetScanIterator extends AbstractCloseableIterator<StructuredRow> {
+    private final String firstPageQuery;
+    private final String nextPageQuery;
+    private final Collection<Field<?>> conditionFields;
+    private int remaining;
+    private int pageSize;
+    private int pageRows;
+    private Collection<Field<?>> lastKey;
+    private Set<String> columnNames;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+
+    /**
+     * Creates the iterator and reads the first page.
+     *
+     * @param condition the condition of the rows to scan, null means scan all rows
+     * @param conditionFields the values to set for the parameters of the condition
+     * @param limit the maximum number of rows to return
+     */
+    KeysetScanIterator(@Nullable String condition, Collection<Field<?>> conditionFields,
+                       int limit) throws SQLException {
+      this.firstPageQuery = getScanPageQuery(condition, false);
+      this.nextPageQuery = getScanPageQuery(condition, true);
+      this.conditionFields = conditionFields;
+      this.remaining = limit;
+      this.pageSize = Math.min(limit, INITIAL_FETCH_SIZE);
+      if (remaining > 0) {
+        readPage();
+      }
+    }
+
+    @Override
+    protected StructuredRow computeNext() {
+      try {
+        while (resultSet != null) {
+          if (resultSet.next()) {
+            pageRows++;
+            remaining--;
+            StructuredRow row = new SqlStructuredRow(tableSchema, getColumns(resultSet, columnNames));
+            lastKey = row.getPrimaryKeys();
+            return row;
+          }
+          closePage();
+          // a page with fewer rows than requested is the last one
+          if (pageRows == pageSize && remaining > 0) {
+            pageSize = Math.min(Math.min(pageSize * 2, MAX_FETCH_SIZE), remaining);
+            readPage();
+          }
+        }
+        return endOfData();
+      } catch (SQLException e) {
+        throw new RuntimeException("Failed to get the next value from the sql result set", e);
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        closePage();
+      } catch (SQLException e) {
+        LOG.warn("Failed to close the result set", e);
+      }
+    }
+
+    private void readPage() throws SQLException {
+      PreparedStatement statement = connection.prepareStatement(lastKey == null ? firstPageQuery : nextPageQuery);
+      try {
+        // fetch the whole page in one round trip
+        statement.setFetchSize(pageSize);
+        int index = setFields(statement, conditionFields, 1);
+        if (lastKey != null) {
+          index = setFields(statement, lastKey, index);
+        }
+        statement.setInt(index, pageSize);
+        LOG.trace("SQL statement: {}", statement);
+        resultSet = statement.executeQuery();
+      } catch (SQLException | RuntimeException e) {
+        statement.close();
+        throw e;
+      }
+      this.statement = statement;
+      if (columnNames == null) {
+        columnNames = createColNames(resultSet.getMetaData());
+      }
+      pageRows = 0;
+    }
+
+    private void closePage() throws SQLException {
+      if (statement == null) {
+        return;
+      }
+      try {
+        resultSet.close();
+        statement.close();
+      } finally {
+        resultSet = null;
+        statement = null;
+      }
+    }
+  }
+
+  private static Map<String, Object> getColumns(ResultSet resultSet, Set<String> columnNames) throws SQLException {
+    Map<String, Object> row = new HashMap<>();
+    for (String colName : columnNames) {
+      row.put(colName, resultSet.getObject(colName));
+    }
+    return row;
+  }
+
+  private static Set<String> createColNames(ResultSetMetaData metaData) throws SQLException {
+    Set<String> columns = new HashSet<>();
+    int numCols = metaData.getColumnCount();
+    for (int i = 1; i <= numCols; i++) {
+      columns.add(metaData.getColumnName(i));
+    }
+    return columns;
+  }
+
   private static final class ResultSetIterator extends AbstractCloseableIterator<StructuredRow> {
     private final Statement statement;
     private final ResultSet resultSet;
     private final Set<String> columnNames;
     private final StructuredTableSchema schema;
-
+    private int fetchSize;
+    private int fetchedRows;
 
     ResultSetIterator(Statement statement, ResultSet resultSet, StructuredTableSchema schema) throws SQLException {
       this.statement = statement;
       this.resultSet = resultSet;
       this.columnNames = createColNames(resultSet.getMetaData());
       this.schema = schema;
+      this.fetchSize = statement.getFetchSize();
     }
 
     @Override
@@ -780,11 +917,13 @@ public class PostgresSqlStructuredTable implements StructuredTable {
           return endOfData();
         }
 
-        Map<String, Object> row = new HashMap<>();
-        for (String colName : columnNames) {
-          row.put(colName, resultSet.getObject(colName));
+        // double the fetch size every time a fetch of rows was read, so that large results take less round trips
+        if (fetchSize > 0 && ++fetchedRows == fetchSize && fetchSize < MAX_FETCH_SIZE) {
+          fetchSize = Math.min(fetchSize * 2, MAX_FETCH_SIZE);
+          fetchedRows = 0;
+          resultSet.setFetchSize(fetchSize);
         }
-        return new SqlStructuredRow(schema, row);
+        return new SqlStructuredRow(schema, getColumns(resultSet, columnNames));
       } catch (SQLException e) {
         throw new RuntimeException("Failed to get the next value from the sql result set", e);
       }
@@ -799,14 +938,5 @@ public class PostgresSqlStructuredTable implements StructuredTable {
         LOG.warn("Failed to close the result set", e);
       }
     }
-
-    private static Set<String> createColNames(ResultSetMetaData metaData) throws SQLException {
-      Set<String> columns = new HashSet<>();
-      int numCols = metaData.getColumnCount();
-      for (int i = 1; i <= numCols; i++) {
-        columns.add(metaData.getColumnName(i));
-      }
-      return columns;
-    }
   }
 }
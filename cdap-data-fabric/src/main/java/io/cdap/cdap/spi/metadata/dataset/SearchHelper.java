@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.spi.metadata.dataset;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -58,13 +59,13 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -83,9 +84,8 @@ public class SearchHelper {
 
   private static final DatasetContext SYSTEM_CONTEXT = DatasetContext.from(NamespaceId.SYSTEM.getNamespace());
 
-  private static final Comparator<Map.Entry<MetadataEntity, Integer>> SEARCH_RESULT_DESC_SCORE_COMPARATOR =
-    // sort in descending order
-    (o1, o2) -> o2.getValue() - o1.getValue();
+  // separates the score from the entity in a cursor for weighted search
+  private static final char WEIGHTED_CURSOR_SEPARATOR = ':';
 
   private final DatasetDefinition<MetadataDataset, DatasetAdmin> metaDatasetDefinition;
   private final Map<String, DatasetSpecification> datasetSpecs;
@@ -261,6 +261,9 @@ public class SearchHelper {
   }
 
   private MetadataSearchResponse search(Set<MetadataScope> scopes, SearchRequest request) {
+    if (SortInfo.SortOrder.WEIGHTED == request.getSortInfo().getSortOrder()) {
+      return searchWeighted(scopes, request);
+    }
     List<MetadataEntry> results = new LinkedList<>();
     List<String> cursors = new LinkedList<>();
     for (MetadataScope scope : scopes) {
@@ -271,15 +274,15 @@ public class SearchHelper {
 
     int offset = request.getOffset();
     int limit = request.getLimit();
-    SortInfo sortInfo = request.getSortInfo();
-    // sort if required
-    Set<MetadataEntity> sortedEntities = getSortedEntities(results, sortInfo);
+    // the backing storage returns results in the expected order
+    Set<MetadataEntity> sortedEntities = new LinkedHashSet<>(results.size());
+    for (MetadataEntry metadataEntry : results) {
+      sortedEntities.add(metadataEntry.getMetadataEntity());
+    }
     int total = sortedEntities.size();
 
-    // pagination is not performed at the dataset level, because:
-    // 1. scoring is needed for DEFAULT sort info. So perform it here for now.
-    // 2. Even when using custom sorting, we need to remove elements from the beginning to the offset and the cursors
-    //    at the end
+    // pagination is not performed at the dataset level, because we need to remove elements from the beginning
+    // to the offset and the cursors at the end
     // TODO: Figure out how all of this can be done server (HBase) side
     int startIndex = Math.min(request.getOffset(), sortedEntities.size());
     // Account for overflow
@@ -291,45 +294,80 @@ public class SearchHelper {
       ImmutableList.copyOf(sortedEntities).subList(startIndex, endIndex)
     );
 
-    // Fetch metadata for entities in the result list
-    // Note: since the fetch is happening in a different transaction, the metadata for entities may have been
-    // removed. It is okay not to have metadata for some results in case this happens.
-    Set<MetadataSearchResultRecord> finalResults = execute(
-      context -> addMetadataToEntities(subSortedEntities,
-                                       fetchMetadata(context.getDataset(SYSTEM), subSortedEntities),
-                                       fetchMetadata(context.getDataset(USER), subSortedEntities)));
-
-    return new MetadataSearchResponse(
-      sortInfo.getSortBy() + " " + sortInfo.getSortOrder(), offset, limit, request.getNumCursors(), total,
-      finalResults, cursors, request.shouldShowHidden(), request.getEntityScopes());
+    return createResponse(request, subSortedEntities, total, cursors);
   }
 
-  private Set<MetadataEntity> getSortedEntities(List<MetadataEntry> results, SortInfo sortInfo) {
-    // if sort order is not weighted, return entities in the order received.
-    // in this case, the backing storage is expected to return results in the expected order.
-    if (SortInfo.SortOrder.WEIGHTED != sortInfo.getSortOrder()) {
-      Set<MetadataEntity> entities = new LinkedHashSet<>(results.size());
-      for (MetadataEntry metadataEntry : results) {
-        entities.add(metadataEntry.getMetadataEntity());
-      }
-      return entities;
+  /**
+   * Search with {@link SortInfo.SortOrder#WEIGHTED} sort order. Results are ranked by their number of matches,
+   * in descending order, with ties broken by the entity in ascending order. Only the matching entities and their
+   * scores are kept in memory, and the top results are selected with a heap that is bounded by the offset plus the
+   * limit of the request. Metadata is only read for the results that are returned.
+   *
+   * If the request has a cursor, it starts with the first result after the result that the cursor was created for,
+   * and the offset is relative to that result. If cursors are requested and more results follow, the response
+   * contains a cursor for the last returned result.
+   */
+  private MetadataSearchResponse searchWeighted(Set<MetadataScope> scopes, SearchRequest request) {
+    Map<MetadataEntity, Integer> scores = new HashMap<>();
+    for (MetadataScope scope : scopes) {
+      Map<MetadataEntity, Integer> scopeScores = execute(context -> context.getDataset(scope)
+        .countByDefaultIndex(request));
+      scopeScores.forEach((entity, score) -> scores.merge(entity, score, Integer::sum));
     }
-    // if sort order is weighted, score results by weight, and return in descending order of weights
-    // Score results
-    final Map<MetadataEntity, Integer> weightedResults = new HashMap<>();
-    for (MetadataEntry metadataEntry : results) {
-      weightedResults.put(metadataEntry.getMetadataEntity(),
-                          weightedResults.getOrDefault(metadataEntry.getMetadataEntity(), 0) + 1);
+
+    ScoredEntity after = Strings.isNullOrEmpty(request.getCursor())
+      ? null : ScoredEntity.fromCursor(request.getCursor());
+    int offset = request.getOffset();
+    int limit = request.getLimit();
+    // Account for overflow
+    int fetchSize = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+
+    // keep the best fetchSize results in a heap, with the worst of them at the head
+    PriorityQueue<ScoredEntity> topResults = new PriorityQueue<>(Math.max(1, Math.min(fetchSize, scores.size())),
+                                                                 Collections.reverseOrder());
+    int total = 0;
+    for (Map.Entry<MetadataEntity, Integer> entry : scores.entrySet()) {
+      ScoredEntity result = new ScoredEntity(entry.getKey(), entry.getValue());
+      if (after != null && result.compareTo(after) <= 0) {
+        continue;
+      }
+      total++;
+      if (topResults.size() < fetchSize) {
+        topResults.add(result);
+      } else if (fetchSize > 0 && result.compareTo(topResults.peek()) < 0) {
+        topResults.poll();
+        topResults.add(result);
+      }
     }
+    List<ScoredEntity> sorted = new ArrayList<>(topResults);
+    Collections.sort(sorted);
+    List<ScoredEntity> page = sorted.subList(Math.min(offset, sorted.size()), sorted.size());
 
-    // Sort the results by score
-    List<Map.Entry<MetadataEntity, Integer>> resultList = new ArrayList<>(weightedResults.entrySet());
-    resultList.sort(SEARCH_RESULT_DESC_SCORE_COMPARATOR);
-    Set<MetadataEntity> result = new LinkedHashSet<>(resultList.size());
-    for (Map.Entry<MetadataEntity, Integer> entry : resultList) {
-      result.add(entry.getKey());
+    Set<MetadataEntity> entities = new LinkedHashSet<>();
+    for (ScoredEntity result : page) {
+      entities.add(result.entity);
     }
-    return result;
+    List<String> cursors = new ArrayList<>();
+    if (request.getNumCursors() > 0 && !page.isEmpty() && total > fetchSize) {
+      cursors.add(page.get(page.size() - 1).toCursor());
+    }
+    return createResponse(request, entities, total, cursors);
+  }
+
+  private MetadataSearchResponse createResponse(SearchRequest request, Set<MetadataEntity> entities,
+                                                int total, List<String> cursors) {
+    SortInfo sortInfo = request.getSortInfo();
+    // Fetch metadata for entities in the result list
+    // Note: since the fetch is happening in a different transaction, the metadata for entities may have been
+    // removed. It is okay not to have metadata for some results in case this happens.
+    Set<MetadataSearchResultRecord> finalResults = execute(
+      context -> addMetadataToEntities(entities,
+                                       fetchMetadata(context.getDataset(SYSTEM), entities),
+                                       fetchMetadata(context.getDataset(USER), entities)));
+
+    return new MetadataSearchResponse(
+      sortInfo.getSortBy() + " " + sortInfo.getSortOrder(), request.getOffset(), request.getLimit(),
+      request.getNumCursors(), total, finalResults, cursors, request.shouldShowHidden(), request.getEntityScopes());
   }
 
   private Map<MetadataEntity, MetadataDataset.Record> fetchMetadata(MetadataDataset mds,
@@ -366,4 +404,48 @@ public class SearchHelper {
     }
     return result;
   }
+
+  /**
+   * A search result with its score. Results are ordered by descending score, and then by the string representation
+   * of the entity, which gives a total order that cursors can refer to.
+   */
+  private static final class ScoredEntity implements Comparable<ScoredEntity> {
+    @Nullable
+    private final MetadataEntity entity;
+    private final int score;
+    private final String key;
+
+    ScoredEntity(MetadataEntity entity, int score) {
+      this(entity, score, entity.toString());
+    }
+
+    private ScoredEntity(@Nullable MetadataEntity entity, int score, String key) {
+      this.entity = entity;
+      this.score = score;
+      this.key = key;
+    }
+
+    /**
+     * Parses a cursor created by {@link #toCursor()}. The returned object has no entity, it can only be compared.
+     */
+    static ScoredEntity fromCursor(String cursor) {
+      int separatorIndex = cursor.indexOf(WEIGHTED_CURSOR_SEPARATOR);
+      try {
+        return new ScoredEntity(null, Integer.parseInt(cursor.substring(0, separatorIndex)),
+                                cursor.substring(separatorIndex + 1));
+      } catch (IndexOutOfBoundsException | NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor for weighted search: " + cursor, e);
+      }
+    }
+
+    String toCursor() {
+      return String.valueOf(score) + WEIGHTED_CURSOR_SEPARATOR + key;
+    }
+
+    @Override
+    public int compareTo(ScoredEntity other) {
+      int cmp = Integer.compare(other.score, score);
+      return cmp != 0 ? cmp : key.compareTo(other.key);
+    }
+  }
 }
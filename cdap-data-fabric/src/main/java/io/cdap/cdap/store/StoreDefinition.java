@@ -381,6 +381,7 @@ public final class StoreDefinition {
     public static final StructuredTableId WORKFLOW_NODE_STATES = new StructuredTableId("workflow_node_states");
     public static final StructuredTableId RUN_RECORDS = new StructuredTableId("run_records");
     public static final StructuredTableId WORKFLOWS = new StructuredTableId("workflows");
+    public static final StructuredTableId WORKFLOW_TOKEN_DELTAS = new StructuredTableId("workflow_token_deltas");
     public static final StructuredTableId PROGRAM_COUNTS = new StructuredTableId("program_counts");
     // TODO: CDAP-14876 Move this table into it's own store, along with associated methods
     public static final StructuredTableId SUBSCRIBER_STATES = new StructuredTableId("subscriber_state");
@@ -398,6 +399,7 @@ public final class StoreDefinition {
     public static final String RUN_START_TIME = "run_start_time";
     public static final String RUN_RECORD_DATA = "run_record_data";
     public static final String WORKFLOW_DATA = "workflow_data";
+    public static final String DELTA_SEQUENCE = "delta_sequence";
     public static final String COUNT_TYPE = "count_type";
     public static final String COUNTS = "counts";
     public static final String SUBSCRIBER_TOPIC = "subscriber_topic";
@@ -460,6 +462,23 @@ public final class StoreDefinition {
           NAMESPACE_FIELD, APPLICATION_FIELD, VERSION_FIELD, PROGRAM_TYPE_FIELD, PROGRAM_FIELD, RUN_FIELD)
         .build();
 
+    public static final StructuredTableSpecification WORKFLOW_TOKEN_DELTAS_SPEC =
+      new StructuredTableSpecification.Builder()
+        .withId(WORKFLOW_TOKEN_DELTAS)
+        .withFields(Fields.stringType(NAMESPACE_FIELD),
+                    Fields.stringType(APPLICATION_FIELD),
+                    Fields.stringType(VERSION_FIELD),
+                    Fields.stringType(PROGRAM_TYPE_FIELD),
+                    Fields.stringType(PROGRAM_FIELD),
+                    Fields.stringType(RUN_FIELD),
+                    Fields.longType(DELTA_SEQUENCE),
+                    Fields.stringType(NODE_ID),
+                    Fields.stringType(WORKFLOW_DATA))
+        .withPrimaryKeys(
+          NAMESPACE_FIELD, APPLICATION_FIELD, VERSION_FIELD, PROGRAM_TYPE_FIELD, PROGRAM_FIELD, RUN_FIELD,
+          DELTA_SEQUENCE)
+        .build();
+
     public static final StructuredTableSpecification PROGRAM_COUNTS_SPEC =
       new StructuredTableSpecification.Builder()
         .withId(PROGRAM_COUNTS)
@@ -497,6 +516,9 @@ public final class StoreDefinition {
       if (overWrite || tableAdmin.getSpecification(WORKFLOWS) == null) {
         tableAdmin.create(WORKFLOWS_SPEC);
       }
+      if (overWrite || tableAdmin.getSpecification(WORKFLOW_TOKEN_DELTAS) == null) {
+        tableAdmin.create(WORKFLOW_TOKEN_DELTAS_SPEC);
+      }
       if (overWrite || tableAdmin.getSpecification(PROGRAM_COUNTS) == null) {
         tableAdmin.create(PROGRAM_COUNTS_SPEC);
       }
@@ -828,6 +828,160 @@ public class IndexedTableTest {
       dsFrameworkUtil.deleteInstance(incrTabInstance);
     }
   }
+
+  @Test
+  public void testCompositeIndexes() throws Exception {
+    DatasetId compositeTabInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("compositetab");
+    dsFrameworkUtil.createInstance("indexedTable", compositeTabInstance, DatasetProperties.builder()
+      .add(IndexedTable.COMPOSITE_INDEXES_CONF_KEY, "byAB=a,b;covering=b/v")
+      .build());
+    final byte[] colA = Bytes.toBytes("a");
+    final byte[] colB = Bytes.toBytes("b");
+    final byte[] colV = Bytes.toBytes("v");
+    final byte[] other = Bytes.toBytes("other");
+    // a value that contains the delimiter byte must not be confused with a shorter value
+    final byte[] valANull = { 'a', 0 };
+
+    final IndexedTable cTable = dsFrameworkUtil.getInstance(compositeTabInstance);
+    try {
+      TransactionExecutor tx = dsFrameworkUtil.newTransactionExecutor(cTable);
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          cTable.put(new Put(keyA).add(colA, valA).add(colB, valB).add(colV, valC).add(other, valD));
+          cTable.put(new Put(keyB).add(colA, valA).add(colB, valC).add(colV, valD));
+          cTable.put(new Put(keyC).add(colA, valANull).add(colB, valB));
+          // not indexed by byAB, since it has no value for column a
+          cTable.put(new Put(keyD).add(colB, valE).add(colV, valE));
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // lookup by the leading column returns the full data rows
+          Scanner scanner = cTable.readByCompositeIndex("byAB", valA);
+          TableAssert.assertColumns(scanner.next(), new byte[][] { colA, colB, colV, other },
+                                    new byte[][] { valA, valB, valC, valD });
+          TableAssert.assertColumns(scanner.next(), new byte[][] { colA, colB, colV },
+                                    new byte[][] { valA, valC, valD });
+          assertEmpty(scanner);
+          scanner.close();
+
+          // lookup by all columns of the index
+          Row row = readFirst(cTable.readByCompositeIndex("byAB", valANull, valB));
+          assertArrayEquals(keyC, row.getRow());
+          assertEmpty(cTable.readByCompositeIndex("byAB", valA, valA));
+
+          // range on the column after the prefix
+          scanner = cTable.scanByCompositeIndex("byAB", new byte[][] { valA }, valC, null);
+          assertArrayEquals(keyB, scanner.next().getRow());
+          assertEmpty(scanner);
+          scanner.close();
+          scanner = cTable.scanByCompositeIndex("byAB", new byte[0][], null, valANull);
+          assertArrayEquals(keyA, scanner.next().getRow());
+          assertArrayEquals(keyB, scanner.next().getRow());
+          assertEmpty(scanner);
+          scanner.close();
+
+          // a covering index only returns the indexed and included columns
+          row = readFirst(cTable.readByCompositeIndex("covering", valE));
+          assertArrayEquals(keyD, row.getRow());
+          TableAssert.assertColumns(row, new byte[][] { colB, colV }, new byte[][] { valE, valE });
+          row = readFirst(cTable.readByCompositeIndex("covering", valC));
+          TableAssert.assertColumns(row, new byte[][] { colB, colV }, new byte[][] { valC, valD });
+          Assert.assertNull(row.get(colA));
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // update an indexed column, an included column, and delete a row
+          cTable.put(keyA, colB, valE);
+          cTable.put(keyD, colV, valA);
+          cTable.delete(keyB);
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          assertEmpty(cTable.readByCompositeIndex("byAB", valA, valB));
+          assertArrayEquals(keyA, readFirst(cTable.readByCompositeIndex("byAB", valA, valE)).getRow());
+          assertEmpty(cTable.readByCompositeIndex("covering", valC));
+          Scanner scanner = cTable.readByCompositeIndex("covering", valE);
+          // the covering index entries reflect the updated values of indexed and included columns
+          Row row = scanner.next();
+          assertArrayEquals(keyA, row.getRow());
+          TableAssert.assertColumns(row, new byte[][] { colB, colV }, new byte[][] { valE, valC });
+          row = scanner.next();
+          assertArrayEquals(keyD, row.getRow());
+          TableAssert.assertColumns(row, new byte[][] { colB, colV }, new byte[][] { valE, valA });
+          assertEmpty(scanner);
+          scanner.close();
+
+          // read-less increments are not supported on columns of composite indexes
+          try {
+            cTable.increment(keyA, colV, 1L);
+            fail("Expected IllegalArgumentException performing increment on included column");
+          } catch (IllegalArgumentException iae) {
+            // expected
+          }
+          try {
+            cTable.readByCompositeIndex("unknown", valA);
+            fail("Expected IllegalArgumentException reading an unknown composite index");
+          } catch (IllegalArgumentException iae) {
+            // expected
+          }
+        }
+      });
+    } finally {
+      dsFrameworkUtil.deleteInstance(compositeTabInstance);
+    }
+  }
+
+  @Test
+  public void testBatchedIndexReads() throws Exception {
+    final int numRows = 250;
+    TransactionExecutor txnl = dsFrameworkUtil.newTransactionExecutor(table);
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        for (int i = 0; i < numRows; i++) {
+          table.put(new Put(Bytes.toBytes(String.format("batch%05d", i))).add(idxCol, idx5).add(valCol, valE));
+        }
+      }
+    });
+
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        // the index scan spans multiple batches of data row reads, and must return all rows in order
+        Scanner scanner = table.readByIndex(idxCol, idx5);
+        try {
+          for (int i = 0; i < numRows; i++) {
+            Row row = scanner.next();
+            assertNotNull(row);
+            assertArrayEquals(Bytes.toBytes(String.format("batch%05d", i)), row.getRow());
+          }
+          assertEmpty(scanner);
+        } finally {
+          scanner.close();
+        }
+      }
+    });
+
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        for (int i = 0; i < numRows; i++) {
+          table.delete(Bytes.toBytes(String.format("batch%05d", i)));
+        }
+      }
+    });
+  }
+
   /**
    * Asserts that the given scanner contains no more rows.
    */
@@ -26,6 +26,7 @@ import io.cdap.cdap.api.dataset.DatasetProperties;
 import io.cdap.cdap.api.dataset.DatasetSpecification;
 import io.cdap.cdap.api.dataset.IncompatibleUpdateException;
 import io.cdap.cdap.api.dataset.Reconfigurable;
+import io.cdap.cdap.api.dataset.lib.cube.Cube;
 import io.cdap.cdap.api.dataset.module.DatasetDefinitionRegistry;
 import io.cdap.cdap.api.dataset.module.DatasetModule;
 import io.cdap.cdap.api.dataset.table.TableProperties;
@@ -293,6 +294,76 @@ public class SystemDatasetDefinitionTest {
       // expected
     }
   }
+
+  @Test
+  public void testCubeReconfigure() throws IncompatibleUpdateException {
+    DatasetDefinition cubeDef = registry.get(Cube.class.getName());
+    Assert.assertTrue(cubeDef instanceof Reconfigurable);
+
+    DatasetProperties props = DatasetProperties.builder()
+      .add("dataset.cube.aggregation.agg1.dimensions", "user,action")
+      .add("dataset.cube.aggregation.agg1.rollups", "user;action")
+      .add("dataset.cube.aggregation.agg1.rollupMeasures", "count")
+      .build();
+    DatasetSpecification spec = cubeDef.configure("cube", props);
+
+    // adding an aggregation with rollups and reordering the rollups and measures is ok
+    DatasetProperties compat = DatasetProperties.builder()
+      .add("dataset.cube.aggregation.agg1.dimensions", "user,action")
+      .add("dataset.cube.aggregation.agg1.rollups", "action;user")
+      .add("dataset.cube.aggregation.agg1.rollupMeasures", "count")
+      .add("dataset.cube.aggregation.agg2.dimensions", "user,page")
+      .add("dataset.cube.aggregation.agg2.rollups", "page")
+      .add("dataset.cube.aggregation.agg2.rollupMeasures", "count,views")
+      .build();
+    spec = ((Reconfigurable) cubeDef).reconfigure("cube", compat, spec);
+
+    // removing an aggregation together with its rollups is ok
+    spec = ((Reconfigurable) cubeDef).reconfigure("cube", props, spec);
+    spec = ((Reconfigurable) cubeDef).reconfigure("cube", compat, spec);
+
+    // adding, removing or changing the rollups or the rolled up measures of an existing aggregation is not ok,
+    // since the rollups would not have the data written before the change
+    DatasetProperties addedRollup = DatasetProperties.builder()
+      .addAll(compat.getProperties())
+      .add("dataset.cube.aggregation.agg1.rollups", "user;action;user,action")
+      .build();
+    DatasetProperties removedRollups = DatasetProperties.builder()
+      .add("dataset.cube.aggregation.agg1.dimensions", "user,action")
+      .add("dataset.cube.aggregation.agg2.dimensions", "user,page")
+      .add("dataset.cube.aggregation.agg2.rollups", "page")
+      .add("dataset.cube.aggregation.agg2.rollupMeasures", "count,views")
+      .build();
+    DatasetProperties addedMeasure = DatasetProperties.builder()
+      .addAll(compat.getProperties())
+      .add("dataset.cube.aggregation.agg1.rollupMeasures", "count,views")
+      .build();
+    DatasetProperties newRollups = DatasetProperties.builder()
+      .addAll(compat.getProperties())
+      .add("dataset.cube.aggregation.agg1.rollups", "user")
+      .build();
+    for (DatasetProperties incompat : new DatasetProperties[] { addedRollup, removedRollups, addedMeasure,
+                                                                 newRollups }) {
+      try {
+        ((Reconfigurable) cubeDef).reconfigure("cube", incompat, spec);
+        Assert.fail("reconfigure should have thrown exception");
+      } catch (IncompatibleUpdateException e) {
+        // expected
+      }
+    }
+
+    // an aggregation without rollups cannot get them later either
+    DatasetProperties noRollups = DatasetProperties.builder()
+      .add("dataset.cube.aggregation.agg1.dimensions", "user,action")
+      .build();
+    spec = cubeDef.configure("cube", noRollups);
+    try {
+      ((Reconfigurable) cubeDef).reconfigure("cube", props, spec);
+      Assert.fail("reconfigure should have thrown exception");
+    } catch (IncompatibleUpdateException e) {
+      // expected
+    }
+  }
 }
 
 class DatasetDefinitionRegistryWithDefaultModules extends DefaultDatasetDefinitionRegistry {
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.datafabric.dataset;
+
+import com.google.common.util.concurrent.Service;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import io.cdap.cdap.api.dataset.DatasetSpecification;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.guice.ConfigModule;
+import io.cdap.cdap.common.guice.InMemoryDiscoveryModule;
+import io.cdap.cdap.common.metrics.NoOpMetricsCollectionService;
+import io.cdap.cdap.common.utils.Tasks;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.client.StoreRequestBuilder;
+import io.cdap.cdap.messaging.guice.MessagingServerRuntimeModule;
+import io.cdap.cdap.proto.DatasetMeta;
+import io.cdap.cdap.proto.DatasetTypeMeta;
+import io.cdap.cdap.proto.audit.AuditMessage;
+import io.cdap.cdap.proto.audit.AuditPayload;
+import io.cdap.cdap.proto.audit.AuditType;
+import io.cdap.cdap.proto.codec.AuditMessageTypeAdapter;
+import io.cdap.cdap.proto.id.DatasetId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link DatasetMetaCache}.
+ */
+public class DatasetMetaCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(AuditMessage.class, new AuditMessageTypeAdapter())
+    .create();
+
+  @Test
+  public void testCache() throws Exception {
+    DatasetMetaCache cache = new DatasetMetaCache(CConfiguration.create());
+    DatasetId datasetId = NamespaceId.DEFAULT.dataset("ds");
+    AtomicInteger loads = new AtomicInteger();
+    DatasetMetaCache.Loader<DatasetMeta> loader = () -> {
+      loads.incrementAndGet();
+      return createMeta(datasetId);
+    };
+
+    // First lookup should load, the second one should be served from the cache
+    Assert.assertNotNull(cache.getInstance("alice", datasetId, loader));
+    Assert.assertNotNull(cache.getInstance("alice", datasetId, loader));
+    Assert.assertEquals(1, loads.get());
+
+    // Lookup by a different principal should load again
+    Assert.assertNotNull(cache.getInstance("bob", datasetId, loader));
+    Assert.assertEquals(2, loads.get());
+
+    // Invalidate the dataset should invalidate for all principals
+    cache.invalidate(datasetId);
+    cache.getInstance("alice", datasetId, loader);
+    cache.getInstance("bob", datasetId, loader);
+    Assert.assertEquals(4, loads.get());
+
+    // Invalidating a namespace should invalidate all datasets in it
+    cache.invalidateInstances(NamespaceId.DEFAULT);
+    cache.getInstance("alice", datasetId, loader);
+    Assert.assertEquals(5, loads.get());
+  }
+
+  @Test
+  public void testNoNegativeCache() throws Exception {
+    DatasetMetaCache cache = new DatasetMetaCache(CConfiguration.create());
+    DatasetId datasetId = NamespaceId.DEFAULT.dataset("ds");
+    AtomicInteger loads = new AtomicInteger();
+
+    // Non-existing datasets are never cached
+    Assert.assertNull(cache.getInstance("alice", datasetId, () -> {
+      loads.incrementAndGet();
+      return null;
+    }));
+    Assert.assertNotNull(cache.getInstance("alice", datasetId, () -> {
+      loads.incrementAndGet();
+      return createMeta(datasetId);
+    }));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.Dataset.SPEC_CACHE_SIZE, 0);
+    DatasetMetaCache cache = new DatasetMetaCache(cConf);
+    DatasetId datasetId = NamespaceId.DEFAULT.dataset("ds");
+    AtomicInteger loads = new AtomicInteger();
+    DatasetMetaCache.Loader<DatasetMeta> loader = () -> {
+      loads.incrementAndGet();
+      return createMeta(datasetId);
+    };
+
+    cache.getInstance("alice", datasetId, loader);
+    cache.getInstance("alice", datasetId, loader);
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testAuditInvalidation() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
+    cConf.setBoolean(Constants.Audit.ENABLED, true);
+    cConf.setLong(Constants.Dataset.SPEC_CACHE_CHANGE_POLL_INTERVAL_MS, 10L);
+
+    Injector injector = Guice.createInjector(
+      new ConfigModule(cConf),
+      new InMemoryDiscoveryModule(),
+      new MessagingServerRuntimeModule().getInMemoryModules(),
+      new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(MetricsCollectionService.class).to(NoOpMetricsCollectionService.class);
+        }
+      }
+    );
+    MessagingService messagingService = injector.getInstance(MessagingService.class);
+    if (messagingService instanceof Service) {
+      ((Service) messagingService).startAndWait();
+    }
+    try {
+      DatasetMetaCache cache = new DatasetMetaCache(cConf);
+      cache.setMessagingService(messagingService);
+
+      DatasetId changedId = NamespaceId.DEFAULT.dataset("changed");
+      DatasetId accessedId = NamespaceId.DEFAULT.dataset("accessed");
+      AtomicInteger changedLoads = new AtomicInteger();
+      AtomicInteger accessedLoads = new AtomicInteger();
+      DatasetMetaCache.Loader<DatasetMeta> changedLoader = () -> {
+        changedLoads.incrementAndGet();
+        return createMeta(changedId);
+      };
+      DatasetMetaCache.Loader<DatasetMeta> accessedLoader = () -> {
+        accessedLoads.incrementAndGet();
+        return createMeta(accessedId);
+      };
+      cache.getInstance("alice", changedId, changedLoader);
+      cache.getInstance("alice", accessedId, accessedLoader);
+
+      // Publish an access to one dataset, followed by an update to the other one
+      publishAudit(messagingService, cConf, accessedId, AuditType.ACCESS);
+      publishAudit(messagingService, cConf, changedId, AuditType.UPDATE);
+
+      // The updated dataset should get invalidated by the background poll
+      Tasks.waitFor(2, () -> {
+        cache.getInstance("alice", changedId, changedLoader);
+        return changedLoads.get();
+      }, 10, TimeUnit.SECONDS);
+
+      // The access notification was processed before the update, and it shouldn't invalidate the cache
+      cache.getInstance("alice", accessedId, accessedLoader);
+      Assert.assertEquals(1, accessedLoads.get());
+    } finally {
+      if (messagingService instanceof Service) {
+        ((Service) messagingService).stopAndWait();
+      }
+    }
+  }
+
+  private void publishAudit(MessagingService messagingService, CConfiguration cConf,
+                            DatasetId datasetId, AuditType type) throws Exception {
+    AuditMessage message = new AuditMessage(System.currentTimeMillis(), datasetId, "alice", type,
+                                            AuditPayload.EMPTY_PAYLOAD);
+    messagingService.publish(StoreRequestBuilder.of(NamespaceId.SYSTEM.topic(cConf.get(Constants.Audit.TOPIC)))
+                               .addPayload(GSON.toJson(message))
+                               .build());
+  }
+
+  private DatasetMeta createMeta(DatasetId datasetId) {
+    DatasetSpecification spec = DatasetSpecification.builder(datasetId.getDataset(), "table").build();
+    return new DatasetMeta(spec, new DatasetTypeMeta("table", Collections.emptyList()), null);
+  }
+}
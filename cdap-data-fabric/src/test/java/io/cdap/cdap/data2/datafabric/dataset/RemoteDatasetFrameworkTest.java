@@ -25,6 +25,9 @@ import com.google.inject.Injector;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
 import io.cdap.cdap.api.dataset.DatasetManagementException;
+import io.cdap.cdap.api.dataset.DatasetProperties;
+import io.cdap.cdap.api.dataset.DatasetSpecification;
+import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.common.conf.CConfigurationUtil;
 import io.cdap.cdap.common.conf.Constants;
@@ -58,6 +61,7 @@ import io.cdap.cdap.data2.transaction.DelegatingTransactionSystemClientService;
 import io.cdap.cdap.data2.transaction.TransactionSystemClientService;
 import io.cdap.cdap.explore.client.DiscoveryExploreClient;
 import io.cdap.cdap.explore.client.ExploreFacade;
+import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
@@ -95,6 +99,8 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
   private DatasetOpExecutorService opExecutorService;
   private DatasetService service;
   private RemoteDatasetFramework framework;
+  private DiscoveryServiceClient discoveryServiceClient;
+  private AuthenticationContext authenticationContext;
 
   @Before
   public void before() throws Exception {
@@ -140,11 +146,12 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
     TransactionSystemClientService txSystemClientService = new DelegatingTransactionSystemClientService(txSystemClient);
 
     DiscoveryService discoveryService = injector.getInstance(DiscoveryService.class);
-    DiscoveryServiceClient discoveryServiceClient = injector.getInstance(DiscoveryServiceClient.class);
+    discoveryServiceClient = injector.getInstance(DiscoveryServiceClient.class);
     MetricsCollectionService metricsCollectionService = injector.getInstance(MetricsCollectionService.class);
-    AuthenticationContext authenticationContext = injector.getInstance(AuthenticationContext.class);
+    authenticationContext = injector.getInstance(AuthenticationContext.class);
 
-    framework = new RemoteDatasetFramework(cConf, discoveryServiceClient, registryFactory, authenticationContext);
+    framework = new RemoteDatasetFramework(cConf, discoveryServiceClient, registryFactory, authenticationContext,
+                                           new DatasetMetaCache(cConf));
     SystemDatasetInstantiatorFactory datasetInstantiatorFactory =
       new SystemDatasetInstantiatorFactory(locationFactory, framework, cConf);
 
@@ -210,6 +217,40 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
     }
   }
 
+  @Test
+  public void testSpecCache() throws Exception {
+    // A framework with a separate cache, for changes that are not made through the framework being tested
+    DatasetFramework otherFramework = new RemoteDatasetFramework(cConf, discoveryServiceClient, registryFactory,
+                                                                 authenticationContext, new DatasetMetaCache(cConf));
+    DatasetId datasetId = NAMESPACE_ID.dataset("cached");
+    framework.addInstance(Table.class.getName(), datasetId, DatasetProperties.builder().add("tag", "v1").build());
+    Assert.assertEquals("v1", getTag(framework, datasetId));
+
+    // Changes made elsewhere are not seen until the cache entry is invalidated
+    otherFramework.updateInstance(datasetId, DatasetProperties.builder().add("tag", "v2").build());
+    Assert.assertEquals("v2", getTag(otherFramework, datasetId));
+    Assert.assertEquals("v1", getTag(framework, datasetId));
+
+    // Changes made through the framework invalidate the cache entry
+    framework.updateInstance(datasetId, DatasetProperties.builder().add("tag", "v3").build());
+    Assert.assertEquals("v3", getTag(framework, datasetId));
+
+    framework.deleteInstance(datasetId);
+    Assert.assertFalse(framework.hasInstance(datasetId));
+    Assert.assertNull(framework.getDatasetSpec(datasetId));
+
+    // Non-existing datasets are not cached
+    otherFramework.addInstance(Table.class.getName(), datasetId, DatasetProperties.builder().add("tag", "v4").build());
+    Assert.assertEquals("v4", getTag(framework, datasetId));
+    otherFramework.deleteInstance(datasetId);
+  }
+
+  private String getTag(DatasetFramework datasetFramework, DatasetId datasetId) throws DatasetManagementException {
+    DatasetSpecification spec = datasetFramework.getDatasetSpec(datasetId);
+    Assert.assertNotNull(spec);
+    return spec.getProperty("tag");
+  }
+
   @After
   public void after() {
     Futures.getUnchecked(Services.chainStop(service, opExecutorService, txManager));
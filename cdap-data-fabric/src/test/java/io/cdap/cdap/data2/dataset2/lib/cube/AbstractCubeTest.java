@@ -16,8 +16,10 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
@@ -556,6 +558,119 @@ public abstract class AbstractCubeTest {
     }
   }
 
+  @Test
+  public void testRollups() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2", "dim3"),
+                                             ImmutableList.of("dim1"));
+    List<String> rollupDims = ImmutableList.of("dim1");
+    Aggregation rollup = new RollupAggregation("agg", agg, rollupDims, ImmutableSet.of("metric1"));
+
+    int resolution = 1;
+    Cube cube = getCube("testRollups", new int[] {resolution},
+                        ImmutableMap.of("agg", agg, RollupAggregation.getName("agg", rollupDims), rollup));
+
+    writeInc(cube, "metric1", 1, 1, "1", "1", "1");
+    writeInc(cube, "metric1", 1, 2, "1", "2", "1");
+    writeInc(cube, "metric1", 2, 3, "1", "1", "2");
+    writeInc(cube, "metric1", 2, 4, "2", "1", "1");
+    writeInc(cube, "metric1", 3, 5, "2", null, "3");
+    // not accepted by the aggregation, so must not be in the rollup either
+    writeInc(cube, "metric1", 3, 6, null, "1", "1");
+
+    // sums can be answered from the rollup, with or without specifying the aggregation
+    verifyCountQuery(cube, 0, 15, resolution, "metric1", AggregationFunction.SUM,
+                     new HashMap<>(), ImmutableList.of("dim1"),
+                     ImmutableList.of(
+                       new TimeSeries("metric1", dimensionValues("dim1", "1"), timeValues(1, 3, 2, 3)),
+                       new TimeSeries("metric1", dimensionValues("dim1", "2"), timeValues(2, 4, 3, 5))));
+    verifyCountQuery(cube, "agg", 0, 15, resolution, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(1, 3, 2, 3))));
+
+    // other functions must be computed over the rolled up aggregation
+    verifyCountQuery(cube, "agg", 0, 15, resolution, "metric1", AggregationFunction.MAX,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(1, 2, 2, 3))));
+    verifyCountQuery(cube, 0, 15, resolution, "metric1", AggregationFunction.MIN,
+                     new HashMap<>(), ImmutableList.of("dim1"),
+                     ImmutableList.of(
+                       new TimeSeries("metric1", dimensionValues("dim1", "1"), timeValues(1, 1, 2, 3)),
+                       new TimeSeries("metric1", dimensionValues("dim1", "2"), timeValues(2, 4, 3, 5))));
+
+    // queries by dimensions not in the rollup are still answered by the aggregation
+    verifyCountQuery(cube, 0, 15, resolution, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim2", "1"), ImmutableList.of("dim1"),
+                     ImmutableList.of(
+                       new TimeSeries("metric1", dimensionValues("dim1", "1"), timeValues(1, 1, 2, 3)),
+                       new TimeSeries("metric1", dimensionValues("dim1", "2"), timeValues(2, 4))));
+  }
+
+  @Test
+  public void testRollupsWithGauges() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2"), ImmutableList.of("dim1"));
+    List<String> rollupDims = ImmutableList.of("dim1");
+    Aggregation rollup = new RollupAggregation("agg", agg, rollupDims, ImmutableSet.of("metric1"));
+
+    int resolution = 1;
+    Cube cube = getCube("testRollupsWithGauges", new int[] {resolution},
+                        ImmutableMap.of("agg", agg, RollupAggregation.getName("agg", rollupDims), rollup));
+
+    // a gauge spread over the rolled up dimension, at the same timestamps
+    writeGauge(cube, "gauge1", 1, 1, "1", "1");
+    writeGauge(cube, "gauge1", 1, 2, "1", "2");
+    writeGauge(cube, "gauge1", 2, 3, "1", "1");
+    writeGauge(cube, "gauge1", 2, 4, "1", "2");
+    writeGauge(cube, "gauge1", 2, 5, "2", "1");
+    writeInc(cube, "metric1", 1, 1, "1", "1");
+
+    // the sum of the gauges is over all values of the rolled up dimension, so it must not be read from the rollup
+    verifyCountQuery(cube, 0, 15, resolution, "gauge1", AggregationFunction.SUM,
+                     new HashMap<>(), ImmutableList.of("dim1"),
+                     ImmutableList.of(
+                       new TimeSeries("gauge1", dimensionValues("dim1", "1"), timeValues(1, 3, 2, 7)),
+                       new TimeSeries("gauge1", dimensionValues("dim1", "2"), timeValues(2, 5))));
+    verifyCountQuery(cube, "agg", 0, 15, resolution, "gauge1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("gauge1", new HashMap<>(), timeValues(1, 3, 2, 7))));
+
+    // a gauge cannot be written to a rollup
+    try {
+      writeGauge(cube, "metric1", 3, 1, "1", "1");
+      Assert.fail("Expected a gauge of a rolled up measure to be rejected");
+    } catch (Exception e) {
+      // the cube may be wrapped in a transaction, which wraps the exception
+      Assert.assertTrue(Throwables.getRootCause(e) instanceof IllegalArgumentException);
+    }
+    verifyCountQuery(cube, 0, 15, resolution, "metric1", AggregationFunction.SUM,
+                     new HashMap<>(), ImmutableList.of("dim1"),
+                     ImmutableList.of(new TimeSeries("metric1", dimensionValues("dim1", "1"), timeValues(1, 1))));
+  }
+
+  @Test
+  public void testQueryLimit() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2"), ImmutableList.of("dim1"));
+
+    int resolution = 1;
+    Cube cube = getCube("testQueryLimit", new int[] {resolution}, ImmutableMap.of("agg", agg));
+
+    // write the points in descending time order, across several records per series
+    for (int i = 100; i > 0; i--) {
+      writeInc(cube, "metric1", i, i, "1", String.valueOf(i % 3));
+      writeInc(cube, "metric1", i, 1, "2", String.valueOf(i % 3));
+    }
+
+    CubeQuery query = new CubeQuery(null, 0, 200, resolution, 3,
+                                    ImmutableMap.of("metric1", AggregationFunction.SUM),
+                                    Collections.emptyMap(), ImmutableList.of("dim1"),
+                                    AggregationOption.FALSE, null);
+    Collection<TimeSeries> result = cube.query(query);
+    Assert.assertEquals(2, result.size());
+    Assert.assertTrue(result.contains(new TimeSeries("metric1", dimensionValues("dim1", "1"),
+                                                     timeValues(1, 1, 2, 2, 3, 3))));
+    Assert.assertTrue(result.contains(new TimeSeries("metric1", dimensionValues("dim1", "2"),
+                                                     timeValues(1, 1, 2, 1, 3, 1))));
+  }
+
   private void verifySumAggregation(TimeSeries timeSeries, String metricName, int numPoints, int sum,
                                     int timeInterval, int startIndex, int remainder) {
     List<TimeValue> timeValues = timeSeries.getTimeValues();
@@ -45,7 +45,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
@@ -144,7 +146,16 @@ public class CubeDatasetTest extends AbstractCubeTest {
     builder.add(Cube.PROPERTY_RESOLUTIONS, resolutionPropValue.substring(1));
 
     // add aggregation props
+    Map<String, List<String>> rollups = new HashMap<>();
+    Map<String, Set<String>> rollupMeasures = new HashMap<>();
     for (Map.Entry<String, ? extends Aggregation> entry : aggregations.entrySet()) {
+      if (entry.getValue() instanceof RollupAggregation) {
+        RollupAggregation rollup = (RollupAggregation) entry.getValue();
+        rollups.computeIfAbsent(rollup.getParentName(), k -> new ArrayList<>())
+          .add(Joiner.on(",").join(rollup.getDimensionNames()));
+        rollupMeasures.put(rollup.getParentName(), rollup.getMeasureNames());
+        continue;
+      }
       // NOTE: at this moment we support only DefaultAggregation, so all other tests in AbstractCubeTest must be skipped
       DefaultAggregation defAgg = (DefaultAggregation) entry.getValue();
       String aggPropertyPrefix = CubeDatasetDefinition.PROPERTY_AGGREGATION_PREFIX + (entry.getKey());
@@ -155,6 +166,14 @@ public class CubeDatasetTest extends AbstractCubeTest {
         builder.add(aggPropertyPrefix + ".requiredDimensions", Joiner.on(",").join(defAgg.getRequiredDimensions()));
       }
     }
+    for (Map.Entry<String, List<String>> entry : rollups.entrySet()) {
+      builder.add(CubeDatasetDefinition.PROPERTY_AGGREGATION_PREFIX + entry.getKey() + "." +
+                    CubeDatasetDefinition.PROPERTY_ROLLUPS, Joiner.on(";").join(entry.getValue()));
+    }
+    for (Map.Entry<String, Set<String>> entry : rollupMeasures.entrySet()) {
+      builder.add(CubeDatasetDefinition.PROPERTY_AGGREGATION_PREFIX + entry.getKey() + "." +
+                    CubeDatasetDefinition.PROPERTY_ROLLUP_MEASURES, Joiner.on(",").join(entry.getValue()));
+    }
 
     return builder.build();
   }
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.data2.dataset2.lib.partitioned;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -38,10 +39,12 @@ import io.cdap.cdap.api.dataset.lib.PartitionedFileSet;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSetArguments;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSetProperties;
 import io.cdap.cdap.api.dataset.lib.Partitioning;
+import io.cdap.cdap.api.dataset.table.Scan;
 import io.cdap.cdap.api.dataset.table.TableProperties;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.namespace.NamespacePathLocator;
 import io.cdap.cdap.data2.dataset2.DatasetFrameworkTestUtil;
+import io.cdap.cdap.data2.dataset2.lib.table.FuzzyRowFilter;
 import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.test.SlowTests;
 import org.apache.hadoop.security.UserGroupInformation;
@@ -184,6 +187,115 @@ public class PartitionedFileSetTest {
     PartitionedFileSetDataset.parseRowKey(rowKey, PARTITIONING_2);
   }
 
+  @Test
+  public void testGenerateScans() {
+    // a value condition on the leading field limits the scan to the rows that start with that value
+    List<Scan> scans = PartitionedFileSetDataset.generateScans(
+      PartitionFilter.builder().addValueCondition("s", "a").build(), PARTITIONING_1);
+    Assert.assertEquals(1, scans.size());
+    Assert.assertArrayEquals(new byte[] { 'a' }, scans.get(0).getStartRow());
+    Assert.assertArrayEquals(new byte[] { 'a', 1 }, scans.get(0).getStopRow());
+    Assert.assertNull(scans.get(0).getFilter());
+
+    // a value condition after an int field without condition is pushed down as a fuzzy row filter
+    scans = PartitionedFileSetDataset.generateScans(
+      PartitionFilter.builder().addValueCondition("s", "a").addValueCondition("l", 5L).build(), PARTITIONING_1);
+    Assert.assertEquals(1, scans.size());
+    Assert.assertTrue(scans.get(0).getFilter() instanceof FuzzyRowFilter);
+
+    // nothing can be pushed down after a string field without a condition
+    scans = PartitionedFileSetDataset.generateScans(
+      PartitionFilter.builder().addValueCondition("l", 5L).build(), PARTITIONING_1);
+    Assert.assertEquals(1, scans.size());
+    Assert.assertNull(scans.get(0).getStartRow());
+    Assert.assertNull(scans.get(0).getStopRow());
+    Assert.assertNull(scans.get(0).getFilter());
+
+    // a small range followed by another condition is split into one scan per value
+    scans = PartitionedFileSetDataset.generateScans(
+      PartitionFilter.builder().addValueCondition("s", "a").addRangeCondition("i", 1, 4)
+        .addValueCondition("l", 5L).build(), PARTITIONING_1);
+    Assert.assertEquals(3, scans.size());
+
+    // a large range is not split
+    scans = PartitionedFileSetDataset.generateScans(
+      PartitionFilter.builder().addValueCondition("s", "a").addRangeCondition("i", 0, Integer.MAX_VALUE)
+        .addValueCondition("l", 5L).build(), PARTITIONING_1);
+    Assert.assertEquals(1, scans.size());
+  }
+
+  @Test
+  public void testPartitionFilterPushdown() throws Exception {
+    final PartitionedFileSet pfs = dsFrameworkUtil.getInstance(pfsInstance);
+    testPartitionFilters(pfs);
+  }
+
+  @Test
+  public void testPartitionFilterWithIndexedFields() throws Exception {
+    DatasetId indexedInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("indexed");
+    dsFrameworkUtil.createInstance("partitionedFileSet", indexedInstance, PartitionedFileSetProperties.builder()
+      .setPartitioning(PARTITIONING_1)
+      .setIndexedFields("i", "l")
+      .setBasePath("indexedDir")
+      .build());
+    try {
+      testPartitionFilters(dsFrameworkUtil.getInstance(indexedInstance));
+    } finally {
+      dsFrameworkUtil.deleteInstance(indexedInstance);
+    }
+  }
+
+  private void testPartitionFilters(final PartitionedFileSet pfs) throws Exception {
+    final Set<PartitionKey> keys = new HashSet<>();
+    for (String s : new String[] { "a", "b", "bb" }) {
+      for (int i = -2; i < 3; i++) {
+        for (long l = 0; l < 3; l++) {
+          keys.add(PartitionKey.builder().addStringField("s", s).addIntField("i", i).addLongField("l", l).build());
+        }
+      }
+    }
+    dsFrameworkUtil.newTransactionExecutor((TransactionAware) pfs).execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        for (PartitionKey key : keys) {
+          pfs.addPartition(key, key.toString());
+        }
+      }
+    });
+
+    final List<PartitionFilter> filters = ImmutableList.of(
+      PartitionFilter.builder().addValueCondition("s", "b").build(),
+      PartitionFilter.builder().addValueCondition("i", 1).build(),
+      PartitionFilter.builder().addValueCondition("l", 2L).build(),
+      PartitionFilter.builder().addRangeCondition("i", -1, 2).build(),
+      PartitionFilter.builder().addValueCondition("s", "b").addValueCondition("l", 1L).build(),
+      PartitionFilter.builder().addValueCondition("s", "b").addRangeCondition("i", -2, 1)
+        .addValueCondition("l", 0L).build(),
+      PartitionFilter.builder().addRangeCondition("s", "a", "bb").addRangeCondition("i", 0, 2)
+        .addRangeCondition("l", 1L, null).build(),
+      PartitionFilter.builder().addValueCondition("i", 0).addRangeCondition("l", null, 2L).build());
+
+    dsFrameworkUtil.newTransactionExecutor((TransactionAware) pfs).execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        for (PartitionFilter filter : filters) {
+          Set<PartitionKey> expected = new HashSet<>();
+          for (PartitionKey key : keys) {
+            if (filter.match(key)) {
+              expected.add(key);
+            }
+          }
+          Set<PartitionKey> actual = new HashSet<>();
+          for (PartitionDetail partition : pfs.getPartitions(filter)) {
+            actual.add(partition.getPartitionKey());
+          }
+          Assert.assertFalse(expected.isEmpty());
+          Assert.assertEquals(filter.toString(), expected, actual);
+        }
+      }
+    });
+  }
+
   @Test
   public void testMetadataForNonexistentPartition() throws Exception {
     PartitionedFileSet pfs = dsFrameworkUtil.getInstance(pfsInstance);
@@ -131,6 +131,27 @@ public abstract class LineageTableTest {
         lineageTable.getRelations(datasetInstance2, 0, 35000, x -> true)
       );
 
+      // Batched scans return the union of the relations of the individual entities
+      Assert.assertEquals(
+        ImmutableSet.builder()
+          .addAll(lineageTable.getRelations(datasetInstance1, 0, 35000, x -> true))
+          .addAll(lineageTable.getRelations(datasetInstance2, 0, 35000, x -> true)).build(),
+        lineageTable.getDatasetRelations(ImmutableList.of(datasetInstance2, datasetInstance1), 0, 35000, x -> true)
+      );
+      Assert.assertEquals(
+        ImmutableSet.of(new Relation(datasetInstance1, program1, AccessType.READ, runId1),
+                        new Relation(datasetInstance2, program2, AccessType.WRITE, runId2),
+                        new Relation(datasetInstance2, program2, AccessType.WRITE, runId3),
+                        new Relation(datasetInstance2, program3, AccessType.READ_WRITE, runId4)
+        ),
+        lineageTable.getProgramRelations(ImmutableList.of(program1, program2, program3), 0, 100000, x -> true)
+      );
+      Assert.assertEquals(
+        ImmutableSet.of(new Relation(datasetInstance2, program2, AccessType.WRITE, runId3)),
+        lineageTable.getProgramRelations(ImmutableList.of(program1, program2), 25000, 100000, x -> true)
+      );
+      Assert.assertTrue(lineageTable.getDatasetRelations(ImmutableList.of(), 0, 100000, x -> true).isEmpty());
+
       Assert.assertEquals(toSet(program1, datasetInstance1), lineageTable.getEntitiesForRun(run11));
       Assert.assertEquals(ImmutableList.of(run11Data1AccessTime), lineageTable.getAccessTimesForRun(run11));
     });
@@ -874,6 +874,69 @@ public class FieldLineageInfoTest {
     Assert.assertEquals(expectedIncomingSummary, info1.getIncomingSummary());
   }
 
+  @Test(timeout = 60000)
+  public void testWideAndDeepLineageSummary() {
+    // Synthetic lineage of a pipeline with 500 fields and 50 stages. Each stage has two transforms which both take
+    // fields from the two transforms of the previous stage, so there are 2^50 paths from the source to the
+    // destination fields, which must not be walked one by one.
+    int numFields = 500;
+    int numStages = 50;
+    EndPoint source = EndPoint.of("ns", "source");
+    EndPoint lookup = EndPoint.of("ns", "lookup");
+    EndPoint destination = EndPoint.of("ns", "destination");
+
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < numFields; i++) {
+      fields.add("field" + i);
+    }
+    List<Operation> operations = new ArrayList<>();
+    operations.add(new ReadOperation("read", "read source", source, fields));
+    for (int stage = 1; stage <= numStages; stage++) {
+      for (String name : Arrays.asList("left", "right")) {
+        List<InputField> inputs = new ArrayList<>();
+        for (int i = 0; i < numFields; i++) {
+          String origin = stage == 1 ? "read" : ((i % 2 == 0) == name.equals("left") ? "left" : "right") + (stage - 1);
+          inputs.add(InputField.of(origin, fields.get(i)));
+        }
+        operations.add(new TransformOperation(name + stage, "transform", inputs, fields));
+      }
+    }
+    operations.add(new ReadOperation("readLookup", "read lookup", lookup, "extra"));
+    operations.add(new TransformOperation("enrich", "enrich",
+                                          Collections.singletonList(InputField.of("readLookup", "extra")), "extra"));
+    List<InputField> writeInputs = new ArrayList<>();
+    for (int i = 0; i < numFields; i++) {
+      writeInputs.add(InputField.of((i % 2 == 0 ? "left" : "right") + numStages, fields.get(i)));
+    }
+    writeInputs.add(InputField.of("enrich", "extra"));
+    operations.add(new WriteOperation("write", "write destination", destination, writeInputs));
+
+    FieldLineageInfo info = new FieldLineageInfo(operations);
+
+    Set<EndPointField> sourceFields = new HashSet<>();
+    Set<EndPointField> destinationFields = new HashSet<>();
+    for (String field : fields) {
+      sourceFields.add(new EndPointField(source, field));
+      destinationFields.add(new EndPointField(destination, field));
+    }
+    EndPointField lookupExtra = new EndPointField(lookup, "extra");
+    EndPointField destinationExtra = new EndPointField(destination, "extra");
+
+    Map<EndPointField, Set<EndPointField>> incomingSummary = info.getIncomingSummary();
+    Assert.assertEquals(numFields + 1, incomingSummary.size());
+    for (EndPointField field : destinationFields) {
+      Assert.assertEquals(sourceFields, incomingSummary.get(field));
+    }
+    Assert.assertEquals(Collections.singleton(lookupExtra), incomingSummary.get(destinationExtra));
+
+    Map<EndPointField, Set<EndPointField>> outgoingSummary = info.getOutgoingSummary();
+    Assert.assertEquals(numFields + 1, outgoingSummary.size());
+    for (EndPointField field : sourceFields) {
+      Assert.assertEquals(destinationFields, outgoingSummary.get(field));
+    }
+    Assert.assertEquals(Collections.singleton(destinationExtra), outgoingSummary.get(lookupExtra));
+  }
+
   private void assertBefore(List<Operation> list, Operation a, Operation b) {
     int aIndex = list.indexOf(a);
     int bIndex = list.indexOf(b);
@@ -39,6 +39,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -225,6 +226,51 @@ public abstract class FieldLineageTableTest {
     });
   }
 
+  @Test
+  public void testDatasetSummaries() {
+    RunId runId = RunIds.generate(10000);
+    ProgramId program = new ProgramId("default", "app1", ProgramType.WORKFLOW, "workflow1");
+    final ProgramRunId programRun1 = program.run(runId.getId());
+
+    runId = RunIds.generate(11000);
+    final ProgramRunId programRun2 = program.run(runId.getId());
+
+    final FieldLineageInfo info1 = new FieldLineageInfo(generateOperations(false));
+    final FieldLineageInfo info2 = new FieldLineageInfo(generateOperations(true));
+    TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      fieldLineageTable.addFieldLineageInfo(programRun1, info1);
+      fieldLineageTable.addFieldLineageInfo(programRun2, info2);
+    });
+
+    EndPoint source = EndPoint.of("ns1", "endpoint1");
+    EndPoint destination = EndPoint.of("myns", "another_file");
+    TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      // the summaries of all the fields must be the same as the summaries of the fields looked up one by one
+      for (long end : new long[] { 10001, 11001 }) {
+        Map<String, Set<EndPointField>> incoming = fieldLineageTable.getIncomingSummaries(destination, 0, end);
+        Assert.assertFalse(incoming.isEmpty());
+        for (String field : fieldLineageTable.getFields(destination, 0, end)) {
+          Assert.assertEquals(fieldLineageTable.getIncomingSummary(new EndPointField(destination, field), 0, end),
+                              incoming.getOrDefault(field, Collections.emptySet()));
+        }
+
+        Map<String, Set<EndPointField>> outgoing = fieldLineageTable.getOutgoingSummaries(source, 0, end);
+        Assert.assertFalse(outgoing.isEmpty());
+        for (String field : fieldLineageTable.getFields(source, 0, end)) {
+          Assert.assertEquals(fieldLineageTable.getOutgoingSummary(new EndPointField(source, field), 0, end),
+                              outgoing.getOrDefault(field, Collections.emptySet()));
+        }
+      }
+
+      // the outgoing summary of file_name only exists for the second run
+      Assert.assertFalse(fieldLineageTable.getOutgoingSummaries(source, 0, 10001).containsKey("file_name"));
+      Assert.assertTrue(fieldLineageTable.getOutgoingSummaries(source, 0, 11001).containsKey("file_name"));
+      Assert.assertTrue(fieldLineageTable.getOutgoingSummaries(source, 20000, 30000).isEmpty());
+    });
+  }
+
   private List<Operation> generateOperations(boolean addAditionalField) {
     // read: file -> (offset, body)
     // parse: (body) -> (first_name, last_name)
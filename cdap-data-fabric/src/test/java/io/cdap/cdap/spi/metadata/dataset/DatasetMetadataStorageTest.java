@@ -60,8 +60,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -185,6 +187,53 @@ public class DatasetMetadataStorageTest extends MetadataStorageTest {
     mds.batch(ImmutableList.of(new Drop(service1), new Drop(dataset1), new Drop(dataset2)), MutationOptions.DEFAULT);
   }
 
+  // this test is specific to the DatasetMetadataStorage, because it relies on the ranking of weighted search
+  @Test
+  public void testWeightedSearchWithCursors() throws IOException {
+    MetadataStorage mds = getMetadataStorage();
+    NamespaceId nsId = new NamespaceId("ns1");
+
+    // dataset i has tags "w0" through "w<i % 3>", that is, it matches the query for i % 3 + 1 of its tags
+    List<MetadataRecord> records = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      Set<String> tags = new HashSet<>();
+      for (int j = 0; j <= i % 3; j++) {
+        tags.add("w" + j);
+      }
+      records.add(new MetadataRecord(nsId.dataset("wds" + i).toMetadataEntity(), new Metadata(USER, tags)));
+    }
+    mds.batch(records.stream().map(record -> new Update(record.getEntity(), record.getMetadata()))
+                .collect(Collectors.toList()), MutationOptions.DEFAULT);
+
+    SearchResponse response = mds.search(SearchRequest.of("w0 w1 w2").addNamespace("ns1")
+                                           .setLimit(Integer.MAX_VALUE).build());
+    List<MetadataRecord> all = response.getResults();
+    Assert.assertEquals(9, all.size());
+    // results with higher scores come first
+    Assert.assertEquals(3, all.get(0).getMetadata().getTags().size());
+    Assert.assertEquals(1, all.get(8).getMetadata().getTags().size());
+
+    // paginate with cursors, and validate that the pages are consecutive windows of the full result
+    List<MetadataRecord> paginated = new ArrayList<>();
+    String cursor = null;
+    do {
+      response = mds.search(SearchRequest.of("w0 w1 w2").addNamespace("ns1").setLimit(4)
+                              .setCursorRequested(true).setCursor(cursor).build());
+      Assert.assertEquals(paginated.size(), response.getOffset());
+      Assert.assertEquals(9, response.getTotalResults());
+      paginated.addAll(response.getResults());
+      cursor = response.getCursor();
+    } while (cursor != null);
+    Assert.assertEquals(all, paginated);
+
+    // offsets and limits yield the same windows
+    assertInOrder(mds, SearchRequest.of("w0 w1 w2").addNamespace("ns1").setOffset(3).setLimit(4).build(),
+                  all.subList(3, 7));
+
+    mds.batch(records.stream().map(MetadataRecord::getEntity).map(Drop::new).collect(Collectors.toList()),
+              MutationOptions.DEFAULT);
+  }
+
   // this test is specific to teh DatasetMetadataStorage, because of the specific way it tests pagination:
   // it requests offsets that are not a multiple of the page size, which is not supported in all implementations.
   @Test
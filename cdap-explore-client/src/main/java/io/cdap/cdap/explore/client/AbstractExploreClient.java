@@ -22,6 +22,7 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -37,6 +38,7 @@ import io.cdap.cdap.explore.service.Explore;
 import io.cdap.cdap.explore.service.ExploreException;
 import io.cdap.cdap.explore.service.HandleNotFoundException;
 import io.cdap.cdap.explore.service.MetaDataInfo;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
 import io.cdap.cdap.proto.ColumnDesc;
 import io.cdap.cdap.proto.NamespaceMeta;
 import io.cdap.cdap.proto.QueryHandle;
@@ -49,11 +51,17 @@ import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -402,16 +410,25 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
   }
 
   /**
-   * Result iterator which polls Explore service using HTTP to get next results.
+   * Result iterator which streams the results from the Explore service using HTTP. Batches of results are read
+   * ahead in a background thread, so that decoding the results overlaps with transferring them. If the Explore
+   * service does not support streaming results, the iterator falls back to polling for the next results.
    */
   private static final class ClientExploreExecutionResult extends AbstractIterator<QueryResult>
     implements ExploreExecutionResult {
     private static final Logger LOG = LoggerFactory.getLogger(ClientExploreExecutionResult.class);
     private static final int DEFAULT_FETCH_SIZE = 100;
+    // number of batches of results that are read ahead of the consumer
+    private static final int PREFETCH_BATCHES = 2;
 
     private int fetchSize = DEFAULT_FETCH_SIZE;
     private Iterator<QueryResult> delegate;
     private List<ColumnDesc> resultSchema = null;
+    private boolean streaming = true;
+    // contains lists of results, an empty list at the end of the results, or the exception that ended the stream
+    private BlockingQueue<Object> prefetched;
+    private InputStream resultStream;
+    private Thread prefetcher;
 
     private final ExploreHttpClient exploreClient;
     private final QueryHandle handle;
@@ -438,8 +455,9 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
         return delegate.next();
       }
       try {
-        // call the endpoint 'next' to get more results and set delegate
-        List<QueryResult> nextResults = convertRows(exploreClient.nextResults(handle, fetchSize));
+        // get the next batch of streamed results, or call the endpoint 'next' to get more results and set delegate
+        List<QueryResult> nextResults = streaming
+          ? nextStreamedResults() : convertRows(exploreClient.nextResults(handle, fetchSize));
         delegate = nextResults.iterator();
 
         // At this point, if delegate has no result, there are no more results at all
@@ -457,6 +475,56 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
       }
     }
 
+    @SuppressWarnings("unchecked")
+    private List<QueryResult> nextStreamedResults() throws ExploreException, HandleNotFoundException {
+      if (prefetcher == null) {
+        try {
+          startPrefetch(exploreClient.streamResults(handle, fetchSize));
+        } catch (HandleNotFoundException e) {
+          // Either the handle is unknown, or the server cannot stream results. Polling tells them apart.
+          LOG.debug("Cannot stream results of query {}, polling for results instead", handle.getHandle(), e);
+          streaming = false;
+          return convertRows(exploreClient.nextResults(handle, fetchSize));
+        }
+      }
+      Object next;
+      try {
+        next = prefetched.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExploreException("Interrupted while waiting for the results of query " + handle.getHandle(), e);
+      }
+      if (next instanceof ExploreException) {
+        throw (ExploreException) next;
+      }
+      return (List<QueryResult>) next;
+    }
+
+    private void startPrefetch(InputStream stream) {
+      resultStream = stream;
+      prefetched = new ArrayBlockingQueue<>(PREFETCH_BATCHES);
+      prefetcher = new Thread(() -> {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(stream))) {
+          List<QueryResult> batch = QueryResultBatchCodec.readBatch(input);
+          while (batch != null) {
+            prefetched.put(convertRows(batch));
+            batch = QueryResultBatchCodec.readBatch(input);
+          }
+          prefetched.put(Collections.emptyList());
+        } catch (InterruptedException e) {
+          // the results were closed before they were consumed
+        } catch (Exception e) {
+          try {
+            prefetched.put(new ExploreException("Failed to read the results of query " + handle.getHandle(), e));
+          } catch (InterruptedException ie) {
+            // the results were closed before they were consumed
+          }
+        }
+      }, "explore-results-" + handle.getHandle());
+      prefetcher.setDaemon(true);
+      prefetcher.start();
+    }
+
     private List<QueryResult> convertRows(List<QueryResult> rows) throws ExploreException {
       List<ColumnDesc> schema = getResultSchema();
       ImmutableList.Builder<QueryResult> builder = ImmutableList.builder();
@@ -480,7 +548,7 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
             } else if (schemaColumn.getType().equals("TINYINT")) {
               columnValue = ((Double) columnValue).byteValue();
             }
-          } else if ("BINARY".equals(columnType)) {
+          } else if ("BINARY".equals(columnType) && !(columnValue instanceof byte[])) {
             // A BINARY value is a byte array, which is deserialized by GSon into a list of
             // double objects - here we recreate a byte[] object.
             List<Object> binary;
@@ -520,6 +588,10 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
 
     @Override
     public void close() throws IOException {
+      if (prefetcher != null) {
+        prefetcher.interrupt();
+        Closeables.closeQuietly(resultStream);
+      }
       try {
         exploreClient.close(handle);
       } catch (HandleNotFoundException e) {
@@ -33,6 +33,7 @@ import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.UnauthenticatedException;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.http.DefaultHttpRequestConfig;
+import io.cdap.cdap.common.security.HttpsEnabler;
 import io.cdap.cdap.explore.service.Explore;
 import io.cdap.cdap.explore.service.ExploreException;
 import io.cdap.cdap.explore.service.HandleNotFoundException;
@@ -40,6 +41,7 @@ import io.cdap.cdap.explore.service.MetaDataInfo;
 import io.cdap.cdap.explore.service.TableNotFoundException;
 import io.cdap.cdap.explore.utils.ColumnsArgs;
 import io.cdap.cdap.explore.utils.FunctionsArgs;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
 import io.cdap.cdap.explore.utils.SchemasArgs;
 import io.cdap.cdap.explore.utils.TablesArgs;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
@@ -62,16 +64,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import javax.net.ssl.HttpsURLConnection;
 
 /**
  * The methods of this class call the HTTP APIs exposed by explore and return the raw information
@@ -277,6 +283,52 @@ abstract class ExploreHttpClient implements Explore {
     throw new ExploreException("Cannot get next results. Reason: " + response);
   }
 
+  /**
+   * Opens a stream of all remaining results of a finished query. The stream contains batches of rows encoded with
+   * {@link QueryResultBatchCodec}, and the server keeps fetching results from Hive as the stream is consumed.
+   *
+   * @param handle the handle of the query
+   * @param size the number of rows per batch
+   * @return the stream of results, which must be closed by the caller
+   * @throws HandleNotFoundException if the query is not found, or if the server does not support streaming results
+   */
+  protected InputStream streamResults(QueryHandle handle, int size) throws ExploreException, HandleNotFoundException {
+    String resolvedUrl = resolve(String.format("data/explore/queries/%s/%s", handle.getHandle(), "stream"));
+    try {
+      HttpURLConnection urlConn = (HttpURLConnection) new URL(resolvedUrl).openConnection();
+      if (urlConn instanceof HttpsURLConnection && !verifySSLCert()) {
+        new HttpsEnabler().setTrustAll(true).enable((HttpsURLConnection) urlConn);
+      }
+      urlConn.setConnectTimeout(getHttpRequestConfig().getConnectTimeout());
+      urlConn.setReadTimeout(getHttpRequestConfig().getReadTimeout());
+      urlConn.setRequestMethod(HttpMethod.POST.name());
+      urlConn.setDoOutput(true);
+      Map<String, String> headers = addSecurityHeaders(null);
+      if (headers != null) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+          urlConn.setRequestProperty(header.getKey(), header.getValue());
+        }
+      }
+      try (OutputStream os = urlConn.getOutputStream()) {
+        os.write(GSON.toJson(ImmutableMap.of("size", size)).getBytes(StandardCharsets.UTF_8));
+      }
+
+      int responseCode = urlConn.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_OK) {
+        return urlConn.getInputStream();
+      }
+      String responseMessage = urlConn.getResponseMessage();
+      urlConn.disconnect();
+      if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+        throw new HandleNotFoundException("Handle " + handle.getHandle() + "not found.");
+      }
+      throw new ExploreException("Cannot stream results. Reason: " + responseCode + " " + responseMessage);
+    } catch (IOException e) {
+      throw new ExploreException(String.format("Error connecting to Explore Service at %s while streaming results",
+                                               resolvedUrl), e);
+    }
+  }
+
   @Override
   public List<QueryResult> previewResults(QueryHandle handle)
     throws ExploreException, HandleNotFoundException, SQLException {
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.utils;
+
+import com.google.gson.Gson;
+import io.cdap.cdap.proto.QueryResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Binary encoding of query results, used to stream the results of a query in batches of rows.
+ *
+ * <p>A stream of results is a sequence of batches, terminated by an empty batch. A batch starts with the number of
+ * rows and the number of columns, followed by the values of each column in turn. The values of a column start with
+ * a type tag. Unless all values are null, the tag is followed by a bitmap of the null values and by the non-null
+ * values, encoded according to the type. Values of types without their own tag are encoded as JSON, and decoded
+ * the same way as the results returned by the REST endpoints.
+ * </p>
+ */
+public final class QueryResultBatchCodec {
+
+  private static final Gson GSON = new Gson();
+
+  private static final byte NULL = 0;
+  private static final byte BOOLEAN = 1;
+  private static final byte BYTE = 2;
+  private static final byte SHORT = 3;
+  private static final byte INT = 4;
+  private static final byte LONG = 5;
+  private static final byte FLOAT = 6;
+  private static final byte DOUBLE = 7;
+  private static final byte STRING = 8;
+  private static final byte BINARY = 9;
+  private static final byte JSON = 10;
+
+  private QueryResultBatchCodec() {
+  }
+
+  /**
+   * Writes a batch of rows. All rows must have the same number of columns.
+   *
+   * @param rows the rows to write, must not be empty
+   * @param out the output to write to
+   */
+  public static void writeBatch(List<QueryResult> rows, DataOutput out) throws IOException {
+    if (rows.isEmpty()) {
+      throw new IllegalArgumentException("A batch of query results must not be empty");
+    }
+    int numColumns = rows.get(0).getColumns().size();
+    out.writeInt(rows.size());
+    out.writeInt(numColumns);
+    for (int column = 0; column < numColumns; column++) {
+      writeColumn(rows, column, out);
+    }
+  }
+
+  /**
+   * Writes the empty batch that terminates a stream of results.
+   */
+  public static void writeEnd(DataOutput out) throws IOException {
+    out.writeInt(0);
+  }
+
+  /**
+   * Reads a batch of rows.
+   *
+   * @param in the input to read from
+   * @return the rows of the batch, or {@code null} if the end of the stream of results was reached
+   */
+  @Nullable
+  public static List<QueryResult> readBatch(DataInput in) throws IOException {
+    int numRows = in.readInt();
+    if (numRows == 0) {
+      return null;
+    }
+    int numColumns = in.readInt();
+    Object[][] values = new Object[numRows][numColumns];
+    for (int column = 0; column < numColumns; column++) {
+      readColumn(values, column, in);
+    }
+    List<QueryResult> rows = new ArrayList<>(numRows);
+    for (Object[] row : values) {
+      rows.add(new QueryResult(Arrays.asList(row)));
+    }
+    return rows;
+  }
+
+  private static void writeColumn(List<QueryResult> rows, int column, DataOutput out) throws IOException {
+    byte[] nulls = new byte[(rows.size() + 7) / 8];
+    byte type = NULL;
+    for (int row = 0; row < rows.size(); row++) {
+      Object value = rows.get(row).getColumns().get(column);
+      if (value == null) {
+        nulls[row / 8] |= 1 << (row % 8);
+        continue;
+      }
+      byte valueType = getType(value);
+      // values of different types in the same column are all encoded as JSON
+      type = type == NULL || type == valueType ? valueType : JSON;
+    }
+    out.writeByte(type);
+    if (type == NULL) {
+      return;
+    }
+    out.write(nulls);
+    for (QueryResult row : rows) {
+      Object value = row.getColumns().get(column);
+      if (value != null) {
+        writeValue(type, value, out);
+      }
+    }
+  }
+
+  private static void readColumn(Object[][] values, int column, DataInput in) throws IOException {
+    byte type = in.readByte();
+    if (type == NULL) {
+      return;
+    }
+    byte[] nulls = new byte[(values.length + 7) / 8];
+    in.readFully(nulls);
+    for (int row = 0; row < values.length; row++) {
+      if ((nulls[row / 8] & (1 << (row % 8))) == 0) {
+        values[row][column] = readValue(type, in);
+      }
+    }
+  }
+
+  private static byte getType(Object value) {
+    if (value instanceof Boolean) {
+      return BOOLEAN;
+    }
+    if (value instanceof Byte) {
+      return BYTE;
+    }
+    if (value instanceof Short) {
+      return SHORT;
+    }
+    if (value instanceof Integer) {
+      return INT;
+    }
+    if (value instanceof Long) {
+      return LONG;
+    }
+    if (value instanceof Float) {
+      return FLOAT;
+    }
+    if (value instanceof Double) {
+      return DOUBLE;
+    }
+    if (value instanceof String) {
+      return STRING;
+    }
+    if (value instanceof byte[]) {
+      return BINARY;
+    }
+    return JSON;
+  }
+
+  private static void writeValue(byte type, Object value, DataOutput out) throws IOException {
+    switch (type) {
+      case BOOLEAN:
+        out.writeBoolean((Boolean) value);
+        break;
+      case BYTE:
+        out.writeByte((Byte) value);
+        break;
+      case SHORT:
+        out.writeShort((Short) value);
+        break;
+      case INT:
+        out.writeInt((Integer) value);
+        break;
+      case LONG:
+        out.writeLong((Long) value);
+        break;
+      case FLOAT:
+        out.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        out.writeDouble((Double) value);
+        break;
+      case STRING:
+        writeBytes(((String) value).getBytes(StandardCharsets.UTF_8), out);
+        break;
+      case BINARY:
+        writeBytes((byte[]) value, out);
+        break;
+      default:
+        writeBytes(GSON.toJson(value).getBytes(StandardCharsets.UTF_8), out);
+    }
+  }
+
+  private static Object readValue(byte type, DataInput in) throws IOException {
+    switch (type) {
+      case BOOLEAN:
+        return in.readBoolean();
+      case BYTE:
+        return in.readByte();
+      case SHORT:
+        return in.readShort();
+      case INT:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case FLOAT:
+        return in.readFloat();
+      case DOUBLE:
+        return in.readDouble();
+      case STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case BINARY:
+        return readBytes(in);
+      case JSON:
+        return GSON.fromJson(new String(readBytes(in), StandardCharsets.UTF_8), Object.class);
+      default:
+        throw new IOException("Unknown type of query result column: " + type);
+    }
+  }
+
+  private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInput in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
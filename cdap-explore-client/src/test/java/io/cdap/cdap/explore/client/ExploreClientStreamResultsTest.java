@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.client;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.ColumnDesc;
+import io.cdap.cdap.proto.QueryHandle;
+import io.cdap.cdap.proto.QueryResult;
+import io.cdap.cdap.proto.QueryStatus;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.http.AbstractHttpHandler;
+import io.cdap.http.BodyProducer;
+import io.cdap.http.HttpHandler;
+import io.cdap.http.HttpResponder;
+import io.cdap.http.NettyHttpService;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * Tests for reading the results of queries through the {@link ExploreExecutionResult} of an {@link ExploreClient}.
+ */
+public class ExploreClientStreamResultsTest {
+
+  private static final Gson GSON = new Gson();
+  private static final int ROWS = 10;
+
+  @Test
+  public void testStreamResults() throws Exception {
+    StreamingQueryHandler handler = new StreamingQueryHandler();
+    NettyHttpService httpService = startService(handler);
+    try {
+      ExploreExecutionResult result = submit(httpService);
+      result.setFetchSize(3);
+      Assert.assertEquals(expectedRows(), readAll(result));
+      result.close();
+
+      Assert.assertEquals(1, handler.streamCalls.get());
+      Assert.assertEquals(0, handler.nextCalls.get());
+      Assert.assertEquals(1, handler.closedHandles.size());
+    } finally {
+      httpService.stop();
+    }
+  }
+
+  @Test
+  public void testFallbackToNextResults() throws Exception {
+    // the server does not have the stream endpoint, so the results are read with the 'next' endpoint
+    QueryHandler handler = new QueryHandler();
+    NettyHttpService httpService = startService(handler);
+    try {
+      ExploreExecutionResult result = submit(httpService);
+      result.setFetchSize(3);
+      Assert.assertEquals(expectedRows(), readAll(result));
+      result.close();
+
+      // four calls return results, the last one returns no results
+      Assert.assertEquals(5, handler.nextCalls.get());
+      Assert.assertEquals(1, handler.closedHandles.size());
+    } finally {
+      httpService.stop();
+    }
+  }
+
+  @Test(timeout = 30000L)
+  public void testCloseWhilePrefetching() throws Exception {
+    StreamingQueryHandler handler = new StreamingQueryHandler();
+    NettyHttpService httpService = startService(handler);
+    try {
+      ExploreExecutionResult result = submit(httpService);
+      // one row per batch, so that the prefetch thread is still reading or waiting for the consumer
+      result.setFetchSize(1);
+      Assert.assertTrue(result.hasNext());
+      Assert.assertEquals(expectedRows().get(0), result.next().getColumns());
+
+      Thread prefetcher = null;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().equals("explore-results-" + handler.lastHandle)) {
+          prefetcher = thread;
+        }
+      }
+      Assert.assertNotNull(prefetcher);
+
+      // closing the results must stop the prefetch thread and close the query on the server
+      result.close();
+      prefetcher.join(TimeUnit.SECONDS.toMillis(10));
+      Assert.assertFalse(prefetcher.isAlive());
+      Assert.assertEquals(Collections.singleton(handler.lastHandle), handler.closedHandles);
+    } finally {
+      httpService.stop();
+    }
+  }
+
+  private NettyHttpService startService(HttpHandler handler) throws Exception {
+    NettyHttpService httpService = NettyHttpService.builder(ExploreClientStreamResultsTest.class.getName())
+      .setHttpHandlers(handler)
+      .setHost("localhost")
+      .setPort(0)
+      .build();
+    httpService.start();
+    return httpService;
+  }
+
+  private ExploreExecutionResult submit(NettyHttpService httpService) throws Exception {
+    ExploreClient exploreClient = new FixedAddressExploreClient("localhost", httpService.getBindAddress().getPort(),
+                                                                null, false, false);
+    return exploreClient.submit(NamespaceId.DEFAULT, "select * from table").get(10, TimeUnit.SECONDS);
+  }
+
+  private List<List<Object>> readAll(ExploreExecutionResult result) {
+    List<List<Object>> rows = new ArrayList<>();
+    while (result.hasNext()) {
+      rows.add(result.next().getColumns());
+    }
+    return rows;
+  }
+
+  private static List<List<Object>> expectedRows() {
+    List<List<Object>> rows = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      rows.add(ImmutableList.of(i, "row" + i));
+    }
+    return rows;
+  }
+
+  private static List<QueryResult> nextRows(AtomicInteger position, int size) {
+    List<QueryResult> rows = new ArrayList<>();
+    List<List<Object>> expected = expectedRows();
+    while (rows.size() < size && position.get() < expected.size()) {
+      rows.add(new QueryResult(expected.get(position.getAndIncrement())));
+    }
+    return rows;
+  }
+
+  /**
+   * Handler for a server that serves the results of a query with the 'next' endpoint only.
+   */
+  @Path(Constants.Gateway.API_VERSION_3)
+  public static class QueryHandler extends AbstractHttpHandler {
+    final AtomicInteger position = new AtomicInteger();
+    final AtomicInteger nextCalls = new AtomicInteger();
+    final Set<String> closedHandles = ConcurrentHashMap.newKeySet();
+    volatile String lastHandle;
+
+    @POST
+    @Path("namespaces/{namespace-id}/data/explore/queries")
+    public void query(HttpRequest request, HttpResponder responder, @PathParam("namespace-id") String namespaceId) {
+      QueryHandle handle = QueryHandle.generate();
+      lastHandle = handle.getHandle();
+      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(handle));
+    }
+
+    @GET
+    @Path("data/explore/queries/{id}/status")
+    public void getQueryStatus(HttpRequest request, HttpResponder responder, @PathParam("id") String id) {
+      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(new QueryStatus(QueryStatus.OpStatus.FINISHED, true)));
+    }
+
+    @GET
+    @Path("data/explore/queries/{id}/schema")
+    public void getQueryResultsSchema(HttpRequest request, HttpResponder responder, @PathParam("id") String id) {
+      List<ColumnDesc> schema = ImmutableList.of(new ColumnDesc("id", "INT", 1, ""),
+                                                 new ColumnDesc("name", "STRING", 2, ""));
+      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(schema));
+    }
+
+    @POST
+    @Path("data/explore/queries/{id}/next")
+    public void getQueryNextResults(HttpRequest request, HttpResponder responder, @PathParam("id") String id) {
+      nextCalls.incrementAndGet();
+      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(nextRows(position, 3)));
+    }
+
+    @DELETE
+    @Path("data/explore/queries/{id}")
+    public void closeQuery(HttpRequest request, HttpResponder responder, @PathParam("id") String id) {
+      closedHandles.add(id);
+      responder.sendStatus(HttpResponseStatus.OK);
+    }
+  }
+
+  /**
+   * Handler for a server that can also stream the results of a query.
+   */
+  @Path(Constants.Gateway.API_VERSION_3)
+  public static final class StreamingQueryHandler extends QueryHandler {
+    final AtomicInteger streamCalls = new AtomicInteger();
+
+    @POST
+    @Path("data/explore/queries/{id}/stream")
+    public void streamQueryResults(FullHttpRequest request, HttpResponder responder, @PathParam("id") String id) {
+      streamCalls.incrementAndGet();
+      int size = GSON.fromJson(request.content().toString(StandardCharsets.UTF_8), SizeRequest.class).size;
+      responder.sendContent(HttpResponseStatus.OK, new BodyProducer() {
+        private boolean finished;
+
+        @Override
+        public ByteBuf nextChunk() throws Exception {
+          if (finished) {
+            return Unpooled.EMPTY_BUFFER;
+          }
+          ByteBuf buffer = Unpooled.buffer();
+          ByteBufOutputStream output = new ByteBufOutputStream(buffer);
+          List<QueryResult> rows = nextRows(position, size);
+          if (rows.isEmpty()) {
+            QueryResultBatchCodec.writeEnd(output);
+            finished = true;
+          } else {
+            QueryResultBatchCodec.writeBatch(rows, output);
+          }
+          output.flush();
+          return buffer;
+        }
+
+        @Override
+        public void finished() {
+          // no-op
+        }
+
+        @Override
+        public void handleError(Throwable cause) {
+          // the client may close the stream before all results were read
+        }
+      }, EmptyHttpHeaders.INSTANCE);
+    }
+  }
+
+  /**
+   * Body of a request to stream results.
+   */
+  private static final class SizeRequest {
+    private int size;
+  }
+}
@@ -247,6 +247,40 @@ public class ExploreQueryExecutorHttpHandler extends AbstractExploreQueryExecuto
     });
   }
 
+  /**
+   * Streams all remaining results of a finished query in the binary format of
+   * {@link io.cdap.cdap.explore.utils.QueryResultBatchCodec}, with the given number of rows per batch.
+   */
+  @POST
+  @Path("data/explore/queries/{id}/stream")
+  public void streamQueryResults(FullHttpRequest request, HttpResponder responder,
+                                 @PathParam("id") String id) throws ExploreException, IOException {
+    // NOTE: this call is a POST because it is not idempotent: cursor of results is moved
+    try {
+      QueryHandle handle = QueryHandle.fromId(id);
+      if (handle.equals(QueryHandle.NO_OP) ||
+        !exploreService.getStatus(handle).getStatus().equals(QueryStatus.OpStatus.FINISHED)) {
+        responder.sendStatus(HttpResponseStatus.CONFLICT);
+        return;
+      }
+      Map<String, String> args = decodeArguments(request);
+      int size = args.containsKey("size") ? Integer.valueOf(args.get("size")) : DOWNLOAD_FETCH_CHUNK_SIZE;
+      // every batch is fetched as the user who submitted the query
+      QueryResultsStreamBodyProducer bodyProducer = new QueryResultsStreamBodyProducer(
+        () -> doAs(handle, () -> exploreService.nextResults(handle, size)));
+      responder.sendContent(HttpResponseStatus.OK, bodyProducer, EmptyHttpHeaders.INSTANCE);
+    } catch (IllegalArgumentException e) {
+      LOG.debug("Got exception:", e);
+      responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage());
+    } catch (SQLException e) {
+      LOG.debug("Got exception:", e);
+      responder.sendString(HttpResponseStatus.BAD_REQUEST,
+                           String.format("[SQLState %s] %s", e.getSQLState(), e.getMessage()));
+    } catch (HandleNotFoundException e) {
+      responder.sendStatus(HttpResponseStatus.NOT_FOUND);
+    }
+  }
+
   private void doDownloadQueryResults(HttpResponder responder,
                                       QueryHandle handle) throws ExploreException, IOException {
     try {
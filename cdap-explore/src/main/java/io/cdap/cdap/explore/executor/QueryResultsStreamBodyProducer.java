@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.executor;
+
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.QueryResult;
+import io.cdap.http.BodyProducer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * BodyProducer used for streaming the results of a Query in the binary format of {@link QueryResultBatchCodec},
+ * one batch of rows per chunk.
+ */
+final class QueryResultsStreamBodyProducer extends BodyProducer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QueryResultsStreamBodyProducer.class);
+
+  private final Callable<List<QueryResult>> nextResults;
+  private final ByteBuf buffer;
+  private final ByteBufOutputStream output;
+  private boolean finished;
+
+  /**
+   * @param nextResults fetches the next batch of results, returns an empty list once all results were fetched
+   */
+  QueryResultsStreamBodyProducer(Callable<List<QueryResult>> nextResults) {
+    this.nextResults = nextResults;
+    this.buffer = Unpooled.buffer();
+    this.output = new ByteBufOutputStream(buffer);
+  }
+
+  @Override
+  public ByteBuf nextChunk() throws Exception {
+    if (finished) {
+      return Unpooled.EMPTY_BUFFER;
+    }
+
+    buffer.clear();
+    List<QueryResult> results = nextResults.call();
+    if (results.isEmpty()) {
+      QueryResultBatchCodec.writeEnd(output);
+      finished = true;
+    } else {
+      QueryResultBatchCodec.writeBatch(results, output);
+    }
+    output.flush();
+    return buffer.copy();
+  }
+
+  @Override
+  public void finished() throws Exception {
+
+  }
+
+  @Override
+  public void handleError(Throwable cause) {
+    LOG.error("Received error while streaming query results.", cause);
+  }
+}
@@ -16,13 +16,20 @@
 
 package io.cdap.cdap.hive.datasets;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import io.cdap.cdap.api.data.batch.RecordScannable;
 import io.cdap.cdap.api.data.batch.RecordScanner;
 import io.cdap.cdap.api.data.batch.Split;
 import io.cdap.cdap.api.data.batch.Splits;
+import io.cdap.cdap.api.dataset.lib.KeyValueTable;
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTable;
+import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.explore.HiveUtilities;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
 import org.apache.hadoop.hive.shims.ShimLoader;
 import org.apache.hadoop.io.ObjectWritable;
 import org.apache.hadoop.mapred.FileSplit;
@@ -38,11 +45,15 @@ import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 
 /**
- * Map reduce input format to read from datasets that implement {@link RecordScannable}.
+ * Map reduce input format to read from datasets that implement {@link RecordScannable}. If Hive pushed a filter on
+ * the row key down into the table scan, and the dataset is a {@link Table}, {@link ObjectMappedTable} or
+ * {@link KeyValueTable}, only the splits that cover the matching range of row keys are returned.
  */
 public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
   @Override
@@ -58,7 +69,9 @@ public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
         JobContext jobContext = ShimLoader.getHadoopShims().newJobContext(job);
         Path[] tablePaths = FileInputFormat.getInputPaths(jobContext);
 
-        List<Split> dsSplits = recordScannable.getSplits();
+        String filterExpr = jobConf.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+        List<Split> dsSplits = getSplits(recordScannable, filterExpr == null ?
+          null : HiveUtilities.deserializeExpression(filterExpr, jobConf));
 
         InputSplit[] inputSplits = new InputSplit[dsSplits.size()];
         for (int i = 0; i < dsSplits.size(); i++) {
@@ -69,6 +82,34 @@ public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
     }
   }
 
+  /**
+   * Returns the splits of the dataset, restricted to the range of row keys allowed by the filter that Hive pushed
+   * down into the table scan, if any.
+   */
+  @VisibleForTesting
+  static List<Split> getSplits(RecordScannable<?> recordScannable, @Nullable ExprNodeDesc pushedPredicate) {
+    if (pushedPredicate == null) {
+      return recordScannable.getSplits();
+    }
+    RowKeyRange range = RowKeyRange.fromPushedPredicate(pushedPredicate);
+    if (range == null) {
+      return recordScannable.getSplits();
+    }
+    if (range.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (recordScannable instanceof Table) {
+      return ((Table) recordScannable).getSplits(-1, range.getStart(), range.getStop());
+    }
+    if (recordScannable instanceof ObjectMappedTable) {
+      return ((ObjectMappedTable<?>) recordScannable).getSplits(-1, range.getStart(), range.getStop());
+    }
+    if (recordScannable instanceof KeyValueTable) {
+      return ((KeyValueTable) recordScannable).getSplits(-1, range.getStart(), range.getStop());
+    }
+    return recordScannable.getSplits();
+  }
+
   @Override
   public RecordReader<Void, ObjectWritable> getRecordReader(final InputSplit split, JobConf jobConf, Reporter reporter)
     throws IOException {
@@ -24,6 +24,9 @@ import io.cdap.cdap.api.data.schema.UnsupportedTypeException;
 import io.cdap.cdap.api.dataset.Dataset;
 import io.cdap.cdap.api.dataset.DatasetManagementException;
 import io.cdap.cdap.api.dataset.DatasetSpecification;
+import io.cdap.cdap.api.dataset.lib.KeyValueTable;
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTableProperties;
+import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.data.dataset.SystemDatasetInstantiator;
@@ -35,6 +38,7 @@ import io.cdap.cdap.internal.io.SchemaGenerator;
 import io.cdap.cdap.proto.id.DatasetId;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.SerDeStats;
@@ -49,7 +53,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Properties;
+import javax.annotation.Nullable;
 
 /**
  * SerDe to serialize Dataset Objects. It MUST implement the deprecated SerDe interface instead of extending the
@@ -63,6 +69,7 @@ public class DatasetSerDe implements SerDe {
   private ObjectDeserializer deserializer;
   private ObjectSerializer serializer;
   private Schema schema;
+  private String rowKeyColumn;
 
   @Override
   public void initialize(Configuration conf, Properties properties) throws SerDeException {
@@ -96,6 +103,13 @@ public class DatasetSerDe implements SerDe {
     }
 
     this.deserializer = new ObjectDeserializer(properties, schema);
+    // only convert the columns that the query reads. Hive sets the projection in the conf of the table scan.
+    if (conf != null && !ColumnProjectionUtils.isReadAllColumns(conf)) {
+      String[] readColumns = ColumnProjectionUtils.getReadColumnNames(conf);
+      if (readColumns.length > 0) {
+        deserializer.setProjection(Arrays.asList(readColumns));
+      }
+    }
     ArrayList<String> columnNames = Lists.newArrayList(StringUtils.split(properties.getProperty("columns"), ","));
     this.serializer = new ObjectSerializer(columnNames, schema);
     this.objectInspector = deserializer.getInspector();
@@ -114,6 +128,10 @@ public class DatasetSerDe implements SerDe {
       // some datasets like Table and ObjectMappedTable have schema in the dataset properties
       try {
         DatasetSpecification datasetSpec = hiveContext.getDatasetSpec(datasetId);
+        rowKeyColumn = datasetSpec.getProperty(Table.PROPERTY_SCHEMA_ROW_FIELD);
+        if (rowKeyColumn == null) {
+          rowKeyColumn = datasetSpec.getProperty(ObjectMappedTableProperties.ROW_KEY_EXPLORE_NAME);
+        }
         String schemaStr = datasetSpec.getProperty("schema");
         if (schemaStr != null) {
           schema = Schema.parseJson(schemaStr);
@@ -133,6 +151,9 @@ public class DatasetSerDe implements SerDe {
         if (dataset == null) {
           throw new SerDeException("Could not find dataset " + datasetId);
         }
+        if (dataset instanceof KeyValueTable) {
+          rowKeyColumn = "key";
+        }
         Type recordType;
         if (dataset instanceof RecordScannable) {
           recordType = ((RecordScannable) dataset).getRecordType();
@@ -152,6 +173,15 @@ public class DatasetSerDe implements SerDe {
     }
   }
 
+  /**
+   * Returns the name of the column that holds the row key of the dataset, if the dataset is a {@link Table},
+   * ObjectMappedTable or {@link KeyValueTable} that exposes its row key to Hive.
+   */
+  @Nullable
+  String getRowKeyColumn() {
+    return rowKeyColumn;
+  }
+
   @Override
   public Class<? extends Writable> getSerializedClass() {
     return Text.class;
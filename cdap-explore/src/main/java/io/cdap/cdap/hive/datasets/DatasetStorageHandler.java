@@ -22,9 +22,13 @@ import io.cdap.cdap.common.conf.ConfigurationUtil;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.hive.context.CConfCodec;
 import org.apache.hadoop.hive.ql.metadata.DefaultStorageHandler;
+import org.apache.hadoop.hive.ql.metadata.HiveStoragePredicateHandler;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.serde2.Deserializer;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputFormat;
 import org.apache.hadoop.mapred.SequenceFileOutputFormat;
 import org.slf4j.Logger;
@@ -34,14 +38,15 @@ import java.io.IOException;
 import java.util.Map;
 
 /**
- * HiveStorageHandler to access Datasets.
+ * HiveStorageHandler to access Datasets. Comparisons of the row key column of a dataset with constants are pushed
+ * down into the dataset, so that only the splits containing matching rows are scanned.
  *
  * <p>
  * Referred to by string rather than {@code Class.getName()} in {@code ExploreServiceUtils.traceExploreDependencies()}
  * because this class extends a Hive class, which isn't present in the {@code ExploreServiceUtils} class loader.
  * </p>
  */
-public class DatasetStorageHandler extends DefaultStorageHandler {
+public class DatasetStorageHandler extends DefaultStorageHandler implements HiveStoragePredicateHandler {
   private static final Logger LOG = LoggerFactory.getLogger(DatasetStorageHandler.class);
 
   @SuppressWarnings("unchecked")
@@ -91,6 +96,18 @@ public class DatasetStorageHandler extends DefaultStorageHandler {
     LOG.debug("Got dataset {} in namespace {} for external table {}", datasetName, namespce, tableDesc.getTableName());
   }
 
+  @Override
+  public DecomposedPredicate decomposePredicate(JobConf jobConf, Deserializer deserializer, ExprNodeDesc predicate) {
+    if (!(deserializer instanceof DatasetSerDe)) {
+      return null;
+    }
+    String rowKeyColumn = ((DatasetSerDe) deserializer).getRowKeyColumn();
+    if (rowKeyColumn == null) {
+      return null;
+    }
+    return RowKeyRange.decompose(rowKeyColumn, predicate);
+  }
+
   private boolean writesEnabled() {
     try {
       CConfiguration cConf = ConfigurationUtil.get(getConf(), Constants.Explore.CCONF_KEY, CConfCodec.INSTANCE);
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.hive.datasets;
+
+import io.cdap.cdap.api.common.Bytes;
+import org.apache.hadoop.hive.ql.index.IndexPredicateAnalyzer;
+import org.apache.hadoop.hive.ql.index.IndexSearchCondition;
+import org.apache.hadoop.hive.ql.metadata.HiveStoragePredicateHandler;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.apache.hadoop.hive.serde.serdeConstants;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A range of row keys, derived from the comparisons of a Hive filter expression against the row key column of
+ * a dataset. Only comparisons of a string or binary row key column with a constant are understood, and only if they
+ * are combined with AND. The range is used to restrict the splits of a dataset to the rows that can match the filter.
+ */
+final class RowKeyRange {
+
+  private static final byte[] ZERO = { 0 };
+
+  private final byte[] start;
+  private final byte[] stop;
+
+  private RowKeyRange(@Nullable byte[] start, @Nullable byte[] stop) {
+    this.start = start;
+    this.stop = stop;
+  }
+
+  /**
+   * @return the first row key in the range, inclusive, or null if the range is not bounded from below
+   */
+  @Nullable
+  byte[] getStart() {
+    return start;
+  }
+
+  /**
+   * @return the row key that ends the range, exclusive, or null if the range is not bounded from above
+   */
+  @Nullable
+  byte[] getStop() {
+    return stop;
+  }
+
+  /**
+   * @return whether no row key can be in this range
+   */
+  boolean isEmpty() {
+    return start != null && stop != null && Bytes.compareTo(start, stop) >= 0;
+  }
+
+  /**
+   * Decomposes a predicate into the comparisons against the row key column, which can be pushed down into the scan
+   * of the dataset, and the residual predicate that Hive must evaluate. The residual predicate is always the full
+   * predicate, so that the result of the query does not depend on how precisely the dataset applies the range.
+   *
+   * @param rowKeyColumn the name of the row key column in the Hive table
+   * @param predicate the predicate of the query
+   * @return the decomposed predicate, or null if no part of the predicate can be pushed down
+   */
+  @Nullable
+  static HiveStoragePredicateHandler.DecomposedPredicate decompose(String rowKeyColumn, ExprNodeDesc predicate) {
+    if (!(predicate instanceof ExprNodeGenericFuncDesc)) {
+      return null;
+    }
+    List<IndexSearchCondition> conditions = analyze(rowKeyColumn, predicate);
+    if (conditions.isEmpty()) {
+      return null;
+    }
+    HiveStoragePredicateHandler.DecomposedPredicate decomposed = new HiveStoragePredicateHandler.DecomposedPredicate();
+    decomposed.pushedPredicate = createAnalyzer(rowKeyColumn).translateSearchConditions(conditions);
+    decomposed.residualPredicate = (ExprNodeGenericFuncDesc) predicate;
+    return decomposed;
+  }
+
+  /**
+   * Computes the range of row keys from a predicate that was pushed down by {@link #decompose(String, ExprNodeDesc)}.
+   *
+   * @param pushedPredicate the pushed predicate, as found in the configuration of the table scan
+   * @return the range of row keys, or null if the predicate does not restrict the row key
+   */
+  @Nullable
+  static RowKeyRange fromPushedPredicate(ExprNodeDesc pushedPredicate) {
+    String column = findColumn(pushedPredicate);
+    if (column == null) {
+      return null;
+    }
+    List<IndexSearchCondition> conditions = analyze(column, pushedPredicate);
+    if (conditions.isEmpty()) {
+      return null;
+    }
+    byte[] start = null;
+    byte[] stop = null;
+    for (IndexSearchCondition condition : conditions) {
+      byte[] value = toBytes(condition.getConstantDesc().getValue());
+      String op = condition.getComparisonOp();
+      byte[] conditionStart = null;
+      byte[] conditionStop = null;
+      if (GenericUDFOPEqual.class.getName().equals(op)) {
+        conditionStart = value;
+        conditionStop = Bytes.concat(value, ZERO);
+      } else if (GenericUDFOPGreaterThan.class.getName().equals(op)) {
+        conditionStart = Bytes.concat(value, ZERO);
+      } else if (GenericUDFOPEqualOrGreaterThan.class.getName().equals(op)) {
+        conditionStart = value;
+      } else if (GenericUDFOPLessThan.class.getName().equals(op)) {
+        conditionStop = value;
+      } else if (GenericUDFOPEqualOrLessThan.class.getName().equals(op)) {
+        conditionStop = Bytes.concat(value, ZERO);
+      }
+      if (conditionStart != null && (start == null || Bytes.compareTo(conditionStart, start) > 0)) {
+        start = conditionStart;
+      }
+      if (conditionStop != null && (stop == null || Bytes.compareTo(conditionStop, stop) < 0)) {
+        stop = conditionStop;
+      }
+    }
+    return new RowKeyRange(start, stop);
+  }
+
+  private static List<IndexSearchCondition> analyze(String rowKeyColumn, ExprNodeDesc predicate) {
+    List<IndexSearchCondition> conditions = new ArrayList<>();
+    createAnalyzer(rowKeyColumn).analyzePredicate(predicate, conditions);
+    // only keep the comparisons for which the order of the encoded row keys is the order of the Hive values
+    Iterator<IndexSearchCondition> iterator = conditions.iterator();
+    while (iterator.hasNext()) {
+      IndexSearchCondition condition = iterator.next();
+      String type = condition.getColumnDesc().getTypeString();
+      boolean supportedType = serdeConstants.STRING_TYPE_NAME.equals(type)
+        || serdeConstants.BINARY_TYPE_NAME.equals(type);
+      if (!supportedType || toBytes(condition.getConstantDesc().getValue()) == null) {
+        iterator.remove();
+      }
+    }
+    return conditions;
+  }
+
+  private static IndexPredicateAnalyzer createAnalyzer(String rowKeyColumn) {
+    IndexPredicateAnalyzer analyzer = new IndexPredicateAnalyzer();
+    analyzer.addComparisonOp(GenericUDFOPEqual.class.getName());
+    analyzer.addComparisonOp(GenericUDFOPGreaterThan.class.getName());
+    analyzer.addComparisonOp(GenericUDFOPEqualOrGreaterThan.class.getName());
+    analyzer.addComparisonOp(GenericUDFOPLessThan.class.getName());
+    analyzer.addComparisonOp(GenericUDFOPEqualOrLessThan.class.getName());
+    // all column names are lower case in Hive
+    analyzer.allowColumnName(rowKeyColumn.toLowerCase());
+    return analyzer;
+  }
+
+  @Nullable
+  private static String findColumn(ExprNodeDesc expr) {
+    if (expr instanceof ExprNodeColumnDesc) {
+      return ((ExprNodeColumnDesc) expr).getColumn();
+    }
+    if (expr.getChildren() != null) {
+      for (ExprNodeDesc child : expr.getChildren()) {
+        String column = findColumn(child);
+        if (column != null) {
+          return column;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private static byte[] toBytes(Object value) {
+    if (value instanceof String) {
+      return Bytes.toBytes((String) value);
+    }
+    if (value instanceof byte[]) {
+      return (byte[]) value;
+    }
+    return null;
+  }
+}
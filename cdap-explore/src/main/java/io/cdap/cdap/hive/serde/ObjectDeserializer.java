@@ -42,11 +42,14 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Helper class for translating objects that fit a cdap {@link Schema} into objects
@@ -59,6 +62,8 @@ public class ObjectDeserializer {
   // we can almost do without the schema. The problem is that everything in Hive is lowercase,
   // but when we look up record fields we need the case sensitive field name.
   private final Schema schema;
+  // which of the fields are read by the query, or null if all of them are read
+  private boolean[] projected;
 
   /**
    * Creates an ObjectTranslator that will be able to deserialize objects that fit a {@link Schema} into objects
@@ -98,6 +103,24 @@ public class ObjectDeserializer {
     this.schema = schema;
   }
 
+  /**
+   * Restricts the deserialization of records to the given columns. The other columns of a record are left null
+   * without looking up their values, which saves the conversion of fields that a query does not read.
+   *
+   * @param columnNames the names of the columns read by the query
+   */
+  public void setProjection(Collection<String> columnNames) {
+    Set<String> readColumns = new HashSet<>();
+    for (String columnName : columnNames) {
+      readColumns.add(columnName.toLowerCase());
+    }
+    boolean[] projected = new boolean[fieldNames.size()];
+    for (int i = 0; i < projected.length; i++) {
+      projected[i] = readColumns.contains(fieldNames.get(i));
+    }
+    this.projected = projected;
+  }
+
   /**
    * Get an ObjectInspector that Hive should use on the result of {@link #deserialize(Object)}.
    *
@@ -120,7 +143,7 @@ public class ObjectDeserializer {
     if (fieldTypes.size() == 1) {
       return deserializeField(obj, fieldTypes.get(0), schema);
     } else {
-      return flattenRecord(obj, fieldNames, fieldTypes, schema);
+      return flattenRecord(obj, fieldNames, fieldTypes, schema, projected);
     }
   }
 
@@ -134,11 +157,12 @@ public class ObjectDeserializer {
    * @throws IllegalAccessException
    */
   public List<Object> translateRecord(Object obj) throws NoSuchFieldException, IllegalAccessException {
-    return flattenRecord(obj, fieldNames, fieldTypes, schema);
+    return flattenRecord(obj, fieldNames, fieldTypes, schema, projected);
   }
 
   private List<Object> flattenRecord(Object obj, List<String> fieldNames, List<TypeInfo> fieldTypes,
-                                     Schema schema) throws NoSuchFieldException, IllegalAccessException {
+                                     Schema schema, @Nullable boolean[] projected)
+    throws NoSuchFieldException, IllegalAccessException {
     boolean isNullable = schema.isNullable();
     if (obj == null) {
       if (isNullable) {
@@ -154,6 +178,10 @@ public class ObjectDeserializer {
     Map<String, Schema.Field> fieldMap = getFieldMap(schema);
     List<Object> objectFields = Lists.newArrayListWithCapacity(fieldNames.size());
     for (int i = 0; i < fieldNames.size(); i++) {
+      if (projected != null && !projected[i]) {
+        objectFields.add(null);
+        continue;
+      }
       String hiveName = fieldNames.get(i);
       TypeInfo fieldType = fieldTypes.get(i);
       Schema.Field schemaField = fieldMap.get(hiveName);
@@ -207,7 +235,7 @@ public class ObjectDeserializer {
         StructTypeInfo structTypeInfo = (StructTypeInfo) typeInfo;
         ArrayList<String> innerFieldNames = structTypeInfo.getAllStructFieldNames();
         ArrayList<TypeInfo> innerFieldTypes = structTypeInfo.getAllStructFieldTypeInfos();
-        return flattenRecord(field, innerFieldNames, innerFieldTypes, schema);
+        return flattenRecord(field, innerFieldNames, innerFieldTypes, schema, null);
       case UNION:
         // TODO: decide what to do here
         return field;
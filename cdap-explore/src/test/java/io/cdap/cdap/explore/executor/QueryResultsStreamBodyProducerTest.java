@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.executor;
+
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.QueryResult;
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for {@link QueryResultsStreamBodyProducer} and {@link QueryResultBatchCodec}.
+ */
+public class QueryResultsStreamBodyProducerTest {
+
+  @Test
+  public void testStreamResults() throws Exception {
+    List<QueryResult> firstBatch = ImmutableList.of(
+      row(1, 10L, "a", true, 1.5d, new byte[] { 1, 2 }, (short) 3, (byte) 4, null),
+      row(null, 20L, null, false, null, null, null, null, null),
+      row(3, null, "c", null, 3.5d, new byte[0], (short) 5, (byte) 6, null));
+    List<QueryResult> secondBatch = ImmutableList.of(row(4, 40L, "ünicode", true, -1.0d, null, null, null, 2.5f));
+    Iterator<List<QueryResult>> batches =
+      Arrays.asList(firstBatch, secondBatch, Collections.<QueryResult>emptyList()).iterator();
+
+    QueryResultsStreamBodyProducer producer = new QueryResultsStreamBodyProducer(batches::next);
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ByteBuf chunk = producer.nextChunk();
+    while (chunk.isReadable()) {
+      chunk.readBytes(os, chunk.readableBytes());
+      chunk = producer.nextChunk();
+    }
+    Assert.assertFalse(batches.hasNext());
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(os.toByteArray()));
+    assertRowsEqual(firstBatch, QueryResultBatchCodec.readBatch(input));
+    assertRowsEqual(secondBatch, QueryResultBatchCodec.readBatch(input));
+    Assert.assertNull(QueryResultBatchCodec.readBatch(input));
+    Assert.assertEquals(-1, input.read());
+  }
+
+  @Test
+  public void testMixedTypes() throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    QueryResultBatchCodec.writeBatch(ImmutableList.of(row(1), row("a"), row((Object) null)), new DataOutputStream(os));
+    List<QueryResult> rows = QueryResultBatchCodec.readBatch(new DataInputStream(
+      new ByteArrayInputStream(os.toByteArray())));
+
+    // values of different types in one column are encoded as JSON, and decoded like the results of the REST endpoints
+    Assert.assertEquals(3, rows.size());
+    Assert.assertEquals(1.0d, rows.get(0).getColumns().get(0));
+    Assert.assertEquals("a", rows.get(1).getColumns().get(0));
+    Assert.assertNull(rows.get(2).getColumns().get(0));
+  }
+
+  private static QueryResult row(Object... values) {
+    return new QueryResult(new ArrayList<>(Arrays.asList(values)));
+  }
+
+  private static void assertRowsEqual(List<QueryResult> expected, List<QueryResult> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      List<Object> expectedColumns = expected.get(i).getColumns();
+      List<Object> actualColumns = actual.get(i).getColumns();
+      Assert.assertEquals(expectedColumns.size(), actualColumns.size());
+      for (int j = 0; j < expectedColumns.size(); j++) {
+        Object expectedValue = expectedColumns.get(j);
+        Object actualValue = actualColumns.get(j);
+        if (expectedValue instanceof byte[]) {
+          Assert.assertArrayEquals((byte[]) expectedValue, (byte[]) actualValue);
+        } else {
+          Assert.assertEquals(expectedValue, actualValue);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.hive.datasets;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.batch.RecordScannable;
+import io.cdap.cdap.api.data.batch.Split;
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTable;
+import io.cdap.cdap.api.dataset.table.Table;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the pruning of splits in {@link DatasetInputFormat}.
+ */
+public class DatasetInputFormatTest {
+
+  private static final List<Split> ALL_SPLITS = Collections.singletonList(new Split() { });
+  private static final List<Split> RANGE_SPLITS = Collections.singletonList(new Split() { });
+
+  @Test
+  public void testTableSplits() {
+    List<byte[][]> ranges = new ArrayList<>();
+    Table table = createScannable(Table.class, ranges);
+
+    // without a pushed predicate, all splits are returned
+    Assert.assertSame(ALL_SPLITS, DatasetInputFormat.getSplits(table, null));
+    Assert.assertTrue(ranges.isEmpty());
+
+    // key >= 'b' AND key < 'd' only needs the splits for that range
+    Assert.assertSame(RANGE_SPLITS, DatasetInputFormat.getSplits(table, RowKeyRangeTest.and(
+      RowKeyRangeTest.keyCompare(new GenericUDFOPEqualOrGreaterThan(), "b"),
+      RowKeyRangeTest.keyCompare(new GenericUDFOPLessThan(), "d"))));
+    Assert.assertEquals(1, ranges.size());
+    Assert.assertArrayEquals(Bytes.toBytes("b"), ranges.get(0)[0]);
+    Assert.assertArrayEquals(Bytes.toBytes("d"), ranges.get(0)[1]);
+
+    // a point lookup only needs the splits for that row
+    Assert.assertSame(RANGE_SPLITS,
+                      DatasetInputFormat.getSplits(table, RowKeyRangeTest.keyCompare(new GenericUDFOPEqual(), "c")));
+    Assert.assertEquals(2, ranges.size());
+    Assert.assertArrayEquals(Bytes.toBytes("c"), ranges.get(1)[0]);
+    Assert.assertArrayEquals(Bytes.toBytes("c\0"), ranges.get(1)[1]);
+
+    // a contradictory range needs no splits at all
+    Assert.assertTrue(DatasetInputFormat.getSplits(table, RowKeyRangeTest.and(
+      RowKeyRangeTest.keyCompare(new GenericUDFOPGreaterThan(), "d"),
+      RowKeyRangeTest.keyCompare(new GenericUDFOPLessThan(), "b"))).isEmpty());
+    Assert.assertEquals(2, ranges.size());
+  }
+
+  @Test
+  public void testObjectMappedTableSplits() {
+    List<byte[][]> ranges = new ArrayList<>();
+    ObjectMappedTable<?> table = createScannable(ObjectMappedTable.class, ranges);
+
+    Assert.assertSame(RANGE_SPLITS, DatasetInputFormat.getSplits(
+      table, RowKeyRangeTest.keyCompare(new GenericUDFOPGreaterThan(), "b")));
+    Assert.assertEquals(1, ranges.size());
+    Assert.assertArrayEquals(Bytes.toBytes("b\0"), ranges.get(0)[0]);
+    Assert.assertNull(ranges.get(0)[1]);
+  }
+
+  @Test
+  public void testOtherScannableSplits() {
+    // datasets that cannot be scanned by row key range always return all splits
+    List<byte[][]> ranges = new ArrayList<>();
+    RecordScannable<?> scannable = createScannable(RecordScannable.class, ranges);
+
+    Assert.assertSame(ALL_SPLITS, DatasetInputFormat.getSplits(
+      scannable, RowKeyRangeTest.keyCompare(new GenericUDFOPEqual(), "b")));
+    Assert.assertTrue(ranges.isEmpty());
+  }
+
+  /**
+   * Creates a dataset of the given type that returns {@link #ALL_SPLITS} for all splits and {@link #RANGE_SPLITS}
+   * for the splits of a range of row keys, recording the start and stop of each range.
+   */
+  private static <T> T createScannable(Class<T> type, List<byte[][]> ranges) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+      if (!"getSplits".equals(method.getName())) {
+        throw new UnsupportedOperationException(method.getName());
+      }
+      if (args == null || args.length == 0) {
+        return ALL_SPLITS;
+      }
+      ranges.add(new byte[][] { (byte[]) args[1], (byte[]) args[2] });
+      return RANGE_SPLITS;
+    }));
+  }
+}
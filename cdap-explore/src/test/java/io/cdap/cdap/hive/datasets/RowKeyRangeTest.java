@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.hive.datasets;
+
+import io.cdap.cdap.api.common.Bytes;
+import org.apache.hadoop.hive.ql.metadata.HiveStoragePredicateHandler;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for {@link RowKeyRange}.
+ */
+public class RowKeyRangeTest {
+
+  static final String KEY = "key";
+
+  @Test
+  public void testComparisons() {
+    assertRange("b", "b\0", getRange(keyCompare(new GenericUDFOPEqual(), "b")));
+    assertRange(null, "b", getRange(keyCompare(new GenericUDFOPLessThan(), "b")));
+    assertRange(null, "b\0", getRange(keyCompare(new GenericUDFOPEqualOrLessThan(), "b")));
+    assertRange("b\0", null, getRange(keyCompare(new GenericUDFOPGreaterThan(), "b")));
+    assertRange("b", null, getRange(keyCompare(new GenericUDFOPEqualOrGreaterThan(), "b")));
+  }
+
+  @Test
+  public void testConstantOnTheLeft() {
+    // 'b' > key is the same as key < 'b'
+    ExprNodeGenericFuncDesc predicate = compare(new GenericUDFOPGreaterThan(),
+                                                new ExprNodeConstantDesc(TypeInfoFactory.stringTypeInfo, "b"),
+                                                keyColumn(TypeInfoFactory.stringTypeInfo));
+    assertRange(null, "b", getRange(predicate));
+  }
+
+  @Test
+  public void testAnd() {
+    // key >= 'b' AND key < 'd'
+    assertRange("b", "d", getRange(and(keyCompare(new GenericUDFOPEqualOrGreaterThan(), "b"),
+                                       keyCompare(new GenericUDFOPLessThan(), "d"))));
+
+    // the tightest bound on either side wins: key > 'a' AND key >= 'b' AND key <= 'e' AND key < 'd'
+    ExprNodeGenericFuncDesc predicate = and(
+      and(keyCompare(new GenericUDFOPGreaterThan(), "a"), keyCompare(new GenericUDFOPEqualOrGreaterThan(), "b")),
+      and(keyCompare(new GenericUDFOPEqualOrLessThan(), "e"), keyCompare(new GenericUDFOPLessThan(), "d")));
+    assertRange("b", "d", getRange(predicate));
+  }
+
+  @Test
+  public void testEmptyRange() {
+    // key > 'd' AND key < 'b' cannot match anything
+    RowKeyRange range = getRange(and(keyCompare(new GenericUDFOPGreaterThan(), "d"),
+                                     keyCompare(new GenericUDFOPLessThan(), "b")));
+    Assert.assertNotNull(range);
+    Assert.assertTrue(range.isEmpty());
+
+    // key = 'a' AND key = 'b' cannot match anything either
+    range = getRange(and(keyCompare(new GenericUDFOPEqual(), "a"), keyCompare(new GenericUDFOPEqual(), "b")));
+    Assert.assertNotNull(range);
+    Assert.assertTrue(range.isEmpty());
+
+    // a point lookup is not empty
+    range = getRange(keyCompare(new GenericUDFOPEqual(), "a"));
+    Assert.assertNotNull(range);
+    Assert.assertFalse(range.isEmpty());
+
+    // neither is an unbounded range
+    range = getRange(keyCompare(new GenericUDFOPGreaterThan(), "a"));
+    Assert.assertNotNull(range);
+    Assert.assertFalse(range.isEmpty());
+  }
+
+  @Test
+  public void testBinaryKey() {
+    byte[] value = new byte[] { 1, 2, 3 };
+    ExprNodeGenericFuncDesc predicate = compare(new GenericUDFOPEqual(), keyColumn(TypeInfoFactory.binaryTypeInfo),
+                                                new ExprNodeConstantDesc(TypeInfoFactory.binaryTypeInfo, value));
+    RowKeyRange range = getRange(predicate);
+    Assert.assertNotNull(range);
+    Assert.assertArrayEquals(value, range.getStart());
+    Assert.assertArrayEquals(new byte[] { 1, 2, 3, 0 }, range.getStop());
+  }
+
+  @Test
+  public void testResidualPredicate() {
+    // key = 'b' AND value = 'x'
+    ExprNodeGenericFuncDesc valueCondition =
+      compare(new GenericUDFOPEqual(), new ExprNodeColumnDesc(TypeInfoFactory.stringTypeInfo, "value", "t", false),
+              new ExprNodeConstantDesc(TypeInfoFactory.stringTypeInfo, "x"));
+    ExprNodeGenericFuncDesc predicate = and(keyCompare(new GenericUDFOPEqual(), "b"), valueCondition);
+
+    HiveStoragePredicateHandler.DecomposedPredicate decomposed = RowKeyRange.decompose(KEY, predicate);
+    Assert.assertNotNull(decomposed);
+    // Hive always evaluates the full predicate
+    Assert.assertSame(predicate, decomposed.residualPredicate);
+    // only the comparison against the row key is pushed down
+    Assert.assertFalse(decomposed.pushedPredicate.getCols().contains("value"));
+    assertRange("b", "b\0", RowKeyRange.fromPushedPredicate(decomposed.pushedPredicate));
+  }
+
+  @Test
+  public void testNotPushed() {
+    // OR cannot be turned into a single range
+    Assert.assertNull(RowKeyRange.decompose(KEY, or(keyCompare(new GenericUDFOPEqual(), "a"),
+                                                    keyCompare(new GenericUDFOPEqual(), "b"))));
+
+    // comparisons on other columns are not pushed
+    Assert.assertNull(RowKeyRange.decompose("otherkey", keyCompare(new GenericUDFOPEqual(), "a")));
+
+    // the encoded row key is not ordered like an int, so comparisons on int keys are not pushed
+    ExprNodeGenericFuncDesc intPredicate = compare(new GenericUDFOPLessThan(), keyColumn(TypeInfoFactory.intTypeInfo),
+                                                   new ExprNodeConstantDesc(TypeInfoFactory.intTypeInfo, 5));
+    Assert.assertNull(RowKeyRange.decompose(KEY, intPredicate));
+    Assert.assertNull(RowKeyRange.fromPushedPredicate(intPredicate));
+
+    // a predicate that is not a function is not pushed
+    Assert.assertNull(RowKeyRange.decompose(KEY, keyColumn(TypeInfoFactory.booleanTypeInfo)));
+  }
+
+  /**
+   * Decomposes the predicate and computes the range from the pushed part, the same way Hive and
+   * {@link DatasetInputFormat} do.
+   */
+  @Nullable
+  static RowKeyRange getRange(ExprNodeGenericFuncDesc predicate) {
+    HiveStoragePredicateHandler.DecomposedPredicate decomposed = RowKeyRange.decompose(KEY, predicate);
+    Assert.assertNotNull(decomposed);
+    return RowKeyRange.fromPushedPredicate(decomposed.pushedPredicate);
+  }
+
+  static ExprNodeGenericFuncDesc keyCompare(GenericUDF op, String value) {
+    return compare(op, keyColumn(TypeInfoFactory.stringTypeInfo),
+                   new ExprNodeConstantDesc(TypeInfoFactory.stringTypeInfo, value));
+  }
+
+  static ExprNodeGenericFuncDesc and(ExprNodeDesc left, ExprNodeDesc right) {
+    return compare(new GenericUDFOPAnd(), left, right);
+  }
+
+  private static ExprNodeGenericFuncDesc or(ExprNodeDesc left, ExprNodeDesc right) {
+    return compare(new GenericUDFOPOr(), left, right);
+  }
+
+  private static ExprNodeGenericFuncDesc compare(GenericUDF op, ExprNodeDesc left, ExprNodeDesc right) {
+    return new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo, op, Arrays.asList(left, right));
+  }
+
+  private static ExprNodeColumnDesc keyColumn(TypeInfo type) {
+    return new ExprNodeColumnDesc(type, KEY, "t", false);
+  }
+
+  private static void assertRange(@Nullable String start, @Nullable String stop, @Nullable RowKeyRange range) {
+    Assert.assertNotNull(range);
+    Assert.assertArrayEquals(start == null ? null : Bytes.toBytes(start), range.getStart());
+    Assert.assertArrayEquals(stop == null ? null : Bytes.toBytes(stop), range.getStop());
+  }
+}
@@ -369,6 +369,29 @@ public class ObjectDeserializerTest {
     assertSimpleRecordEquals(expected, translated);
   }
 
+  @Test
+  public void testFlattenWithProjection() throws Exception {
+    SimpleRecord simpleRecord = new SimpleRecord(new URI("http://abc.com"), new URL("http://123.com"));
+    List<String> fieldNames = HiveSimpleRecord.getFieldNames();
+    ObjectDeserializer translator = new ObjectDeserializer(fieldNames, HiveSimpleRecord.getFieldTypes(),
+                                                           schemaGenerator.generate(SimpleRecord.class));
+    translator.setProjection(Lists.newArrayList("intField", "stringfield"));
+    List<Object> translated = translator.translateRecord(simpleRecord);
+
+    // only the projected fields are translated, all other fields are null
+    Assert.assertEquals(fieldNames.size(), translated.size());
+    for (int i = 0; i < fieldNames.size(); i++) {
+      String fieldName = fieldNames.get(i);
+      if (fieldName.equals("intfield")) {
+        Assert.assertEquals(simpleRecord.intField, translated.get(i));
+      } else if (fieldName.equals("stringfield")) {
+        Assert.assertEquals(simpleRecord.stringField, translated.get(i));
+      } else {
+        Assert.assertNull(translated.get(i));
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testNestedRecord() throws Exception {
@@ -17,16 +17,24 @@
 package io.cdap.cdap.app.runtime.spark;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.cdap.cdap.api.common.Bytes;
 import org.apache.tephra.Transaction;
 import org.apache.tephra.TransactionCodec;
 import org.apache.tephra.TransactionFailureException;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.annotation.Nullable;
@@ -34,22 +42,59 @@ import javax.annotation.Nullable;
 /**
  * Client class to interact with {@link SparkTransactionHandler} through HTTP. It is used by tasks executed inside
  * executor processes.
+ * <p/>
+ * Each request waits on the driver for the job of the stage to start, instead of polling for it, unless the driver
+ * answers right away because it has too many requests waiting, in which case the request is retried after the poll
+ * interval. The connections are not closed after each request, so that they are reused through the HTTP keep-alive
+ * of {@link HttpURLConnection}. The client returned by {@link #forExecutor(URI)} is shared by all tasks in the executor
+ * process, and fetches the transaction of a stage only once.
  */
 public final class SparkTransactionClient {
 
   private static final TransactionCodec TX_CODEC = new TransactionCodec();
   private static final long DEFAULT_TX_POLL_INTERVAL_MS = 50;
+  // Maximum time for each request to wait on the driver
+  private static final long MAX_REQUEST_WAIT_MS = 5000;
+  private static final int MAX_CACHED_STAGES = 100;
+  private static final ConcurrentMap<URI, SparkTransactionClient> EXECUTOR_CLIENTS = new ConcurrentHashMap<>();
 
   private final URI txServiceBaseURI;
   private final long txPollIntervalMillis;
+  // Transactions of stages, only cached if the client is shared in the executor
+  @Nullable
+  private final Cache<Integer, Transaction> stageTransactions;
 
   public SparkTransactionClient(URI txServiceBaseURI) {
     this(txServiceBaseURI, DEFAULT_TX_POLL_INTERVAL_MS);
   }
 
   public SparkTransactionClient(URI txServiceBaseURI, long txPollIntervalMillis) {
+    this(txServiceBaseURI, txPollIntervalMillis, false);
+  }
+
+  private SparkTransactionClient(URI txServiceBaseURI, long txPollIntervalMillis, boolean cacheTransactions) {
     this.txServiceBaseURI = txServiceBaseURI;
     this.txPollIntervalMillis = txPollIntervalMillis;
+    this.stageTransactions = cacheTransactions
+      ? CacheBuilder.newBuilder().maximumSize(MAX_CACHED_STAGES).<Integer, Transaction>build()
+      : null;
+  }
+
+  /**
+   * Returns the {@link SparkTransactionClient} shared by all tasks in the current executor process for talking to
+   * the given driver. The client caches the transaction of each stage, since stage ids are unique within a Spark
+   * application, and the tasks of a stage only run while the job of the stage is running.
+   *
+   * @param txServiceBaseURI the base {@link URI} of the {@link SparkTransactionHandler} in the driver
+   */
+  public static SparkTransactionClient forExecutor(URI txServiceBaseURI) {
+    SparkTransactionClient client = EXECUTOR_CLIENTS.get(txServiceBaseURI);
+    if (client != null) {
+      return client;
+    }
+    client = new SparkTransactionClient(txServiceBaseURI, DEFAULT_TX_POLL_INTERVAL_MS, true);
+    SparkTransactionClient existing = EXECUTOR_CLIENTS.putIfAbsent(txServiceBaseURI, client);
+    return existing == null ? client : existing;
   }
 
   /**
@@ -68,43 +113,84 @@ public final class SparkTransactionClient {
   public Transaction getTransaction(int stageId, long timeout,
                                     TimeUnit timeUnit) throws TimeoutException, InterruptedException,
                                                               TransactionFailureException {
+    if (stageTransactions == null) {
+      return fetchTransaction(stageId, timeout, timeUnit);
+    }
+
+    // Concurrent calls for the same stage share the same fetch
+    try {
+      return stageTransactions.get(stageId, () -> fetchTransaction(stageId, timeout, timeUnit));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfInstanceOf(cause, TimeoutException.class);
+      Throwables.propagateIfInstanceOf(cause, InterruptedException.class);
+      Throwables.propagateIfInstanceOf(cause, TransactionFailureException.class);
+      throw Throwables.propagate(cause);
+    }
+  }
 
-    long timeoutMillis = Math.max(0L, timeUnit.toMillis(timeout) - txPollIntervalMillis);
+  private Transaction fetchTransaction(int stageId, long timeout,
+                                       TimeUnit timeUnit) throws TimeoutException, InterruptedException,
+                                                                 TransactionFailureException {
+    long timeoutMillis = timeUnit.toMillis(timeout);
     Stopwatch stopwatch = new Stopwatch().start();
-    Transaction transaction = getTransaction(stageId);
+    Transaction transaction = null;
+    long remainingMillis = timeoutMillis;
+
+    do {
+      long waitMillis = Math.min(remainingMillis, MAX_REQUEST_WAIT_MS);
+      long requestStartMillis = stopwatch.elapsedMillis();
+      try {
+        transaction = getTransaction(stageId, waitMillis);
+        if (transaction == null && stopwatch.elapsedMillis() - requestStartMillis < waitMillis) {
+          // The driver answered without waiting, because the job of the stage has ended or too many requests
+          // are waiting. Wait before retrying, so that the requests don't go in a busy loop.
+          TimeUnit.MILLISECONDS.sleep(Math.min(txPollIntervalMillis,
+                                               Math.max(0L, timeoutMillis - stopwatch.elapsedMillis())));
+        }
+      } catch (IOException e) {
+        // If not able to talk to the tx service, wait and retry
+        TimeUnit.MILLISECONDS.sleep(Math.min(txPollIntervalMillis,
+                                             Math.max(0L, timeoutMillis - stopwatch.elapsedMillis())));
+      }
+      remainingMillis = timeoutMillis - stopwatch.elapsedMillis();
+    } while (transaction == null && remainingMillis > 0);
 
-    while (transaction == null && stopwatch.elapsedMillis() < timeoutMillis) {
-      TimeUnit.MILLISECONDS.sleep(txPollIntervalMillis);
-      transaction = getTransaction(stageId);
-    }
     if (transaction == null) {
       throw new TimeoutException("Cannot get transaction for stage " + stageId + " after " + timeout + " " + timeUnit);
     }
     return transaction;
   }
 
+  /**
+   * Requests the transaction of the given stage, which waits on the driver for up to the given time for the job of
+   * the stage to start.
+   *
+   * @return the {@link Transaction} or {@code null} if the job of the stage didn't start
+   */
   @Nullable
-  private Transaction getTransaction(int stageId) throws TransactionFailureException {
-    try {
-      URL url = txServiceBaseURI.resolve("/spark/stages/" + stageId + "/transaction").toURL();
-      HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
-      try {
-        int responseCode = urlConn.getResponseCode();
-        if (responseCode == 200) {
-          return TX_CODEC.decode(ByteStreams.toByteArray(urlConn.getInputStream()));
-        }
-        if (responseCode == 404) {
-          return null;
-        }
-        throw new TransactionFailureException(
-          String.format("No transaction for stage %d. Reason: %s", stageId,
-                        Bytes.toString(ByteStreams.toByteArray(urlConn.getErrorStream()))));
-      } finally {
-        urlConn.disconnect();
-      }
-    } catch (IOException e) {
-      // If not able to talk to the tx service, just treat it the same as 404 so that there could be retry.
+  private Transaction getTransaction(int stageId, long waitMillis) throws IOException, TransactionFailureException {
+    URL url = txServiceBaseURI.resolve("/spark/stages/" + stageId + "/transaction?timeout=" + waitMillis).toURL();
+    HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
+    int responseCode = urlConn.getResponseCode();
+    // Always consume the response fully so that the connection can be reused
+    if (responseCode == 200) {
+      return TX_CODEC.decode(readFully(urlConn.getInputStream()));
+    }
+    byte[] error = readFully(urlConn.getErrorStream());
+    if (responseCode == 404) {
       return null;
     }
+    throw new TransactionFailureException(String.format("No transaction for stage %d. Reason: %s",
+                                                        stageId, Bytes.toString(error)));
+  }
+
+  private static byte[] readFully(@Nullable InputStream is) throws IOException {
+    if (is == null) {
+      return new byte[0];
+    }
+    try (InputStream input = is) {
+      return ByteStreams.toByteArray(input);
+    }
   }
 }
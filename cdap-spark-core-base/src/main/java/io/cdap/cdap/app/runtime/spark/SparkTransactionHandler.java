@@ -17,6 +17,8 @@
 package io.cdap.cdap.app.runtime.spark;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.data2.transaction.Transactions;
 import io.cdap.http.AbstractHttpHandler;
@@ -37,10 +39,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 /**
  * Provides transaction management for Spark job and stage executors. It also expose an endpoint for stage executors
@@ -51,6 +56,13 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(SparkTransactionHandler.class);
   private static final TransactionCodec TX_CODEC = new TransactionCodec();
+  // Maximum time for a stage transaction request to wait for the job of the stage to start
+  private static final long MAX_WAIT_MILLIS = 5000L;
+  // Maximum number of stage transaction requests waiting at the same time, so that they don't take up all the
+  // threads of the http service. Requests beyond that are answered right away, and the client retries.
+  private static final int MAX_WAITING_REQUESTS = 10;
+  // Maximum number of finished stages to remember, for answering requests for them without waiting
+  private static final int MAX_FINISHED_STAGES = 10000;
   private static final TransactionInfo IMPLICIT_TX_INFO = new TransactionInfo() {
     @Nullable
     @Override
@@ -80,11 +92,19 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
   // In the executor node, there is only StageId. The Spark StageId is unique across job, so it's ok to use a map.
   private final ConcurrentMap<Integer, Integer> stageToJob;
   private final ConcurrentMap<Integer, JobTransaction> jobTransactions;
+  // Stages of the jobs that have ended, for the most recent jobs
+  private final Cache<Integer, Boolean> finishedStages;
+  // Lock for waiting for the job of a stage to start
+  private final Object stageLock;
+  private final AtomicInteger waitingRequests;
 
   SparkTransactionHandler(TransactionSystemClient txClient) {
     this.txClient = txClient;
     this.stageToJob = new ConcurrentHashMap<>();
     this.jobTransactions = new ConcurrentHashMap<>();
+    this.finishedStages = CacheBuilder.newBuilder().maximumSize(MAX_FINISHED_STAGES).build();
+    this.stageLock = new Object();
+    this.waitingRequests = new AtomicInteger();
   }
 
   /**
@@ -125,6 +145,13 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
       stageToJob.put(stageId, jobId);
     }
     this.stageToJob.putAll(stageToJob);
+    // A stage of a finished job can be part of a later job, if the later job reuses its output
+    finishedStages.invalidateAll(stageIds);
+
+    // Wakes up the requests waiting for the stages
+    synchronized (stageLock) {
+      stageLock.notifyAll();
+    }
   }
 
   /**
@@ -143,7 +170,11 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
 
     LOG.debug("Spark job ended: {}", jobTransaction);
 
-    // Cleanup the stage to job map
+    // Cleanup the stage to job map. The stages are marked as finished first, so that requests for them always see
+    // either the job or that the job has ended.
+    for (Integer stageId : jobTransaction.getStageIds()) {
+      finishedStages.put(stageId, Boolean.TRUE);
+    }
     stageToJob.keySet().removeAll(jobTransaction.getStageIds());
 
     // Complete the transaction
@@ -151,16 +182,23 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
   }
 
   /**
-   * Handler method to get a serialized {@link Transaction} for the given stage.
+   * Handler method to get a serialized {@link Transaction} for the given stage. If the job of the stage hasn't
+   * started, the request waits for it to start for up to the given timeout, so that the client doesn't need to poll.
+   * Requests for stages of jobs that have ended are answered without waiting.
    */
   @GET
   @Path("/spark/stages/{stage}/transaction")
-  public void getTransaction(HttpRequest request, HttpResponder responder, @PathParam("stage") int stageId) {
+  public void getTransaction(HttpRequest request, HttpResponder responder, @PathParam("stage") int stageId,
+                             @QueryParam("timeout") @DefaultValue("0") long timeoutMillis) {
     // Lookup the jobId from the stageId
     Integer jobId = stageToJob.get(stageId);
+    if (jobId == null && timeoutMillis > 0 && !isFinished(stageId)) {
+      jobId = waitForJob(stageId, Math.min(timeoutMillis, MAX_WAIT_MILLIS));
+    }
     if (jobId == null) {
       // If the JobId is not there, it's either the job hasn't been registered yet (because it's async) or
-      // the job is already finished. For either case, return 404 and let the client to handle retry if necessary.
+      // the job is already finished. The request also doesn't wait for the job if too many requests are waiting.
+      // For all cases, return 404 and let the client to handle retry if necessary.
       responder.sendString(HttpResponseStatus.NOT_FOUND, "JobId not found for stage " + stageId);
       return;
     }
@@ -196,6 +234,46 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * Returns {@code true} if the given stage is known to be part of a job that has ended.
+   */
+  private boolean isFinished(int stageId) {
+    return finishedStages.getIfPresent(stageId) != null;
+  }
+
+  /**
+   * Waits for the job of the given stage to start. It doesn't wait if there are too many requests waiting already.
+   *
+   * @return the job id or {@code null} if the job didn't start before the timeout, or the job of the stage has ended
+   */
+  @Nullable
+  private Integer waitForJob(int stageId, long timeoutMillis) {
+    if (waitingRequests.incrementAndGet() > MAX_WAITING_REQUESTS) {
+      waitingRequests.decrementAndGet();
+      LOG.trace("Too many requests waiting for jobs to start, not waiting for the job of stage {}", stageId);
+      return stageToJob.get(stageId);
+    }
+    try {
+      long deadline = System.currentTimeMillis() + timeoutMillis;
+      synchronized (stageLock) {
+        Integer jobId = stageToJob.get(stageId);
+        long waitMillis = timeoutMillis;
+        while (jobId == null && waitMillis > 0 && !isFinished(stageId)) {
+          try {
+            stageLock.wait(waitMillis);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+          }
+          jobId = stageToJob.get(stageId);
+          waitMillis = deadline - System.currentTimeMillis();
+        }
+        return jobId;
+      }
+    } finally {
+      waitingRequests.decrementAndGet();
+    }
+  }
 
   /**
    * A private class for handling the {@link Transaction} lifecycle for a job.
@@ -492,7 +492,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
     sc.runJob(rdd, (context: TaskContext, itor: Iterator[T]) => {
       // This executes in the Exeuctor
-      val sparkTxClient = new SparkTransactionClient(txServiceBaseURI.value)
+      val sparkTxClient = SparkTransactionClient.forExecutor(txServiceBaseURI.value)
       val metricsWriter = metricsWriterFactory(context)
       val datasetCache = SparkRuntimeContextProvider.get().getDatasetCache
       val dataset: Dataset = datasetCache.getDataset(namespace, datasetName,
@@ -25,6 +25,9 @@ import io.cdap.cdap.api.dataset.Dataset
 import io.cdap.cdap.api.dataset.DatasetProperties
 import io.cdap.cdap.api.dataset.DatasetSpecification
 import io.cdap.cdap.api.dataset.InstanceNotFoundException
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTable
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTableProperties
+import io.cdap.cdap.api.dataset.table.Table
 import io.cdap.cdap.api.spark.sql.DataFrames
 import io.cdap.cdap.app.runtime.spark.SparkClassLoader
 import io.cdap.cdap.app.runtime.spark.SparkRuntimeContext
@@ -92,7 +95,7 @@ class DefaultSource extends RelationProvider
     sparkClassLoader.loadClass(datasetSpec.getType) match {
       // RecordScannable Dataset
       case cls if classOf[RecordScannable[_]].isAssignableFrom(cls) =>
-        new RecordScannableRelation(sqlContext, schema, datasetId, parameters)
+        new RecordScannableRelation(sqlContext, schema, datasetId, parameters, getRowKeyField(cls, datasetSpec))
 
       // TODO (CDAP-387): Handling of FileSet and PartitionedFileSet
       case _ => throw new IllegalArgumentException("Unsupport type " + datasetSpec.getType)
@@ -166,6 +169,20 @@ class DefaultSource extends RelationProvider
     }
   }
 
+  /**
+    * Gets the name of the field that the row key of the dataset is derived from, if the splits of the dataset can be
+    * restricted to a range of row keys.
+    */
+  private def getRowKeyField(datasetClass: Class[_], datasetSpec: DatasetSpecification): Option[String] = {
+    datasetClass match {
+      case cls if classOf[Table].isAssignableFrom(cls) =>
+        Option(datasetSpec.getProperty(Table.PROPERTY_SCHEMA_ROW_FIELD))
+      case cls if classOf[ObjectMappedTable[_]].isAssignableFrom(cls) =>
+        Option(ObjectMappedTableProperties.getRowKeyExploreName(datasetSpec.getProperties))
+      case _ => None
+    }
+  }
+
   /**
     * Gets the schema based on the dataset properties.
     *
@@ -16,12 +16,15 @@
 
 package io.cdap.cdap.app.runtime.spark.sql.datasources.dataset
 
+import io.cdap.cdap.api.common.Bytes
 import io.cdap.cdap.api.data.batch.RecordScannable
 import io.cdap.cdap.api.data.batch.Split
 import io.cdap.cdap.api.data.batch.Splits
 import io.cdap.cdap.api.data.format.StructuredRecord
 import io.cdap.cdap.api.data.schema.UnsupportedTypeException
 import io.cdap.cdap.api.dataset.Dataset
+import io.cdap.cdap.api.dataset.lib.ObjectMappedTable
+import io.cdap.cdap.api.dataset.table.Table
 import io.cdap.cdap.api.spark.sql.DataFrames
 import io.cdap.cdap.app.runtime.spark.SparkClassLoader
 import io.cdap.cdap.app.runtime.spark.data.RecordScannableRDD
@@ -29,9 +32,26 @@ import io.cdap.cdap.proto.id.DatasetId
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.Row
 import org.apache.spark.sql.SQLContext
+import org.apache.spark.sql.sources.And
 import org.apache.spark.sql.sources.BaseRelation
+import org.apache.spark.sql.sources.EqualNullSafe
+import org.apache.spark.sql.sources.EqualTo
 import org.apache.spark.sql.sources.Filter
+import org.apache.spark.sql.sources.GreaterThan
+import org.apache.spark.sql.sources.GreaterThanOrEqual
+import org.apache.spark.sql.sources.In
+import org.apache.spark.sql.sources.LessThan
+import org.apache.spark.sql.sources.LessThanOrEqual
+import org.apache.spark.sql.sources.Or
 import org.apache.spark.sql.sources.PrunedFilteredScan
+import org.apache.spark.sql.types.BinaryType
+import org.apache.spark.sql.types.BooleanType
+import org.apache.spark.sql.types.DataType
+import org.apache.spark.sql.types.DoubleType
+import org.apache.spark.sql.types.FloatType
+import org.apache.spark.sql.types.IntegerType
+import org.apache.spark.sql.types.LongType
+import org.apache.spark.sql.types.StringType
 import org.apache.spark.sql.types.StructType
 
 import java.util
@@ -40,18 +60,40 @@ import scala.collection.JavaConversions._
 import scala.reflect.ClassTag
 
 /**
+  * A [[org.apache.spark.sql.sources.BaseRelation]] for reading from a [[io.cdap.cdap.api.data.batch.RecordScannable]]
+  * dataset.
   *
+  * If the dataset is a [[io.cdap.cdap.api.dataset.table.Table]] or an
+  * [[io.cdap.cdap.api.dataset.lib.ObjectMappedTable]] with a row key field, filters on the row key field are
+  * translated into row key ranges, and only the splits covering those ranges are scanned. Equality filters are
+  * supported for all row key types, and range filters for string and bytes row keys, whose values are ordered the
+  * same way as the encoded row keys.
   */
 private[dataset] class RecordScannableRelation(override val sqlContext: SQLContext,
                                                override val schema: StructType,
                                                datasetId: DatasetId,
-                                               parameters: Map[String, String])
+                                               parameters: Map[String, String],
+                                               rowKeyField: Option[String])
   extends BaseRelation with Serializable with PrunedFilteredScan {
 
+  import RecordScannableRelation._
+
+  // Filters are not pushed down if the user provides the splits to scan
+  private val keyField = rowKeyField
+    .filter(field => !parameters.contains("input.splits") && schema.fieldNames.contains(field))
+
+  override def unhandledFilters(filters: Array[Filter]): Array[Filter] = {
+    filters.filter(toKeyRanges(_).isEmpty)
+  }
+
   override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
     val sparkClassLoader = SparkClassLoader.findFromContext()
     val sec = sparkClassLoader.getSparkExecutionContext(false)
 
+    // The row key ranges to scan, which satisfy all the filters on the row key field
+    val filterRanges = filters.flatMap(toKeyRanges(_))
+    val keyRanges = if (filterRanges.isEmpty) None else Some(filterRanges.reduce(intersect))
+
     // Creates the RDD[Row] based on the RecordScannable
     sec.createDatasetCompute()(datasetId.getNamespace, datasetId.getDataset, parameters, (dataset: Dataset) => {
       val sc = sqlContext.sparkContext
@@ -61,25 +103,164 @@ private[dataset] class RecordScannableRelation(override val sqlContext: SQLConte
       // User may provide a custom set of splits from the query parameters
       val inputSplits = parameters.get("input.splits")
         .map(Splits.decode(_, new util.ArrayList[Split](), sparkClassLoader))
+        .orElse(keyRanges.map(getSplits(dataset, _)))
 
       dataset.asInstanceOf[RecordScannable[_]].getRecordType match {
         case recordType if classOf[StructuredRecord] == recordType => {
           val recordScannable = dataset.asInstanceOf[RecordScannable[StructuredRecord]]
-          new RecordScannableRDD[StructuredRecord](sc, datasetId.getNamespace, datasetId.getDataset, parameters,
-                                                   inputSplits.getOrElse(recordScannable.getSplits),
-                                                   driveHttpServiceURI)
-            .map(DataFrames.toRow(_, rowSchema))
+          val rdd = new RecordScannableRDD[StructuredRecord](sc, datasetId.getNamespace, datasetId.getDataset,
+                                                             parameters,
+                                                             inputSplits.getOrElse(recordScannable.getSplits),
+                                                             driveHttpServiceURI)
+          // No need to convert the records if no column is required, such as for counting
+          if (requiredColumns.isEmpty) rdd.map(_ => Row.empty) else rdd.map(DataFrames.toRow(_, rowSchema))
         }
         case beanType: Class[_] => {
           val recordScannable = dataset.asInstanceOf[RecordScannable[_]]
           val rdd = new RecordScannableRDD(sc, datasetId.getNamespace, datasetId.getDataset, parameters,
                                  inputSplits.getOrElse(recordScannable.getSplits),
                                  driveHttpServiceURI)(ClassTag(beanType))
-          sqlContext.createDataFrame(rdd, beanType).rdd
+          // The rows must only contain the required columns, in the requested order
+          val dataFrame = sqlContext.createDataFrame(rdd, beanType)
+          dataFrame.select(requiredColumns.map(dataFrame.col): _*).rdd
         }
         case anyType =>
           throw new UnsupportedTypeException(s"Dataset $datasetId has record type $anyType is not supported")
       }
     })
   }
+
+  /**
+    * Translates a filter into the row key ranges that contain exactly the rows satisfying the filter.
+    *
+    * @return the row key ranges, or [[scala.None]] if the filter cannot be translated
+    */
+  private[dataset] def toKeyRanges(filter: Filter): Option[Seq[KeyRange]] = {
+    keyField.flatMap(field => {
+      val keyType = schema(field).dataType
+      val ordered = keyType == StringType || keyType == BinaryType
+      filter match {
+        case EqualTo(`field`, value) => toRowKey(value, keyType).map(key => Seq(KeyRange.point(key)))
+        case EqualNullSafe(`field`, value) => toRowKey(value, keyType).map(key => Seq(KeyRange.point(key)))
+        case In(`field`, values) => {
+          val keys = values.map(toRowKey(_, keyType))
+          if (keys.forall(_.isDefined)) Some(union(keys.flatten.map(KeyRange.point))) else None
+        }
+        case GreaterThan(`field`, value) if ordered =>
+          toRowKey(value, keyType).map(key => Seq(KeyRange(Some(successor(key)), None)))
+        case GreaterThanOrEqual(`field`, value) if ordered =>
+          toRowKey(value, keyType).map(key => Seq(KeyRange(Some(key), None)))
+        case LessThan(`field`, value) if ordered =>
+          toRowKey(value, keyType).map(key => Seq(KeyRange(None, Some(key))))
+        case LessThanOrEqual(`field`, value) if ordered =>
+          toRowKey(value, keyType).map(key => Seq(KeyRange(None, Some(successor(key)))))
+        case And(left, right) => for (l <- toKeyRanges(left); r <- toKeyRanges(right)) yield intersect(l, r)
+        case Or(left, right) => for (l <- toKeyRanges(left); r <- toKeyRanges(right)) yield union(l ++ r)
+        case _ => None
+      }
+    })
+  }
+}
+
+private object RecordScannableRelation {
+
+  /**
+    * A range of row keys, with inclusive start and exclusive stop. An absent start or stop means unbounded.
+    */
+  case class KeyRange(start: Option[Array[Byte]], stop: Option[Array[Byte]]) {
+
+    def isEmpty: Boolean = start.isDefined && stop.isDefined && Bytes.compareTo(start.get, stop.get) >= 0
+  }
+
+  object KeyRange {
+
+    /**
+      * Creates a range that only contains the given row key.
+      */
+    def point(key: Array[Byte]): KeyRange = KeyRange(Some(key), Some(successor(key)))
+  }
+
+  /**
+    * Encodes a filter value to a row key the same way as a [[io.cdap.cdap.api.dataset.table.Table]] encodes the
+    * row key field of a record.
+    */
+  def toRowKey(value: Any, keyType: DataType): Option[Array[Byte]] = {
+    (keyType, value) match {
+      case (StringType, v: String) => Some(Bytes.toBytes(v))
+      case (BinaryType, v: Array[Byte]) => Some(v)
+      case (IntegerType, v: Int) => Some(Bytes.toBytes(v))
+      case (LongType, v: Long) => Some(Bytes.toBytes(v))
+      case (BooleanType, v: Boolean) => Some(Bytes.toBytes(v))
+      case (FloatType, v: Float) => Some(Bytes.toBytes(v))
+      case (DoubleType, v: Double) => Some(Bytes.toBytes(v))
+      case _ => None
+    }
+  }
+
+  /**
+    * Returns the smallest row key that is larger than the given one.
+    */
+  def successor(key: Array[Byte]): Array[Byte] = key :+ 0.toByte
+
+  /**
+    * Returns the ranges that contain the row keys contained in both of the given ranges.
+    */
+  def intersect(first: Seq[KeyRange], second: Seq[KeyRange]): Seq[KeyRange] = {
+    val ranges = for (a <- first; b <- second) yield {
+      KeyRange(Seq(a.start, b.start).max(StartOrdering), Seq(a.stop, b.stop).min(StopOrdering))
+    }
+    union(ranges)
+  }
+
+  /**
+    * Merges the given ranges into sorted, non-overlapping and non-empty ranges.
+    */
+  def union(ranges: Seq[KeyRange]): Seq[KeyRange] = {
+    ranges.filterNot(_.isEmpty).sortBy(_.start)(StartOrdering).foldLeft(List[KeyRange]()) {
+      case (last :: merged, range) if StartOrdering.compare(range.start, last.stop) <= 0 || last.stop.isEmpty =>
+        KeyRange(last.start, Seq(last.stop, range.stop).max(StopOrdering)) :: merged
+      case (merged, range) => range :: merged
+    }.reverse
+  }
+
+  /**
+    * Returns the splits of the dataset that cover the given row key ranges.
+    */
+  def getSplits(dataset: Dataset, ranges: Seq[KeyRange]): util.List[Split] = {
+    val splits = new util.ArrayList[Split]()
+    for (range <- ranges) {
+      val start = range.start.orNull
+      val stop = range.stop.orNull
+      splits.addAll(dataset match {
+        case table: Table => table.getSplits(-1, start, stop)
+        case table: ObjectMappedTable[_] => table.getSplits(-1, start, stop)
+        case _ => throw new IllegalArgumentException(s"Dataset of type ${dataset.getClass} does not have row keys")
+      })
+    }
+    splits
+  }
+
+  /**
+    * Orders range starts, with an absent start being the smallest.
+    */
+  private object StartOrdering extends Ordering[Option[Array[Byte]]] {
+    override def compare(x: Option[Array[Byte]], y: Option[Array[Byte]]): Int = (x, y) match {
+      case (None, None) => 0
+      case (None, _) => -1
+      case (_, None) => 1
+      case (Some(a), Some(b)) => Bytes.compareTo(a, b)
+    }
+  }
+
+  /**
+    * Orders range stops, with an absent stop being the largest.
+    */
+  private object StopOrdering extends Ordering[Option[Array[Byte]]] {
+    override def compare(x: Option[Array[Byte]], y: Option[Array[Byte]]): Int = (x, y) match {
+      case (None, None) => 0
+      case (None, _) => 1
+      case (_, None) => -1
+      case (Some(a), Some(b)) => Bytes.compareTo(a, b)
+    }
+  }
 }
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.app.runtime.spark;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tephra.Transaction;
@@ -31,7 +32,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.HttpURLConnection;
 import java.net.InetAddress;
+import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -225,6 +228,57 @@ public class SparkTransactionHandlerTest {
     sparkTxHandler.jobEnded(1, true);
   }
 
+  /**
+   * Tests the caching of stage transactions in the {@link SparkTransactionClient} shared in the executor.
+   */
+  @Test
+  public void testExecutorClient() throws Exception {
+    SparkTransactionClient client = SparkTransactionClient.forExecutor(httpService.getBaseURI());
+    Assert.assertSame(client, SparkTransactionClient.forExecutor(httpService.getBaseURI()));
+
+    sparkTxHandler.jobStarted(100, ImmutableSet.of(100, 101));
+    Transaction transaction = client.getTransaction(100, 10, TimeUnit.SECONDS);
+    Assert.assertEquals(new TransactionWrapper(transaction),
+                        new TransactionWrapper(client.getTransaction(101, 10, TimeUnit.SECONDS)));
+    sparkTxHandler.jobEnded(100, true);
+
+    // The transaction of the stage is cached, hence can still be retrieved without talking to the driver
+    Assert.assertEquals(new TransactionWrapper(transaction),
+                        new TransactionWrapper(client.getTransaction(100, 1, TimeUnit.SECONDS)));
+
+    // A stage that was never requested is not cached
+    try {
+      client.getTransaction(102, 1, TimeUnit.SECONDS);
+      Assert.fail("Expected timeout in getting transaction for a stage that never started");
+    } catch (TimeoutException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests that requests for the stages of a finished job don't wait for the job to start.
+   */
+  @Test
+  public void testFinishedStage() throws Exception {
+    sparkTxHandler.jobStarted(200, ImmutableSet.of(200, 201));
+    sparkTxHandler.jobEnded(200, true);
+
+    URL url = httpService.getBaseURI().resolve("/spark/stages/200/transaction?timeout=5000").toURL();
+    Stopwatch stopwatch = new Stopwatch().start();
+    HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
+    try {
+      Assert.assertEquals(404, urlConn.getResponseCode());
+    } finally {
+      urlConn.disconnect();
+    }
+    Assert.assertTrue(stopwatch.elapsedMillis() < 5000L);
+
+    // The stage can still be part of a later job
+    sparkTxHandler.jobStarted(202, ImmutableSet.of(201));
+    Assert.assertNotNull(sparkTxClient.getTransaction(201, 10, TimeUnit.SECONDS));
+    sparkTxHandler.jobEnded(202, true);
+  }
+
   /**
    * Simulates a single job run which contains multiple stages.
    *
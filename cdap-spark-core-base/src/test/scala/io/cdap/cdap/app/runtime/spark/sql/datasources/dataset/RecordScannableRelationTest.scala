@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.app.runtime.spark.sql.datasources.dataset
+
+import io.cdap.cdap.api.common.Bytes
+import io.cdap.cdap.proto.id.NamespaceId
+import org.apache.spark.sql.sources.And
+import org.apache.spark.sql.sources.EqualNullSafe
+import org.apache.spark.sql.sources.EqualTo
+import org.apache.spark.sql.sources.Filter
+import org.apache.spark.sql.sources.GreaterThan
+import org.apache.spark.sql.sources.GreaterThanOrEqual
+import org.apache.spark.sql.sources.In
+import org.apache.spark.sql.sources.IsNotNull
+import org.apache.spark.sql.sources.LessThan
+import org.apache.spark.sql.sources.LessThanOrEqual
+import org.apache.spark.sql.sources.Or
+import org.apache.spark.sql.types.BinaryType
+import org.apache.spark.sql.types.DataType
+import org.apache.spark.sql.types.IntegerType
+import org.apache.spark.sql.types.StringType
+import org.apache.spark.sql.types.StructField
+import org.apache.spark.sql.types.StructType
+import org.junit.Assert
+import org.junit.Test
+
+/**
+  * Unit tests for the translation of filters on the row key field into row key ranges in
+  * [[io.cdap.cdap.app.runtime.spark.sql.datasources.dataset.RecordScannableRelation]].
+  */
+class RecordScannableRelationTest {
+
+  import RecordScannableRelation._
+
+  @Test
+  def testEquality(): Unit = {
+    val relation = createRelation(StringType)
+
+    assertRanges(Seq(point("b")), relation.toKeyRanges(EqualTo("id", "b")))
+    assertRanges(Seq(point("b")), relation.toKeyRanges(EqualNullSafe("id", "b")))
+    // The values of an In filter are sorted and deduplicated
+    assertRanges(Seq(point("a"), point("c")), relation.toKeyRanges(In("id", Array[Any]("c", "a", "a"))))
+
+    // Equality filters are also translated for row key types that are not ordered like the row keys
+    val intRelation = createRelation(IntegerType)
+    assertRanges(Seq(KeyRange.point(Bytes.toBytes(5))), intRelation.toKeyRanges(EqualTo("id", 5)))
+    assertRanges(Seq(KeyRange.point(Bytes.toBytes(3)), KeyRange.point(Bytes.toBytes(5))),
+                 intRelation.toKeyRanges(In("id", Array[Any](5, 3))))
+  }
+
+  @Test
+  def testStringRange(): Unit = {
+    val relation = createRelation(StringType)
+
+    assertRanges(Seq(KeyRange(Some(successor(Bytes.toBytes("b"))), None)),
+                 relation.toKeyRanges(GreaterThan("id", "b")))
+    assertRanges(Seq(KeyRange(Some(Bytes.toBytes("b")), None)),
+                 relation.toKeyRanges(GreaterThanOrEqual("id", "b")))
+    assertRanges(Seq(KeyRange(None, Some(Bytes.toBytes("b")))),
+                 relation.toKeyRanges(LessThan("id", "b")))
+    assertRanges(Seq(KeyRange(None, Some(successor(Bytes.toBytes("b"))))),
+                 relation.toKeyRanges(LessThanOrEqual("id", "b")))
+    assertRanges(Seq(range("b", "d")),
+                 relation.toKeyRanges(And(GreaterThanOrEqual("id", "b"), LessThan("id", "d"))))
+  }
+
+  @Test
+  def testBytesRange(): Unit = {
+    val relation = createRelation(BinaryType)
+    val key = Array[Byte](1, 2)
+
+    assertRanges(Seq(KeyRange.point(key)), relation.toKeyRanges(EqualTo("id", key)))
+    assertRanges(Seq(KeyRange(Some(key), None)), relation.toKeyRanges(GreaterThanOrEqual("id", key)))
+    val filter = And(GreaterThan("id", Array[Byte](0)),
+                     And(GreaterThanOrEqual("id", Array[Byte](1)), LessThanOrEqual("id", key)))
+    assertRanges(Seq(KeyRange(Some(Array[Byte](1)), Some(successor(key)))), relation.toKeyRanges(filter))
+  }
+
+  @Test
+  def testOr(): Unit = {
+    val relation = createRelation(StringType)
+
+    // Disjoint ranges are kept separately and sorted
+    assertRanges(Seq(point("a"), point("c")), relation.toKeyRanges(Or(EqualTo("id", "c"), EqualTo("id", "a"))))
+    // Overlapping ranges are merged
+    assertRanges(Seq(range("a", "e")),
+                 relation.toKeyRanges(Or(And(GreaterThanOrEqual("id", "a"), LessThan("id", "c")),
+                                         And(GreaterThanOrEqual("id", "b"), LessThan("id", "e")))))
+    // Adjacent ranges are merged, which covers all row keys in this case
+    assertRanges(Seq(KeyRange(None, None)),
+                 relation.toKeyRanges(Or(LessThan("id", "b"), GreaterThanOrEqual("id", "b"))))
+    // A point inside of a range is merged into the range
+    assertRanges(Seq(KeyRange(Some(Bytes.toBytes("b")), None)),
+                 relation.toKeyRanges(Or(EqualTo("id", "c"), GreaterThanOrEqual("id", "b"))))
+  }
+
+  @Test
+  def testEmptyIntersection(): Unit = {
+    val relation = createRelation(StringType)
+
+    // Filters that no row key satisfies are still handled, with no range to scan
+    assertRanges(Seq(), relation.toKeyRanges(And(EqualTo("id", "a"), EqualTo("id", "b"))))
+    assertRanges(Seq(), relation.toKeyRanges(And(GreaterThan("id", "d"), LessThan("id", "b"))))
+    assertRanges(Seq(), relation.toKeyRanges(And(GreaterThanOrEqual("id", "b"), LessThan("id", "b"))))
+    Assert.assertTrue(relation.unhandledFilters(Array(And(EqualTo("id", "a"), EqualTo("id", "b")))).isEmpty)
+
+    // Only the non-empty parts of an intersection are kept
+    Assert.assertEquals(toSeq(Seq(point("c"))),
+                        toSeq(intersect(Seq(point("a"), point("c")), Seq(range("b", "d")))))
+    Assert.assertEquals(Seq(), toSeq(intersect(Seq(point("a")), Seq(point("b")))))
+    Assert.assertEquals(Seq(), toSeq(union(Seq(range("b", "b"), range("c", "a")))))
+  }
+
+  @Test
+  def testUnhandledFilters(): Unit = {
+    val relation = createRelation(StringType)
+
+    val keyFilter = EqualTo("id", "a")
+    val valueFilter = EqualTo("value", 1)
+    // An Or or And with a non-key filter cannot be translated into key ranges
+    val orFilter = Or(keyFilter, valueFilter)
+    val andFilter = And(keyFilter, IsNotNull("value"))
+    // Filter values that do not match the row key type cannot be encoded as row keys
+    val typeMismatchFilter = EqualTo("id", 1)
+    val inFilter = In("id", Array[Any]("a", 1))
+
+    val filters: Array[Filter] = Array(keyFilter, valueFilter, orFilter, andFilter, typeMismatchFilter, inFilter)
+    Assert.assertEquals(Seq(valueFilter, orFilter, andFilter, typeMismatchFilter, inFilter),
+                        relation.unhandledFilters(filters).toSeq)
+
+    // Range filters are not handled for row key types that are not ordered like the row keys
+    val intRelation = createRelation(IntegerType)
+    val rangeFilter = GreaterThan("id", 5)
+    Assert.assertEquals(None, intRelation.toKeyRanges(rangeFilter))
+    Assert.assertEquals(Seq(rangeFilter), intRelation.unhandledFilters(Array(EqualTo("id", 5), rangeFilter)).toSeq)
+  }
+
+  @Test
+  def testNoPushDown(): Unit = {
+    val filters: Array[Filter] = Array(EqualTo("id", "a"), GreaterThan("id", "b"))
+
+    // Filters are not pushed down if the splits are given in the parameters
+    val splitsRelation = createRelation(StringType, Map("input.splits" -> "splits"))
+    Assert.assertEquals(None, splitsRelation.toKeyRanges(EqualTo("id", "a")))
+    Assert.assertEquals(filters.toSeq, splitsRelation.unhandledFilters(filters).toSeq)
+
+    // Or if the dataset does not have a row key field
+    val noKeyRelation = new RecordScannableRelation(null, createSchema(StringType), NamespaceId.DEFAULT.dataset("ds"),
+                                                    Map(), None)
+    Assert.assertEquals(filters.toSeq, noKeyRelation.unhandledFilters(filters).toSeq)
+
+    // Or if the row key field is not in the schema
+    val missingKeyRelation = new RecordScannableRelation(null, createSchema(StringType),
+                                                         NamespaceId.DEFAULT.dataset("ds"), Map(), Some("key"))
+    Assert.assertEquals(filters.toSeq, missingKeyRelation.unhandledFilters(filters).toSeq)
+  }
+
+  private def createSchema(keyType: DataType): StructType = {
+    StructType(Seq(StructField("id", keyType), StructField("value", IntegerType)))
+  }
+
+  private def createRelation(keyType: DataType,
+                             parameters: Map[String, String] = Map()): RecordScannableRelation = {
+    new RecordScannableRelation(null, createSchema(keyType), NamespaceId.DEFAULT.dataset("ds"), parameters, Some("id"))
+  }
+
+  private def point(key: String): KeyRange = KeyRange.point(Bytes.toBytes(key))
+
+  private def range(start: String, stop: String): KeyRange = KeyRange(Some(Bytes.toBytes(start)),
+                                                                     Some(Bytes.toBytes(stop)))
+
+  /**
+    * Converts the ranges to a form that can be compared, since arrays are compared by reference.
+    */
+  private def toSeq(ranges: Seq[KeyRange]): Seq[(Option[Seq[Byte]], Option[Seq[Byte]])] = {
+    ranges.map(range => (range.start.map(_.toSeq), range.stop.map(_.toSeq)))
+  }
+
+  private def assertRanges(expected: Seq[KeyRange], actual: Option[Seq[KeyRange]]): Unit = {
+    Assert.assertTrue(actual.isDefined)
+    Assert.assertEquals(toSeq(expected), toSeq(actual.get))
+  }
+}
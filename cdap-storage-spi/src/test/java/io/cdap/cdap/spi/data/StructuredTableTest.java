@@ -508,6 +508,67 @@ public abstract class StructuredTableTest {
     Assert.assertEquals(expected, scanSimpleStructuredRows(Range.all(), max));
   }
 
+  @Test
+  public void testLargeScan() throws Exception {
+    int max = 1000;
+    // Write rows with two index values, in reverse order to test sorting
+    List<Collection<Field<?>>> expected = new ArrayList<>();
+    getTransactionRunner().run(context -> {
+      StructuredTable table = context.getTable(SIMPLE_TABLE);
+      for (int i = max - 1; i >= 0; i--) {
+        List<Field<?>> fields = Arrays.asList(Fields.intField(KEY, i / 10), Fields.longField(KEY2, (long) i),
+                                              Fields.stringField(STRING_COL, i % 3 == 0 ? "abc" : "def"));
+        table.upsert(fields);
+        expected.add(fields);
+      }
+    });
+    Collections.reverse(expected);
+    List<String> columns = Arrays.asList(KEY, KEY2, STRING_COL);
+
+    getTransactionRunner().run(context -> {
+      StructuredTable table = context.getTable(SIMPLE_TABLE);
+      // Scans that read more rows than fit in a single fetch
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        Assert.assertEquals(expected, convertRowsToFields(iterator, columns));
+      }
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), 250)) {
+        Assert.assertEquals(expected.subList(0, 250), convertRowsToFields(iterator, columns));
+      }
+      Range range = Range.create(Collections.singleton(Fields.intField(KEY, 10)), Range.Bound.INCLUSIVE,
+                                 Collections.singleton(Fields.intField(KEY, 90)), Range.Bound.EXCLUSIVE);
+      try (CloseableIterator<StructuredRow> iterator = table.scan(range, 500)) {
+        Assert.assertEquals(expected.subList(100, 600), convertRowsToFields(iterator, columns));
+      }
+      try (CloseableIterator<StructuredRow> iterator = table.scan(range, max)) {
+        Assert.assertEquals(expected.subList(100, 900), convertRowsToFields(iterator, columns));
+      }
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Fields.stringField(STRING_COL, "abc"))) {
+        Assert.assertEquals(expected.stream().filter(fields -> fields.contains(Fields.stringField(STRING_COL, "abc")))
+                              .collect(Collectors.toList()),
+                            convertRowsToFields(iterator, columns));
+      }
+
+      // Closing a scan before reading all rows
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), max)) {
+        Assert.assertEquals(expected.get(0), convertRowToFields(iterator.next(), columns));
+      }
+    });
+
+    // Delete the rows while scanning them
+    getTransactionRunner().run(context -> {
+      StructuredTable table = context.getTable(SIMPLE_TABLE);
+      int count = 0;
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          table.delete(iterator.next().getPrimaryKeys());
+          count++;
+        }
+      }
+      Assert.assertEquals(max, count);
+    });
+    Assert.assertEquals(Collections.emptyList(), scanSimpleStructuredRows(Range.all(), max));
+  }
+
   @Test
   public void testIndexScan() throws Exception {
     int num = 5;
@@ -25,6 +25,7 @@ import io.cdap.cdap.api.messaging.MessagingContext;
 import io.cdap.cdap.api.messaging.TopicNotFoundException;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.common.ServiceUnavailableException;
+import io.cdap.cdap.common.async.TimingWheelScheduledExecutorService;
 import io.cdap.cdap.common.logging.LogSamplers;
 import io.cdap.cdap.common.logging.Loggers;
 import io.cdap.cdap.common.service.AbstractRetryableScheduledService;
@@ -32,6 +33,7 @@ import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.common.utils.ImmutablePair;
 import io.cdap.cdap.messaging.data.MessageId;
 import io.cdap.cdap.proto.id.TopicId;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.annotation.Nullable;
 import javax.xml.ws.handler.MessageContext;
 
@@ -58,6 +66,10 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
   private final long emptyFetchDelayMillis;
   private boolean messageIdInitialized;
   private String messageId;
+  private ExecutorService prefetchExecutor;
+  // the next batch of messages being fetched while the current batch is processed, and the message id it starts from
+  private Future<List<Message>> prefetched;
+  private String prefetchedFrom;
 
   protected AbstractMessagingPollingService(TopicId topicId, MetricsContext metricsContext, int fetchSize,
                                             long emptyFetchDelayMillis, RetryStrategy retryStrategy) {
@@ -122,6 +134,32 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
     // no-op
   }
 
+  /**
+   * Returns whether the next batch of messages should be fetched while the current batch is being processed.
+   * The prefetched messages are only used if the current batch is processed completely, otherwise they are
+   * discarded and fetched again. By default this method returns {@code false}.
+   */
+  protected boolean isPrefetchEnabled() {
+    return false;
+  }
+
+  /**
+   * Returns the {@link TimingWheelScheduledExecutorService#shared() shared scheduler}, so that the polling services
+   * don't hold a thread each while waiting for the next poll.
+   */
+  @Override
+  protected ScheduledExecutorService executor() {
+    return TimingWheelScheduledExecutorService.shared();
+  }
+
+  @Override
+  protected void doShutdown() throws Exception {
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+    }
+    super.doShutdown();
+  }
+
   @Override
   protected boolean shouldRetry(Exception ex) {
     // Log the exception
@@ -180,7 +218,10 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
     long startTime = System.currentTimeMillis();
 
     // Collects batch of messages for processing.
-    List<Message> messages = fetchMessages(messageId);
+    List<Message> messages = takePrefetched(messageId);
+    if (messages == null) {
+      messages = fetchMessages(messageId);
+    }
     metricsContext.gauge("tms.fetch.time.ms", System.currentTimeMillis() - startTime);
     metricsContext.increment("tms.fetch.messages", messages.size());
 
@@ -189,6 +230,11 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
       return Math.max(0L, emptyFetchDelayMillis - (System.currentTimeMillis() - startTime));
     }
 
+    // Fetch the next batch while the current batch is processed
+    if (isPrefetchEnabled()) {
+      prefetch(messages.get(messages.size() - 1).getId());
+    }
+
     startTime = System.currentTimeMillis();
 
     MessageIterator iterator = new MessageIterator(messages.iterator());
@@ -208,6 +254,41 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
     return 0L;
   }
 
+  /**
+   * Starts fetching the batch of messages after the given message id in the background.
+   */
+  private void prefetch(String fromMessageId) {
+    if (prefetchExecutor == null) {
+      prefetchExecutor = Executors.newSingleThreadExecutor(
+        Threads.createDaemonThreadFactory(getServiceName() + "-prefetch"));
+    }
+    prefetchedFrom = fromMessageId;
+    prefetched = prefetchExecutor.submit(() -> fetchMessages(fromMessageId));
+  }
+
+  /**
+   * Returns the prefetched batch of messages if it starts from the given message id, or {@code null} if there is no
+   * such batch. A prefetched batch that starts from a different message id is discarded.
+   */
+  @Nullable
+  private List<Message> takePrefetched(@Nullable String fromMessageId) throws Exception {
+    Future<List<Message>> future = prefetched;
+    if (future == null) {
+      return null;
+    }
+    prefetched = null;
+    if (!Objects.equals(fromMessageId, prefetchedFrom)) {
+      future.cancel(true);
+      return null;
+    }
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : e;
+    }
+  }
+
   /**
    * Returns the publish time encoded in the given message id.
    *
@@ -16,7 +16,9 @@
 
 package io.cdap.cdap.messaging.subscriber;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.common.utils.ImmutablePair;
@@ -26,10 +28,18 @@ import io.cdap.cdap.spi.data.StructuredTableContext;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import io.cdap.cdap.spi.data.transaction.TxCallable;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
@@ -44,6 +54,7 @@ public abstract class AbstractMessagingSubscriberService<T> extends AbstractMess
   private static final Logger LOG = LoggerFactory.getLogger(AbstractMessagingSubscriberService.class);
 
   private final int txTimeoutSeconds;
+  private ExecutorService partitionExecutor;
 
   /**
    * Constructor.
@@ -102,6 +113,33 @@ public abstract class AbstractMessagingSubscriberService<T> extends AbstractMess
     return false;
   }
 
+  /**
+   * Returns the number of partitions to process the messages of a batch in parallel. Messages are assigned to
+   * partitions by the key returned by {@link #getPartitionKey(Object)}, and the messages of each partition are
+   * processed in order, in transactions separate from the ones of the other partitions. The message id persisted
+   * after a batch is the one of the last message that all the messages before it were processed, so if a partition
+   * fails, the messages after its first unprocessed message are processed again from the next batch, even if
+   * they were already processed by other partitions. Hence processing must be idempotent when there is more than one
+   * partition. By default this method returns {@code 1}, which processes each batch in a single transaction.
+   */
+  protected int getPartitionCount() {
+    return 1;
+  }
+
+  /**
+   * Returns the key to assign the given message to a partition when there is more than one partition.
+   * Messages with the same key are processed in order. By default this method returns {@code null},
+   * which assigns all messages to the same partition.
+   *
+   * @param message the decoded message
+   * @return the partition key of the message
+   * @see #getPartitionCount()
+   */
+  @Nullable
+  protected Object getPartitionKey(T message) {
+    return null;
+  }
+
   /**
    * Processes the give list of messages. This method will be called from the same transaction as the
    * {@link #storeMessageId(StructuredTableContext, String)} call. If {@link Exception} is raised from this method,
@@ -131,9 +169,25 @@ public abstract class AbstractMessagingSubscriberService<T> extends AbstractMess
     return TransactionRunners.run(getTransactionRunner(), (TxCallable<String>) this::loadMessageId);
   }
 
+  @Override
+  protected void doShutdown() throws Exception {
+    try {
+      super.doShutdown();
+    } finally {
+      if (partitionExecutor != null) {
+        partitionExecutor.shutdownNow();
+      }
+    }
+  }
+
   @Nullable
   @Override
   protected String processMessages(Iterator<ImmutablePair<String, T>> messages) throws Exception {
+    int partitions = getPartitionCount();
+    if (partitions > 1) {
+      return processPartitioned(messages, partitions);
+    }
+
     MessageTrackingIterator iterator;
 
     // Process the notifications and record the message id of where the processing is up to.
@@ -156,6 +210,117 @@ public abstract class AbstractMessagingSubscriberService<T> extends AbstractMess
     return iterator.getLastMessageId();
   }
 
+  /**
+   * Processes a batch of messages in partitions, and persists the message id that all the messages before it were
+   * processed.
+   */
+  @Nullable
+  private String processPartitioned(Iterator<ImmutablePair<String, T>> messages, int partitions) throws Exception {
+    List<ImmutablePair<String, T>> batch = new ArrayList<>();
+    List<List<Integer>> partitionIndexes = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      partitionIndexes.add(new ArrayList<>());
+    }
+    while (messages.hasNext()) {
+      ImmutablePair<String, T> message = messages.next();
+      Object key = getPartitionKey(message.getSecond());
+      partitionIndexes.get(key == null ? 0 : Math.floorMod(key.hashCode(), partitions)).add(batch.size());
+      batch.add(message);
+    }
+    if (batch.isEmpty()) {
+      return null;
+    }
+
+    if (partitionExecutor == null) {
+      partitionExecutor = Executors.newFixedThreadPool(
+        partitions, Threads.createDaemonThreadFactory(getServiceName() + "-partition-%d"));
+    }
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (List<Integer> indexes : partitionIndexes) {
+      if (!indexes.isEmpty()) {
+        List<ImmutablePair<String, T>> partition = indexes.stream().map(batch::get).collect(Collectors.toList());
+        futures.add(partitionExecutor.submit(() -> processPartition(partition)));
+      }
+    }
+
+    // The low watermark is the message before the first message that was not processed by its partition
+    int watermark = batch.size();
+    Exception failure = null;
+    int partition = 0;
+    for (List<Integer> indexes : partitionIndexes) {
+      if (indexes.isEmpty()) {
+        continue;
+      }
+      int processed;
+      try {
+        processed = Uninterruptibles.getUninterruptibly(futures.get(partition++));
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        Exception ex = cause instanceof Exception ? (Exception) cause : e;
+        if (failure == null) {
+          failure = ex;
+        } else {
+          failure.addSuppressed(ex);
+        }
+        processed = 0;
+      }
+      if (processed < indexes.size()) {
+        watermark = Math.min(watermark, indexes.get(processed));
+      }
+    }
+
+    if (watermark == 0) {
+      if (failure != null) {
+        throw failure;
+      }
+      return null;
+    }
+    if (failure != null) {
+      LOG.warn("Failed to process message {} of topic {}. Messages from it will be processed again.",
+               batch.get(watermark).getFirst(), getTopicId(), failure);
+    }
+
+    String lastMessageId = batch.get(watermark - 1).getFirst();
+    TransactionRunners.run(getTransactionRunner(), context -> {
+      storeMessageId(context, lastMessageId);
+    }, Exception.class);
+    return lastMessageId;
+  }
+
+  /**
+   * Processes the messages of a partition in order, in as many transactions as needed.
+   *
+   * @return the number of messages processed and committed. If it is less than the number of messages, the
+   *         processing of the next message failed
+   */
+  private int processPartition(List<ImmutablePair<String, T>> messages) {
+    long timeBoundMillis = 900L * txTimeoutSeconds;
+    int processed = 0;
+    while (processed < messages.size()) {
+      Iterator<ImmutablePair<String, T>> remaining = messages.subList(processed, messages.size()).iterator();
+      MessageTrackingIterator iterator;
+      try {
+        iterator = TransactionRunners.run(getTransactionRunner(), context -> {
+          MessageTrackingIterator trackingIterator =
+            new MessageTrackingIterator(new TimeBoundIterator<>(remaining, timeBoundMillis));
+          processMessages(context, trackingIterator);
+          return trackingIterator;
+        }, Exception.class);
+      } catch (Exception e) {
+        if (processed == 0) {
+          throw Throwables.propagate(e);
+        }
+        LOG.debug("Failed to process message {} of topic {}", messages.get(processed).getFirst(), getTopicId(), e);
+        return processed;
+      }
+      if (iterator.getConsumedCount() == 0) {
+        break;
+      }
+      processed += iterator.getConsumedCount();
+    }
+    return processed;
+  }
+
   /**
    * An {@link Iterator} that remembers the message id that has been consumed up to.
    */
@@ -200,5 +365,9 @@ public abstract class AbstractMessagingSubscriberService<T> extends AbstractMess
     String getLastMessageId() {
       return lastMessageId;
     }
+
+    int getConsumedCount() {
+      return consumedCount;
+    }
   }
 }
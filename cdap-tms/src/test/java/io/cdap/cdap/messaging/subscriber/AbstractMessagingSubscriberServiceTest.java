@@ -0,0 +1,337 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.messaging.subscriber;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.api.messaging.Message;
+import io.cdap.cdap.api.messaging.MessageFetcher;
+import io.cdap.cdap.api.messaging.MessagePublisher;
+import io.cdap.cdap.api.messaging.MessagingContext;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import io.cdap.cdap.common.service.RetryStrategies;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.common.utils.Tasks;
+import io.cdap.cdap.messaging.data.MessageId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.TopicId;
+import io.cdap.cdap.spi.data.StructuredTableContext;
+import io.cdap.cdap.spi.data.transaction.TransactionException;
+import io.cdap.cdap.spi.data.transaction.TransactionRunner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Unit tests for the prefetching and partitioned processing of {@link AbstractMessagingSubscriberService}.
+ */
+public class AbstractMessagingSubscriberServiceTest {
+
+  private static final TopicId TOPIC = NamespaceId.SYSTEM.topic("test");
+
+  @Test
+  public void testPrefetch() throws Exception {
+    List<Message> messages = createMessages("p0", "p1", "p2", "p3", "p4", "p5");
+    TestSubscriberService service = new TestSubscriberService(messages, 2, true, 1, false, Collections.emptySet());
+    service.startAndWait();
+    try {
+      Tasks.waitFor(messages.get(5).getId(), service::getMessageId, 10, TimeUnit.SECONDS);
+    } finally {
+      service.stopAndWait();
+    }
+
+    Assert.assertEquals(ImmutableList.of("p0", "p1", "p2", "p3", "p4", "p5"), service.processed);
+    // each batch was fetched while the previous batch was processed, and was used without fetching it again
+    List<String> fetches = new ArrayList<>(service.fetches);
+    Assert.assertEquals(
+      ImmutableList.of("null", messages.get(1).getId(), messages.get(3).getId(), messages.get(5).getId()),
+      fetches.subList(0, 4));
+    Assert.assertEquals(1, Collections.frequency(fetches, "null"));
+    Assert.assertEquals(1, Collections.frequency(fetches, messages.get(1).getId()));
+    Assert.assertEquals(1, Collections.frequency(fetches, messages.get(3).getId()));
+  }
+
+  @Test
+  public void testPrefetchDiscarded() throws Exception {
+    List<Message> messages = createMessages("p0", "p1", "p2", "p3");
+    TestSubscriberService service = new TestSubscriberService(messages, 2, true, 1, false, ImmutableSet.of("p1"));
+    service.startAndWait();
+    try {
+      Tasks.waitFor(messages.get(3).getId(), service::getMessageId, 10, TimeUnit.SECONDS);
+    } finally {
+      service.stopAndWait();
+    }
+
+    // the first batch failed, so the batch prefetched after it was discarded and the first batch was fetched again
+    List<String> fetches = new ArrayList<>(service.fetches);
+    Assert.assertEquals(2, Collections.frequency(fetches, "null"));
+    Assert.assertEquals(ImmutableList.of(messages.get(1).getId(), messages.get(3).getId()), service.storedIds);
+    // p0 is processed again in the retried transaction
+    Assert.assertEquals(ImmutableList.of("p0", "p0", "p1", "p2", "p3"), service.processed);
+  }
+
+  @Test
+  public void testPartitionOrdering() throws Exception {
+    List<String> payloads = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      payloads.add("a" + i);
+      payloads.add("b" + i);
+      payloads.add("c" + i);
+    }
+    List<Message> messages = createMessages(payloads.toArray(new String[0]));
+    TestSubscriberService service = new TestSubscriberService(messages, 100, false, 3, false, Collections.emptySet());
+    service.startAndWait();
+    try {
+      Tasks.waitFor(messages.get(messages.size() - 1).getId(), service::getMessageId, 10, TimeUnit.SECONDS);
+    } finally {
+      service.stopAndWait();
+    }
+
+    Assert.assertEquals(payloads.size(), service.processed.size());
+    for (String key : ImmutableList.of("a", "b", "c")) {
+      // the messages of each key are processed in order
+      Assert.assertEquals(payloads.stream().filter(p -> p.startsWith(key)).collect(Collectors.toList()),
+                          service.processed.stream().filter(p -> p.startsWith(key)).collect(Collectors.toList()));
+    }
+    Assert.assertEquals(ImmutableList.of(messages.get(messages.size() - 1).getId()), service.storedIds);
+  }
+
+  @Test
+  public void testPartitionFailureWatermark() throws Exception {
+    List<Message> messages = createMessages("a0", "b0", "a1", "b1", "a2", "b2");
+    // each message is processed in its own transaction, so that b0 is committed before b1 fails
+    TestSubscriberService service = new TestSubscriberService(messages, 6, false, 2, true, ImmutableSet.of("b1"));
+    service.startAndWait();
+    try {
+      Tasks.waitFor(messages.get(5).getId(), service::getMessageId, 10, TimeUnit.SECONDS);
+    } finally {
+      service.stopAndWait();
+    }
+
+    // the first batch is only persisted up to a1, the last message before the failed b1
+    Assert.assertEquals(ImmutableList.of(messages.get(2).getId(), messages.get(5).getId()), service.storedIds);
+    // messages after the failed one are processed again, even the ones of the partition that didn't fail
+    List<String> processed = new ArrayList<>(service.processed);
+    Assert.assertEquals(2, Collections.frequency(processed, "a2"));
+    for (String payload : ImmutableList.of("a0", "b0", "a1", "b1", "b2")) {
+      Assert.assertEquals(1, Collections.frequency(processed, payload));
+    }
+    Assert.assertEquals(ImmutableList.of("b0", "b1", "b2"),
+                        processed.stream().filter(p -> p.startsWith("b")).collect(Collectors.toList()));
+  }
+
+  private static List<Message> createMessages(String... payloads) {
+    List<Message> messages = new ArrayList<>();
+    long publishTime = System.currentTimeMillis();
+    for (int i = 0; i < payloads.length; i++) {
+      byte[] rawId = new byte[MessageId.RAW_ID_SIZE];
+      MessageId.putRawId(publishTime, (short) i, 0L, (short) 0, rawId, 0);
+      messages.add(new TestMessage(Bytes.toHexString(rawId), payloads[i]));
+    }
+    return messages;
+  }
+
+  /**
+   * A {@link Message} with a given id and payload.
+   */
+  private static final class TestMessage implements Message {
+    private final String id;
+    private final String payload;
+
+    TestMessage(String id, String payload) {
+      this.id = id;
+      this.payload = payload;
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public byte[] getPayload() {
+      return payload.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * A subscriber service that fetches from a fixed list of messages, partitions them by their first character and
+   * records the messages processed. Transactions just run the given code.
+   */
+  private static final class TestSubscriberService extends AbstractMessagingSubscriberService<String> {
+    private final List<Message> messages;
+    private final boolean prefetch;
+    private final int partitions;
+    private final boolean separateTx;
+    // payloads that fail to process the first time
+    private final Set<String> failOnce;
+    // the message id of each fetch, with "null" for fetching from the beginning
+    private final List<String> fetches = new CopyOnWriteArrayList<>();
+    private final List<String> storedIds = new CopyOnWriteArrayList<>();
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    private volatile String messageId;
+
+    TestSubscriberService(List<Message> messages, int fetchSize, boolean prefetch, int partitions,
+                          boolean separateTx, Set<String> failOnce) {
+      super(TOPIC, fetchSize, 30, 10L, RetryStrategies.fixDelay(10L, TimeUnit.MILLISECONDS),
+            new NoopMetricsContext());
+      this.messages = messages;
+      this.prefetch = prefetch;
+      this.partitions = partitions;
+      this.separateTx = separateTx;
+      this.failOnce = ConcurrentHashMap.newKeySet();
+      this.failOnce.addAll(failOnce);
+    }
+
+    @Nullable
+    String getMessageId() {
+      return messageId;
+    }
+
+    @Override
+    protected boolean isPrefetchEnabled() {
+      return prefetch;
+    }
+
+    @Override
+    protected int getPartitionCount() {
+      return partitions;
+    }
+
+    @Override
+    protected Object getPartitionKey(String message) {
+      return message.substring(0, 1);
+    }
+
+    @Override
+    protected boolean shouldRunInSeparateTx(ImmutablePair<String, String> message) {
+      return separateTx;
+    }
+
+    @Override
+    protected MessagingContext getMessagingContext() {
+      return new MessagingContext() {
+        @Override
+        public MessagePublisher getMessagePublisher() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MessagePublisher getDirectMessagePublisher() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MessageFetcher getMessageFetcher() {
+          return new MessageFetcher() {
+            @Override
+            public CloseableIterator<Message> fetch(String namespace, String topic, int limit, long timestamp) {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CloseableIterator<Message> fetch(String namespace, String topic, int limit,
+                                                    @Nullable String afterMessageId) {
+              fetches.add(String.valueOf(afterMessageId));
+              List<Message> result = new ArrayList<>();
+              boolean found = afterMessageId == null;
+              for (Message message : messages) {
+                if (found && result.size() < limit) {
+                  result.add(message);
+                }
+                found = found || message.getId().equals(afterMessageId);
+              }
+              Iterator<Message> iterator = result.iterator();
+              return new CloseableIterator<Message>() {
+                @Override
+                public void close() {
+                  // no-op
+                }
+
+                @Override
+                public boolean hasNext() {
+                  return iterator.hasNext();
+                }
+
+                @Override
+                public Message next() {
+                  return iterator.next();
+                }
+              };
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    protected String decodeMessage(Message message) {
+      return message.getPayloadAsString();
+    }
+
+    @Override
+    protected TransactionRunner getTransactionRunner() {
+      return runnable -> {
+        try {
+          runnable.run(null);
+        } catch (Exception e) {
+          throw new TransactionException("Failed to run transaction", e);
+        }
+      };
+    }
+
+    @Nullable
+    @Override
+    protected String loadMessageId(StructuredTableContext context) {
+      return messageId;
+    }
+
+    @Override
+    protected void storeMessageId(StructuredTableContext context, String messageId) {
+      storedIds.add(messageId);
+      this.messageId = messageId;
+    }
+
+    @Override
+    protected void processMessages(StructuredTableContext context,
+                                   Iterator<ImmutablePair<String, String>> messages) throws Exception {
+      while (messages.hasNext()) {
+        String payload = messages.next().getSecond();
+        // vary the processing time, so that the partitions are processed in different orders
+        TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(3));
+        if (failOnce.remove(payload)) {
+          throw new IllegalStateException("Failed to process " + payload);
+        }
+        processed.add(payload);
+      }
+    }
+  }
+}